@@ -0,0 +1,199 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.configurations;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * metrics of the content compression of the rest client.<br/>
+ * the bytes of the compressed payloads are counted both compressed and uncompressed,
+ * to measure the bandwidth saved by the compression, and the bytes of the payloads sent or received
+ * without compression are counted as identity bytes.
+ * response bytes are counted while the response is read, so a response not fully read is partially counted.
+ */
+public class ContentCompressionMetrics {
+    /**
+     * prefix of all the content compression metric names.
+     */
+    public static final String METRIC_PREFIX = "restClient.compression";
+    private static final String COMPRESSED_RESPONSE_ATTRIBUTE =
+        ContentCompressionMetrics.class.getName() + ".compressedResponse";
+    private static final String IDENTITY_ENCODING = "identity";
+
+    private final Counter responseCompressedBytes;
+    private final Counter responseUncompressedBytes;
+    private final Counter responseIdentityBytes;
+    private final Counter requestCompressedBytes;
+    private final Counter requestUncompressedBytes;
+    private final Counter requestIdentityBytes;
+
+    /**
+     * Constructor for {@link ContentCompressionMetrics}.
+     *
+     * @param metricRegistry registry in which metrics are registered
+     */
+    public ContentCompressionMetrics(MetricRegistry metricRegistry) {
+        this.responseCompressedBytes = metricRegistry.counter(name("response", "compressedBytes"));
+        this.responseUncompressedBytes = metricRegistry.counter(name("response", "uncompressedBytes"));
+        this.responseIdentityBytes = metricRegistry.counter(name("response", "identityBytes"));
+        this.requestCompressedBytes = metricRegistry.counter(name("request", "compressedBytes"));
+        this.requestUncompressedBytes = metricRegistry.counter(name("request", "uncompressedBytes"));
+        this.requestIdentityBytes = metricRegistry.counter(name("request", "identityBytes"));
+    }
+
+    /**
+     * Build the full name of a content compression metric.
+     *
+     * @param names name of the metric
+     * @return metric name prefixed with {@link #METRIC_PREFIX}
+     */
+    public static String name(String... names) {
+        return MetricRegistry.name(METRIC_PREFIX, names);
+    }
+
+    /**
+     * exec chain handler counting the bytes of the responses as received,
+     * to be placed after the content decompression of the http client.
+     *
+     * @return exec chain handler
+     */
+    ExecChainHandler receivedResponseHandler() {
+        return (request, scope, chain) -> {
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                boolean compressed = isCompressed(entity.getContentEncoding());
+                if (compressed) {
+                    scope.clientContext.setAttribute(COMPRESSED_RESPONSE_ATTRIBUTE, Boolean.TRUE);
+                }
+                response.setEntity(new CountingEntity(entity,
+                    compressed ? responseCompressedBytes : responseIdentityBytes));
+            }
+            return response;
+        };
+    }
+
+    /**
+     * exec chain handler counting the bytes of the compressed responses once decompressed,
+     * to be placed before the content decompression of the http client.
+     *
+     * @return exec chain handler
+     */
+    ExecChainHandler decompressedResponseHandler() {
+        return (request, scope, chain) -> {
+            ClassicHttpResponse response = chain.proceed(request, scope);
+            if (scope.clientContext.removeAttribute(COMPRESSED_RESPONSE_ATTRIBUTE) != null
+                && response.getEntity() != null) {
+                response.setEntity(new CountingEntity(response.getEntity(), responseUncompressedBytes));
+            }
+            return response;
+        };
+    }
+
+    /**
+     * Count the bytes of a request body sent without compression.
+     *
+     * @param bytes size of the body
+     */
+    void recordRequest(long bytes) {
+        requestIdentityBytes.inc(bytes);
+    }
+
+    /**
+     * Count the bytes of a compressed request body.
+     *
+     * @param uncompressedBytes size of the body
+     * @param compressedBytes   size of the compressed body
+     */
+    void recordRequest(long uncompressedBytes, long compressedBytes) {
+        requestUncompressedBytes.inc(uncompressedBytes);
+        requestCompressedBytes.inc(compressedBytes);
+    }
+
+    private static boolean isCompressed(String contentEncoding) {
+        return contentEncoding != null && !contentEncoding.isBlank()
+            && !IDENTITY_ENCODING.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    /**
+     * entity counting the bytes read from its content.
+     */
+    private static final class CountingEntity extends HttpEntityWrapper {
+        private final Counter counter;
+
+        private CountingEntity(HttpEntity entity, Counter counter) {
+            super(entity);
+            this.counter = counter;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            InputStream content = super.getContent();
+            return content == null ? null : new CountingInputStream(content, counter);
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            try (InputStream content = getContent()) {
+                if (content != null) {
+                    content.transferTo(outStream);
+                }
+            }
+        }
+    }
+
+    /**
+     * input stream counting the bytes read.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final Counter counter;
+
+        private CountingInputStream(InputStream in, Counter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.inc();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                counter.inc(count);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.configurations;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip the request bodies larger than the configured size.<br/>
+ * smaller bodies are sent as is, as the compression would not save enough to be worth it,
+ * and so are bodies which already have a content encoding.
+ * the server must accept gzip encoded requests.
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+    private static final String GZIP_ENCODING = "gzip";
+
+    private final int minSize;
+    private final ContentCompressionMetrics compressionMetrics;
+
+    /**
+     * Constructor for {@link GzipRequestInterceptor}.
+     *
+     * @param minSize            minimum size in bytes of the request bodies to be compressed
+     * @param compressionMetrics metrics of the compressed bytes
+     */
+    public GzipRequestInterceptor(int minSize, ContentCompressionMetrics compressionMetrics) {
+        this.minSize = minSize;
+        this.compressionMetrics = compressionMetrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+        throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (body.length == 0 || body.length < minSize || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            compressionMetrics.recordRequest(body.length);
+            return execution.execute(request, body);
+        }
+        byte[] compressedBody = gzip(body);
+        compressionMetrics.recordRequest(body.length, compressedBody.length);
+        headers.set(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        if (headers.getContentLength() >= 0) {
+            headers.setContentLength(compressedBody.length);
+        }
+        return execution.execute(request, compressedBody);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+}
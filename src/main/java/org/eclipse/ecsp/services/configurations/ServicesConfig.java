@@ -18,23 +18,34 @@
 
 package org.eclipse.ecsp.services.configurations;
 
+import com.codahale.metrics.MetricRegistry;
 import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.entity.DeflateInputStreamFactory;
+import org.apache.hc.client5.http.entity.GZIPInputStreamFactory;
+import org.apache.hc.client5.http.entity.InputStreamFactory;
+import org.apache.hc.client5.http.impl.ChainElement;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
 import org.apache.hc.core5.http.io.SocketConfig;
 import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 
 /**
  * Spring configuration for configuring {@link RestTemplate}.
  * with required read-timeout, connection-timeout,
  * connection-pool, total connection, connect per route.
+ * responses are requested compressed with the configured content encodings, and decompressed
+ * while being read, request bodies are compressed only if enabled.
  */
 @Configuration
 public class ServicesConfig {
@@ -55,6 +66,15 @@ public class ServicesConfig {
     @Value("${rest.client.max.conn.per.route:2}")
     private int maxConnPerRoute;
 
+    @Value("${rest.client.compression.enabled:true}")
+    private boolean compressionEnabled;
+    @Value("${rest.client.compression.encodings:gzip,deflate}")
+    private String[] compressionEncodings;
+    @Value("${rest.client.compression.request.enabled:false}")
+    private boolean requestCompressionEnabled;
+    @Value("${rest.client.compression.request.min.size:2048}")
+    private int requestCompressionMinSize;
+
     /**
      * Configure {@link RestTemplate} based on the provided
      * read-timeout, connection-timeout,
@@ -64,8 +84,26 @@ public class ServicesConfig {
      */
     @Bean("servicesCommonRestTemplate")
     RestTemplate restTemplate(@Qualifier("servicesCommonClientHttpRequestFactory")
-                              ClientHttpRequestFactory httpRequestFactory) {
-        return new RestTemplate(httpRequestFactory);
+                              ClientHttpRequestFactory httpRequestFactory,
+                              @Qualifier("servicesCommonContentCompressionMetrics")
+                              ContentCompressionMetrics compressionMetrics) {
+        RestTemplate restTemplate = new RestTemplate(httpRequestFactory);
+        if (requestCompressionEnabled) {
+            restTemplate.getInterceptors().add(
+                new GzipRequestInterceptor(requestCompressionMinSize, compressionMetrics));
+        }
+        return restTemplate;
+    }
+
+    /**
+     * metrics of the content compression, registered in the application {@link MetricRegistry} if available.
+     *
+     * @param metricRegistryProvider provider of the application metric registry
+     * @return instance of {@link ContentCompressionMetrics}
+     */
+    @Bean("servicesCommonContentCompressionMetrics")
+    ContentCompressionMetrics contentCompressionMetrics(ObjectProvider<MetricRegistry> metricRegistryProvider) {
+        return new ContentCompressionMetrics(metricRegistryProvider.getIfAvailable(MetricRegistry::new));
     }
 
     /**
@@ -73,13 +111,15 @@ public class ServicesConfig {
      * read-timeout, connection-timeout,
      * connection-pool, total connection, connect per route.
      *
+     * @param compressionMetrics metrics of the content compression
      * @return instance of {@link ClientHttpRequestFactory}
      */
     @Bean("servicesCommonClientHttpRequestFactory")
-    public ClientHttpRequestFactory httpComponentsClientHttpRequestFactory() {
+    public ClientHttpRequestFactory httpComponentsClientHttpRequestFactory(
+            @Qualifier("servicesCommonContentCompressionMetrics") ContentCompressionMetrics compressionMetrics) {
 
         HttpComponentsClientHttpRequestFactory httpRequestFactory = new HttpComponentsClientHttpRequestFactory(
-                HttpClientBuilder.create()
+                contentCompression(HttpClientBuilder.create(), compressionMetrics)
                         .setDefaultRequestConfig(RequestConfig.custom()
                                 .setConnectionRequestTimeout(Timeout.ofMilliseconds(readTimeout))
                                 .setResponseTimeout(Timeout.ofMilliseconds(connectionRequestTimeout))
@@ -97,4 +137,39 @@ public class ServicesConfig {
 
         return httpRequestFactory;
     }
+
+    /**
+     * configure the Accept-Encoding negotiation and the decompression of the responses,
+     * the received and decompressed bytes are counted around the decompression.
+     */
+    private HttpClientBuilder contentCompression(HttpClientBuilder httpClientBuilder,
+                                                 ContentCompressionMetrics compressionMetrics) {
+        if (!compressionEnabled) {
+            return httpClientBuilder.disableContentCompression();
+        }
+        LinkedHashMap<String, InputStreamFactory> contentDecoders = new LinkedHashMap<>();
+        for (String encoding : compressionEncodings) {
+            String contentEncoding = encoding.trim().toLowerCase(Locale.ROOT);
+            switch (contentEncoding) {
+                case "gzip", "x-gzip" -> contentDecoders.put(contentEncoding, GZIPInputStreamFactory.getInstance());
+                case "deflate" -> contentDecoders.put(contentEncoding, DeflateInputStreamFactory.getInstance());
+                default -> throw new IllegalArgumentException(
+                    "Unsupported rest.client.compression.encodings content encoding: " + encoding);
+            }
+        }
+        String acceptEncoding = String.join(", ", contentDecoders.keySet());
+        return httpClientBuilder
+                .setContentDecoderRegistry(contentDecoders)
+                // the http client advertises its default encodings whatever the decoders, unless already set
+                .addExecInterceptorBefore(ChainElement.COMPRESS.name(), "acceptEncoding", (request, scope, chain) -> {
+                    if (!request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+                        request.setHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+                    }
+                    return chain.proceed(request, scope);
+                })
+                .addExecInterceptorBefore(ChainElement.COMPRESS.name(), "decompressedBytes",
+                    compressionMetrics.decompressedResponseHandler())
+                .addExecInterceptorAfter(ChainElement.COMPRESS.name(), "receivedBytes",
+                    compressionMetrics.receivedResponseHandler());
+    }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@
 
 package org.eclipse.ecsp.services.constants;
 
+import com.jayway.jsonpath.JsonPath;
 import lombok.Getter;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -137,6 +138,14 @@ public enum VehicleProfileAttribute {
     private final String name;
     @Getter
     private final Class<?> type;
+    /**
+     * -- GETTER --
+     *  get json path compiled when the attribute is loaded.
+     *
+     * @return compiled json path
+     */
+    @Getter
+    private final JsonPath compiledJsonPath;
 
     /**
      * initialize VehicleProfileAttribute.
@@ -149,6 +158,7 @@ public enum VehicleProfileAttribute {
         this.name = name;
         this.jsonPath = jsonPath;
         this.type = type;
+        this.compiledJsonPath = JsonPath.compile(jsonPath);
     }
 
     /**
@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.entities;
+
+import lombok.Getter;
+import lombok.ToString;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results of a bulk association or disassociation, in the order of the requested pairs,
+ * with the throughput of the bulk call and the latency percentiles of the single calls.
+ */
+@Getter
+@ToString
+public class VehicleAssociationBulkResult {
+    private static final double P50 = 0.5;
+    private static final double P99 = 0.99;
+    private static final double MAX = 1.0;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<VehicleAssociationResult> results;
+    private final int succeeded;
+    private final int failed;
+    private final long elapsedMillis;
+    private final double throughputPerSecond;
+    private final long p50LatencyMillis;
+    private final long p99LatencyMillis;
+    private final long maxLatencyMillis;
+
+    /**
+     * Constructor for {@link VehicleAssociationBulkResult}.
+     *
+     * @param results      results of the single calls
+     * @param elapsedNanos duration of the bulk call in nanoseconds
+     */
+    public VehicleAssociationBulkResult(List<VehicleAssociationResult> results, long elapsedNanos) {
+        this.results = Collections.unmodifiableList(results);
+        this.succeeded = (int) results.stream().filter(VehicleAssociationResult::isSuccessful).count();
+        this.failed = results.size() - succeeded;
+        this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        this.throughputPerSecond = elapsedNanos > 0 ? results.size() * NANOS_PER_SECOND / elapsedNanos : 0;
+        long[] latencies = results.stream().mapToLong(VehicleAssociationResult::getLatencyNanos).toArray();
+        Arrays.sort(latencies);
+        this.p50LatencyMillis = percentileMillis(latencies, P50);
+        this.p99LatencyMillis = percentileMillis(latencies, P99);
+        this.maxLatencyMillis = percentileMillis(latencies, MAX);
+    }
+
+    /**
+     * latency at the percentile of the sorted latencies, nearest rank.
+     */
+    private static long percentileMillis(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedLatencies.length);
+        return TimeUnit.NANOSECONDS.toMillis(sortedLatencies[Math.max(rank, 1) - 1]);
+    }
+}
@@ -0,0 +1,75 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.entities;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Result of the association or disassociation of a single user and vehicle in a bulk association.<br/>
+ * the error is the {@link org.eclipse.ecsp.services.exceptions.AssociationFailedException},
+ * {@link org.eclipse.ecsp.services.exceptions.DisassociationFailedException}
+ * or runtime exception of the call, null if it succeeded.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class VehicleAssociationResult {
+    private final String userId;
+    private final String vehicleId;
+    private final Exception error;
+    private final long latencyNanos;
+
+    /**
+     * Create the result of a successful call.
+     *
+     * @param userId       user unique identifier
+     * @param vehicleId    vehicle unique identifier
+     * @param latencyNanos duration of the call in nanoseconds
+     * @return successful result
+     */
+    public static VehicleAssociationResult success(String userId, String vehicleId, long latencyNanos) {
+        return new VehicleAssociationResult(userId, vehicleId, null, latencyNanos);
+    }
+
+    /**
+     * Create the result of a failed call.
+     *
+     * @param userId       user unique identifier
+     * @param vehicleId    vehicle unique identifier
+     * @param error        error of the call
+     * @param latencyNanos duration of the call in nanoseconds
+     * @return failed result
+     */
+    public static VehicleAssociationResult failure(String userId, String vehicleId, Exception error,
+                                                   long latencyNanos) {
+        return new VehicleAssociationResult(userId, vehicleId, error, latencyNanos);
+    }
+
+    /**
+     * check if the call was successful.
+     *
+     * @return true if the user and vehicle were associated or disassociated
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
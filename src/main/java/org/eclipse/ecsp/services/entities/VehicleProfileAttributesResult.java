@@ -0,0 +1,73 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.entities;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Result of the vehicle profile attributes lookup of a single vehicle in a bulk lookup.<br/>
+ * contains either the attribute values or the error of the lookup.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class VehicleProfileAttributesResult {
+    private final String vehicleId;
+    private final Map<VehicleProfileAttribute, Optional<String>> values;
+    private final RuntimeException error;
+
+    /**
+     * Create the result of a successful lookup.
+     *
+     * @param vehicleId vehicle unique identifier
+     * @param values    attribute values of the vehicle
+     * @return successful result
+     */
+    public static VehicleProfileAttributesResult success(String vehicleId,
+                                                         Map<VehicleProfileAttribute, Optional<String>> values) {
+        return new VehicleProfileAttributesResult(vehicleId, values, null);
+    }
+
+    /**
+     * Create the result of a failed lookup.
+     *
+     * @param vehicleId vehicle unique identifier
+     * @param error     error of the lookup
+     * @return failed result
+     */
+    public static VehicleProfileAttributesResult failure(String vehicleId, RuntimeException error) {
+        return new VehicleProfileAttributesResult(vehicleId, Collections.emptyMap(), error);
+    }
+
+    /**
+     * check if the lookup of the vehicle was successful.
+     *
+     * @return true if the attribute values are available
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
@@ -0,0 +1,34 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.exceptions;
+
+/**
+ * Exception class for vehicle profile calls rejected without calling the api,
+ * because the circuit of the endpoint is open or its bulkhead is full.
+ */
+public class VehicleProfileUnavailableException extends VehicleProfileException {
+    /**
+     * Constructor with message.
+     *
+     * @param message the error message
+     */
+    public VehicleProfileUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,418 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * thread safe in-memory cache with time to live and size bounded LRU eviction.<br/>
+ * the cache is bounded by the number of entries and optionally by the total weight of the entries,
+ * the least recently used entries are evicted first once any of the bounds is exceeded.
+ * expired entries can optionally be kept for a grace period, e.g. to be revalidated.<br/>
+ * the lookups do not lock, they only mark the entry as used. the writes are serialized by a lock,
+ * and the eviction gives a second chance to the entries used since they were last moved to the back
+ * of the eviction order, an approximation of the least recently used order.
+ *
+ * @param <K> type of the cache key
+ * @param <V> type of the cached value
+ */
+public class BoundedTtlCache<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<K, CacheEntry<K, V>> entries = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+    // eviction order, oldest first, only accessed while holding the lock
+    private final LinkedHashMap<K, CacheEntry<K, V>> evictionOrder = new LinkedHashMap<>(INITIAL_CAPACITY);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long ttlMillis;
+    private final long graceMillis;
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long totalWeight;
+
+    /**
+     * Constructor for {@link BoundedTtlCache}.
+     *
+     * @param ttlMillis  time to live of the entries in milliseconds
+     * @param maxEntries maximum number of entries
+     * @param maxWeight  maximum total weight of the entries, 0 or less for no weight bound
+     */
+    public BoundedTtlCache(long ttlMillis, int maxEntries, long maxWeight) {
+        this(ttlMillis, maxEntries, maxWeight, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for {@link BoundedTtlCache}.
+     *
+     * @param ttlMillis  time to live of the entries in milliseconds
+     * @param maxEntries maximum number of entries
+     * @param maxWeight  maximum total weight of the entries, 0 or less for no weight bound
+     * @param clock      current time in milliseconds
+     */
+    public BoundedTtlCache(long ttlMillis, int maxEntries, long maxWeight, LongSupplier clock) {
+        this(ttlMillis, 0, maxEntries, maxWeight, clock);
+    }
+
+    /**
+     * Constructor for {@link BoundedTtlCache}.
+     *
+     * @param ttlMillis   time to live of the entries in milliseconds
+     * @param graceMillis time the expired entries are kept in milliseconds, see {@link #getIncludingExpired(Object)}
+     * @param maxEntries  maximum number of entries, including the expired entries kept
+     * @param maxWeight   maximum total weight of the entries, 0 or less for no weight bound
+     * @param clock       current time in milliseconds
+     */
+    public BoundedTtlCache(long ttlMillis, long graceMillis, int maxEntries, long maxWeight, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.graceMillis = graceMillis;
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.clock = clock;
+    }
+
+    /**
+     * Fetch the value if present and not expired.
+     *
+     * @param key cache key
+     * @return cached value
+     */
+    public Optional<V> get(K key) {
+        CacheEntry<K, V> entry = entries.get(key);
+        if (entry != null && entry.expiresAt() <= clock.getAsLong()) {
+            if (entry.expiresAt() + graceMillis <= clock.getAsLong()) {
+                removeExpired(entry);
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        entry.markUsed();
+        hits.increment();
+        return Optional.of(entry.value());
+    }
+
+    /**
+     * Fetch the value if present, even if expired as long as it is within the grace period.<br/>
+     * the lookup is not counted as hit or miss.
+     *
+     * @param key cache key
+     * @return cached value
+     */
+    public Optional<V> getIncludingExpired(K key) {
+        return getIncludingExpired(key, (value, expiredMillis) -> value);
+    }
+
+    /**
+     * Fetch the value if present, even if expired as long as it is within the grace period,
+     * along with the time since it expired.<br/>
+     * the lookup is not counted as hit or miss.
+     *
+     * @param key    cache key
+     * @param mapper called with the cached value and the milliseconds since it expired, negative if not expired
+     * @param <R>    type of the result
+     * @return result of the mapper, empty if not cached
+     */
+    public <R> Optional<R> getIncludingExpired(K key, BiFunction<? super V, Long, ? extends R> mapper) {
+        CacheEntry<K, V> entry = entries.get(key);
+        long now = clock.getAsLong();
+        if (entry == null || entry.expiresAt() + graceMillis <= now) {
+            return Optional.empty();
+        }
+        entry.markUsed();
+        return Optional.ofNullable(mapper.apply(entry.value(), now - entry.expiresAt()));
+    }
+
+    /**
+     * Restart the time to live of the value, if it is still the cached value of the key.
+     *
+     * @param key   cache key
+     * @param value value expected to be cached
+     * @return true if the time to live was restarted
+     */
+    public boolean refresh(K key, V value) {
+        lock.lock();
+        try {
+            CacheEntry<K, V> entry = entries.get(key);
+            if (entry == null || entry.value() != value) {
+                return false;
+            }
+            removeEntry(key);
+            addEntry(new CacheEntry<>(key, value, entry.weight(), clock.getAsLong() + ttlMillis));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add or replace the value, evicting the least recently used entries if the cache is full.
+     *
+     * @param key    cache key
+     * @param value  value to be cached
+     * @param weight weight of the value
+     */
+    public void put(K key, V value, long weight) {
+        lock.lock();
+        try {
+            removeEntry(key);
+            evictIfRequired(1, weight);
+            addEntry(new CacheEntry<>(key, value, weight, clock.getAsLong() + ttlMillis));
+            evictIfRequired(0, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add or replace a value created earlier, e.g. restored from a second level cache,
+     * expiring once the time to live it has left since its creation is over.
+     *
+     * @param key       cache key
+     * @param value     value to be cached
+     * @param weight    weight of the value
+     * @param createdAt time the value was created in milliseconds
+     * @return true if the value has not expired yet
+     */
+    public boolean putCreatedAt(K key, V value, long weight, long createdAt) {
+        lock.lock();
+        try {
+            removeEntry(key);
+            long expiresAt = createdAt + ttlMillis;
+            evictIfRequired(1, weight);
+            addEntry(new CacheEntry<>(key, value, weight, expiresAt));
+            evictIfRequired(0, 0);
+            return expiresAt > clock.getAsLong();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the value from the cache.
+     *
+     * @param key cache key
+     * @return true if the value was present
+     */
+    public boolean invalidate(K key) {
+        lock.lock();
+        try {
+            return removeEntry(key) != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the values matching the predicate from the cache.
+     *
+     * @param predicate tested with the key and the value of every entry
+     * @return number of removed values
+     */
+    public int invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        lock.lock();
+        try {
+            int removed = 0;
+            Iterator<CacheEntry<K, V>> iterator = evictionOrder.values().iterator();
+            while (iterator.hasNext()) {
+                CacheEntry<K, V> entry = iterator.next();
+                if (predicate.test(entry.key(), entry.value())) {
+                    iterator.remove();
+                    entries.remove(entry.key());
+                    totalWeight -= entry.weight();
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove all the values from the cache.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            evictionOrder.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * number of entries in the cache, including the expired entries not yet removed.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * total weight of the entries in the cache.
+     *
+     * @return total weight
+     */
+    public long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * number of lookups which found a value.
+     *
+     * @return hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * number of lookups which did not find a value.
+     *
+     * @return miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * number of entries evicted because the cache was full.
+     *
+     * @return eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private void addEntry(CacheEntry<K, V> entry) {
+        entries.put(entry.key(), entry);
+        evictionOrder.put(entry.key(), entry);
+        totalWeight += entry.weight();
+    }
+
+    private CacheEntry<K, V> removeEntry(K key) {
+        CacheEntry<K, V> removed = evictionOrder.remove(key);
+        if (removed != null) {
+            entries.remove(key);
+            totalWeight -= removed.weight();
+        }
+        return removed;
+    }
+
+    /**
+     * remove the entry expired past the grace period, unless it was replaced in the meantime.
+     */
+    private void removeExpired(CacheEntry<K, V> entry) {
+        lock.lock();
+        try {
+            if (entries.get(entry.key()) == entry) {
+                removeEntry(entry.key());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * evict the oldest entries until the bounds are met, leaving room for the incoming entries and weight.
+     * an entry used since it was moved to the back is moved to the back again instead,
+     * at most once per entry so concurrent lookups can not delay the eviction.
+     * the room is made before adding the entry, so a new entry, not used yet, is not evicted at once.
+     */
+    private void evictIfRequired(int incomingEntries, long incomingWeight) {
+        int secondChances = evictionOrder.size();
+        while (!evictionOrder.isEmpty() && (evictionOrder.size() + incomingEntries > maxEntries
+            || (maxWeight > 0 && totalWeight + incomingWeight > maxWeight))) {
+            CacheEntry<K, V> eldest = evictionOrder.values().iterator().next();
+            evictionOrder.remove(eldest.key());
+            if (secondChances > 0 && eldest.clearUsed()) {
+                secondChances--;
+                evictionOrder.put(eldest.key(), eldest);
+            } else {
+                entries.remove(eldest.key());
+                totalWeight -= eldest.weight();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * cached value, marked as used by the lookups without locking.
+     */
+    private static final class CacheEntry<K, V> {
+        private final K key;
+        private final V value;
+        private final long weight;
+        private final long expiresAt;
+        private volatile boolean used;
+
+        private CacheEntry(K key, V value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        private K key() {
+            return key;
+        }
+
+        private V value() {
+            return value;
+        }
+
+        private long weight() {
+            return weight;
+        }
+
+        private long expiresAt() {
+            return expiresAt;
+        }
+
+        private void markUsed() {
+            // read before writing, so the lookups of a hot entry do not keep invalidating its cache line
+            if (!used) {
+                used = true;
+            }
+        }
+
+        private boolean clearUsed() {
+            boolean wasUsed = used;
+            used = false;
+            return wasUsed;
+        }
+    }
+}
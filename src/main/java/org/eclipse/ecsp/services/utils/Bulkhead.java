@@ -0,0 +1,104 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * limit of the concurrent calls to a dependency.<br/>
+ * a call waits at most the max wait time for a free slot, so a slow dependency
+ * cannot hold every thread of the caller.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMs;
+    private final Semaphore slots;
+
+    /**
+     * Constructor for {@link Bulkhead}.
+     *
+     * @param name               name of the bulkhead
+     * @param maxConcurrentCalls maximum number of concurrent calls
+     * @param maxWaitMs          maximum time in milliseconds a call waits for a free slot, 0 to not wait
+     */
+    public Bulkhead(String name, int maxConcurrentCalls, long maxWaitMs) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Bulkhead max concurrent calls must be positive");
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitMs = maxWaitMs;
+        this.slots = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    /**
+     * name of the bulkhead.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Acquire a slot for a call, waiting at most the max wait time.<br/>
+     * every acquired slot must be released with {@link #release()}.
+     *
+     * @return true if a slot was acquired
+     */
+    public boolean tryAcquire() {
+        if (maxWaitMs <= 0) {
+            return slots.tryAcquire();
+        }
+        try {
+            return slots.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Acquire a slot for a call without waiting, e.g. for a call that must not block its caller.<br/>
+     * every acquired slot must be released with {@link #release()}.
+     *
+     * @return true if a slot was acquired
+     */
+    public boolean tryAcquireWithoutWaiting() {
+        return slots.tryAcquire();
+    }
+
+    /**
+     * Release a slot acquired with {@link #tryAcquire()} or {@link #tryAcquireWithoutWaiting()}.
+     */
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * number of calls currently executing.
+     *
+     * @return concurrent calls
+     */
+    public int concurrentCalls() {
+        return maxConcurrentCalls - slots.availablePermits();
+    }
+}
@@ -0,0 +1,270 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * count based circuit breaker.<br/>
+ * the outcomes of the last calls are recorded in a sliding window, once the window has the minimum
+ * number of calls and the failure rate or the slow call rate reaches its threshold, the circuit opens
+ * and the calls are rejected for the open duration. after the open duration a limited number of trial
+ * calls are permitted, the circuit closes again if they do not reach the thresholds, otherwise it opens again.
+ */
+public class CircuitBreaker {
+    private static final int PERCENT = 100;
+
+    /**
+     * state of the circuit.
+     */
+    public enum State {
+        /**
+         * calls are permitted and recorded.
+         */
+        CLOSED,
+        /**
+         * calls are rejected.
+         */
+        OPEN,
+        /**
+         * a limited number of trial calls are permitted.
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int slowCallRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+    private final byte[] window;
+    private State state = State.CLOSED;
+    private int windowIndex;
+    private int recordedCalls;
+    private int failedCalls;
+    private int slowCalls;
+    private int permittedTrialCalls;
+    private long openedAt;
+
+    /**
+     * Constructor for {@link CircuitBreaker}.
+     *
+     * @param name                  name of the circuit
+     * @param windowSize            number of the last calls recorded
+     * @param minimumCalls          minimum number of recorded calls before the rates are evaluated
+     * @param failureRateThreshold  failure rate in percent opening the circuit
+     * @param slowCallDurationMs    duration in milliseconds from which a call is slow
+     * @param slowCallRateThreshold slow call rate in percent opening the circuit
+     * @param openDurationMs        time the circuit stays open in milliseconds
+     * @param halfOpenCalls         number of trial calls permitted once the open duration elapsed
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          long slowCallDurationMs, int slowCallRateThreshold, long openDurationMs, int halfOpenCalls) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, slowCallDurationMs, slowCallRateThreshold,
+            openDurationMs, halfOpenCalls, System::nanoTime);
+    }
+
+    /**
+     * Constructor for {@link CircuitBreaker}.
+     *
+     * @param name                  name of the circuit
+     * @param windowSize            number of the last calls recorded
+     * @param minimumCalls          minimum number of recorded calls before the rates are evaluated
+     * @param failureRateThreshold  failure rate in percent opening the circuit
+     * @param slowCallDurationMs    duration in milliseconds from which a call is slow
+     * @param slowCallRateThreshold slow call rate in percent opening the circuit
+     * @param openDurationMs        time the circuit stays open in milliseconds
+     * @param halfOpenCalls         number of trial calls permitted once the open duration elapsed
+     * @param nanoClock             current time in nanoseconds
+     * @throws IllegalArgumentException if a value is out of its range, see {@link #validate}
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          long slowCallDurationMs, int slowCallRateThreshold, long openDurationMs, int halfOpenCalls,
+                          LongSupplier nanoClock) {
+        validate(windowSize, minimumCalls, failureRateThreshold, slowCallDurationMs, slowCallRateThreshold,
+            openDurationMs, halfOpenCalls);
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMs);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.window = new byte[windowSize];
+    }
+
+    /**
+     * Validate the circuit breaker configuration.<br/>
+     * a rate threshold of 0 or a slow call duration of 0 would open the circuit on every call,
+     * and more half open calls than the window size would keep the circuit half open.
+     *
+     * @param windowSize            number of the last calls recorded
+     * @param minimumCalls          minimum number of recorded calls before the rates are evaluated
+     * @param failureRateThreshold  failure rate in percent opening the circuit
+     * @param slowCallDurationMs    duration in milliseconds from which a call is slow
+     * @param slowCallRateThreshold slow call rate in percent opening the circuit
+     * @param openDurationMs        time the circuit stays open in milliseconds
+     * @param halfOpenCalls         number of trial calls permitted once the open duration elapsed
+     * @throws IllegalArgumentException if a value is out of its range
+     */
+    public static void validate(int windowSize, int minimumCalls, int failureRateThreshold, long slowCallDurationMs,
+                                int slowCallRateThreshold, long openDurationMs, int halfOpenCalls) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Circuit breaker window size must be positive: " + windowSize);
+        }
+        if (minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Circuit breaker minimum calls must be between 1 and the window size "
+                + windowSize + ": " + minimumCalls);
+        }
+        if (halfOpenCalls < 1 || halfOpenCalls > windowSize) {
+            throw new IllegalArgumentException("Circuit breaker half open calls must be between 1 and the window size "
+                + windowSize + ": " + halfOpenCalls);
+        }
+        if (failureRateThreshold < 1 || failureRateThreshold > PERCENT) {
+            throw new IllegalArgumentException("Circuit breaker failure rate threshold must be between 1 and 100: "
+                + failureRateThreshold);
+        }
+        if (slowCallRateThreshold < 1 || slowCallRateThreshold > PERCENT) {
+            throw new IllegalArgumentException("Circuit breaker slow call rate threshold must be between 1 and 100: "
+                + slowCallRateThreshold);
+        }
+        if (slowCallDurationMs <= 0) {
+            throw new IllegalArgumentException("Circuit breaker slow call duration must be positive: "
+                + slowCallDurationMs);
+        }
+        if (openDurationMs < 0) {
+            throw new IllegalArgumentException("Circuit breaker open duration must not be negative: " + openDurationMs);
+        }
+    }
+
+    /**
+     * name of the circuit.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * current state of the circuit.
+     *
+     * @return state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && openDurationElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Acquire the permission to execute a call.<br/>
+     * every permitted call must be recorded with {@link #onResult(long, boolean)}.
+     *
+     * @return true if the call is permitted, false if the circuit is open
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (!openDurationElapsed()) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (permittedTrialCalls >= halfOpenCalls) {
+                return false;
+            }
+            permittedTrialCalls++;
+        }
+        return true;
+    }
+
+    /**
+     * Record the outcome of a permitted call.
+     *
+     * @param durationNanos duration of the call in nanoseconds
+     * @param failed        true if the call failed
+     */
+    public synchronized void onResult(long durationNanos, boolean failed) {
+        if (state == State.OPEN) {
+            return;
+        }
+        byte outcome = (byte) ((failed ? Outcome.FAILED : 0) | (durationNanos >= slowCallDurationNanos
+            ? Outcome.SLOW : 0));
+        if (recordedCalls == windowSize) {
+            byte evicted = window[windowIndex];
+            failedCalls -= evicted & Outcome.FAILED;
+            slowCalls -= (evicted & Outcome.SLOW) >> 1;
+        } else {
+            recordedCalls++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % windowSize;
+        failedCalls += outcome & Outcome.FAILED;
+        slowCalls += (outcome & Outcome.SLOW) >> 1;
+
+        if (state == State.HALF_OPEN) {
+            if (recordedCalls >= halfOpenCalls) {
+                transitionTo(thresholdReached(recordedCalls) ? State.OPEN : State.CLOSED);
+            }
+        } else if (recordedCalls >= minimumCalls && thresholdReached(recordedCalls)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean thresholdReached(int calls) {
+        return failedCalls * PERCENT >= failureRateThreshold * calls
+            || slowCalls * PERCENT >= slowCallRateThreshold * calls;
+    }
+
+    private boolean openDurationElapsed() {
+        return nanoClock.getAsLong() - openedAt >= openDurationNanos;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        if (newState == State.OPEN) {
+            openedAt = nanoClock.getAsLong();
+        }
+        windowIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        permittedTrialCalls = 0;
+    }
+
+    /**
+     * bits of a recorded call outcome.
+     */
+    private static final class Outcome {
+        static final byte FAILED = 1;
+        static final byte SLOW = 2;
+
+        private Outcome() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.jayway.jsonpath.JsonPath;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * registry of compiled json paths for on-demand vehicle profile attributes.<br/>
+ * a path is compiled on first use and the compiled {@link JsonPath} is reused afterward.
+ * once the registry holds the configured maximum number of paths,
+ * new paths are compiled on every call without being registered.
+ * the documents and the streaming extractor key their values by the path string,
+ * so a prefetched value is found by a read with another compiled instance of the same path.
+ */
+@Component
+public class JsonPathRegistry {
+    /**
+     * default maximum number of compiled json paths held by the registry.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(JsonPathRegistry.class);
+
+    private final Map<String, JsonPath> compiledPaths = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Constructor for {@link JsonPathRegistry}.
+     *
+     * @param maxSize maximum number of compiled json paths to be held
+     */
+    public JsonPathRegistry(@Value("${vehicle.profile.jsonpath.registry.max.size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Fetch the compiled json path, compile and register it if not present.
+     *
+     * @param jsonPath json path expression
+     * @return compiled json path
+     */
+    public JsonPath getJsonPath(String jsonPath) {
+        JsonPath compiledPath = compiledPaths.get(jsonPath);
+        if (compiledPath != null) {
+            return compiledPath;
+        }
+        if (compiledPaths.size() >= maxSize) {
+            LOGGER.debug("json path registry is full, max size: {}, compiling path: {}", maxSize, jsonPath);
+            return JsonPath.compile(jsonPath);
+        }
+        return compiledPaths.computeIfAbsent(jsonPath, JsonPath::compile);
+    }
+
+    /**
+     * number of json paths held by the registry.
+     *
+     * @return number of registered json paths
+     */
+    public int size() {
+        return compiledPaths.size();
+    }
+}
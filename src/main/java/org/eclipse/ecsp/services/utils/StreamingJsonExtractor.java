@@ -0,0 +1,291 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * extracts the values of definite json paths from a json document in a single streaming pass.<br/>
+ * the subtrees which are not requested are skipped without being built, and the reading stops
+ * as soon as every requested value is found, so the memory used depends on the size
+ * of the requested values and not on the size of the document.
+ * the values are converted by the json path provider, with the same types as read by {@link JsonPath}.
+ * paths which are not definite, e.g. with wildcards or filters, are not supported.
+ */
+public final class StreamingJsonExtractor {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final char SEGMENT_START = '[';
+    private static final char SEGMENT_END = ']';
+    private static final String ROOT = "$";
+    private static final int MAX_CACHED_PATHS = 1000;
+    private static final Map<String, Optional<List<Object>>> SEGMENTS = new ConcurrentHashMap<>();
+
+    private StreamingJsonExtractor() {
+    }
+
+    /**
+     * check if the value of the json path can be extracted by streaming.
+     *
+     * @param jsonPath compiled json path
+     * @return true if the json path is supported
+     */
+    public static boolean isSupported(JsonPath jsonPath) {
+        return segments(jsonPath) != null;
+    }
+
+    /**
+     * Extract the values of the json paths from the json document.
+     *
+     * @param json      json document
+     * @param jsonPaths json paths of the values, unsupported paths are ignored
+     * @return values found keyed by their json path, paths not found in the document are missing from the result
+     * @throws IOException if the json document can not be read up to the requested values
+     */
+    public static Map<JsonPath, Object> extract(String json, Collection<JsonPath> jsonPaths) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return extract(parser, jsonPaths);
+        }
+    }
+
+    /**
+     * Extract the values of the json paths from the utf-8 bytes of the json document.
+     *
+     * @param json      utf-8 bytes of the json document
+     * @param jsonPaths json paths of the values, unsupported paths are ignored
+     * @return values found keyed by their json path, paths not found in the document are missing from the result
+     * @throws IOException if the json document can not be read up to the requested values
+     */
+    public static Map<JsonPath, Object> extract(byte[] json, Collection<JsonPath> jsonPaths) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return extract(parser, jsonPaths);
+        }
+    }
+
+    /**
+     * Extract the values of the json paths from the json document stream.<br/>
+     * the stream is read only up to the last requested value, and it is not closed.
+     *
+     * @param json      json document stream
+     * @param jsonPaths json paths of the values, unsupported paths are ignored
+     * @return values found keyed by their json path, paths not found in the document are missing from the result
+     * @throws IOException if the json document can not be read up to the requested values
+     */
+    public static Map<JsonPath, Object> extract(InputStream json, Collection<JsonPath> jsonPaths) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return extract(parser, jsonPaths);
+        }
+    }
+
+    private static Map<JsonPath, Object> extract(JsonParser parser, Collection<JsonPath> jsonPaths)
+        throws IOException {
+        PathNode root = new PathNode();
+        int requested = 0;
+        for (JsonPath jsonPath : jsonPaths) {
+            List<Object> segments = segments(jsonPath);
+            if (segments != null && root.add(segments, jsonPath)) {
+                requested++;
+            }
+        }
+        Extraction extraction = new Extraction(requested);
+        if (requested > 0 && parser.nextToken() != null) {
+            extractValue(parser, root, extraction);
+        }
+        return extraction.values;
+    }
+
+    private static void extractValue(JsonParser parser, PathNode node, Extraction extraction) throws IOException {
+        if (node.paths.isEmpty()) {
+            extractChildren(parser, node, extraction);
+            return;
+        }
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            extraction.found(node, parser.getText());
+        } else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            extraction.found(node, parser.getBooleanValue());
+        } else if (token == JsonToken.VALUE_NULL) {
+            extraction.found(node, null);
+        } else {
+            String value = copyValue(parser);
+            extraction.found(node, jsonProvider().parse(value));
+            if (!node.children.isEmpty()) {
+                try (JsonParser valueParser = JSON_FACTORY.createParser(value)) {
+                    valueParser.nextToken();
+                    extractChildren(valueParser, node, extraction);
+                }
+            }
+        }
+    }
+
+    private static void extractChildren(JsonParser parser, PathNode node, Extraction extraction)
+        throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (!extraction.isComplete() && parser.nextToken() == JsonToken.FIELD_NAME) {
+                PathNode child = node.children.get(parser.getCurrentName());
+                parser.nextToken();
+                extractOrSkip(parser, child, extraction);
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            while (!extraction.isComplete() && nextArrayValue(parser)) {
+                PathNode child = node.children.get(index++);
+                extractOrSkip(parser, child, extraction);
+            }
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private static void extractOrSkip(JsonParser parser, PathNode child, Extraction extraction) throws IOException {
+        if (child == null) {
+            parser.skipChildren();
+        } else {
+            extractValue(parser, child, extraction);
+        }
+    }
+
+    private static boolean nextArrayValue(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        return token != null && token != JsonToken.END_ARRAY;
+    }
+
+    private static String copyValue(JsonParser parser) throws IOException {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * split the json path in property names and array indexes, null if the path is not supported.<br/>
+     * the split is cached by the path string, so it is reused when the same path is compiled again.
+     */
+    private static List<Object> segments(JsonPath jsonPath) {
+        Optional<List<Object>> segments = SEGMENTS.get(jsonPath.getPath());
+        if (segments == null) {
+            segments = Optional.ofNullable(split(jsonPath));
+            if (SEGMENTS.size() < MAX_CACHED_PATHS) {
+                SEGMENTS.put(jsonPath.getPath(), segments);
+            }
+        }
+        return segments.orElse(null);
+    }
+
+    /**
+     * split the normalized json path, e.g. $['data']['authorizedUsers'][0]['userId'].
+     */
+    private static List<Object> split(JsonPath jsonPath) {
+        String path = jsonPath.getPath();
+        if (!jsonPath.isDefinite() || !path.startsWith(ROOT)) {
+            return null;
+        }
+        List<Object> segments = new ArrayList<>();
+        int start = ROOT.length();
+        while (start < path.length()) {
+            int end = path.indexOf(SEGMENT_END, start);
+            if (path.charAt(start) != SEGMENT_START || end < 0) {
+                return null;
+            }
+            Object segment = segment(path.substring(start + 1, end));
+            if (segment == null) {
+                return null;
+            }
+            segments.add(segment);
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    private static Object segment(String segment) {
+        if (segment.isEmpty()) {
+            return null;
+        }
+        char quote = segment.charAt(0);
+        if (quote == '\'' || quote == '"') {
+            if (segment.length() == 1 || segment.charAt(segment.length() - 1) != quote) {
+                return null;
+            }
+            String name = segment.substring(1, segment.length() - 1);
+            boolean simpleName = name.indexOf('\'') < 0 && name.indexOf('"') < 0 && name.indexOf('\\') < 0;
+            return simpleName ? name : null;
+        }
+        return segment.chars().allMatch(Character::isDigit) ? Integer.valueOf(segment) : null;
+    }
+
+    private static JsonProvider jsonProvider() {
+        return Configuration.defaultConfiguration().jsonProvider();
+    }
+
+    /**
+     * requested paths, as a tree of property names and array indexes.
+     */
+    private static final class PathNode {
+        private final Map<Object, PathNode> children = new HashMap<>();
+        private final List<JsonPath> paths = new ArrayList<>(1);
+
+        private boolean add(List<Object> segments, JsonPath jsonPath) {
+            PathNode node = this;
+            for (Object segment : segments) {
+                node = node.children.computeIfAbsent(segment, s -> new PathNode());
+            }
+            node.paths.add(jsonPath);
+            return node.paths.size() == 1;
+        }
+    }
+
+    /**
+     * values found so far.
+     */
+    private static final class Extraction {
+        private final Map<JsonPath, Object> values = new HashMap<>();
+        private int remaining;
+
+        private Extraction(int requested) {
+            this.remaining = requested;
+        }
+
+        private void found(PathNode node, Object value) {
+            node.paths.forEach(jsonPath -> values.put(jsonPath, value));
+            remaining--;
+        }
+
+        private boolean isComplete() {
+            return remaining == 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * versions of cached values striped by key.<br/>
+ * {@link #current()} is read before fetching a value, a change of a key records the version it happened at
+ * in the stripe of the key, so the fetched value is discarded only if a key of the same stripe changed since.
+ * the version of a stripe is read and changed while holding its {@link #lock(Object)}.
+ */
+final class StripedVersions {
+    private static final int STRIPES = 1024;
+    private static final int SPREAD_SHIFT = 16;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Object[] locks = new Object[STRIPES];
+    private final long[] changedAt = new long[STRIPES];
+
+    StripedVersions() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * current version, to be read before fetching a value.
+     *
+     * @return version
+     */
+    long current() {
+        return clock.get();
+    }
+
+    /**
+     * lock of the stripe of the key.
+     *
+     * @param key key
+     * @return lock guarding the version of the stripe
+     */
+    Object lock(Object key) {
+        return locks[stripe(key)];
+    }
+
+    /**
+     * check that no key of the stripe changed since the version, the caller holds the lock of the stripe.
+     *
+     * @param key          key
+     * @param fetchVersion version read before fetching the value of the key
+     * @return true if unchanged
+     */
+    boolean unchangedSince(Object key, long fetchVersion) {
+        return changedAt[stripe(key)] <= fetchVersion;
+    }
+
+    /**
+     * record a change of the key, the caller holds the lock of the stripe.
+     *
+     * @param key key
+     */
+    void change(Object key) {
+        changedAt[stripe(key)] = clock.incrementAndGet();
+    }
+
+    /**
+     * record a change of all the keys.
+     */
+    void changeAll() {
+        long version = clock.incrementAndGet();
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (locks[i]) {
+                changedAt[i] = version;
+            }
+        }
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> SPREAD_SHIFT)) & (STRIPES - 1);
+    }
+}
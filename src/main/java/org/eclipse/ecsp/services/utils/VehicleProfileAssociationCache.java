@@ -0,0 +1,205 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.domain.AssociatedVehicle;
+import org.eclipse.ecsp.domain.AssociatedVehicles;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * cache of the vehicles associated to each user, as returned by the associated vehicles api.<br/>
+ * kept in sync by the associate and disassociate calls of {@link VehicleProfileClient}
+ * and by the authorizedUsers changes of VEHICLE_PROFILE_CHANGED_NOTIFICATION_EVENT.
+ * a disassociated vehicle is removed from the cached vehicles of the user, any other change evicts them.
+ * the cached {@link AssociatedVehicles} are shared by all the callers and must not be modified.
+ * disabled by default, enable with vehicle.profile.association.cache.enabled=true.
+ */
+@Component
+public class VehicleProfileAssociationCache {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileAssociationCache.class);
+    private static final String ASSOCIATION_CACHE_METRIC_NAME = "associationCache";
+    private static final long ENTRY_WEIGHT = 1L;
+
+    private final boolean enabled;
+    private final BoundedTtlCache<String, AssociatedVehicles> cache;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Constructor for {@link VehicleProfileAssociationCache}.
+     *
+     * @param enabled    true to enable the cache
+     * @param ttlMs      time to live of the associated vehicles of a user in milliseconds
+     * @param maxEntries maximum number of cached users
+     * @param metrics    vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileAssociationCache(@Value("${vehicle.profile.association.cache.enabled:false}")
+                                          boolean enabled,
+                                          @Value("${vehicle.profile.association.cache.ttl.ms:300000}") long ttlMs,
+                                          @Value("${vehicle.profile.association.cache.max.entries:10000}")
+                                          int maxEntries,
+                                          VehicleProfileMetrics metrics) {
+        this(enabled, ttlMs, maxEntries, metrics, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileAssociationCache}.
+     *
+     * @param enabled    true to enable the cache
+     * @param ttlMs      time to live of the associated vehicles of a user in milliseconds
+     * @param maxEntries maximum number of cached users
+     * @param metrics    vehicle profile client metrics
+     * @param clock      current time in milliseconds
+     */
+    public VehicleProfileAssociationCache(boolean enabled, long ttlMs, int maxEntries, VehicleProfileMetrics metrics,
+                                          LongSupplier clock) {
+        this.enabled = enabled;
+        this.cache = new BoundedTtlCache<>(ttlMs, maxEntries, 0, clock);
+        if (enabled) {
+            metrics.gauge(cache::hitCount, ASSOCIATION_CACHE_METRIC_NAME, "hits");
+            metrics.gauge(cache::missCount, ASSOCIATION_CACHE_METRIC_NAME, "misses");
+            metrics.gauge(cache::evictionCount, ASSOCIATION_CACHE_METRIC_NAME, "evictions");
+            metrics.gauge(cache::size, ASSOCIATION_CACHE_METRIC_NAME, "size");
+            LOGGER.info("vehicle profile association cache enabled");
+        }
+    }
+
+    /**
+     * Create a disabled association cache.
+     *
+     * @return disabled cache
+     */
+    public static VehicleProfileAssociationCache disabled() {
+        return new VehicleProfileAssociationCache(false, 0, 0, new VehicleProfileMetrics(new MetricRegistry()),
+            System::currentTimeMillis);
+    }
+
+    /**
+     * check if the cache is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fetch the cached vehicles associated to the user.
+     *
+     * @param userId user id
+     * @return associated vehicles, empty if not cached, expired or the cache is disabled
+     */
+    public Optional<AssociatedVehicles> get(String userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return cache.get(userId);
+    }
+
+    /**
+     * current version of the cache, changed on every update.<br/>
+     * read it before fetching the associated vehicles and pass it to
+     * {@link #put(String, AssociatedVehicles, long)}.
+     *
+     * @return cache version
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Cache the vehicles associated to the user, fetched at the provided cache version.<br/>
+     * they are not cached if any association changed since then, as they may be older than the change.
+     *
+     * @param userId             user id
+     * @param associatedVehicles associated vehicles
+     * @param fetchVersion       cache version read before fetching the associated vehicles
+     */
+    public void put(String userId, AssociatedVehicles associatedVehicles, long fetchVersion) {
+        if (!enabled || associatedVehicles == null) {
+            return;
+        }
+        synchronized (version) {
+            if (version.get() == fetchVersion) {
+                cache.put(userId, associatedVehicles, ENTRY_WEIGHT);
+            }
+        }
+    }
+
+    /**
+     * Remove the vehicle from the cached vehicles associated to the user.
+     *
+     * @param userId    user id
+     * @param vehicleId disassociated vehicle id
+     */
+    public void removeVehicle(String userId, String vehicleId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (version) {
+            version.incrementAndGet();
+            Optional<AssociatedVehicles> cachedVehicles = cache.get(userId);
+            if (cachedVehicles.isEmpty() || cachedVehicles.get().getData() == null) {
+                return;
+            }
+            List<AssociatedVehicle> vehicles = cachedVehicles.get().getData().stream()
+                .filter(vehicle -> !vehicleId.equals(vehicle.getVehicleId()))
+                .toList();
+            AssociatedVehicles updatedVehicles = new AssociatedVehicles();
+            updatedVehicles.setMessage(cachedVehicles.get().getMessage());
+            updatedVehicles.setData(vehicles);
+            cache.put(userId, updatedVehicles, ENTRY_WEIGHT);
+            LOGGER.debug("Removed vehicleId: {} from the cached vehicles of userId: {}", vehicleId, userId);
+        }
+    }
+
+    /**
+     * Remove the cached vehicles associated to the user.
+     *
+     * @param userId user id
+     */
+    public void invalidate(String userId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (version) {
+            version.incrementAndGet();
+            cache.invalidate(userId);
+        }
+    }
+
+    /**
+     * Remove all the cached associated vehicles.
+     */
+    public void invalidateAll() {
+        synchronized (version) {
+            version.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+}
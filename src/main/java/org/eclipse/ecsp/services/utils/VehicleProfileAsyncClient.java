@@ -0,0 +1,550 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.validation.constraints.NotBlank;
+import org.eclipse.ecsp.domain.AssociatedVehicles;
+import org.eclipse.ecsp.domain.VehicleProfile;
+import org.eclipse.ecsp.services.constants.EventAttribute;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.entities.VehicleProfileOnDemandAttribute;
+import org.eclipse.ecsp.services.exceptions.AssociationFailedException;
+import org.eclipse.ecsp.services.exceptions.DisassociationFailedException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileNotFoundException;
+import org.eclipse.ecsp.services.utils.VehicleProfileNegativeCache.LookupType;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * asynchronous utility for fetching vehicle profile details.<br/>
+ * the calls are sent with a non-blocking http client, the responses are handled
+ * by a bounded executor owned by this client, so the calling thread is never blocked.
+ * a response arriving while the executor queue is full completes its call exceptionally
+ * with a {@link RejectedExecutionException}, the http client threads never handle the responses.
+ * the calls go through the circuit breakers and bulkheads of {@link VehicleProfileResilience},
+ * without waiting for a free bulkhead slot, and are timed under the same http.&lt;endpoint&gt; metrics
+ * as {@link VehicleProfileClient}, the vehicle profiles not found are remembered by the negative cache.
+ * the retries, hedging, revalidation and stale-while-revalidate only apply to {@link VehicleProfileClient}.
+ * the values returned are the same as the ones returned by {@link VehicleProfileClient}.
+ */
+@ConditionalOnProperty(value = "vehicle.profile.async.client.enabled", havingValue = "true")
+@Component
+public class VehicleProfileAsyncClient implements DisposableBean {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileAsyncClient.class);
+    private static final String FAILED_TO_ASSOCIATED_VEHICLE = "FAILED_TO_ASSOCIATED_VEHICLE";
+    private static final String FAILED_TO_DISASSOCIATED_VEHICLE = "FAILED_TO_DISASSOCIATED_VEHICLE";
+    private static final String STATUS = "status";
+    private static final String DATA = "data";
+    private static final String USER_ID = "userId";
+    private static final String VEHICLE_ID = "vehicleId";
+    private static final String ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID =
+        "Error while querying vehicle profile for vehicleId {}: {}";
+    private static final String THREAD_NAME_PREFIX = "vehicle-profile-async-";
+    private static final String HTTP_METRIC_NAME = "http";
+    private static final String RESPONSE_BYTES = "responseBytes";
+    private static final String VEHICLE_PROFILE_CIRCUIT = "vehicleProfile";
+    private static final String ASSOCIATED_VEHICLES_CIRCUIT = "associatedVehicles";
+    private static final String ASSOCIATION_CIRCUIT = "association";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+
+    private final ExecutorService executor;
+
+    private final Duration requestTimeout;
+
+    private final VehicleProfileReader vehicleProfileReader;
+
+    private final VehicleProfileCache vehicleProfileCache;
+
+    private final VehicleProfileAssociationCache associationCache;
+
+    private final VehicleProfileNegativeCache negativeCache;
+
+    private final VehicleProfileResilience resilience;
+
+    private final VehicleProfileMetrics metrics;
+
+    private final SingleFlight<String, VehicleProfileDocument> vehicleProfileFlight;
+
+    @NotBlank
+    @Value("${http.vp.url:localhost}")
+    private String vehicleProfileEndPoint;
+
+    @NotBlank
+    @Value("${http.associated.vehicles.url:localhost}")
+    private String associatedVehiclesEndpoint;
+
+    @NotBlank
+    @Value("${http.disassociate.vehicle.url:localhost}")
+    private String disassociateVehicleUrl;
+
+    @NotBlank
+    @Value("${http.associate.vehicle.url:localhost}")
+    private String associateVehicleUrl;
+
+    /**
+     * Constructor for {@link VehicleProfileAsyncClient}.
+     *
+     * @param collaborators     caches, resilience features and metrics shared with {@link VehicleProfileClient}
+     * @param threads           number of threads handling the responses
+     * @param queueCapacity     max number of responses waiting for a thread
+     * @param connectionTimeout connection timeout in milliseconds
+     * @param readTimeout       timeout of a single call in milliseconds
+     */
+    @Autowired
+    public VehicleProfileAsyncClient(VehicleProfileClientCollaborators collaborators,
+                                     @Value("${vehicle.profile.async.client.threads:4}") int threads,
+                                     @Value("${vehicle.profile.async.client.queue.capacity:1000}")
+                                     int queueCapacity,
+                                     @Value("${rest.client.connection.timeout:3000}") int connectionTimeout,
+                                     @Value("${rest.client.read.timeout:3000}") int readTimeout) {
+        this(newExecutor(threads, queueCapacity), Duration.ofMillis(connectionTimeout),
+            Duration.ofMillis(readTimeout), collaborators);
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileAsyncClient}.
+     *
+     * @param executor          bounded executor handling the responses, shut down with this client,
+     *                          a response it rejects fails its call
+     * @param connectionTimeout connection timeout
+     * @param requestTimeout    timeout of a single call
+     * @param collaborators     caches, resilience features and metrics shared with {@link VehicleProfileClient}
+     */
+    public VehicleProfileAsyncClient(ExecutorService executor, Duration connectionTimeout, Duration requestTimeout,
+                                     VehicleProfileClientCollaborators collaborators) {
+        this.executor = executor;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(connectionTimeout)
+            .build();
+        this.requestTimeout = requestTimeout;
+        this.vehicleProfileReader = new VehicleProfileReader(objectMapper, collaborators.getJsonPathRegistry());
+        this.vehicleProfileCache = collaborators.getVehicleProfileCache();
+        this.associationCache = collaborators.getAssociationCache();
+        this.negativeCache = collaborators.getNegativeCache();
+        this.resilience = collaborators.getResilience();
+        this.metrics = collaborators.getMetrics();
+        this.vehicleProfileFlight = new SingleFlight<>(
+            metrics.counter("singleflight", "asyncVehicleProfile", "coalesced"));
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            metrics.gauge(() -> threadPoolExecutor.getQueue().size(), "async", "queue", "size");
+        }
+    }
+
+    /**
+     * fetch single vehicle profile attribute asynchronously.
+     *
+     * @param vehicleId vehicle id for which details to be fetched.
+     * @param vpa       vehicle profile attribute.
+     * @return future vehicle profile attribute value
+     */
+    public CompletableFuture<Optional<String>> getVehicleProfileAttribute(String vehicleId,
+                                                                          VehicleProfileAttribute vpa) {
+        return getVehicleProfileAttribute(vehicleId, vpa, false);
+    }
+
+    /**
+     * fetch single vehicle profile attribute asynchronously.
+     *
+     * @param vehicleId   vehicle id for which details to be fetched.
+     * @param vpa         vehicle profile attribute.
+     * @param ignoreError if true the exception,errors will be suppressed
+     * @return future vehicle profile attribute value
+     */
+    public CompletableFuture<Optional<String>> getVehicleProfileAttribute(String vehicleId,
+                                                                          VehicleProfileAttribute vpa,
+                                                                          boolean ignoreError) {
+        return getVehicleProfileDocument(vehicleId, ignoreError)
+            .thenApply(document -> vehicleProfileReader.readAttribute(document, vpa, ignoreError));
+    }
+
+    /**
+     * fetch multiple vehicle profile attributes asynchronously.
+     *
+     * @param vehicleId         vehicle id for which details to be fetched.
+     * @param ignoreError       if true the exception,errors will be suppressed
+     * @param vehicleAttributes vehicle profile attributes.
+     * @return future Map of attributes with attribute name and its value.
+     */
+    public CompletableFuture<Map<VehicleProfileAttribute, Optional<String>>> getVehicleProfileAttributes(
+        String vehicleId, boolean ignoreError, VehicleProfileAttribute... vehicleAttributes) {
+        return getVehicleProfileDocument(vehicleId, ignoreError)
+            .thenApply(document -> vehicleProfileReader.readAttributes(ignoreError, document, vehicleAttributes));
+    }
+
+    /**
+     * fetch on-demand vehicle attributes asynchronously.
+     *
+     * @param vehicleId         vehicle unique identifier
+     * @param ignoreError       ignore all error/exception while fetching the vehicle attributes.
+     * @param vehicleAttributes vehicle attributes to be fetched from vehicle profile
+     * @return future Map of vehicle attributes
+     */
+    @SuppressWarnings("java:S1452")
+    public CompletableFuture<Map<String, Optional<?>>> getVehicleProfileAttributes(
+        String vehicleId, boolean ignoreError, VehicleProfileOnDemandAttribute... vehicleAttributes) {
+        return getVehicleProfileDocument(vehicleId, ignoreError)
+            .thenApply(document -> vehicleProfileReader.readOnDemandAttributes(vehicleId, ignoreError,
+                document, vehicleAttributes));
+    }
+
+    /**
+     * Fetch vehicle profile as {@link VehicleProfile} asynchronously.
+     *
+     * @param vehicleId vehicle profile id
+     * @return future vehicle profile
+     */
+    public CompletableFuture<Optional<VehicleProfile>> getVehicleProfile(String vehicleId) {
+        return getVehicleProfileDocument(vehicleId, false)
+            .thenApply(vehicleProfileReader::readVehicleProfile);
+    }
+
+    /**
+     * Fetch list of associated vehicle to the users asynchronously.<br/>
+     * with the association cache enabled, the ids are read from the cached associated vehicles of the user,
+     * shared with the blocking client.
+     *
+     * @param userId the user id for list of associated vehicle to be fetched
+     * @return future list of vehicle ids associated to the user
+     */
+    public CompletableFuture<List<String>> getAssociatedVehicles(String userId) {
+        Optional<AssociatedVehicles> cachedVehicles = associationCache.get(userId);
+        if (cachedVehicles.isPresent()) {
+            LOGGER.debug("Associated vehicles found in cache for user: {}", userId);
+            return CompletableFuture.completedFuture(
+                vehicleProfileReader.readAssociatedVehicleIds(cachedVehicles.get()));
+        }
+        long cacheVersion = associationCache.version();
+        URI associatedVehiclesGetPath = UriComponentsBuilder.fromUriString(associatedVehiclesEndpoint)
+            .buildAndExpand(Collections.singletonMap(EventAttribute.USERID, userId))
+            .toUri();
+        LOGGER.debug("Hitting vehicle profile to get associated vehicles for user: {} and path is:{}",
+            userId, associatedVehiclesGetPath);
+        return send(ASSOCIATED_VEHICLES_CIRCUIT, "associatedVehicles", HttpRequest.newBuilder(associatedVehiclesGetPath)
+            .GET())
+            .thenApply(response -> {
+                if (!isSuccessful(response)) {
+                    throw new VehicleProfileException("Failed to find associated vehicles for the user: " + userId);
+                }
+                if (!associationCache.isEnabled()) {
+                    return vehicleProfileReader.readAssociatedVehicleIds(response.body());
+                }
+                AssociatedVehicles associatedVehicles = vehicleProfileReader.readAssociatedVehicles(response.body());
+                associationCache.put(userId, associatedVehicles, cacheVersion);
+                return vehicleProfileReader.readAssociatedVehicleIds(associatedVehicles);
+            });
+    }
+
+    /**
+     * Update vehicle profile asynchronously, internally calls vehicle profile's patch api.
+     *
+     * @param vehicleId   vehicle id for which the profile to be updated
+     * @param vp          the payload of the update
+     * @param ignoreError if true the exception,errors will be suppressed
+     * @return future response for the update request
+     */
+    public CompletableFuture<Optional<String>> updateVehicleProfile(String vehicleId, VehicleProfile vp,
+                                                                    boolean ignoreError) {
+        LOGGER.debug("Updating vehicle {} with {}", vehicleId, vp);
+        URI vehicleProfilePatchPath = UriComponentsBuilder.fromUriString(vehicleProfileEndPoint)
+            .path(vehicleId).build().toUri();
+        return sendJson(VEHICLE_PROFILE_CIRCUIT, "vehicleProfilePatch", vehicleProfilePatchPath, HttpMethod.PATCH, vp)
+            .thenApply(response -> {
+                if (isSuccessful(response)) {
+                    return Optional.ofNullable(response.body());
+                }
+                throw new VehicleProfileException("Failed to update vehicle profile for vehicleId: " + vehicleId
+                    + ", http status code: " + response.statusCode());
+            })
+            .handle((responseJson, error) -> {
+                if (error == null) {
+                    return responseJson;
+                }
+                LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId, error.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(unwrap(error));
+                }
+                return Optional.of("");
+            });
+    }
+
+    /**
+     * Associate user to vehicle profile asynchronously.<br/>
+     * the future completes exceptionally with {@link AssociationFailedException}
+     * if the association is not successful.
+     * the cached associated vehicles of the user are evicted before the future completes.
+     *
+     * @param userId    user to be associated
+     * @param vehicleId vehicle unique identifier
+     * @param status    to be sent while associated
+     * @return future true if associated successfully
+     */
+    public CompletableFuture<Boolean> associateVehicle(String userId, String vehicleId, String status) {
+        URI associateVehiclePath = UriComponentsBuilder.fromUriString(associateVehicleUrl)
+            .buildAndExpand(Collections.singletonMap(VEHICLE_ID, vehicleId))
+            .toUri();
+        LOGGER.debug("associating vehicle, endpoint:{}", associateVehiclePath);
+        Map<String, String> data = new HashMap<>();
+        data.put(USER_ID, userId);
+        data.put(STATUS, status);
+        return sendJson(ASSOCIATION_CIRCUIT, "associateVehicle", associateVehiclePath, HttpMethod.POST, data)
+            .<Boolean>thenApply(response -> {
+                if (isSuccessful(response)) {
+                    LOGGER.debug("associated vehicle:{} with user:{}", vehicleId, userId);
+                    return JsonPath.read(response.body(), DATA);
+                }
+                LOGGER.error("Failed to associating vehicle:{} with user:{},http status code:{}", vehicleId,
+                    userId, response.statusCode());
+                throw new CompletionException(new AssociationFailedException(FAILED_TO_ASSOCIATED_VEHICLE,
+                    String.format("Failed to associating vehicle:%s with user:%s", vehicleId, userId)));
+            })
+            .whenComplete((associated, error) -> associationCache.invalidate(userId));
+    }
+
+    /**
+     * Disassociate user from the vehicle profile asynchronously.<br/>
+     * the future completes exceptionally with {@link DisassociationFailedException}
+     * if the disassociation is not successful.
+     * before the future completes, the vehicle is removed from the cached associated vehicles of the user
+     * if disassociated, otherwise the cached associated vehicles of the user are evicted.
+     *
+     * @param userId    currently associated userId.
+     * @param vehicleId vehicle unique identifier
+     * @return future true if disassociated successfully
+     */
+    public CompletableFuture<Boolean> disassociateVehicle(String userId, String vehicleId) {
+        URI disassociateVehiclePath = UriComponentsBuilder.fromUriString(disassociateVehicleUrl)
+            .buildAndExpand(Collections.singletonMap(VEHICLE_ID, vehicleId))
+            .toUri();
+        LOGGER.debug("disassociating vehicle, endpoint:{}", disassociateVehiclePath);
+        return sendJson(ASSOCIATION_CIRCUIT, "disassociateVehicle", disassociateVehiclePath, HttpMethod.POST,
+                Collections.singletonMap(USER_ID, userId))
+            .thenApply(response -> {
+                if (isSuccessful(response)
+                    && Boolean.TRUE.equals(JsonPath.read(response.body(), DATA))) {
+                    LOGGER.info("disassociated vehicle:{} from user:{}", vehicleId, userId);
+                    return true;
+                }
+                LOGGER.error("Failed to disassociating vehicle:{} from user:{},http status code:{}", vehicleId,
+                    userId, response.statusCode());
+                throw new CompletionException(new DisassociationFailedException(FAILED_TO_DISASSOCIATED_VEHICLE,
+                    String.format("Failed to disassociating vehicle:%s from user:%s", vehicleId, userId)));
+            })
+            .whenComplete((disassociated, error) -> {
+                if (error == null) {
+                    associationCache.removeVehicle(userId, vehicleId);
+                } else {
+                    associationCache.invalidate(userId);
+                }
+            });
+    }
+
+    /**
+     * shut down the executor handling the responses.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Fetch the parsed vehicle profile from the near-cache if enabled,
+     * otherwise from vehicle profile api.<br/>
+     * concurrent fetches of the same vehicle share a single api call,
+     * a vehicle recently not found fails without calling the api.
+     */
+    private CompletableFuture<VehicleProfileDocument> getVehicleProfileDocument(String vehicleId,
+                                                                               boolean ignoreError) {
+        Optional<VehicleProfileDocument> cachedDocument = vehicleProfileCache.get(vehicleId);
+        if (cachedDocument.isPresent()) {
+            LOGGER.debug("Vehicle profile found in cache for vehicleId {}", vehicleId);
+            return CompletableFuture.completedFuture(cachedDocument.get());
+        }
+        CompletableFuture<VehicleProfileDocument> fetchedDocument =
+            negativeCache.isNotFound(LookupType.VEHICLE_ID, vehicleId)
+                ? CompletableFuture.failedFuture(new VehicleProfileNotFoundException(
+                    "No vehicle profile found for vehicleId: " + vehicleId))
+                : vehicleProfileFlight.executeAsync(vehicleId, () -> fetchVehicleProfileDocument(vehicleId));
+        return fetchedDocument
+            .handle((document, error) -> {
+                if (error == null) {
+                    return document;
+                }
+                LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId, error.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(unwrap(error));
+                }
+                return VehicleProfileDocument.parse("");
+            });
+    }
+
+    private CompletableFuture<VehicleProfileDocument> fetchVehicleProfileDocument(String vehicleId) {
+        long cacheVersion = vehicleProfileCache.version();
+        URI vehicleProfileGetPath = UriComponentsBuilder.fromUriString(vehicleProfileEndPoint)
+            .path(vehicleId).build().toUri();
+        return send(VEHICLE_PROFILE_CIRCUIT, "vehicleProfile", HttpRequest.newBuilder(vehicleProfileGetPath).GET(),
+            HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> {
+                final boolean notFound = isNotFound(response);
+                if (notFound) {
+                    negativeCache.putNotFound(LookupType.VEHICLE_ID, vehicleId);
+                }
+                if (!isSuccessful(response)) {
+                    throw new VehicleProfileException("Failed to find vehicle profile for vehicleId: " + vehicleId
+                        + ", http status code: " + response.statusCode());
+                }
+                byte[] responseJson = response.body();
+                LOGGER.debug("Response from vehicle profile for vehicleId {}: {} bytes", vehicleId,
+                    responseJson.length);
+                if (!vehicleProfileCache.isEnabled()) {
+                    return VehicleProfileDocument.unparsed(responseJson);
+                }
+                VehicleProfileDocument document = VehicleProfileDocument.parse(responseJson, null, null);
+                if (!notFound && document.isValid()) {
+                    vehicleProfileCache.put(vehicleId, document, responseJson.length, cacheVersion);
+                }
+                return document;
+            });
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendJson(String circuit, String endpoint, URI uri,
+                                                             HttpMethod method, Object payload) {
+        try {
+            String body = objectMapper.writeValueAsString(payload);
+            return send(circuit, endpoint, HttpRequest.newBuilder(uri)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .method(method.name(), HttpRequest.BodyPublishers.ofString(body)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new VehicleProfileException(e));
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String circuit, String endpoint,
+                                                         HttpRequest.Builder request) {
+        return send(circuit, endpoint, request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Send the request through the circuit breaker and bulkhead of the circuit,
+     * recording its latency under http.&lt;endpoint&gt;
+     * and the size of the response body under http.&lt;endpoint&gt;.responseBytes.<br/>
+     * the future completes on the executor of this client.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(String circuit, String endpoint, HttpRequest.Builder request,
+                                                        HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpRequest httpRequest = request
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+            .timeout(requestTimeout)
+            .build();
+        CompletableFuture<HttpResponse<T>> handledResponse = new CompletableFuture<>();
+        resilience.executeAsync(circuit, () -> metrics.timeAsync(() -> httpClient.sendAsync(httpRequest, bodyHandler),
+                HTTP_METRIC_NAME, endpoint))
+            .whenComplete((response, error) -> {
+                if (response != null) {
+                    recordResponseSize(endpoint, response.body());
+                }
+                try {
+                    executor.execute(() -> {
+                        if (error == null) {
+                            handledResponse.complete(response);
+                        } else {
+                            handledResponse.completeExceptionally(error);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    LOGGER.debug("Vehicle profile async client saturated, response rejected");
+                    handledResponse.completeExceptionally(e);
+                }
+            });
+        return handledResponse;
+    }
+
+    private void recordResponseSize(String endpoint, Object body) {
+        if (body instanceof byte[] bytes) {
+            metrics.histogram(HTTP_METRIC_NAME, endpoint, RESPONSE_BYTES).update(bytes.length);
+        } else if (body instanceof String text) {
+            metrics.histogram(HTTP_METRIC_NAME, endpoint, RESPONSE_BYTES).update(text.length());
+        }
+    }
+
+    private static boolean isSuccessful(HttpResponse<?> response) {
+        return HttpStatusCode.valueOf(response.statusCode()).is2xxSuccessful();
+    }
+
+    /**
+     * check if the vehicle profile api found no vehicle, i.e. answered with 404, an empty body
+     * or an empty data array.
+     */
+    private static boolean isNotFound(HttpResponse<byte[]> response) {
+        if (response.statusCode() == HttpStatus.NOT_FOUND.value()) {
+            return true;
+        }
+        return isSuccessful(response) && VehicleProfileNegativeCache.isEmptyResponse(response.body());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
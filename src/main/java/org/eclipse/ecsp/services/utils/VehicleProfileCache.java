@@ -0,0 +1,599 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * near-cache of parsed vehicle profiles keyed by vehicle id.<br/>
+ * disabled by default, enable with vehicle.profile.cache.enabled=true.
+ * with vehicle.profile.cache.revalidation.enabled=true the expired profiles having an ETag or a Last-Modified
+ * are kept for the revalidation window, to be revalidated with a conditional request instead of fetched again.
+ * with vehicle.profile.cache.stale.while.revalidate.enabled=true the expired profiles are kept for
+ * vehicle.profile.cache.max.stale.ms, served as stale while they are refreshed in the background.
+ * with vehicle.profile.circuit.breaker.enabled=true or vehicle.profile.bulkhead.enabled=true the expired profiles
+ * are kept for at least vehicle.profile.cache.stale.if.error.ms, to be served while the vehicle profile api
+ * is unavailable. any expired profile still kept is served while the api is unavailable.
+ * with a {@link VehicleProfileDiskCache} enabled the cached profiles are also written to disk,
+ * and the profiles missing from memory are read from disk, e.g. after a restart, with the time to live
+ * left since they were written. a profile read from disk past its time to live is only kept for revalidation.
+ * the disk writes are only queued while holding the lock of the vehicle, in the order of the changes,
+ * and written by the background writer of the disk cache.
+ * a cached {@link VehicleProfileDocument} is shared by all the callers and must not be modified,
+ * the client returns copies of the json objects and arrays read from it.
+ */
+@Component
+public class VehicleProfileCache implements DisposableBean {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileCache.class);
+    private static final String CACHE_METRIC_NAME = "cache";
+    private static final String THREAD_NAME_PREFIX = "vehicle-profile-refresh-";
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    private final boolean enabled;
+    private final boolean revalidationEnabled;
+    private final boolean staleWhileRevalidateEnabled;
+    private final long maxStaleMs;
+    private final BoundedTtlCache<String, VehicleProfileDocument> cache;
+    private final VehicleProfileDiskCache diskCache;
+    private final StripedVersions versions = new StripedVersions();
+    private final Counter revalidations;
+    private final Counter refreshes;
+    private final Counter refreshFailures;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor;
+
+    /**
+     * Constructor for {@link VehicleProfileCache}.<br/>
+     * outside of spring, create it with {@link #builder(VehicleProfileMetrics)}.
+     *
+     * @param enabled                     true to enable the cache
+     * @param ttlMs                       time to live of the cached profiles in milliseconds
+     * @param maxEntries                  maximum number of cached profiles, including the expired profiles kept
+     * @param maxWeightBytes              maximum total size of the cached profiles response json,
+     *                                    0 for no size bound
+     * @param revalidationEnabled         true to revalidate the expired profiles with conditional requests
+     * @param revalidationWindowMs        time the expired profiles are kept for revalidation in milliseconds
+     * @param staleWhileRevalidateEnabled true to serve the expired profiles while refreshing them in the background
+     * @param maxStaleMs                  time the expired profiles are served in milliseconds
+     * @param refreshThreads              number of threads refreshing the expired profiles
+     * @param staleIfErrorMs              time the expired profiles are kept to be served while the api is
+     *                                    unavailable in milliseconds, if the circuit breakers or bulkheads are enabled
+     * @param circuitBreakerEnabled       true if the circuit breakers of the client are enabled
+     * @param bulkheadEnabled             true if the bulkheads of the client are enabled
+     * @param diskCache                   second level cache of the profiles on disk
+     * @param metrics                     vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileCache(@Value("${vehicle.profile.cache.enabled:false}") boolean enabled,
+                               @Value("${vehicle.profile.cache.ttl.ms:300000}") long ttlMs,
+                               @Value("${vehicle.profile.cache.max.entries:10000}") int maxEntries,
+                               @Value("${vehicle.profile.cache.max.weight.bytes:0}") long maxWeightBytes,
+                               @Value("${vehicle.profile.cache.revalidation.enabled:false}")
+                               boolean revalidationEnabled,
+                               @Value("${vehicle.profile.cache.revalidation.window.ms:3600000}")
+                               long revalidationWindowMs,
+                               @Value("${vehicle.profile.cache.stale.while.revalidate.enabled:false}")
+                               boolean staleWhileRevalidateEnabled,
+                               @Value("${vehicle.profile.cache.max.stale.ms:600000}") long maxStaleMs,
+                               @Value("${vehicle.profile.cache.refresh.threads:4}") int refreshThreads,
+                               @Value("${vehicle.profile.cache.stale.if.error.ms:600000}") long staleIfErrorMs,
+                               @Value("${vehicle.profile.circuit.breaker.enabled:false}")
+                               boolean circuitBreakerEnabled,
+                               @Value("${vehicle.profile.bulkhead.enabled:false}") boolean bulkheadEnabled,
+                               VehicleProfileDiskCache diskCache,
+                               VehicleProfileMetrics metrics) {
+        this(enabled, revalidationEnabled, staleWhileRevalidateEnabled, maxStaleMs, refreshThreads,
+            new BoundedTtlCache<>(ttlMs, graceMs(revalidationEnabled ? revalidationWindowMs : 0,
+                staleWhileRevalidateEnabled ? maxStaleMs : 0, circuitBreakerEnabled || bulkheadEnabled
+                    ? staleIfErrorMs : 0), maxEntries, maxWeightBytes, System::currentTimeMillis),
+            diskCache, metrics);
+    }
+
+    private VehicleProfileCache(boolean enabled, boolean revalidationEnabled, boolean staleWhileRevalidateEnabled,
+                                long maxStaleMs, int refreshThreads,
+                                BoundedTtlCache<String, VehicleProfileDocument> cache,
+                                VehicleProfileDiskCache diskCache, VehicleProfileMetrics metrics) {
+        this.enabled = enabled;
+        this.revalidationEnabled = enabled && revalidationEnabled;
+        this.staleWhileRevalidateEnabled = enabled && staleWhileRevalidateEnabled;
+        this.maxStaleMs = maxStaleMs;
+        this.cache = cache;
+        this.diskCache = enabled ? diskCache : VehicleProfileDiskCache.disabled();
+        this.revalidations = metrics.counter(CACHE_METRIC_NAME, "revalidations");
+        this.refreshes = metrics.counter(CACHE_METRIC_NAME, "refreshes");
+        this.refreshFailures = metrics.counter(CACHE_METRIC_NAME, "refreshFailures");
+        this.refreshExecutor = this.staleWhileRevalidateEnabled ? newRefreshExecutor(refreshThreads) : null;
+        if (enabled) {
+            metrics.gauge(cache::hitCount, CACHE_METRIC_NAME, "hits");
+            metrics.gauge(cache::missCount, CACHE_METRIC_NAME, "misses");
+            metrics.gauge(cache::evictionCount, CACHE_METRIC_NAME, "evictions");
+            metrics.gauge(cache::size, CACHE_METRIC_NAME, "size");
+            metrics.gauge(cache::weight, CACHE_METRIC_NAME, "weight");
+            LOGGER.info("vehicle profile cache enabled, stale while revalidate: {}", this.staleWhileRevalidateEnabled);
+        }
+    }
+
+    /**
+     * Create a disabled vehicle profile cache.
+     *
+     * @return disabled cache
+     */
+    public static VehicleProfileCache disabled() {
+        return new VehicleProfileCache(false, false, false, 0, 0, new BoundedTtlCache<>(0, 0, 0),
+            VehicleProfileDiskCache.disabled(), new VehicleProfileMetrics(new MetricRegistry()));
+    }
+
+    /**
+     * Create a builder of an enabled cache, with revalidation, stale while revalidate and the disk cache disabled.
+     *
+     * @param metrics vehicle profile client metrics
+     * @return builder of the cache
+     */
+    public static Builder builder(VehicleProfileMetrics metrics) {
+        return new Builder(metrics);
+    }
+
+    /**
+     * check if the cache is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * check if the expired profiles are served while refreshed in the background.
+     *
+     * @return true if stale while revalidate is enabled
+     */
+    public boolean isStaleWhileRevalidateEnabled() {
+        return staleWhileRevalidateEnabled;
+    }
+
+    /**
+     * Fetch the cached vehicle profile.
+     *
+     * @param vehicleId vehicle id
+     * @return cached vehicle profile, empty if not cached, expired or the cache is disabled
+     */
+    public Optional<VehicleProfileDocument> get(String vehicleId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<VehicleProfileDocument> document = cache.get(vehicleId);
+        if (document.isPresent() || !diskCache.isEnabled()) {
+            return document;
+        }
+        long fetchVersion = version();
+        Optional<VehicleProfileDiskCache.StoredProfile> stored = diskCache.getStored(vehicleId);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        VehicleProfileDocument storedDocument = stored.get().document();
+        synchronized (versions.lock(vehicleId)) {
+            if (versions.unchangedSince(vehicleId, fetchVersion) && cache.putCreatedAt(vehicleId, storedDocument,
+                storedDocument.jsonBytes().length, stored.get().writtenAt())) {
+                return Optional.of(storedDocument);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Fetch the cached vehicle profile to be revalidated, even if expired.
+     *
+     * @param vehicleId vehicle id
+     * @return cached vehicle profile having an ETag or a Last-Modified, empty if not cached,
+     *     expired for longer than the revalidation window or the revalidation is disabled
+     */
+    public Optional<VehicleProfileDocument> getForRevalidation(String vehicleId) {
+        if (!revalidationEnabled) {
+            return Optional.empty();
+        }
+        return cache.getIncludingExpired(vehicleId).filter(VehicleProfileDocument::hasValidators);
+    }
+
+    /**
+     * Fetch the cached vehicle profile even if expired, e.g. while the vehicle profile api is unavailable.<br/>
+     * expired profiles are kept only for the revalidation window, and served only up to the max staleness
+     * if stale while revalidate is enabled.
+     *
+     * @param vehicleId vehicle id
+     * @return cached vehicle profile, empty if not cached, expired for too long or the cache is disabled
+     */
+    public Optional<VehicleProfileDocument> getStale(String vehicleId) {
+        return getStaleValue(vehicleId).map(VehicleProfileValue::getValue);
+    }
+
+    /**
+     * Fetch the cached vehicle profile even if expired, tagged with its freshness.
+     *
+     * @param vehicleId vehicle id
+     * @return cached vehicle profile, stale if expired, empty if not cached, expired for too long
+     *     or the cache is disabled
+     * @see #getStale(String)
+     */
+    public Optional<VehicleProfileValue<VehicleProfileDocument>> getStaleValue(String vehicleId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return cache.getIncludingExpired(vehicleId, (document, expiredMillis) -> {
+            if (expiredMillis < 0) {
+                return VehicleProfileValue.fresh(document);
+            }
+            if (staleWhileRevalidateEnabled && expiredMillis >= maxStaleMs) {
+                return null;
+            }
+            return VehicleProfileValue.stale(document, expiredMillis);
+        });
+    }
+
+    /**
+     * Fetch the cached vehicle profile even if expired, as long as it is kept, tagged with its freshness.<br/>
+     * used while the vehicle profile api is unavailable, the max stale time of stale while revalidate
+     * does not apply.
+     *
+     * @param vehicleId vehicle id
+     * @return cached vehicle profile, stale if expired, empty if not cached, no longer kept
+     *     or the cache is disabled
+     */
+    public Optional<VehicleProfileValue<VehicleProfileDocument>> getStaleIfErrorValue(String vehicleId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return cache.getIncludingExpired(vehicleId, (document, expiredMillis) -> expiredMillis < 0
+            ? VehicleProfileValue.fresh(document) : VehicleProfileValue.stale(document, expiredMillis));
+    }
+
+    /**
+     * Refresh the expired vehicle profile in the background.<br/>
+     * a vehicle profile is refreshed by a single task at a time,
+     * the refresh is skipped if all the refresh threads are busy and the queue is full.
+     *
+     * @param vehicleId vehicle id
+     * @param refresh   fetch of the vehicle profile, caching it
+     * @return true if the refresh was started
+     */
+    public boolean refreshInBackground(String vehicleId, Runnable refresh) {
+        if (refreshExecutor == null || !refreshing.add(vehicleId)) {
+            return false;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh.run();
+                    refreshes.inc();
+                } catch (RuntimeException e) {
+                    refreshFailures.inc();
+                    LOGGER.debug("Failed to refresh vehicle profile for vehicleId {}: {}", vehicleId, e.getMessage());
+                } finally {
+                    refreshing.remove(vehicleId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(vehicleId);
+            LOGGER.debug("Refresh queue full, not refreshing vehicle profile for vehicleId {}", vehicleId);
+            return false;
+        }
+    }
+
+    /**
+     * Restart the time to live of the cached vehicle profile after the api reported it as not modified.<br/>
+     * the time to live is not restarted if the profile was replaced, invalidated or patched
+     * since the revalidation started.
+     *
+     * @param vehicleId    vehicle id
+     * @param document     revalidated vehicle profile
+     * @param fetchVersion cache version read before revalidating the vehicle profile
+     * @return true if the time to live was restarted
+     */
+    public boolean refresh(String vehicleId, VehicleProfileDocument document, long fetchVersion) {
+        if (!revalidationEnabled) {
+            return false;
+        }
+        synchronized (versions.lock(vehicleId)) {
+            revalidations.inc();
+            if (versions.unchangedSince(vehicleId, fetchVersion) && cache.refresh(vehicleId, document)) {
+                diskCache.put(vehicleId, document);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * current version of the cache, increased on every invalidation.<br/>
+     * read it before fetching a vehicle profile and pass it to
+     * {@link #put(String, VehicleProfileDocument, long, long)},
+     * the invalidations are versioned per vehicle id so they only discard the fetches of the same vehicle.
+     *
+     * @return cache version
+     */
+    public long version() {
+        return versions.current();
+    }
+
+    /**
+     * Cache the vehicle profile.
+     *
+     * @param vehicleId    vehicle id
+     * @param document     parsed vehicle profile
+     * @param responseSize size of the vehicle profile response json
+     */
+    public void put(String vehicleId, VehicleProfileDocument document, long responseSize) {
+        if (enabled) {
+            cache.put(vehicleId, document, responseSize);
+            diskCache.put(vehicleId, document);
+        }
+    }
+
+    /**
+     * Cache the vehicle profile fetched at the provided cache version.<br/>
+     * the profile is not cached if it was invalidated or patched since then,
+     * as it may be older than the change notification.
+     *
+     * @param vehicleId    vehicle id
+     * @param document     parsed vehicle profile
+     * @param responseSize size of the vehicle profile response json
+     * @param fetchVersion cache version read before fetching the vehicle profile
+     */
+    public void put(String vehicleId, VehicleProfileDocument document, long responseSize, long fetchVersion) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (versions.lock(vehicleId)) {
+            if (versions.unchangedSince(vehicleId, fetchVersion)) {
+                cache.put(vehicleId, document, responseSize);
+                diskCache.put(vehicleId, document);
+            } else {
+                LOGGER.debug("vehicle profile changed while fetching, not caching vehicleId: {}", vehicleId);
+            }
+        }
+    }
+
+    /**
+     * Replace the provided values in the cached vehicle profile.
+     *
+     * @param vehicleId vehicle id
+     * @param changes   new values keyed by their dot separated path under the profile data
+     * @return true if the cached vehicle profile was patched, false if not cached
+     * @throws com.jayway.jsonpath.PathNotFoundException if the parent of a changed value does not exist
+     */
+    public boolean patch(String vehicleId, Map<String, Object> changes) {
+        if (!enabled) {
+            return false;
+        }
+        synchronized (versions.lock(vehicleId)) {
+            versions.change(vehicleId);
+            Optional<VehicleProfileDocument> cachedDocument = cache.get(vehicleId);
+            if (cachedDocument.isEmpty()) {
+                diskCache.remove(vehicleId);
+                return false;
+            }
+            VehicleProfileDocument patchedDocument = cachedDocument.get().patch(changes);
+            cache.put(vehicleId, patchedDocument, patchedDocument.jsonBytes().length);
+            diskCache.put(vehicleId, patchedDocument);
+            return true;
+        }
+    }
+
+    /**
+     * Remove the vehicle profile from the cache.
+     *
+     * @param vehicleId vehicle id
+     * @return true if the vehicle profile was cached
+     */
+    public boolean invalidate(String vehicleId) {
+        if (!enabled) {
+            return false;
+        }
+        synchronized (versions.lock(vehicleId)) {
+            versions.change(vehicleId);
+            diskCache.remove(vehicleId);
+            return cache.invalidate(vehicleId);
+        }
+    }
+
+    /**
+     * Remove all the vehicle profiles from the cache.
+     */
+    public void invalidateAll() {
+        versions.changeAll();
+        cache.invalidateAll();
+        diskCache.clear();
+    }
+
+    /**
+     * shut down the executor of the background refreshes.
+     */
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newRefreshExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * time the expired profiles are kept, the longest of the windows of the enabled features.
+     */
+    private static long graceMs(long revalidationWindowMs, long maxStaleMs, long staleIfErrorMs) {
+        return Math.max(staleIfErrorMs, Math.max(revalidationWindowMs, maxStaleMs));
+    }
+
+    /**
+     * builder of an enabled {@link VehicleProfileCache}, for use outside of spring.
+     */
+    public static final class Builder {
+        private static final long DEFAULT_TTL_MS = 300000L;
+        private static final int DEFAULT_MAX_ENTRIES = 10000;
+
+        private final VehicleProfileMetrics metrics;
+        private long ttlMs = DEFAULT_TTL_MS;
+        private int maxEntries = DEFAULT_MAX_ENTRIES;
+        private long maxWeightBytes;
+        private boolean revalidationEnabled;
+        private long revalidationWindowMs;
+        private boolean staleWhileRevalidateEnabled;
+        private long maxStaleMs;
+        private int refreshThreads;
+        private long staleIfErrorMs;
+        private LongSupplier clock = System::currentTimeMillis;
+        private VehicleProfileDiskCache diskCache = VehicleProfileDiskCache.disabled();
+
+        private Builder(VehicleProfileMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        /**
+         * set the time to live of the cached profiles.
+         *
+         * @param ttlMs time to live of the cached profiles in milliseconds
+         * @return this builder
+         */
+        public Builder ttlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+            return this;
+        }
+
+        /**
+         * set the maximum number of cached profiles.
+         *
+         * @param maxEntries maximum number of cached profiles, including the expired profiles kept
+         * @return this builder
+         */
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * set the maximum total size of the cached profiles.
+         *
+         * @param maxWeightBytes maximum total size of the cached profiles response json, 0 for no size bound
+         * @return this builder
+         */
+        public Builder maxWeightBytes(long maxWeightBytes) {
+            this.maxWeightBytes = maxWeightBytes;
+            return this;
+        }
+
+        /**
+         * enable the revalidation of the expired profiles with conditional requests.
+         *
+         * @param revalidationWindowMs time the expired profiles are kept for revalidation in milliseconds
+         * @return this builder
+         */
+        public Builder revalidation(long revalidationWindowMs) {
+            this.revalidationEnabled = true;
+            this.revalidationWindowMs = revalidationWindowMs;
+            return this;
+        }
+
+        /**
+         * enable serving the expired profiles while refreshing them in the background.
+         *
+         * @param maxStaleMs     time the expired profiles are served in milliseconds
+         * @param refreshThreads number of threads refreshing the expired profiles
+         * @return this builder
+         */
+        public Builder staleWhileRevalidate(long maxStaleMs, int refreshThreads) {
+            this.staleWhileRevalidateEnabled = true;
+            this.maxStaleMs = maxStaleMs;
+            this.refreshThreads = refreshThreads;
+            return this;
+        }
+
+        /**
+         * keep the expired profiles to be served while the vehicle profile api is unavailable.
+         *
+         * @param staleIfErrorMs minimum time the expired profiles are kept in milliseconds
+         * @return this builder
+         */
+        public Builder staleIfError(long staleIfErrorMs) {
+            this.staleIfErrorMs = staleIfErrorMs;
+            return this;
+        }
+
+        /**
+         * set the clock of the time to live.
+         *
+         * @param clock current time in milliseconds
+         * @return this builder
+         */
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * set the second level cache of the profiles on disk.
+         *
+         * @param diskCache second level cache of the profiles on disk
+         * @return this builder
+         */
+        public Builder diskCache(VehicleProfileDiskCache diskCache) {
+            this.diskCache = diskCache;
+            return this;
+        }
+
+        /**
+         * Create the cache.
+         *
+         * @return enabled vehicle profile cache
+         */
+        public VehicleProfileCache build() {
+            long graceMs = graceMs(revalidationEnabled ? revalidationWindowMs : 0,
+                staleWhileRevalidateEnabled ? maxStaleMs : 0, staleIfErrorMs);
+            return new VehicleProfileCache(true, revalidationEnabled, staleWhileRevalidateEnabled, maxStaleMs,
+                refreshThreads, new BoundedTtlCache<>(ttlMs, graceMs, maxEntries, maxWeightBytes, clock), diskCache,
+                metrics);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.domain.Constants;
+import org.eclipse.ecsp.domain.VehicleProfileNotificationEventDataV1_1;
+import org.eclipse.ecsp.entities.IgniteEvent;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * keeps the vehicle profile cache in sync with VEHICLE_PROFILE_CHANGED_NOTIFICATION_EVENT.<br/>
+ * when every change description of the event carries the new value,
+ * only the changed attributes of the cached profile are patched,
+ * otherwise the cached profile is evicted.
+ * the client ids of the vehicle are removed from the client id index
+ * unless the changes are known not to touch the ecus.
+ * a vehicle cached as not found is removed from the negative cache.
+ * users losing the vehicle have it removed from their cached associated vehicles,
+ * users gaining or changing an authorization have their cached associated vehicles evicted.
+ */
+@Component
+public class VehicleProfileCacheInvalidator {
+    private static final IgniteLogger LOGGER =
+        IgniteLoggerFactory.getLogger(VehicleProfileCacheInvalidator.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String ECUS_KEY = "ecus";
+
+    private final VehicleProfileCache vehicleProfileCache;
+    private final VehicleProfileClientIdIndex clientIdIndex;
+    private final VehicleProfileNegativeCache negativeCache;
+    private final VehicleProfileAssociationCache associationCache;
+
+    /**
+     * Constructor for {@link VehicleProfileCacheInvalidator}.<br/>
+     * outside of spring, create the collaborators with {@link VehicleProfileClientCollaborators#builder},
+     * the caches not set being disabled.
+     *
+     * @param collaborators caches of the vehicle profile clients to be kept in sync
+     */
+    @Autowired
+    public VehicleProfileCacheInvalidator(VehicleProfileClientCollaborators collaborators) {
+        this.vehicleProfileCache = collaborators.getVehicleProfileCache();
+        this.clientIdIndex = collaborators.getClientIdIndex();
+        this.negativeCache = collaborators.getNegativeCache();
+        this.associationCache = collaborators.getAssociationCache();
+    }
+
+    /**
+     * Patch or evict the cached vehicle profile of the vehicle in the event.<br/>
+     * events other than VEHICLE_PROFILE_CHANGED_NOTIFICATION_EVENT are ignored.
+     *
+     * @param igniteEvent VEHICLE_PROFILE_CHANGED_NOTIFICATION_EVENT
+     */
+    public void onVehicleProfileChanged(IgniteEvent igniteEvent) {
+        if (igniteEvent == null
+            || !Constants.EVENT_VEHICLE_CHANGE_NOTIFICATION.equals(igniteEvent.getEventId())) {
+            LOGGER.debug("Not a vehicle profile change notification, skipping cache invalidation");
+            return;
+        }
+        String vehicleId = igniteEvent.getVehicleId();
+        if (StringUtils.isEmpty(vehicleId)) {
+            return;
+        }
+        if (negativeCache.invalidate(VehicleProfileNegativeCache.LookupType.VEHICLE_ID, vehicleId)) {
+            LOGGER.debug("Removed not found vehicleId: {} from the negative cache", vehicleId);
+        }
+        if (associationCache.isEnabled()) {
+            syncAssociationCache(igniteEvent, vehicleId);
+        }
+        Optional<Map<String, Object>> changes = getChangedValues(igniteEvent);
+        if (changes.isEmpty() || changes.get().keySet().stream().anyMatch(key -> key.startsWith(ECUS_KEY))) {
+            int removed = clientIdIndex.invalidateVehicle(vehicleId);
+            LOGGER.debug("Removed {} indexed client ids of vehicleId: {}", removed, vehicleId);
+        }
+        if (!vehicleProfileCache.isEnabled()) {
+            return;
+        }
+        try {
+            if (changes.isPresent() && vehicleProfileCache.patch(vehicleId, changes.get())) {
+                LOGGER.debug("Patched cached vehicle profile for vehicleId: {}, changes: {}",
+                    vehicleId, changes.get().keySet());
+                return;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to patch cached vehicle profile for vehicleId: {}: {}", vehicleId,
+                e.getMessage());
+        }
+        vehicleProfileCache.invalidate(vehicleId);
+        LOGGER.debug("Evicted cached vehicle profile for vehicleId: {}", vehicleId);
+    }
+
+    /**
+     * update the cached associated vehicles of the users in the authorized users changes of the event.
+     */
+    private void syncAssociationCache(IgniteEvent igniteEvent, String vehicleId) {
+        if (!(igniteEvent.getEventData() instanceof VehicleProfileNotificationEventDataV1_1 data)
+            || data.getChangeDescriptions() == null) {
+            return;
+        }
+        for (VehicleProfileNotificationEventDataV1_1.ChangeDescription changeDescription
+            : data.getChangeDescriptions()) {
+            if (!VehicleProfileChangedNotificationEventUtil.CHANGE_DESCRIPTION_KEY
+                .equals(changeDescription.getKey())) {
+                continue;
+            }
+            Set<String> currentUsers = getUserIds(changeDescription.getChanged());
+            for (String userId : getUserIds(changeDescription.getOld())) {
+                if (!currentUsers.contains(userId)) {
+                    associationCache.removeVehicle(userId, vehicleId);
+                    LOGGER.debug("Removed vehicleId: {} from cached associated vehicles of userId: {}",
+                        vehicleId, userId);
+                }
+            }
+            currentUsers.forEach(associationCache::invalidate);
+        }
+    }
+
+    /**
+     * user ids of a list of authorized users, empty if the value is not such a list.
+     */
+    private static Set<String> getUserIds(Object authorizedUsers) {
+        Set<String> userIds = new HashSet<>();
+        if (authorizedUsers instanceof Collection<?> users) {
+            for (Object user : users) {
+                if (user instanceof Map<?, ?> userMap
+                    && userMap.get(VehicleProfileChangedNotificationEventUtil.USER_ID_KEY) instanceof String userId) {
+                    userIds.add(userId);
+                }
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * new values of the changed attributes keyed by attribute path,
+     * empty if the event does not carry the new value of every change.
+     */
+    private Optional<Map<String, Object>> getChangedValues(IgniteEvent igniteEvent) {
+        if (!(igniteEvent.getEventData() instanceof VehicleProfileNotificationEventDataV1_1 data)) {
+            return Optional.empty();
+        }
+        List<VehicleProfileNotificationEventDataV1_1.ChangeDescription> changeDescriptions =
+            data.getChangeDescriptions();
+        if (changeDescriptions == null || changeDescriptions.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, Object> changes = new HashMap<>();
+        for (VehicleProfileNotificationEventDataV1_1.ChangeDescription changeDescription : changeDescriptions) {
+            if (StringUtils.isEmpty(changeDescription.getKey()) || changeDescription.getChanged() == null) {
+                return Optional.empty();
+            }
+            try {
+                changes.put(changeDescription.getKey(), toJsonValue(changeDescription.getChanged()));
+            } catch (JsonProcessingException e) {
+                LOGGER.debug("Unable to read changed value of {}: {}", changeDescription.getKey(),
+                    e.getMessage());
+                return Optional.empty();
+            }
+        }
+        return Optional.of(changes);
+    }
+
+    /**
+     * convert the changed value to the json representation used by the cached documents.
+     */
+    private Object toJsonValue(Object changed) throws JsonProcessingException {
+        return Configuration.defaultConfiguration().jsonProvider()
+            .parse(objectMapper.writeValueAsString(changed));
+    }
+}
@@ -18,53 +18,81 @@
 
 package org.eclipse.ecsp.services.utils;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.codahale.metrics.annotation.Counted;
 import com.codahale.metrics.annotation.ExceptionMetered;
 import com.codahale.metrics.annotation.Timed;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
 import jakarta.validation.constraints.NotBlank;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.eclipse.ecsp.domain.AssociatedVehicles;
 import org.eclipse.ecsp.domain.VehicleProfile;
 import org.eclipse.ecsp.services.constants.EventAttribute;
 import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.entities.VehicleAssociationBulkResult;
+import org.eclipse.ecsp.services.entities.VehicleAssociationResult;
+import org.eclipse.ecsp.services.entities.VehicleProfileAttributesResult;
 import org.eclipse.ecsp.services.entities.VehicleProfileOnDemandAttribute;
 import org.eclipse.ecsp.services.exceptions.AssociationFailedException;
 import org.eclipse.ecsp.services.exceptions.DisassociationFailedException;
 import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileNotFoundException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileUnavailableException;
+import org.eclipse.ecsp.services.utils.VehicleProfileNegativeCache.LookupType;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
-import org.json.JSONObject;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * utility for fetching vehicle profile details.
+ * utility for fetching vehicle profile details.<br/>
+ * the per method {@link Timed}, {@link ExceptionMetered} and {@link Counted} metrics are only recorded
+ * when a metrics aspect proxies this bean, the other metrics are recorded in the registry of the collaborators.
  *
  * @author abhishekkumar
  */
 @ConditionalOnProperty(value = "vehicle.profile.client.enabled", havingValue = "true", matchIfMissing = true)
 @Component(value = "scVehicleProfileClient")
-public class VehicleProfileClient {
+public class VehicleProfileClient implements DisposableBean {
     private static final String FAILED_TO_ASSOCIATED_VEHICLE = "FAILED_TO_ASSOCIATED_VEHICLE";
     private static final String FAILED_TO_DISASSOCIATED_VEHICLE = "FAILED_TO_DISASSOCIATED_VEHICLE";
     private static final String STATUS = "status";
@@ -78,18 +106,54 @@ public class VehicleProfileClient {
     private static final String FETCHING_VEHICLE_ATTRIBUTES_FOR_VEHICLE =
             "Fetching vehicle attributes: {} for vehicle: {}";
     private static final String DATA_PATH = "$.data";
+    private static final JsonPath FIRST_VEHICLE_PROFILE_PATH = JsonPath.compile("$.data[0]");
     private static final String RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID =
-            "Response from vehicle profile for vehicleId {}: {}";
+            "Response from vehicle profile for vehicleId {}: {} bytes";
     private static final String ERROR_WHILE_QUERYING_VEHICLE_JSON_PATH =
             "Error while querying vehicle: {}, json path {}: {}";
     private static final String FETCHED_VALUES_FOR_VEHICLE =
             "Fetched values: {} for vehicle: {}";
     private static final String ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID =
             "Error while querying vehicle profile for vehicleId {}: {}";
+    private static final int DEFAULT_BULK_MAX_CONCURRENCY = 8;
+    private static final long BULK_THREAD_KEEP_ALIVE_SECONDS = 60L;
+    private static final byte[] EMPTY_RESPONSE = new byte[0];
+    private static final String HTTP_METRIC_NAME = "http";
+    private static final String EXTRACTION_METRIC_NAME = "extraction";
+    private static final String RESPONSE_BYTES = "responseBytes";
+    private static final String CACHE_METRIC_NAME = "cache";
+    private static final String BULK_ASSOCIATION_METRIC_NAME = "bulkAssociation";
+    private static final String VEHICLE_PROFILE_NOT_FOUND = "No vehicle profile found for vehicleId: ";
+    private static final String VEHICLE_PROFILE_CIRCUIT = "vehicleProfile";
+    private static final String ASSOCIATED_VEHICLES_CIRCUIT = "associatedVehicles";
+    private static final String CLIENT_ID_CIRCUIT = "vehicleProfileByClientId";
+    private static final String ASSOCIATION_CIRCUIT = "association";
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private final RestTemplate restTemplate;
     
+    private final VehicleProfileReader vehicleProfileReader;
+    
+    private final VehicleProfileCache vehicleProfileCache;
+    
+    private final VehicleProfileClientIdIndex clientIdIndex;
+    
+    private final SingleFlight<String, VehicleProfileDocument> vehicleProfileFlight;
+    
+    private final SingleFlight<String, VehicleProfileDocument> vehicleProfileWithClientIdFlight;
+    
+    private final VehicleProfileMetrics metrics;
+    
+    private final VehicleProfileResilience resilience;
+    
+    private final VehicleProfileHedging hedging;
+    
+    private final VehicleProfileRetry retry;
+    
+    private final VehicleProfileNegativeCache negativeCache;
+    
+    private final VehicleProfileAssociationCache associationCache;
+    
     @NotBlank
     @Value("${http.vp.url:localhost}")
     private String vehicleProfileEndPoint;
@@ -109,14 +173,53 @@ public class VehicleProfileClient {
     @NotBlank
     @Value("${http.associate.vehicle.url:localhost}")
     private String associateVehicleUrl;
+    
+    @Value("${http.vp.bulk.url:}")
+    private String vehicleProfileBulkEndPoint;
+    
+    @Value("${vehicle.profile.bulk.max.concurrency:8}")
+    private int bulkMaxConcurrency = DEFAULT_BULK_MAX_CONCURRENCY;
+    
+    private volatile ExecutorService bulkExecutor;
+    
+    private volatile ExecutorService associationExecutor;
+    
+    private volatile Semaphore associationPermits;
 
+    /**
+     * Constructor for {@link VehicleProfileClient} without caches and resilience features.
+     *
+     * @param restTemplate   the rest template
+     * @param metricRegistry application registry in which the client metrics are registered
+     */
+    public VehicleProfileClient(RestTemplate restTemplate, MetricRegistry metricRegistry) {
+        this(restTemplate, VehicleProfileClientCollaborators.builder(
+            new VehicleProfileMetrics(metricRegistry)).build());
+    }
+    
     /**
      * Constructor for {@link VehicleProfileClient}.
      *
-     * @param restTemplate the rest template
+     * @param restTemplate  the rest template
+     * @param collaborators caches, resilience features and metrics of the client
      */
-    public VehicleProfileClient(@Qualifier("servicesCommonRestTemplate") RestTemplate restTemplate) {
+    @Autowired
+    public VehicleProfileClient(@Qualifier("servicesCommonRestTemplate") RestTemplate restTemplate,
+                                VehicleProfileClientCollaborators collaborators) {
         this.restTemplate = restTemplate;
+        this.vehicleProfileReader = new VehicleProfileReader(objectMapper, collaborators.getJsonPathRegistry());
+        this.vehicleProfileCache = collaborators.getVehicleProfileCache();
+        this.clientIdIndex = collaborators.getClientIdIndex();
+        this.metrics = collaborators.getMetrics();
+        this.resilience = collaborators.getResilience();
+        this.hedging = collaborators.getHedging();
+        this.retry = collaborators.getRetry();
+        this.negativeCache = collaborators.getNegativeCache();
+        this.associationCache = collaborators.getAssociationCache();
+        this.vehicleProfileFlight = new SingleFlight<>(
+            metrics.counter("singleflight", "vehicleProfile", "coalesced"));
+        this.vehicleProfileWithClientIdFlight = new SingleFlight<>(
+            metrics.counter("singleflight", "vehicleProfileWithClientId", "coalesced"));
     }
     
     /**
@@ -128,9 +231,9 @@ public class VehicleProfileClient {
      * @param vpa      vehicle profile attribute name
      * @return vehicle profile attribute value
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttrWithClientId-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttrWithClientId-exceptions")
+    @Counted(name = "getVehicleProfileAttrWithClientId-counted")
     public Optional<String> getVehicleProfileAttrWithClientId(String clientId,
                                                               VehicleProfileAttribute vpa) {
         return getVehicleProfileAttrWithClientId(clientId, vpa, false);
@@ -146,18 +249,18 @@ public class VehicleProfileClient {
      * @param ignoreError if true the exception,errors will be suppressed
      * @return vehicle profile attribute value
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttrWithClientId-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttrWithClientId-exceptions")
+    @Counted(name = "getVehicleProfileAttrWithClientId-counted")
     public Optional<String> getVehicleProfileAttrWithClientId(String clientId,
                                                               VehicleProfileAttribute vpa,
                                                               boolean ignoreError) {
         LOGGER.debug(FETCHING_FOR_VEHICLE, vpa, clientId);
         String value = "";
-        String responseJson = "";
-        String jsonPath = "$.data[0].vehicleAttributes.name";
         try {
-            responseJson = invokeVehicleProfileWithClientIdGetRestApi(clientId);
+            VehicleProfileDocument document = getVehicleProfileDocumentWithClientId(clientId);
+            value = metrics.time(() -> document.read(VehicleProfileAttribute.NAME),
+                EXTRACTION_METRIC_NAME, "getVehicleProfileAttrWithClientId");
         } catch (Exception e) {
             LOGGER.debug("Error while querying vehicle profile for clientId {}: {}", clientId,
                 e.getMessage());
@@ -166,19 +269,6 @@ public class VehicleProfileClient {
             }
         }
         
-        LOGGER.trace("Response from vehicle profile endpoint for clientId {}: {}", clientId,
-            responseJson);
-        
-        try {
-            
-            value = JsonPath.read(responseJson, jsonPath);
-        } catch (Exception e) {
-            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, vpa.getJsonPath(), e.getMessage());
-            if (!ignoreError) {
-                throw new VehicleProfileException(e);
-            }
-        }
-        
         LOGGER.debug("Fetched ({}: {}) for vehicle: {}", vpa, value, clientId);
         return Optional.ofNullable(value);
     }
@@ -191,9 +281,9 @@ public class VehicleProfileClient {
      * @param vpa       vehicle profile attribute.
      * @return vehicle profile attribute value
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttribute-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttribute-exceptions")
+    @Counted(name = "getVehicleProfileAttribute-counted")
     public Optional<String> getVehicleProfileAttribute(String vehicleId,
                                                        VehicleProfileAttribute vpa) {
         return getVehicleProfileAttribute(vehicleId, vpa, false);
@@ -208,26 +298,19 @@ public class VehicleProfileClient {
      * @param ignoreError if true the exception,errors will be suppressed
      * @return vehicle profile attribute value
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttribute-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttribute-exceptions")
+    @Counted(name = "getVehicleProfileAttribute-counted")
     public Optional<String> getVehicleProfileAttribute(String vehicleId, VehicleProfileAttribute vpa,
                                                        boolean ignoreError) {
         LOGGER.debug(FETCHING_FOR_VEHICLE, vpa, vehicleId);
-        String value = "";
-        String responseJson = invokeVehicleProfileGetRestApi(vehicleId, ignoreError);
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, ignoreError);
         
-        try {
-            value = JsonPath.read(responseJson, vpa.getJsonPath());
-        } catch (Exception e) {
-            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, vpa.getJsonPath(), e.getMessage());
-            if (!ignoreError) {
-                throw new VehicleProfileException(e);
-            }
-        }
+        Optional<String> value = metrics.time(() -> vehicleProfileReader.readAttribute(document, vpa, ignoreError),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttribute");
         
-        LOGGER.debug("Fetched ({}: {}) for vehicle: {}", vpa, value, vehicleId);
-        return Optional.ofNullable(value);
+        LOGGER.debug("Fetched ({}: {}) for vehicle: {}", vpa, value.orElse(null), vehicleId);
+        return value;
     }
     
     /**
@@ -238,9 +321,9 @@ public class VehicleProfileClient {
      * @param vehicleAttributes vehicle profile attributes.
      * @return Map of attributes with attribute name and its value.
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttributes-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributes-exceptions")
+    @Counted(name = "getVehicleProfileAttributes-counted")
     public Map<VehicleProfileAttribute, Optional<String>> getVehicleProfileAttributes(
         String vehicleId,
         VehicleProfileAttribute... vehicleAttributes) {
@@ -257,18 +340,18 @@ public class VehicleProfileClient {
      * @param vehicleAttributes vehicle profile attributes.
      * @return Map of attributes with attribute name and its value.
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttributes-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributes-exceptions")
+    @Counted(name = "getVehicleProfileAttributes-counted")
     public Map<VehicleProfileAttribute, Optional<String>> getVehicleProfileAttributes(
         String vehicleId, boolean ignoreError,
         VehicleProfileAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_FOR_VEHICLE, Arrays.toString(vehicleAttributes), vehicleId);
-        String responseJson = invokeVehicleProfileGetRestApi(vehicleId, ignoreError);
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, ignoreError);
         
-        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals =
-            createvehicleProfileVals(ignoreError,
-                responseJson, vehicleAttributes);
+        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals = metrics.time(
+            () -> vehicleProfileReader.readAttributes(ignoreError, document, vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttributes");
         
         LOGGER.debug(FETCHING_FOR_VEHICLE, vehicleProfileVals, vehicleId);
         return vehicleProfileVals;
@@ -287,78 +370,166 @@ public class VehicleProfileClient {
      * @return Map of vehicle attributes
      */
     @SuppressWarnings("java:S1452")
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileOnDemandAttributes-timed")
+    @ExceptionMetered(name = "getVehicleProfileOnDemandAttributes-exceptions")
+    @Counted(name = "getVehicleProfileOnDemandAttributes-counted")
     public Map<String, Optional<?>> getVehicleProfileAttributes(String vehicleId,
                                                                 boolean ignoreError,
                                                                 VehicleProfileOnDemandAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_VEHICLE_ATTRIBUTES_FOR_VEHICLE,
             Arrays.toString(vehicleAttributes), vehicleId);
         
-        String responseJson = invokeVehicleProfileGetRestApi(vehicleId, ignoreError);
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, ignoreError);
         
-        Map<String, Optional<?>> vehicleProfileVals = new HashMap<>();
-        for (VehicleProfileOnDemandAttribute v : vehicleAttributes) {
-            try {
-                Object jsonValue = JsonPath.read(responseJson, v.getJsonPath());
-                switch (v.getType().getSimpleName()) {
-                    case "String":
-                        vehicleProfileVals.put(v.getName(), Optional.ofNullable((String) jsonValue));
-                        break;
-                    case "Boolean":
-                        vehicleProfileVals.put(v.getName(),
-                            Optional.of(
-                                jsonValue == null ? Boolean.FALSE : Boolean.valueOf(jsonValue.toString())));
-                        break;
-                    case "HashSet":
-                        if (jsonValue instanceof net.minidev.json.JSONArray jsonData) {
-                            vehicleProfileVals.put(v.getName(), Optional.ofNullable(
-                                    jsonData.stream().map(Object::toString)
-                                    .collect(Collectors.toSet())));
-                        }
-                        break;
-                    case "Object":
-                    default:
-                        vehicleProfileVals.put(v.getName(), Optional.ofNullable(jsonValue));
-                        break;
+        Map<String, Optional<?>> vehicleProfileVals = metrics.time(
+            () -> vehicleProfileReader.readOnDemandAttributes(vehicleId, ignoreError, document, vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileOnDemandAttributes");
+        
+        LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
+        return vehicleProfileVals;
+    }
+    
+    /**
+     * fetch vehicle profile attributes, tagged with their freshness.<br/>
+     * with vehicle.profile.cache.stale.while.revalidate.enabled=true the attributes of an expired
+     * cached profile are returned at once as stale, while the profile is refreshed in the background.
+     *
+     * @param vehicleId         vehicle profile id
+     * @param ignoreError       if true the exception,errors will be suppressed
+     * @param vehicleAttributes vehicle profile attributes.
+     * @return Map of attributes with attribute name and its value, with the freshness of the profile.
+     */
+    @Timed(name = "getVehicleProfileAttributesWithFreshness-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributesWithFreshness-exceptions")
+    @Counted(name = "getVehicleProfileAttributesWithFreshness-counted")
+    public VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>>
+        getVehicleProfileAttributesWithFreshness(String vehicleId, boolean ignoreError,
+                                                 VehicleProfileAttribute... vehicleAttributes) {
+        LOGGER.debug(FETCHING_FOR_VEHICLE, Arrays.toString(vehicleAttributes), vehicleId);
+        VehicleProfileValue<VehicleProfileDocument> document = getVehicleProfileValue(vehicleId, ignoreError);
+        
+        VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>> vehicleProfileVals = metrics.time(
+            () -> document.map(value -> vehicleProfileReader.readAttributes(ignoreError, value, vehicleAttributes)),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttributesWithFreshness");
+        
+        LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
+        return vehicleProfileVals;
+    }
+    
+    /**
+     * fetch the same vehicle profile attributes for multiple vehicles.<br/>
+     * the vehicle profiles are fetched in parallel, at most vehicle.profile.bulk.max.concurrency
+     * at a time across all the bulk lookups. a failed vehicle is reported in its own result
+     * and does not fail the lookup of the other vehicles.
+     *
+     * @param vehicleIds        vehicle ids for which details to be fetched.
+     * @param vehicleAttributes vehicle profile attributes.
+     * @return Map of vehicle id and the result of its lookup, in the order of the vehicle ids.
+     */
+    @Timed(name = "getVehicleProfileAttributesForVehicles-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributesForVehicles-exceptions")
+    @Counted(name = "getVehicleProfileAttributesForVehicles-counted")
+    public Map<String, VehicleProfileAttributesResult> getVehicleProfileAttributesForVehicles(
+        Collection<String> vehicleIds, Set<VehicleProfileAttribute> vehicleAttributes) {
+        LOGGER.debug("Fetching {} for {} vehicles", vehicleAttributes, vehicleIds.size());
+        VehicleProfileAttribute[] attributes = vehicleAttributes.toArray(new VehicleProfileAttribute[0]);
+        ExecutorService executor = getBulkExecutor();
+        Map<String, CompletableFuture<VehicleProfileAttributesResult>> lookups = new LinkedHashMap<>();
+        for (String vehicleId : vehicleIds) {
+            lookups.computeIfAbsent(vehicleId, id -> CompletableFuture.supplyAsync(
+                () -> lookupVehicleProfileAttributes(id, attributes), executor));
+        }
+        Map<String, VehicleProfileAttributesResult> results = new LinkedHashMap<>();
+        lookups.forEach((vehicleId, lookup) -> results.put(vehicleId, lookup.join()));
+        return results;
+    }
+    
+    private VehicleProfileAttributesResult lookupVehicleProfileAttributes(String vehicleId,
+                                                                          VehicleProfileAttribute... attributes) {
+        try {
+            return VehicleProfileAttributesResult.success(vehicleId,
+                getVehicleProfileAttributes(vehicleId, false, attributes));
+        } catch (RuntimeException e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId, e.getMessage());
+            return VehicleProfileAttributesResult.failure(vehicleId, e);
+        }
+    }
+    
+    private ExecutorService getBulkExecutor() {
+        ExecutorService executor = bulkExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (bulkExecutor == null) {
+                    bulkExecutor = newBulkExecutor(bulkMaxConcurrency, "vehicle-profile-bulk-");
                 }
-                
-            } catch (Exception e) {
-                LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_JSON_PATH, vehicleId,
-                    v.getJsonPath(), e.getMessage());
-                if (!ignoreError) {
-                    throw new VehicleProfileException(e);
-                } else {
-                    vehicleProfileVals.put(v.getName(), Optional.empty());
+                executor = bulkExecutor;
+            }
+        }
+        return executor;
+    }
+    
+    /**
+     * executor of the bulk associations and disassociations, separate from the bulk lookups
+     * so that a large bulk association cannot starve them.
+     */
+    private ExecutorService getAssociationExecutor() {
+        ExecutorService executor = associationExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (associationExecutor == null) {
+                    associationPermits = new Semaphore(bulkMaxConcurrency);
+                    associationExecutor = newBulkExecutor(bulkMaxConcurrency, "vehicle-profile-association-");
                 }
+                executor = associationExecutor;
             }
         }
-        
-        LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
-        return vehicleProfileVals;
+        return executor;
+    }
+    
+    private static ExecutorService newBulkExecutor(int maxConcurrency, String threadNamePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+            BULK_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
     
     /**
-     * Fetch list of associated vehicle to the users.
+     * shut down the bulk executors, the already submitted lookups and associations still complete.
+     */
+    @Override
+    public void destroy() {
+        if (bulkExecutor != null) {
+            bulkExecutor.shutdown();
+        }
+        if (associationExecutor != null) {
+            associationExecutor.shutdown();
+        }
+    }
+    
+    /**
+     * Fetch list of associated vehicle to the users.<br/>
+     * with the association cache enabled, the ids are read from the cached associated vehicles of the user.
      *
      * @param userId the user id for list of associated vehicle to be fetched
      * @return list of vehicle ids associated to the user
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getAssociatedVehicles-timed")
+    @ExceptionMetered(name = "getAssociatedVehicles-exceptions")
+    @Counted(name = "getAssociatedVehicles-counted")
     public List<String> getAssociatedVehicles(String userId) {
         LOGGER.debug("Fetching list of associated vehicles for user: {}", userId);
-        String responseJson = "";
-        List<String> vins = new ArrayList<>();
-        responseJson = invokeGetAssociatedVehiclesForUserApi(userId);
-        if (!StringUtils.isEmpty(responseJson)) {
-            LOGGER.debug("Response from vehicle profile endpoint for {}: {}", userId, responseJson);
-            List<String> list = JsonPath.read(responseJson, "$.data[*].vehicleId");
-            vins.addAll(list);
+        if (associationCache.isEnabled()) {
+            return vehicleProfileReader.readAssociatedVehicleIds(getAssociatedVehiclesForUser(userId));
         }
-        return vins;
+        String responseJson = invokeGetAssociatedVehiclesForUserApi(userId);
+        LOGGER.debug("Response from vehicle profile endpoint for {}: {}", userId, responseJson);
+        return metrics.time(() -> vehicleProfileReader.readAssociatedVehicleIds(responseJson),
+            EXTRACTION_METRIC_NAME, "getAssociatedVehicles");
     }
     
     /**
@@ -369,9 +540,9 @@ public class VehicleProfileClient {
      * @param ignoreError if true the exception,errors will be suppressed
      * @return response for the update request
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "updateVehicleProfile-timed")
+    @ExceptionMetered(name = "updateVehicleProfile-exceptions")
+    @Counted(name = "updateVehicleProfile-counted")
     public Optional<String> updateVehicleProfile(String vehicleId, VehicleProfile vp,
                                                  boolean ignoreError) {
         LOGGER.debug("Updating vehicle {} with {}", vehicleId, vp);
@@ -397,16 +568,13 @@ public class VehicleProfileClient {
      * @param vehicleId vehicle profile id
      * @return vehicle profile
      */
+    @Timed(name = "getVehicleProfile-timed")
+    @ExceptionMetered(name = "getVehicleProfile-exceptions")
+    @Counted(name = "getVehicleProfile-counted")
     public Optional<VehicleProfile> getVehicleProfile(String vehicleId) {
-        Optional<String> vpJson = getVehicleProfileJson(vehicleId);
-        if (vpJson.isPresent()) {
-            try {
-                return Optional.of(objectMapper.readValue(vpJson.get(), VehicleProfile.class));
-            } catch (IOException e) {
-                throw new VehicleProfileException(e);
-            }
-        }
-        return Optional.empty();
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, false);
+        return metrics.time(() -> vehicleProfileReader.readVehicleProfile(document),
+            EXTRACTION_METRIC_NAME, "getVehicleProfile");
     }
     
     /**
@@ -415,22 +583,38 @@ public class VehicleProfileClient {
      * @param vehicleId vehicle profile id
      * @return raw json as string
      */
+    @Timed(name = "getVehicleProfileJson-timed")
+    @ExceptionMetered(name = "getVehicleProfileJson-exceptions")
+    @Counted(name = "getVehicleProfileJson-counted")
     public Optional<String> getVehicleProfileJson(String vehicleId) {
-        String vpJson = null;
-        String vpJsonGetResp = invokeVehicleProfileGetRestApi(vehicleId, false);
-        try {
-            vpJson = objectMapper.writeValueAsString(JsonPath.read(vpJsonGetResp, DATA_PATH));
-        } catch (Exception e) {
-            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, DATA_PATH, e.getMessage());
-            throw new VehicleProfileException(e);
-        }
-        return Optional.ofNullable(vpJson);
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, false);
+        return metrics.time(() -> vehicleProfileReader.readVehicleProfileJson(document),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileJson");
+    }
+    
+    /**
+     * Fetch the vehicle profile into the near-cache, e.g. to warm it up before serving requests.<br/>
+     * nothing is extracted from the fetched profile.
+     *
+     * @param vehicleId vehicle profile id
+     * @throws VehicleProfileException if the vehicle profile could not be fetched
+     */
+    @Timed(name = "prefetchVehicleProfile-timed")
+    @ExceptionMetered(name = "prefetchVehicleProfile-exceptions")
+    @Counted(name = "prefetchVehicleProfile-counted")
+    public void prefetchVehicleProfile(String vehicleId) {
+        getVehicleProfileDocument(vehicleId, false);
     }
     
     private String invokeVehicleProfilePatchRestApi(String vehicleId, VehicleProfile vp) {
         String vehicleProfilePatchPath = UriComponentsBuilder.fromUriString(vehicleProfileEndPoint)
             .path(vehicleId).toUriString();
-        return restTemplate.patchForObject(vehicleProfilePatchPath, vp, String.class);
+        String response = retry.execute("vehicleProfilePatch", false,
+            () -> resilience.execute(VEHICLE_PROFILE_CIRCUIT, () -> metrics.time(
+                () -> restTemplate.patchForObject(vehicleProfilePatchPath, vp, String.class),
+                HTTP_METRIC_NAME, "vehicleProfilePatch")));
+        recordResponseSize("vehicleProfilePatch", response);
+        return response;
     }
     
     
@@ -443,32 +627,19 @@ public class VehicleProfileClient {
      * @param vehicleAttributes vehicle profile attributes.
      * @return Map of attributes with attribute name and its value.
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttributesAsObject-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributesAsObject-exceptions")
+    @Counted(name = "getVehicleProfileAttributesAsObject-counted")
     public Map<VehicleProfileAttribute, Optional<Object>> getVehicleProfileAttributesAsObject(
         String vehicleId, boolean ignoreError,
         VehicleProfileAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_VEHICLE_ATTRIBUTES_FOR_VEHICLE,
             Arrays.toString(vehicleAttributes), vehicleId);
-        String responseJson = invokeVehicleProfileGetRestApi(vehicleId, ignoreError);
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, ignoreError);
         
-        Map<VehicleProfileAttribute, Optional<Object>> vehicleProfileVals =
-            new EnumMap<>(VehicleProfileAttribute.class);
-        for (VehicleProfileAttribute v : vehicleAttributes) {
-            try {
-                Object jsonValue = JsonPath.read(responseJson, v.getJsonPath());
-                vehicleProfileVals.put(v, Optional.ofNullable(jsonValue));
-            } catch (Exception e) {
-                LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_JSON_PATH, vehicleId,
-                    v.getJsonPath(), e.getMessage());
-                if (!ignoreError) {
-                    throw new VehicleProfileException(e);
-                } else {
-                    vehicleProfileVals.put(v, Optional.empty());
-                }
-            }
-        }
+        Map<VehicleProfileAttribute, Optional<Object>> vehicleProfileVals = metrics.time(
+            () -> readAttributesAsObject(vehicleId, ignoreError, document, vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttributesAsObject");
         
         LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
         return vehicleProfileVals;
@@ -485,22 +656,57 @@ public class VehicleProfileClient {
      * @return Map of attributes with attribute name and its different data type and value.
      */
     @SuppressWarnings("java:S1452")
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttributesForDifferentType-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributesForDifferentType-exceptions")
+    @Counted(name = "getVehicleProfileAttributesForDifferentType-counted")
     public Map<VehicleProfileAttribute, Optional<?>> getVehicleProfileAttributesForDifferentType(
         String vehicleId, boolean ignoreError,
         VehicleProfileAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_VEHICLE_ATTRIBUTES_FOR_VEHICLE,
             Arrays.toString(vehicleAttributes), vehicleId);
         
-        String responseJson = invokeVehicleProfileGetRestApi(vehicleId, ignoreError);
+        VehicleProfileDocument document = getVehicleProfileDocument(vehicleId, ignoreError);
+        
+        Map<VehicleProfileAttribute, Optional<?>> vehicleProfileVals = metrics.time(
+            () -> readAttributesForDifferentType(vehicleId, ignoreError, document, vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttributesForDifferentType");
+        
+        LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
+        return vehicleProfileVals;
+    }
+    
+    private Map<VehicleProfileAttribute, Optional<Object>> readAttributesAsObject(String vehicleId,
+        boolean ignoreError, VehicleProfileDocument document, VehicleProfileAttribute... vehicleAttributes) {
+        document.prefetch(vehicleAttributes);
+        
+        Map<VehicleProfileAttribute, Optional<Object>> vehicleProfileVals =
+            new EnumMap<>(VehicleProfileAttribute.class);
+        for (VehicleProfileAttribute v : vehicleAttributes) {
+            try {
+                Object jsonValue = VehicleProfileDocument.copyOf(document.read(v));
+                vehicleProfileVals.put(v, Optional.ofNullable(jsonValue));
+            } catch (Exception e) {
+                LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_JSON_PATH, vehicleId,
+                    v.getJsonPath(), e.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(e);
+                } else {
+                    vehicleProfileVals.put(v, Optional.empty());
+                }
+            }
+        }
+        return vehicleProfileVals;
+    }
+    
+    private Map<VehicleProfileAttribute, Optional<?>> readAttributesForDifferentType(String vehicleId,
+        boolean ignoreError, VehicleProfileDocument document, VehicleProfileAttribute... vehicleAttributes) {
+        document.prefetch(vehicleAttributes);
         
         Map<VehicleProfileAttribute, Optional<?>> vehicleProfileVals =
             new EnumMap<>(VehicleProfileAttribute.class);
         for (VehicleProfileAttribute v : vehicleAttributes) {
             try {
-                Object jsonValue = JsonPath.read(responseJson, v.getJsonPath());
+                Object jsonValue = document.read(v);
                 switch (v.getType().getSimpleName()) {
                     case "String":
                         vehicleProfileVals.put(v, Optional.ofNullable((String) jsonValue));
@@ -518,7 +724,7 @@ public class VehicleProfileClient {
                         break;
                     case "Object":
                     default:
-                        vehicleProfileVals.put(v, Optional.ofNullable(jsonValue));
+                        vehicleProfileVals.put(v, Optional.ofNullable(VehicleProfileDocument.copyOf(jsonValue)));
                         break;
                 }
                 
@@ -532,30 +738,287 @@ public class VehicleProfileClient {
                 }
             }
         }
-        
-        LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
         return vehicleProfileVals;
     }
     
-    private String invokeVehicleProfileGetRestApi(String vehicleId, boolean ignoreError) {
-        String result = "";
-        String vehicleProfileGetPath = UriComponentsBuilder.fromUriString(vehicleProfileEndPoint)
-            .path(vehicleId).toUriString();
+    private VehicleProfileDocument getVehicleProfileDocument(String vehicleId, boolean ignoreError) {
+        return getVehicleProfileValue(vehicleId, ignoreError).getValue();
+    }
+    
+    /**
+     * Fetch the parsed vehicle profile from the near-cache if enabled,
+     * otherwise from vehicle profile api.<br/>
+     * concurrent fetches of the same vehicle share a single api call.
+     * with stale while revalidate, an expired profile is returned as stale and refreshed in the background.
+     * while the api is unavailable, an expired profile still kept in the near-cache is used,
+     * kept for vehicle.profile.cache.stale.if.error.ms when the circuit breakers or bulkheads are enabled.
+     * a vehicle recently not found is not fetched again until its negative cache entry expires.
+     */
+    private VehicleProfileValue<VehicleProfileDocument> getVehicleProfileValue(String vehicleId,
+                                                                               boolean ignoreError) {
+        Optional<VehicleProfileDocument> cachedDocument = vehicleProfileCache.get(vehicleId);
+        if (cachedDocument.isPresent()) {
+            LOGGER.debug("Vehicle profile found in cache for vehicleId {}", vehicleId);
+            return VehicleProfileValue.fresh(cachedDocument.get());
+        }
         try {
-            ResponseEntity<String> response =
-                restTemplate.getForEntity(vehicleProfileGetPath, String.class);
-            if (response.getStatusCode().is2xxSuccessful()) {
-                result = response.getBody();
+            if (negativeCache.isNotFound(LookupType.VEHICLE_ID, vehicleId)) {
+                throw new VehicleProfileNotFoundException(VEHICLE_PROFILE_NOT_FOUND + vehicleId);
+            }
+            if (vehicleProfileCache.isStaleWhileRevalidateEnabled()) {
+                Optional<VehicleProfileValue<VehicleProfileDocument>> staleValue =
+                    vehicleProfileCache.getStaleValue(vehicleId);
+                if (staleValue.isPresent()) {
+                    LOGGER.debug("Using expired profile while refreshing it for vehicleId {}", vehicleId);
+                    metrics.counter(CACHE_METRIC_NAME, "staleServes").inc();
+                    vehicleProfileCache.refreshInBackground(vehicleId, () -> refreshVehicleProfileDocument(vehicleId));
+                    return staleValue.get();
+                }
             }
+            return VehicleProfileValue.fresh(
+                vehicleProfileFlight.execute(vehicleId, () -> fetchVehicleProfileDocument(vehicleId)));
+        } catch (VehicleProfileUnavailableException e) {
+            Optional<VehicleProfileValue<VehicleProfileDocument>> staleValue =
+                vehicleProfileCache.getStaleIfErrorValue(vehicleId);
+            if (staleValue.isPresent()) {
+                LOGGER.debug("Vehicle profile api unavailable, using expired profile for vehicleId {}", vehicleId);
+                metrics.counter(CACHE_METRIC_NAME, "unavailableFallbacks").inc();
+                return staleValue.get();
+            }
+            if (!ignoreError) {
+                throw e;
+            }
+            return VehicleProfileValue.fresh(VehicleProfileDocument.parse(""));
         } catch (Exception e) {
             LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId,
                 e.getMessage());
             if (!ignoreError) {
                 throw new VehicleProfileException(e);
             }
+            return VehicleProfileValue.fresh(VehicleProfileDocument.parse(""));
         }
-        LOGGER.debug(RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId, result);
-        return result;
+    }
+    
+    /**
+     * Refresh the expired vehicle profile, sharing the api call with the concurrent fetches of the vehicle.<br/>
+     * a vehicle no longer found is removed from the near-cache.
+     */
+    private void refreshVehicleProfileDocument(String vehicleId) {
+        try {
+            vehicleProfileFlight.execute(vehicleId, () -> fetchVehicleProfileDocument(vehicleId));
+        } catch (HttpClientErrorException.NotFound e) {
+            vehicleProfileCache.invalidate(vehicleId);
+        }
+    }
+    
+    /**
+     * Fetch the vehicle profile from vehicle profile api.<br/>
+     * an expired cached profile having validators is revalidated with a conditional request,
+     * and kept in the cache if the api reports it as not modified.
+     */
+    private VehicleProfileDocument fetchVehicleProfileDocument(String vehicleId) {
+        long cacheVersion = vehicleProfileCache.version();
+        Optional<VehicleProfileDocument> expiredDocument = vehicleProfileCache.getForRevalidation(vehicleId);
+        ResponseEntity<byte[]> response;
+        try {
+            response = expiredDocument.isPresent()
+                ? invokeConditionalVehicleProfileGetRestApi(vehicleId, expiredDocument.get())
+                : invokeVehicleProfileGetRestApi(vehicleId);
+        } catch (HttpClientErrorException.NotFound e) {
+            negativeCache.putNotFound(LookupType.VEHICLE_ID, vehicleId);
+            throw e;
+        }
+        final boolean notFound = isNotFound(response);
+        if (notFound) {
+            negativeCache.putNotFound(LookupType.VEHICLE_ID, vehicleId);
+        }
+        if (expiredDocument.isPresent() && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            LOGGER.debug("Vehicle profile not modified for vehicleId {}", vehicleId);
+            vehicleProfileCache.refresh(vehicleId, expiredDocument.get(), cacheVersion);
+            return expiredDocument.get();
+        }
+        byte[] responseJson = EMPTY_RESPONSE;
+        if (response.getStatusCode().is2xxSuccessful()) {
+            responseJson = response.getBody();
+        }
+        LOGGER.debug(RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId,
+            responseJson == null ? 0 : responseJson.length);
+        if (!vehicleProfileCache.isEnabled()) {
+            VehicleProfileDocument document = VehicleProfileDocument.unparsed(responseJson);
+            clientIdIndex.index(document);
+            return document;
+        }
+        HttpHeaders headers = response.getHeaders();
+        VehicleProfileDocument document = VehicleProfileDocument.parse(responseJson, headers.getETag(),
+            headers.getFirst(HttpHeaders.LAST_MODIFIED));
+        if (!notFound && document.isValid()) {
+            vehicleProfileCache.put(vehicleId, document, responseJson.length, cacheVersion);
+            clientIdIndex.index(document);
+        }
+        return document;
+    }
+    
+    /**
+     * Fetch the parsed vehicle profile on the bulk executor.
+     */
+    CompletableFuture<VehicleProfileDocument> getVehicleProfileDocumentAsync(String vehicleId) {
+        return CompletableFuture.supplyAsync(() -> getVehicleProfileDocument(vehicleId, false), getBulkExecutor());
+    }
+    
+    /**
+     * Fetch the parsed vehicle profiles of multiple vehicles with a single call
+     * to the bulk vehicle profile api, on the bulk executor.<br/>
+     * vehicles unknown to vehicle profile are missing from the result.
+     */
+    CompletableFuture<Map<String, VehicleProfileDocument>> getVehicleProfileDocumentsAsync(
+        Collection<String> vehicleIds) {
+        return CompletableFuture.supplyAsync(() -> fetchVehicleProfileDocuments(vehicleIds), getBulkExecutor());
+    }
+    
+    /**
+     * check if the bulk vehicle profile api is configured.
+     */
+    boolean isBulkEndpointConfigured() {
+        return StringUtils.isNotBlank(vehicleProfileBulkEndPoint);
+    }
+    
+    VehicleProfileReader getVehicleProfileReader() {
+        return vehicleProfileReader;
+    }
+    
+    /**
+     * Fetch the vehicle profiles missing from the near-cache and not known to be missing
+     * with a single call to the bulk vehicle profile api.<br/>
+     * profiles returned without a vehicle id are skipped, each cached profile is weighed by its own size.
+     */
+    private Map<String, VehicleProfileDocument> fetchVehicleProfileDocuments(Collection<String> vehicleIds) {
+        final long cacheVersion = vehicleProfileCache.version();
+        Map<String, VehicleProfileDocument> documents = new HashMap<>();
+        List<String> missingVehicleIds = new ArrayList<>();
+        for (String vehicleId : vehicleIds) {
+            Optional<VehicleProfileDocument> cachedDocument = vehicleProfileCache.get(vehicleId);
+            if (cachedDocument.isPresent()) {
+                documents.put(vehicleId, cachedDocument.get());
+            } else if (!negativeCache.isNotFound(LookupType.VEHICLE_ID, vehicleId)) {
+                missingVehicleIds.add(vehicleId);
+            }
+        }
+        if (missingVehicleIds.isEmpty()) {
+            return documents;
+        }
+        LOGGER.debug("Fetching vehicle profiles for vehicleIds {}", missingVehicleIds);
+        ResponseEntity<byte[]> response = call(VEHICLE_PROFILE_CIRCUIT, "vehicleProfileBulk",
+            () -> restTemplate.postForEntity(vehicleProfileBulkEndPoint, missingVehicleIds, byte[].class));
+        byte[] responseJson = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful() || responseJson == null) {
+            throw new VehicleProfileException("Failed to find vehicle profiles for vehicleIds: " + missingVehicleIds);
+        }
+        List<Object> profiles = VehicleProfileDocument.parse(responseJson, null, null).read(DATA_PATH);
+        for (Object profile : profiles) {
+            VehicleProfileDocument document = VehicleProfileDocument.ofData(profile);
+            String vehicleId = readVehicleId(document);
+            if (StringUtils.isBlank(vehicleId)) {
+                LOGGER.warn("Skipping vehicle profile without vehicleId in the bulk response");
+                continue;
+            }
+            documents.put(vehicleId, document);
+            if (vehicleProfileCache.isEnabled()) {
+                vehicleProfileCache.put(vehicleId, document, document.jsonBytes().length, cacheVersion);
+            }
+            clientIdIndex.index(document);
+        }
+        return documents;
+    }
+    
+    private static String readVehicleId(VehicleProfileDocument document) {
+        try {
+            Object vehicleId = document.read(VehicleProfileAttribute.VEHICLE_ID);
+            return vehicleId instanceof String id ? id : null;
+        } catch (PathNotFoundException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Invoke an idempotent vehicle profile api, see {@link #call(String, String, boolean, Supplier)}.
+     */
+    private <T> ResponseEntity<T> call(String circuit, String endpoint, Supplier<ResponseEntity<T>> request) {
+        return call(circuit, endpoint, true, request);
+    }
+    
+    /**
+     * Invoke a vehicle profile api through the circuit breaker and bulkhead of the circuit, retried on failure,
+     * recording its latency under http.&lt;endpoint&gt; <br/>
+     * and the size of the response body under http.&lt;endpoint&gt;.responseBytes.
+     */
+    private <T> ResponseEntity<T> call(String circuit, String endpoint, boolean idempotent,
+                                       Supplier<ResponseEntity<T>> request) {
+        return execute(circuit, endpoint, idempotent, () -> metrics.time(request, HTTP_METRIC_NAME, endpoint));
+    }
+    
+    /**
+     * Invoke an idempotent vehicle profile api, hedged if it has not answered within the hedging delay.<br/>
+     * the hedging is inside the retries and the circuit breaker, each retry attempt is hedged at most once
+     * and holds a single bulkhead slot, the latency of every call sent being recorded under http.&lt;endpoint&gt;.
+     */
+    private <T> ResponseEntity<T> hedgedCall(String circuit, String endpoint, Supplier<ResponseEntity<T>> request) {
+        Timer latency = metrics.timer(HTTP_METRIC_NAME, endpoint);
+        return execute(circuit, endpoint, true, () -> hedging.execute(endpoint, latency,
+            () -> metrics.time(request, HTTP_METRIC_NAME, endpoint)));
+    }
+    
+    private <T> ResponseEntity<T> execute(String circuit, String endpoint, boolean idempotent,
+                                          Supplier<ResponseEntity<T>> timedRequest) {
+        ResponseEntity<T> response = retry.execute(endpoint, idempotent,
+            () -> resilience.execute(circuit, timedRequest));
+        if (response != null) {
+            recordResponseSize(endpoint, response.getBody());
+        }
+        return response;
+    }
+    
+    /**
+     * check if the vehicle profile api found no vehicle, i.e. answered with 404, an empty body
+     * or an empty data array.
+     */
+    private static boolean isNotFound(ResponseEntity<byte[]> response) {
+        if (response.getStatusCode().value() == HttpStatus.NOT_FOUND.value()) {
+            return true;
+        }
+        return response.getStatusCode().is2xxSuccessful()
+            && VehicleProfileNegativeCache.isEmptyResponse(response.getBody());
+    }
+    
+    private void recordResponseSize(String endpoint, Object body) {
+        if (body instanceof byte[] bytes) {
+            metrics.histogram(HTTP_METRIC_NAME, endpoint, RESPONSE_BYTES).update(bytes.length);
+        } else if (body instanceof String text) {
+            metrics.histogram(HTTP_METRIC_NAME, endpoint, RESPONSE_BYTES).update(text.length());
+        }
+    }
+    
+    private ResponseEntity<byte[]> invokeVehicleProfileGetRestApi(String vehicleId) {
+        String vehicleProfileGetPath = UriComponentsBuilder.fromUriString(vehicleProfileEndPoint)
+            .path(vehicleId).toUriString();
+        return hedgedCall(VEHICLE_PROFILE_CIRCUIT, "vehicleProfile",
+            () -> restTemplate.getForEntity(vehicleProfileGetPath, byte[].class));
+    }
+    
+    private ResponseEntity<byte[]> invokeConditionalVehicleProfileGetRestApi(String vehicleId,
+                                                                            VehicleProfileDocument document) {
+        HttpHeaders headers = new HttpHeaders();
+        if (document.getEtag() != null) {
+            headers.setIfNoneMatch(document.getEtag());
+        }
+        if (document.getLastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, document.getLastModified());
+        }
+        LOGGER.debug("Revalidating vehicle profile for vehicleId {} with {}", vehicleId, headers);
+        String vehicleProfileGetPath = UriComponentsBuilder.fromUriString(vehicleProfileEndPoint)
+            .path(vehicleId).toUriString();
+        return call(VEHICLE_PROFILE_CIRCUIT, "vehicleProfileRevalidation",
+            () -> restTemplate.exchange(vehicleProfileGetPath, HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class));
     }
     
     private String invokeGetAssociatedVehiclesForUserApi(String userId) {
@@ -568,8 +1031,8 @@ public class VehicleProfileClient {
             .toUriString();
         LOGGER.debug("Hitting vehicle profile to get associated vehicles for user: {} and path is:{}",
             userId, associatedVehiclesGetPath);
-        ResponseEntity<String> response =
-            restTemplate.getForEntity(associatedVehiclesGetPath, String.class);
+        ResponseEntity<String> response = hedgedCall(ASSOCIATED_VEHICLES_CIRCUIT, "associatedVehicles",
+            () -> restTemplate.getForEntity(associatedVehiclesGetPath, String.class));
         if (response.getStatusCode().is2xxSuccessful()) {
             return response.getBody();
         }
@@ -577,25 +1040,129 @@ public class VehicleProfileClient {
     }
     
     /**
-     * Fetch associated vehicles for user id.
+     * Fetch associated vehicles for user id.<br/>
+     * with the association cache enabled, the returned associated vehicles may be shared
+     * by all the callers and must not be modified.
      *
      * @param userId user id for which the profile is associated.
      * @return associated vehicle profiles
      */
+    @Timed(name = "getAssociatedVehiclesForUser-timed")
+    @ExceptionMetered(name = "getAssociatedVehiclesForUser-exceptions")
+    @Counted(name = "getAssociatedVehiclesForUser-counted")
     public AssociatedVehicles getAssociatedVehiclesForUser(String userId) {
+        Optional<AssociatedVehicles> cachedVehicles = associationCache.get(userId);
+        if (cachedVehicles.isPresent()) {
+            LOGGER.debug("Associated vehicles found in cache for user: {}", userId);
+            return cachedVehicles.get();
+        }
+        long cacheVersion = associationCache.version();
         URI associatedVehiclesGetPath = UriComponentsBuilder.fromUriString(associatedVehiclesEndpoint)
             .buildAndExpand(Collections.singletonMap(USER_ID, userId))
             .toUri();
         LOGGER.debug("retrieving associated vehicles, endpoint:{}", associatedVehiclesGetPath);
-        ResponseEntity<AssociatedVehicles> response =
-            restTemplate.getForEntity(associatedVehiclesGetPath, AssociatedVehicles.class);
+        ResponseEntity<AssociatedVehicles> response = hedgedCall(ASSOCIATED_VEHICLES_CIRCUIT,
+            "associatedVehiclesForUser",
+            () -> restTemplate.getForEntity(associatedVehiclesGetPath, AssociatedVehicles.class));
         if (response.getStatusCode().is2xxSuccessful()) {
+            associationCache.put(userId, response.getBody(), cacheVersion);
             return response.getBody();
         }
         throw new VehicleProfileException("Failed to retrieve associated vehicles for the user: {}" + userId);
     }
     
-    private String invokeVehicleProfileWithClientIdGetRestApi(String clientId) {
+    /**
+     * Fetch the vehicle profile of the client id, the response is parsed once and its first
+     * vehicle profile is selected as the data of the returned document.<br/>
+     * a client id found in the client id index is fetched by its vehicle id instead of the search api.
+     * concurrent fetches of the same client id share a single api call and parse.
+     */
+    private VehicleProfileDocument getVehicleProfileDocumentWithClientId(String clientId) {
+        Optional<VehicleProfileDocument> indexedDocument = getIndexedVehicleProfileDocument(clientId);
+        if (indexedDocument.isPresent()) {
+            return indexedDocument.get();
+        }
+        if (negativeCache.isNotFound(LookupType.CLIENT_ID, clientId)) {
+            throw new VehicleProfileNotFoundException("No vehicle profile found for client id: " + clientId);
+        }
+        return vehicleProfileWithClientIdFlight.execute(clientId,
+            () -> fetchVehicleProfileDocumentWithClientId(clientId));
+    }
+    
+    private VehicleProfileDocument getVehicleProfileDocumentWithClientId(String clientId, boolean ignoreError) {
+        try {
+            return getVehicleProfileDocumentWithClientId(clientId);
+        } catch (Exception e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, clientId,
+                e.getMessage());
+            if (!ignoreError) {
+                throw new VehicleProfileException(e);
+            }
+            return VehicleProfileDocument.parse("");
+        }
+    }
+    
+    /**
+     * Fetch the vehicle profile by the vehicle id indexed for the client id.<br/>
+     * the client id is removed from the index if the vehicle profile can not be fetched
+     * or no longer contains the client id.
+     */
+    private Optional<VehicleProfileDocument> getIndexedVehicleProfileDocument(String clientId) {
+        Optional<String> vehicleId = clientIdIndex.getVehicleId(clientId);
+        if (vehicleId.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            VehicleProfileDocument document = getVehicleProfileDocument(vehicleId.get(), false);
+            if (clientIdIndex.matches(document, clientId)) {
+                return Optional.of(document);
+            }
+            LOGGER.debug("clientId {} no longer belongs to vehicleId {}", clientId, vehicleId.get());
+        } catch (RuntimeException e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId.get(), e.getMessage());
+        }
+        clientIdIndex.invalidate(clientId);
+        return Optional.empty();
+    }
+    
+    private VehicleProfileDocument fetchVehicleProfileDocumentWithClientId(String clientId) {
+        long cacheVersion = vehicleProfileCache.version();
+        byte[] responseJson = requestVehicleProfileWithClientId(clientId);
+        VehicleProfileDocument document;
+        try {
+            Object vehicleProfile = VehicleProfileDocument.parse(responseJson, null, null)
+                .read(FIRST_VEHICLE_PROFILE_PATH);
+            document = VehicleProfileDocument.ofData(vehicleProfile);
+        } catch (PathNotFoundException e) {
+            negativeCache.putNotFound(LookupType.CLIENT_ID, clientId);
+            throw new VehicleProfileNotFoundException("No vehicle profile found for client id: " + clientId);
+        } catch (RuntimeException e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, FIRST_VEHICLE_PROFILE_PATH.getPath(), e.getMessage());
+            throw new VehicleProfileException(e);
+        }
+        if (clientIdIndex.isEnabled()) {
+            clientIdIndex.index(document);
+            cacheVehicleProfile(document, responseJson.length, cacheVersion);
+        }
+        return document;
+    }
+    
+    /**
+     * Cache the vehicle profile found by client id, so the following lookups
+     * of the indexed client id do not fetch it again.
+     */
+    private void cacheVehicleProfile(VehicleProfileDocument document, long responseSize, long cacheVersion) {
+        try {
+            String vehicleId = document.read(VehicleProfileAttribute.VEHICLE_ID);
+            if (StringUtils.isNotEmpty(vehicleId)) {
+                vehicleProfileCache.put(vehicleId, document, responseSize, cacheVersion);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.trace("Vehicle profile without vehicleId is not cached: {}", e.getMessage());
+        }
+    }
+    
+    private byte[] requestVehicleProfileWithClientId(String clientId) {
         String vehicleProfileGetPath = UriComponentsBuilder.fromUriString(vehicleProfileClientIdEndPoint)
             .queryParam(EventAttribute.CLIENTID, clientId)
             .toUriString();
@@ -603,11 +1170,20 @@ public class VehicleProfileClient {
         LOGGER.debug("invokeVehicleProfileWithClientIdGetRestApi request url: {}",
             vehicleProfileGetPath);
         
-        ResponseEntity<String> response =
-            restTemplate.getForEntity(vehicleProfileGetPath, String.class);
-        if (response.getStatusCode().is2xxSuccessful()) {
-            String body = response.getBody();
-            LOGGER.debug("invokeVehicleProfileWithClientIdGetRestApi response payload: {}", body);
+        ResponseEntity<byte[]> response;
+        try {
+            response = hedgedCall(CLIENT_ID_CIRCUIT, "vehicleProfileByClientId",
+                () -> restTemplate.getForEntity(vehicleProfileGetPath, byte[].class));
+        } catch (HttpClientErrorException.NotFound e) {
+            negativeCache.putNotFound(LookupType.CLIENT_ID, clientId);
+            throw e;
+        }
+        if (isNotFound(response)) {
+            negativeCache.putNotFound(LookupType.CLIENT_ID, clientId);
+        }
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            byte[] body = response.getBody();
+            LOGGER.debug("invokeVehicleProfileWithClientIdGetRestApi response payload: {} bytes", body.length);
             return body;
         }
         throw new VehicleProfileException("Failed to find vehicle profile for client id: " + clientId);
@@ -627,43 +1203,17 @@ public class VehicleProfileClient {
      * @return Map of vehicle attributes
      */
     @SuppressWarnings("java:S1452")
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileOnDemandAttributesWithClientId-timed")
+    @ExceptionMetered(name = "getVehicleProfileOnDemandAttributesWithClientId-exceptions")
+    @Counted(name = "getVehicleProfileOnDemandAttributesWithClientId-counted")
     public Map<String, Optional<?>> getVehicleProfileAttributesWithClientId(String vehicleId,
            boolean ignoreError,
            VehicleProfileOnDemandAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_FOR_VEHICLE, Arrays.toString(vehicleAttributes), vehicleId);
-        String responseJson = "";
-        try {
-            responseJson = invokeVehicleProfileWithClientIdGetRestApi(vehicleId);
-        } catch (Exception e) {
-            LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId,
-                e.getMessage());
-            if (!ignoreError) {
-                throw new VehicleProfileException(e);
-            }
-        }
-        
-        LOGGER.trace(RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId, responseJson);
-        
-        Map<String, Optional<?>> vehicleProfileVals = new HashMap<>();
-        for (VehicleProfileOnDemandAttribute v : vehicleAttributes) {
-            try {
-                JSONObject data = (JSONObject) new JSONObject(responseJson).getJSONArray(DATA).get(0);
-                JSONObject dataObject = new JSONObject().put(DATA, data);
-                String jsonValue = JsonPath.read(dataObject.toString(), v.getJsonPath());
-                vehicleProfileVals.put(v.getName(), Optional.ofNullable(jsonValue));
-            } catch (Exception e) {
-                LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, v.getJsonPath(), e.getMessage());
-                if (!ignoreError) {
-                    throw new VehicleProfileException(e);
-                } else {
-                    vehicleProfileVals.put(v.getName(), Optional.empty());
-                }
-            }
-        }
-        
+        VehicleProfileDocument document = getVehicleProfileDocumentWithClientId(vehicleId, ignoreError);
+        Map<String, Optional<?>> vehicleProfileVals = metrics.time(
+            () -> vehicleProfileReader.readOnDemandAttributesAsString(ignoreError, document, vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileOnDemandAttributesWithClientId");
         LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
         return vehicleProfileVals;
     }
@@ -678,41 +1228,17 @@ public class VehicleProfileClient {
      * @param vehicleAttributes vehicle profile attributes.
      * @return Map of attributes with attribute name and its value.
      */
+    @Timed(name = "getVehicleProfileAttributesWithClientId-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributesWithClientId-exceptions")
+    @Counted(name = "getVehicleProfileAttributesWithClientId-counted")
     public Map<VehicleProfileAttribute, Optional<String>> getVehicleProfileAttributesWithClientId(
         String vehicleId,
         boolean ignoreError, VehicleProfileAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_FOR_VEHICLE, Arrays.toString(vehicleAttributes), vehicleId);
-        String responseJson = "";
-        try {
-            responseJson = invokeVehicleProfileWithClientIdGetRestApi(vehicleId);
-        } catch (Exception e) {
-            LOGGER.debug("Error while querying vehicle profile for vechileId {}: {}", vehicleId,
-                e.getMessage());
-            if (!ignoreError) {
-                throw new VehicleProfileException(e);
-            }
-        }
-        
-        LOGGER.trace(RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID, vehicleId, responseJson);
-        
-        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals =
-            new EnumMap<>(VehicleProfileAttribute.class);
-        for (VehicleProfileAttribute v : vehicleAttributes) {
-            try {
-                JSONObject data = (JSONObject) new JSONObject(responseJson).getJSONArray(DATA).get(0);
-                JSONObject dataObject = new JSONObject().put(DATA, data);
-                String jsonValue = JsonPath.read(dataObject.toString(), v.getJsonPath());
-                vehicleProfileVals.put(v, Optional.ofNullable(jsonValue));
-            } catch (Exception e) {
-                LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, v.getJsonPath(), e.getMessage());
-                if (!ignoreError) {
-                    throw new VehicleProfileException(e);
-                } else {
-                    vehicleProfileVals.put(v, Optional.empty());
-                }
-            }
-        }
-        
+        VehicleProfileDocument document = getVehicleProfileDocumentWithClientId(vehicleId, ignoreError);
+        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals = metrics.time(
+            () -> vehicleProfileReader.readAttributes(ignoreError, document, vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttributesWithClientId");
         LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vehicleId);
         return vehicleProfileVals;
     }
@@ -725,22 +1251,14 @@ public class VehicleProfileClient {
      * @param clientId client id for which details to be fetched.
      * @return Map of attributes with attribute name and its value.
      */
+    @Timed(name = "getVehicleProfileJsonWithClientId-timed")
+    @ExceptionMetered(name = "getVehicleProfileJsonWithClientId-exceptions")
+    @Counted(name = "getVehicleProfileJsonWithClientId-counted")
     public Optional<String> getVehicleProfileJsonWithClientId(String clientId) {
-        String vpJson = null;
-        
         LOGGER.debug("getVehicleProfileJsonWithClientId clientId: {}", clientId);
-        
-        String vpJsonGetResp = invokeVehicleProfileWithClientIdGetRestApi(clientId);
-        
-        LOGGER.debug("getVehicleProfileJsonWithClientId vpJsonGetResp: {}", vpJsonGetResp);
-        
-        try {
-            vpJson = objectMapper.writeValueAsString(JsonPath.read(vpJsonGetResp, "$.data[0]"));
-        } catch (Exception e) {
-            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, DATA_PATH, e.getMessage());
-            throw new VehicleProfileException(e);
-        }
-        return Optional.ofNullable(vpJson);
+        VehicleProfileDocument document = getVehicleProfileDocumentWithClientId(clientId);
+        return metrics.time(() -> vehicleProfileReader.readVehicleProfileJson(document),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileJsonWithClientId");
     }
     
     
@@ -752,6 +1270,9 @@ public class VehicleProfileClient {
      * @return true if disassociated successfully
      * @throws DisassociationFailedException if any error occurred during disassociation.
      */
+    @Timed(name = "disassociateVehicle-timed")
+    @ExceptionMetered(name = "disassociateVehicle-exceptions")
+    @Counted(name = "disassociateVehicle-counted")
     public boolean disassociateVehicle(String userId, String vehicleId)
         throws DisassociationFailedException {
         URI disassociateVehiclePath = UriComponentsBuilder.fromUriString(disassociateVehicleUrl)
@@ -760,15 +1281,23 @@ public class VehicleProfileClient {
         LOGGER.debug("disassociating vehicle, endpoint:{}", disassociateVehiclePath);
         Map<String, String> data = Collections.singletonMap(USER_ID, userId);
         HttpEntity<Map<String, String>> entity = new HttpEntity<>(data);
-        ResponseEntity<String> response =
-            restTemplate.exchange(disassociateVehiclePath, HttpMethod.POST, entity, String.class);
+        ResponseEntity<String> response;
+        try {
+            response = call(ASSOCIATION_CIRCUIT, "disassociateVehicle", false,
+                () -> restTemplate.exchange(disassociateVehiclePath, HttpMethod.POST, entity, String.class));
+        } catch (RuntimeException e) {
+            associationCache.invalidate(userId);
+            throw e;
+        }
         if (response.getStatusCode().is2xxSuccessful()) {
             Boolean isDisassociated = JsonPath.read(response.getBody(), DATA);
             if (Boolean.TRUE.equals(isDisassociated)) {
                 LOGGER.info("disassociated vehicle:{} from user:{}", vehicleId, userId);
+                associationCache.removeVehicle(userId, vehicleId);
                 return true;
             }
         }
+        associationCache.invalidate(userId);
         LOGGER.error("Failed to disassociating vehicle:{} from user:{},http status code:{}", vehicleId,
             userId, response.getStatusCode());
         throw new DisassociationFailedException(FAILED_TO_DISASSOCIATED_VEHICLE,
@@ -784,6 +1313,9 @@ public class VehicleProfileClient {
      * @return true if associated successfully
      * @throws AssociationFailedException if any error occurred during association
      */
+    @Timed(name = "associateVehicle-timed")
+    @ExceptionMetered(name = "associateVehicle-exceptions")
+    @Counted(name = "associateVehicle-counted")
     public boolean associateVehicle(String userId, String vehicleId, String status)
         throws AssociationFailedException {
         URI associateVehiclePath = UriComponentsBuilder.fromUriString(associateVehicleUrl)
@@ -795,8 +1327,13 @@ public class VehicleProfileClient {
         data.put(STATUS, status);
         
         HttpEntity<Map<String, String>> entity = new HttpEntity<>(data);
-        ResponseEntity<String> response =
-            restTemplate.exchange(associateVehiclePath, HttpMethod.POST, entity, String.class);
+        ResponseEntity<String> response;
+        try {
+            response = call(ASSOCIATION_CIRCUIT, "associateVehicle", false,
+                () -> restTemplate.exchange(associateVehiclePath, HttpMethod.POST, entity, String.class));
+        } finally {
+            associationCache.invalidate(userId);
+        }
         if (response.getStatusCode().is2xxSuccessful()) {
             LOGGER.debug("associated vehicle:{} with user:{}", vehicleId, userId);
             return JsonPath.read(response.getBody(), DATA);
@@ -807,6 +1344,100 @@ public class VehicleProfileClient {
             String.format("Failed to associating vehicle:%s with user:%s", vehicleId, userId));
     }
     
+    /**
+     * Associate each user to its vehicle profile.<br/>
+     * the pairs are associated in parallel on their own executor, at most
+     * vehicle.profile.bulk.max.concurrency submitted at a time across all the bulk associations
+     * and disassociations. a failed pair is reported in its own result
+     * and does not fail the association of the other pairs.
+     *
+     * @param userVehicles pairs of user id and vehicle id to be associated
+     * @param status       to be sent while associated
+     * @return result of each pair in the order of the pairs, with the throughput and latency of the calls
+     */
+    @Timed(name = "associateVehicles-timed")
+    @ExceptionMetered(name = "associateVehicles-exceptions")
+    @Counted(name = "associateVehicles-counted")
+    public VehicleAssociationBulkResult associateVehicles(Collection<Pair<String, String>> userVehicles,
+                                                          String status) {
+        return runBulkAssociation("associate", userVehicles, (userId, vehicleId) -> {
+            if (!associateVehicle(userId, vehicleId, status)) {
+                throw new AssociationFailedException(FAILED_TO_ASSOCIATED_VEHICLE,
+                    String.format("Failed to associating vehicle:%s with user:%s", vehicleId, userId));
+            }
+        });
+    }
+    
+    /**
+     * Disassociate each user from its vehicle profile.<br/>
+     * the pairs are disassociated in parallel on their own executor, at most
+     * vehicle.profile.bulk.max.concurrency submitted at a time across all the bulk associations
+     * and disassociations. a failed pair is reported in its own result
+     * and does not fail the disassociation of the other pairs.
+     *
+     * @param userVehicles pairs of user id and vehicle id to be disassociated
+     * @return result of each pair in the order of the pairs, with the throughput and latency of the calls
+     */
+    @Timed(name = "disassociateVehicles-timed")
+    @ExceptionMetered(name = "disassociateVehicles-exceptions")
+    @Counted(name = "disassociateVehicles-counted")
+    public VehicleAssociationBulkResult disassociateVehicles(Collection<Pair<String, String>> userVehicles) {
+        return runBulkAssociation("disassociate", userVehicles, this::disassociateVehicle);
+    }
+    
+    private VehicleAssociationBulkResult runBulkAssociation(String operation,
+                                                            Collection<Pair<String, String>> userVehicles,
+                                                            AssociationCall associationCall) {
+        LOGGER.debug("Running bulk {} of {} user vehicles", operation, userVehicles.size());
+        ExecutorService executor = getAssociationExecutor();
+        Semaphore permits = associationPermits;
+        long start = System.nanoTime();
+        List<CompletableFuture<VehicleAssociationResult>> calls = new ArrayList<>(userVehicles.size());
+        for (Pair<String, String> userVehicle : userVehicles) {
+            permits.acquireUninterruptibly();
+            try {
+                calls.add(CompletableFuture.supplyAsync(() -> callAssociation(operation, userVehicle.getLeft(),
+                    userVehicle.getRight(), associationCall), executor)
+                    .whenComplete((result, error) -> permits.release()));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw new VehicleProfileException("Failed to submit bulk " + operation + ": " + e.getMessage());
+            }
+        }
+        List<VehicleAssociationResult> results = calls.stream().map(CompletableFuture::join).toList();
+        VehicleAssociationBulkResult bulkResult = new VehicleAssociationBulkResult(results, System.nanoTime() - start);
+        LOGGER.info("Bulk {} of {} user vehicles: {} succeeded, {} failed in {} ms, {} per second", operation,
+            results.size(), bulkResult.getSucceeded(), bulkResult.getFailed(), bulkResult.getElapsedMillis(),
+            bulkResult.getThroughputPerSecond());
+        return bulkResult;
+    }
+    
+    private VehicleAssociationResult callAssociation(String operation, String userId, String vehicleId,
+                                                     AssociationCall associationCall) {
+        long start = System.nanoTime();
+        try {
+            associationCall.call(userId, vehicleId);
+            long latency = System.nanoTime() - start;
+            metrics.timer(BULK_ASSOCIATION_METRIC_NAME, operation).update(latency, TimeUnit.NANOSECONDS);
+            return VehicleAssociationResult.success(userId, vehicleId, latency);
+        } catch (Exception e) {
+            long latency = System.nanoTime() - start;
+            metrics.timer(BULK_ASSOCIATION_METRIC_NAME, operation).update(latency, TimeUnit.NANOSECONDS);
+            metrics.counter(BULK_ASSOCIATION_METRIC_NAME, operation, "failures").inc();
+            LOGGER.debug("Bulk {} of vehicle:{} and user:{} failed: {}", operation, vehicleId, userId,
+                e.getMessage());
+            return VehicleAssociationResult.failure(userId, vehicleId, e, latency);
+        }
+    }
+    
+    /**
+     * association or disassociation of a single user and vehicle.
+     */
+    @FunctionalInterface
+    private interface AssociationCall {
+        void call(String userId, String vehicleId) throws Exception;
+    }
+    
     /**
      * Validate if the requested service id is provisioned in vehicle profile.
      *
@@ -815,6 +1446,9 @@ public class VehicleProfileClient {
      * @param jsonPath  path of the service id in the vehicle profile
      * @return true if the service id is provisioned in vehicle profile
      */
+    @Timed(name = "isServiceProvisioned-timed")
+    @ExceptionMetered(name = "isServiceProvisioned-exceptions")
+    @Counted(name = "isServiceProvisioned-counted")
     public boolean isServiceProvisioned(String vehicleId, String serviceId, String jsonPath) {
         try {
             Optional<String> vpJson = this.getVehicleProfileJson(vehicleId);
@@ -840,63 +1474,52 @@ public class VehicleProfileClient {
      * @param vehicleAttributes vehicle attributes to be fetched from vehicle profile
      * @return Map of vehicle attributes
      */
-    @Timed(name = "showAll-timed")
-    @ExceptionMetered
-    @Counted(name = "showAll-counted")
+    @Timed(name = "getVehicleProfileAttributesForVin-timed")
+    @ExceptionMetered(name = "getVehicleProfileAttributesForVin-exceptions")
+    @Counted(name = "getVehicleProfileAttributesForVin-counted")
     public Map<VehicleProfileAttribute, Optional<String>> getVehicleProfileAttributesForVin(
         String vin, boolean ignoreError,
         VehicleProfileAttribute... vehicleAttributes) {
         LOGGER.debug(FETCHING_FOR_VEHICLE, Arrays.toString(vehicleAttributes), vin);
-        String responseJson = invokeVehicleProfileGetRestApiForVin(vin, ignoreError);
+        byte[] responseJson = invokeVehicleProfileGetRestApiForVin(vin, ignoreError);
         
-        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals =
-            createvehicleProfileVals(ignoreError,
-                responseJson, vehicleAttributes);
+        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals = metrics.time(
+            () -> vehicleProfileReader.readAttributes(ignoreError,
+                VehicleProfileDocument.unparsed(responseJson), vehicleAttributes),
+            EXTRACTION_METRIC_NAME, "getVehicleProfileAttributesForVin");
         
         LOGGER.debug(FETCHED_VALUES_FOR_VEHICLE, vehicleProfileVals, vin);
         return vehicleProfileVals;
     }
     
-    private String invokeVehicleProfileGetRestApiForVin(String vin, boolean ignoreError) {
-        String result = "";
+    private byte[] invokeVehicleProfileGetRestApiForVin(String vin, boolean ignoreError) {
+        byte[] result = EMPTY_RESPONSE;
         String vehicleProfileGetPath =
             UriComponentsBuilder.fromUriString(vehicleProfileEndPoint).queryParam("vin", vin)
                 .toUriString();
         try {
-            ResponseEntity<String> response =
-                restTemplate.getForEntity(vehicleProfileGetPath, String.class);
+            if (negativeCache.isNotFound(LookupType.VIN, vin)) {
+                throw new VehicleProfileNotFoundException("No vehicle profile found for vin: " + vin);
+            }
+            ResponseEntity<byte[]> response = hedgedCall(VEHICLE_PROFILE_CIRCUIT, "vehicleProfileByVin",
+                () -> restTemplate.getForEntity(vehicleProfileGetPath, byte[].class));
+            if (isNotFound(response)) {
+                negativeCache.putNotFound(LookupType.VIN, vin);
+            }
             if (response.getStatusCode().is2xxSuccessful()) {
                 result = response.getBody();
             }
         } catch (Exception e) {
+            if (e instanceof HttpClientErrorException.NotFound) {
+                negativeCache.putNotFound(LookupType.VIN, vin);
+            }
             LOGGER.debug("Error while querying vehicle profile for vechileId {}: {}", vin,
                 e.getMessage());
             if (!ignoreError) {
                 throw new VehicleProfileException(e);
             }
         }
-        LOGGER.debug(RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID, vin, result);
+        LOGGER.debug(RESPONSE_FROM_VEHICLE_PROFILE_FOR_VEHICLE_ID, vin, result == null ? 0 : result.length);
         return result;
     }
-    
-    private Map<VehicleProfileAttribute, Optional<String>> createvehicleProfileVals(
-        boolean ignoreError,
-        String responseJson, VehicleProfileAttribute... vehicleAttributes) {
-        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals =
-            new EnumMap<>(VehicleProfileAttribute.class);
-        for (VehicleProfileAttribute v : vehicleAttributes) {
-            try {
-                String jsonValue = JsonPath.read(responseJson, v.getJsonPath());
-                vehicleProfileVals.put(v, Optional.ofNullable(jsonValue));
-            } catch (Exception e) {
-                LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, v.getJsonPath(), e.getMessage());
-                if (!ignoreError) {
-                    throw new VehicleProfileException(e);
-                } else {
-                    vehicleProfileVals.put(v, Optional.empty());
-                }
-            }
-        }
-        return vehicleProfileVals;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * caches, resilience features and metrics shared by {@link VehicleProfileClient}
+ * and {@link VehicleProfileAsyncClient}.<br/>
+ * injected as a single bean, so a new optional feature does not change the constructors of the clients.
+ * outside of spring, create it with {@link #builder(VehicleProfileMetrics)}, every feature not set is disabled.
+ */
+@Getter
+@Component
+public class VehicleProfileClientCollaborators {
+    private final JsonPathRegistry jsonPathRegistry;
+    private final VehicleProfileCache vehicleProfileCache;
+    private final VehicleProfileClientIdIndex clientIdIndex;
+    private final VehicleProfileMetrics metrics;
+    private final VehicleProfileResilience resilience;
+    private final VehicleProfileHedging hedging;
+    private final VehicleProfileRetry retry;
+    private final VehicleProfileNegativeCache negativeCache;
+    private final VehicleProfileAssociationCache associationCache;
+
+    /**
+     * Constructor for {@link VehicleProfileClientCollaborators}.
+     *
+     * @param jsonPathRegistry    registry of compiled json paths for on-demand attributes
+     * @param vehicleProfileCache near-cache of vehicle profiles
+     * @param clientIdIndex       index of vehicle ids by ecu client id
+     * @param metrics             vehicle profile client metrics
+     * @param resilience          circuit breakers and bulkheads of the vehicle profile endpoints
+     * @param hedging             hedging of the idempotent vehicle profile reads
+     * @param retry               retry of the failed vehicle profile calls
+     * @param negativeCache       cache of the lookups which found no vehicle
+     * @param associationCache    cache of the vehicles associated to each user
+     */
+    @Autowired
+    public VehicleProfileClientCollaborators(JsonPathRegistry jsonPathRegistry,
+                                             VehicleProfileCache vehicleProfileCache,
+                                             VehicleProfileClientIdIndex clientIdIndex,
+                                             VehicleProfileMetrics metrics,
+                                             VehicleProfileResilience resilience,
+                                             VehicleProfileHedging hedging,
+                                             VehicleProfileRetry retry,
+                                             VehicleProfileNegativeCache negativeCache,
+                                             VehicleProfileAssociationCache associationCache) {
+        this.jsonPathRegistry = jsonPathRegistry;
+        this.vehicleProfileCache = vehicleProfileCache;
+        this.clientIdIndex = clientIdIndex;
+        this.metrics = metrics;
+        this.resilience = resilience;
+        this.hedging = hedging;
+        this.retry = retry;
+        this.negativeCache = negativeCache;
+        this.associationCache = associationCache;
+    }
+
+    /**
+     * Create a builder with every optional feature disabled.
+     *
+     * @param metrics vehicle profile client metrics
+     * @return builder of the collaborators
+     */
+    public static Builder builder(VehicleProfileMetrics metrics) {
+        return new Builder(metrics);
+    }
+
+    /**
+     * builder of {@link VehicleProfileClientCollaborators}, for use outside of spring.
+     */
+    public static final class Builder {
+        private final VehicleProfileMetrics metrics;
+        private JsonPathRegistry jsonPathRegistry = new JsonPathRegistry(JsonPathRegistry.DEFAULT_MAX_SIZE);
+        private VehicleProfileCache vehicleProfileCache = VehicleProfileCache.disabled();
+        private VehicleProfileClientIdIndex clientIdIndex = VehicleProfileClientIdIndex.disabled();
+        private VehicleProfileResilience resilience = VehicleProfileResilience.disabled();
+        private VehicleProfileHedging hedging = VehicleProfileHedging.disabled();
+        private VehicleProfileRetry retry = VehicleProfileRetry.disabled();
+        private VehicleProfileNegativeCache negativeCache = VehicleProfileNegativeCache.disabled();
+        private VehicleProfileAssociationCache associationCache = VehicleProfileAssociationCache.disabled();
+
+        private Builder(VehicleProfileMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        /**
+         * set the registry of compiled json paths.
+         *
+         * @param jsonPathRegistry registry of compiled json paths for on-demand attributes
+         * @return this builder
+         */
+        public Builder jsonPathRegistry(JsonPathRegistry jsonPathRegistry) {
+            this.jsonPathRegistry = jsonPathRegistry;
+            return this;
+        }
+
+        /**
+         * set the near-cache of vehicle profiles.
+         *
+         * @param vehicleProfileCache near-cache of vehicle profiles
+         * @return this builder
+         */
+        public Builder vehicleProfileCache(VehicleProfileCache vehicleProfileCache) {
+            this.vehicleProfileCache = vehicleProfileCache;
+            return this;
+        }
+
+        /**
+         * set the index of vehicle ids by ecu client id.
+         *
+         * @param clientIdIndex index of vehicle ids by ecu client id
+         * @return this builder
+         */
+        public Builder clientIdIndex(VehicleProfileClientIdIndex clientIdIndex) {
+            this.clientIdIndex = clientIdIndex;
+            return this;
+        }
+
+        /**
+         * set the circuit breakers and bulkheads.
+         *
+         * @param resilience circuit breakers and bulkheads of the vehicle profile endpoints
+         * @return this builder
+         */
+        public Builder resilience(VehicleProfileResilience resilience) {
+            this.resilience = resilience;
+            return this;
+        }
+
+        /**
+         * set the hedging of the idempotent reads.
+         *
+         * @param hedging hedging of the idempotent vehicle profile reads
+         * @return this builder
+         */
+        public Builder hedging(VehicleProfileHedging hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        /**
+         * set the retry of the failed calls.
+         *
+         * @param retry retry of the failed vehicle profile calls
+         * @return this builder
+         */
+        public Builder retry(VehicleProfileRetry retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        /**
+         * set the cache of the lookups which found no vehicle.
+         *
+         * @param negativeCache cache of the lookups which found no vehicle
+         * @return this builder
+         */
+        public Builder negativeCache(VehicleProfileNegativeCache negativeCache) {
+            this.negativeCache = negativeCache;
+            return this;
+        }
+
+        /**
+         * set the cache of the vehicles associated to each user.
+         *
+         * @param associationCache cache of the vehicles associated to each user
+         * @return this builder
+         */
+        public Builder associationCache(VehicleProfileAssociationCache associationCache) {
+            this.associationCache = associationCache;
+            return this;
+        }
+
+        /**
+         * Create the collaborators.
+         *
+         * @return collaborators of the vehicle profile clients
+         */
+        public VehicleProfileClientCollaborators build() {
+            return new VehicleProfileClientCollaborators(jsonPathRegistry, vehicleProfileCache, clientIdIndex,
+                metrics, resilience, hedging, retry, negativeCache, associationCache);
+        }
+    }
+}
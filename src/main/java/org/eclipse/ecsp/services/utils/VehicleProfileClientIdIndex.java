@@ -0,0 +1,171 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.jayway.jsonpath.JsonPath;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * bounded index of vehicle ids keyed by the client ids of the vehicle ecus.<br/>
+ * filled from every vehicle profile fetched by the client, so a lookup by client id
+ * can use the vehicle id api, or the cached profile, instead of the client id search.
+ * disabled by default, enable with vehicle.profile.client.id.index.enabled=true.
+ * indexing reads the client ids of all the ecus, so the fetched profiles are fully parsed.
+ */
+@Component
+public class VehicleProfileClientIdIndex {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileClientIdIndex.class);
+    private static final String INDEX_METRIC_NAME = "clientIdIndex";
+    private static final JsonPath ECU_CLIENT_IDS_PATH = JsonPath.compile("$.data.ecus.*.clientId");
+    private static final long ENTRY_WEIGHT = 1L;
+
+    private final boolean enabled;
+    private final BoundedTtlCache<String, String> index;
+
+    /**
+     * Constructor for {@link VehicleProfileClientIdIndex}.
+     *
+     * @param enabled    true to enable the index
+     * @param ttlMs      time to live of the indexed client ids in milliseconds
+     * @param maxEntries maximum number of indexed client ids
+     * @param metrics    vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileClientIdIndex(@Value("${vehicle.profile.client.id.index.enabled:false}") boolean enabled,
+                                       @Value("${vehicle.profile.client.id.index.ttl.ms:3600000}") long ttlMs,
+                                       @Value("${vehicle.profile.client.id.index.max.entries:100000}")
+                                       int maxEntries,
+                                       VehicleProfileMetrics metrics) {
+        this.enabled = enabled;
+        this.index = new BoundedTtlCache<>(ttlMs, maxEntries, 0);
+        if (enabled) {
+            metrics.gauge(index::hitCount, INDEX_METRIC_NAME, "hits");
+            metrics.gauge(index::missCount, INDEX_METRIC_NAME, "misses");
+            metrics.gauge(index::size, INDEX_METRIC_NAME, "size");
+            LOGGER.info("vehicle profile client id index enabled");
+        }
+    }
+
+    /**
+     * Create a disabled client id index.
+     *
+     * @return disabled index
+     */
+    public static VehicleProfileClientIdIndex disabled() {
+        return new VehicleProfileClientIdIndex(false, 0, 0, new VehicleProfileMetrics(new MetricRegistry()));
+    }
+
+    /**
+     * check if the index is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fetch the vehicle id of the client id.
+     *
+     * @param clientId ecu client id
+     * @return indexed vehicle id, empty if not indexed, expired or the index is disabled
+     */
+    public Optional<String> getVehicleId(String clientId) {
+        if (!enabled || clientId == null) {
+            return Optional.empty();
+        }
+        return index.get(clientId);
+    }
+
+    /**
+     * Index the client ids of all the ecus of the vehicle profile.<br/>
+     * a profile without vehicle id or ecus is not indexed.
+     *
+     * @param document vehicle profile
+     */
+    public void index(VehicleProfileDocument document) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String vehicleId = document.read(VehicleProfileAttribute.VEHICLE_ID);
+            if (StringUtils.isEmpty(vehicleId)) {
+                return;
+            }
+            List<Object> clientIds = document.read(ECU_CLIENT_IDS_PATH);
+            for (Object clientId : clientIds) {
+                if (clientId instanceof String id && !id.isEmpty()) {
+                    index.put(id, vehicleId, ENTRY_WEIGHT);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.trace("Vehicle profile not indexed by client id: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * check if the vehicle profile still contains the client id,
+     * ecus may have been replaced since the client id was indexed.
+     *
+     * @param document vehicle profile
+     * @param clientId ecu client id
+     * @return true if any ecu of the vehicle profile has the client id
+     */
+    public boolean matches(VehicleProfileDocument document, String clientId) {
+        try {
+            List<Object> clientIds = document.read(ECU_CLIENT_IDS_PATH);
+            return clientIds.contains(clientId);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Remove the client id from the index.
+     *
+     * @param clientId ecu client id
+     */
+    public void invalidate(String clientId) {
+        if (enabled) {
+            index.invalidate(clientId);
+        }
+    }
+
+    /**
+     * Remove all the client ids of the vehicle from the index.
+     *
+     * @param vehicleId vehicle id
+     * @return number of removed client ids
+     */
+    public int invalidateVehicle(String vehicleId) {
+        if (!enabled) {
+            return 0;
+        }
+        return index.invalidateIf((clientId, indexedVehicleId) -> indexedVehicleId.equals(vehicleId));
+    }
+}
@@ -0,0 +1,737 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * second level cache of vehicle profiles, persisted in a local memory-mapped file
+ * so that restarted instances come up with a warm cache.<br/>
+ * the file is an append log of checksummed records, a profile or a removal keyed by vehicle id,
+ * indexed in memory on startup. a record failing its checksum ends the log, e.g. one torn by a crash.
+ * the file never grows beyond max.bytes, when full the live profiles are copied to a new file,
+ * dropping the removed, replaced and expired profiles, and the oldest profiles if still more than half full.
+ * the profiles are stored as deflated json with the validators of the response.
+ * the writes are queued and written to the file by a single background thread, the queued writes of a vehicle
+ * coalesce into the latest one and are served by {@link #get(String)} until written.
+ * up to 10000 profiles are queued, the profiles put while the queue is full are not stored.
+ * the file is locked exclusively while open, the disk cache is disabled if another instance holds the lock,
+ * e.g. another service on the same host, so give every instance its own file.
+ * disabled by default, enable with vehicle.profile.disk.cache.enabled=true.
+ */
+@Component
+public class VehicleProfileDiskCache implements DisposableBean {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileDiskCache.class);
+    private static final String DISK_CACHE_METRIC_NAME = "diskCache";
+    private static final int MAGIC = 0x56504331;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int NO_VALUE = -1;
+    private static final int COMPACTION_FILL_PERCENT = 50;
+    private static final int PERCENT = 100;
+    private static final String COMPACTION_SUFFIX = ".compact";
+    private static final String WRITER_THREAD_NAME = "vehicle-profile-disk-writer";
+    private static final int MAX_PENDING_WRITES = 10000;
+
+    private final boolean enabled;
+    private final Path file;
+    private final int maxBytes;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Integer> index = new LinkedHashMap<>();
+    private final LinkedHashMap<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    private final ExecutorService writer;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter writes;
+    private final Counter compactions;
+    private final Counter corruptedRecords;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int pendingPuts;
+    private long clearRequests;
+    private long appliedClearRequests;
+    private boolean writeScheduled;
+
+    /**
+     * Constructor for {@link VehicleProfileDiskCache}.
+     *
+     * @param enabled  true to enable the disk cache
+     * @param file     file of the disk cache
+     * @param maxBytes maximum size of the file in bytes
+     * @param ttlMs    time to live of the stored profiles in milliseconds, also across restarts
+     * @param metrics  vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileDiskCache(@Value("${vehicle.profile.disk.cache.enabled:false}") boolean enabled,
+                                   @Value("${vehicle.profile.disk.cache.file:${java.io.tmpdir}/vehicle-profiles.log}")
+                                   String file,
+                                   @Value("${vehicle.profile.disk.cache.max.bytes:268435456}") int maxBytes,
+                                   @Value("${vehicle.profile.disk.cache.ttl.ms:${vehicle.profile.cache.ttl.ms:300000}}")
+                                   long ttlMs,
+                                   VehicleProfileMetrics metrics) {
+        this(enabled, Paths.get(file), maxBytes, ttlMs, metrics, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileDiskCache}.
+     *
+     * @param enabled  true to enable the disk cache
+     * @param file     file of the disk cache, loaded if it exists
+     * @param maxBytes maximum size of the file in bytes
+     * @param ttlMs    time to live of the stored profiles in milliseconds, also across restarts
+     * @param metrics  vehicle profile client metrics
+     * @param clock    current time in milliseconds
+     */
+    public VehicleProfileDiskCache(boolean enabled, Path file, int maxBytes, long ttlMs,
+                                   VehicleProfileMetrics metrics, LongSupplier clock) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.hits = metrics.counter(DISK_CACHE_METRIC_NAME, "hits");
+        this.misses = metrics.counter(DISK_CACHE_METRIC_NAME, "misses");
+        this.writes = metrics.counter(DISK_CACHE_METRIC_NAME, "writes");
+        this.compactions = metrics.counter(DISK_CACHE_METRIC_NAME, "compactions");
+        this.corruptedRecords = metrics.counter(DISK_CACHE_METRIC_NAME, "corruptedRecords");
+        this.enabled = enabled && open();
+        this.writer = this.enabled ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, WRITER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (this.enabled) {
+            metrics.gauge(this::size, DISK_CACHE_METRIC_NAME, "size");
+            metrics.gauge(this::bytes, DISK_CACHE_METRIC_NAME, "bytes");
+            LOGGER.info("vehicle profile disk cache enabled, {} profiles loaded from {}", index.size(), file);
+        }
+    }
+
+    /**
+     * Create a disabled disk cache.
+     *
+     * @return disabled disk cache
+     */
+    public static VehicleProfileDiskCache disabled() {
+        return new VehicleProfileDiskCache(false, null, 0, 0, new VehicleProfileMetrics(new MetricRegistry()),
+            System::currentTimeMillis);
+    }
+
+    /**
+     * check if the disk cache is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Fetch the stored vehicle profile.
+     *
+     * @param vehicleId vehicle id
+     * @return unparsed vehicle profile, empty if not stored, expired, corrupted or the disk cache is disabled
+     */
+    public Optional<VehicleProfileDocument> get(String vehicleId) {
+        return getStored(vehicleId).map(StoredProfile::document);
+    }
+
+    /**
+     * Fetch the stored vehicle profile along with the time it was stored.
+     *
+     * @param vehicleId vehicle id
+     * @return unparsed vehicle profile and the time it was stored, empty if not stored, expired, corrupted
+     *     or the disk cache is disabled
+     */
+    public Optional<StoredProfile> getStored(String vehicleId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (pendingWrites) {
+            PendingWrite pendingWrite = pendingWrites.get(vehicleId);
+            if (pendingWrite != null || clearRequests != appliedClearRequests) {
+                Optional<StoredProfile> document = Optional.ofNullable(pendingWrite == null
+                    || pendingWrite.document == null ? null
+                    : new StoredProfile(pendingWrite.document, pendingWrite.queuedAt));
+                if (document.isEmpty()) {
+                    misses.inc();
+                } else {
+                    hits.inc();
+                }
+                return document;
+            }
+        }
+        lock.lock();
+        try {
+            Integer offset = index.get(vehicleId);
+            Optional<StoredProfile> document = offset == null ? Optional.empty() : readDocument(offset);
+            if (document.isEmpty()) {
+                misses.inc();
+            } else {
+                hits.inc();
+            }
+            return document;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store the vehicle profile, replacing the stored one.<br/>
+     * the profile is written in the background, a profile larger than half the file is not stored.
+     *
+     * @param vehicleId vehicle id
+     * @param document  vehicle profile
+     */
+    public void put(String vehicleId, VehicleProfileDocument document) {
+        if (enabled) {
+            enqueue(vehicleId, new PendingWrite(document, clock.getAsLong()));
+        }
+    }
+
+    /**
+     * Remove the stored vehicle profile.<br/>
+     * the removal is written in the background.
+     *
+     * @param vehicleId vehicle id
+     */
+    public void remove(String vehicleId) {
+        if (enabled) {
+            enqueue(vehicleId, new PendingWrite(null, clock.getAsLong()));
+        }
+    }
+
+    /**
+     * Remove all the stored vehicle profiles.<br/>
+     * the queued writes are dropped, and the file is cleared in the background.
+     */
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pendingWrites) {
+            pendingWrites.clear();
+            pendingPuts = 0;
+            clearRequests++;
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * wait until the queued writes are written to the file.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            writer.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            LOGGER.warn("Failed to flush vehicle profile disk cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * number of stored vehicle profiles, including the expired profiles not yet compacted.
+     *
+     * @return number of profiles
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * bytes used in the file, including the removed and replaced profiles not yet compacted.
+     *
+     * @return used bytes
+     */
+    public long bytes() {
+        lock.lock();
+        try {
+            return writePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * flush the stored profiles to the file and close it.
+     */
+    @Override
+    public void destroy() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        writer.shutdownNow();
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close vehicle profile disk cache {}: {}", file, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(String vehicleId, PendingWrite pendingWrite) {
+        synchronized (pendingWrites) {
+            PendingWrite replaced = pendingWrites.get(vehicleId);
+            boolean replacedPut = replaced != null && replaced.document != null;
+            if (pendingWrite.document != null && !replacedPut && pendingPuts >= MAX_PENDING_WRITES) {
+                LOGGER.debug("Disk cache write queue full, vehicle profile not stored for vehicleId {}", vehicleId);
+                return;
+            }
+            pendingWrites.remove(vehicleId);
+            pendingWrites.put(vehicleId, pendingWrite);
+            pendingPuts += (pendingWrite.document != null ? 1 : 0) - (replacedPut ? 1 : 0);
+            scheduleWrite();
+        }
+    }
+
+    /**
+     * start the background writer if not running, the caller holds the pending writes monitor.
+     */
+    private void scheduleWrite() {
+        if (writeScheduled) {
+            return;
+        }
+        try {
+            writer.execute(this::writePending);
+            writeScheduled = true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Vehicle profile disk cache closed, write not scheduled");
+        }
+    }
+
+    /**
+     * write the queued writes to the file until none is left.<br/>
+     * the written ones are dequeued after writing them, unless replaced meanwhile,
+     * so {@link #get(String)} serves them until then.
+     */
+    private void writePending() {
+        while (true) {
+            long clears;
+            List<Map.Entry<String, PendingWrite>> batch = new ArrayList<>();
+            synchronized (pendingWrites) {
+                clears = clearRequests;
+                if (clears == appliedClearRequests && pendingWrites.isEmpty()) {
+                    writeScheduled = false;
+                    return;
+                }
+                pendingWrites.forEach((vehicleId, pendingWrite) -> batch.add(Map.entry(vehicleId, pendingWrite)));
+            }
+            lock.lock();
+            try {
+                if (clears != appliedClearRequests) {
+                    clearFile();
+                }
+                for (Map.Entry<String, PendingWrite> write : batch) {
+                    write(write.getKey(), write.getValue());
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Failed to write vehicle profile disk cache {}: {}", file, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+            synchronized (pendingWrites) {
+                appliedClearRequests = clears;
+                for (Map.Entry<String, PendingWrite> write : batch) {
+                    if (pendingWrites.remove(write.getKey(), write.getValue()) && write.getValue().document != null) {
+                        pendingPuts--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * write a profile or its removal to the file, the caller holds the lock.
+     */
+    private void write(String vehicleId, PendingWrite pendingWrite) {
+        VehicleProfileDocument document = pendingWrite.document;
+        if (document == null) {
+            if (index.containsKey(vehicleId)) {
+                append(vehicleId, encode(REMOVE, vehicleId, null, null, null, pendingWrite.queuedAt));
+            }
+            return;
+        }
+        byte[] json;
+        try {
+            json = document.jsonBytes();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Invalid vehicle profile not stored on disk for vehicleId {}", vehicleId);
+            return;
+        }
+        if (append(vehicleId, encode(PUT, vehicleId, document.getEtag(), document.getLastModified(), json,
+            pendingWrite.queuedAt))) {
+            writes.inc();
+        } else {
+            write(vehicleId, new PendingWrite(null, pendingWrite.queuedAt));
+        }
+    }
+
+    private void clearFile() {
+        index.clear();
+        writePosition = HEADER_SIZE;
+        buffer.putInt(writePosition, 0);
+    }
+
+    private boolean open() {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            if (!tryLock(channel)) {
+                LOGGER.warn("Vehicle profile disk cache disabled, {} is locked by another instance", file);
+                closeQuietly(channel);
+                return false;
+            }
+            if (channel.size() > maxBytes) {
+                channel.truncate(maxBytes);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+            load();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Vehicle profile disk cache disabled, failed to open {}: {}", file, e.getMessage());
+            closeQuietly(channel);
+            return false;
+        }
+    }
+
+    /**
+     * lock the file exclusively, the lock is released when the channel is closed.
+     */
+    private static boolean tryLock(FileChannel fileChannel) throws IOException {
+        try {
+            return fileChannel.tryLock() != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    /**
+     * index the records of the log, up to the first empty, truncated or corrupted record.
+     */
+    private void load() {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(HEADER_SIZE, 0);
+            writePosition = HEADER_SIZE;
+            return;
+        }
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= maxBytes) {
+            int length = buffer.getInt(position);
+            if (length <= 0) {
+                break;
+            }
+            if (length > maxBytes - position - RECORD_HEADER_SIZE || !isChecksumValid(position, length)) {
+                corruptedRecords.inc();
+                LOGGER.warn("Corrupted record at {} in vehicle profile disk cache {}, ignoring the rest of the log",
+                    position, file);
+                buffer.putInt(position, 0);
+                break;
+            }
+            String vehicleId = readString(position + RECORD_HEADER_SIZE + Byte.BYTES + Long.BYTES);
+            index.remove(vehicleId);
+            if (buffer.get(position + RECORD_HEADER_SIZE) == PUT) {
+                index.put(vehicleId, position);
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        writePosition = position;
+    }
+
+    private static ByteBuffer encode(byte type, String vehicleId, String etag, String lastModified, byte[] json,
+                                     long writtenAt) {
+        byte[] key = vehicleId.getBytes(StandardCharsets.UTF_8);
+        byte[] etagBytes = etag == null ? null : etag.getBytes(StandardCharsets.UTF_8);
+        byte[] lastModifiedBytes = lastModified == null ? null : lastModified.getBytes(StandardCharsets.UTF_8);
+        byte[] value = json == null ? null : deflate(json);
+        int length = Byte.BYTES + Long.BYTES + sizeOf(key) + sizeOf(etagBytes) + sizeOf(lastModifiedBytes)
+            + Integer.BYTES + sizeOf(value);
+        ByteBuffer body = ByteBuffer.allocate(length);
+        body.put(type).putLong(writtenAt);
+        putBytes(body, key);
+        putBytes(body, etagBytes);
+        putBytes(body, lastModifiedBytes);
+        body.putInt(json == null ? NO_VALUE : json.length);
+        putBytes(body, value);
+        return body.flip();
+    }
+
+    /**
+     * append the record, compacting the log if it does not fit.
+     */
+    private boolean append(String vehicleId, ByteBuffer body) {
+        int recordSize = RECORD_HEADER_SIZE + body.remaining();
+        if (recordSize > (maxBytes - HEADER_SIZE) * COMPACTION_FILL_PERCENT / PERCENT) {
+            LOGGER.debug("Vehicle profile too large for the disk cache, vehicleId {}", vehicleId);
+            return false;
+        }
+        if (writePosition + recordSize + Integer.BYTES > maxBytes && !compact(recordSize)) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        int position = writePosition;
+        buffer.putInt(position, body.remaining());
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        buffer.put(position + RECORD_HEADER_SIZE, body, body.position(), body.remaining());
+        buffer.putInt(position + recordSize, 0);
+        writePosition = position + recordSize;
+        index.remove(vehicleId);
+        if (body.get(0) == PUT) {
+            index.put(vehicleId, position);
+        }
+        return true;
+    }
+
+    /**
+     * copy the live records to a new file replacing the log, oldest first,
+     * dropping the expired records and the oldest ones until the file is at most half full.
+     */
+    private boolean compact(int reservedBytes) {
+        long expiredBefore = clock.getAsLong() - ttlMs;
+        long liveBytes = 0;
+        for (int offset : index.values()) {
+            liveBytes += RECORD_HEADER_SIZE + buffer.getInt(offset);
+        }
+        long maxLiveBytes = (long) (maxBytes - HEADER_SIZE) * COMPACTION_FILL_PERCENT / PERCENT - reservedBytes;
+        Path compactedFile = file.resolveSibling(file.getFileName() + COMPACTION_SUFFIX);
+        FileChannel compactedChannel = null;
+        try {
+            compactedChannel = FileChannel.open(compactedFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            if (!tryLock(compactedChannel)) {
+                throw new IOException("compacted file is locked by another instance");
+            }
+            MappedByteBuffer compactedBuffer = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+            compactedBuffer.putInt(0, MAGIC);
+            int position = HEADER_SIZE;
+            LinkedHashMap<String, Integer> compactedIndex = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, Integer>> entries = index.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<String, Integer> entry = entries.next();
+                int offset = entry.getValue();
+                int recordSize = RECORD_HEADER_SIZE + buffer.getInt(offset);
+                if (liveBytes > maxLiveBytes || writtenAt(offset) <= expiredBefore) {
+                    liveBytes -= recordSize;
+                    continue;
+                }
+                compactedBuffer.put(position, buffer, offset, recordSize);
+                compactedIndex.put(entry.getKey(), position);
+                position += recordSize;
+            }
+            compactedBuffer.putInt(position, 0);
+            compactedBuffer.force();
+            Files.move(compactedFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            closeQuietly(channel);
+            channel = compactedChannel;
+            buffer = compactedBuffer;
+            writePosition = position;
+            LOGGER.debug("Compacted vehicle profile disk cache from {} to {} profiles", index.size(),
+                compactedIndex.size());
+            index.clear();
+            index.putAll(compactedIndex);
+            compactions.inc();
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to compact vehicle profile disk cache {}: {}", file, e.getMessage());
+            closeQuietly(compactedChannel);
+            return false;
+        }
+    }
+
+    private static void closeQuietly(FileChannel fileChannel) {
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            fileChannel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close vehicle profile disk cache file: {}", e.getMessage());
+        }
+    }
+
+    private Optional<StoredProfile> readDocument(int offset) {
+        int length = buffer.getInt(offset);
+        if (!isChecksumValid(offset, length)) {
+            corruptedRecords.inc();
+            String vehicleId = readString(offset + RECORD_HEADER_SIZE + Byte.BYTES + Long.BYTES);
+            index.remove(vehicleId);
+            return Optional.empty();
+        }
+        final long writtenAt = writtenAt(offset);
+        if (writtenAt + ttlMs <= clock.getAsLong()) {
+            return Optional.empty();
+        }
+        int position = offset + RECORD_HEADER_SIZE + Byte.BYTES + Long.BYTES;
+        position += sizeAt(position);
+        final String etag = readString(position);
+        position += sizeAt(position);
+        final String lastModified = readString(position);
+        position += sizeAt(position);
+        int jsonLength = buffer.getInt(position);
+        position += Integer.BYTES;
+        byte[] value = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, value);
+        return Optional.of(new StoredProfile(VehicleProfileDocument.unparsed(inflate(value, jsonLength), etag,
+            lastModified), writtenAt));
+    }
+
+    private boolean isChecksumValid(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + RECORD_HEADER_SIZE, length));
+        return (int) crc.getValue() == buffer.getInt(offset + Integer.BYTES);
+    }
+
+    private long writtenAt(int offset) {
+        return buffer.getLong(offset + RECORD_HEADER_SIZE + Byte.BYTES);
+    }
+
+    private int sizeAt(int position) {
+        return Integer.BYTES + Math.max(0, buffer.getInt(position));
+    }
+
+    private String readString(int position) {
+        int length = buffer.getInt(position);
+        if (length == NO_VALUE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void putBytes(ByteBuffer body, byte[] bytes) {
+        if (bytes == null) {
+            body.putInt(NO_VALUE);
+        } else {
+            body.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static byte[] deflate(byte[] json) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[Math.max(1, Math.min(json.length, Short.MAX_VALUE))];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] value, int jsonLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(value);
+            byte[] json = new byte[jsonLength];
+            int read = 0;
+            while (read < jsonLength && !inflater.finished()) {
+                read += inflater.inflate(json, read, jsonLength - read);
+            }
+            return json;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Invalid vehicle profile in the disk cache", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * vehicle profile stored on disk.
+     *
+     * @param document  unparsed vehicle profile
+     * @param writtenAt time the vehicle profile was stored in milliseconds
+     */
+    public record StoredProfile(VehicleProfileDocument document, long writtenAt) {
+    }
+
+    /**
+     * queued write of a vehicle profile, or of its removal if the document is null.
+     */
+    private static final class PendingWrite {
+        private final VehicleProfileDocument document;
+        private final long queuedAt;
+
+        private PendingWrite(VehicleProfileDocument document, long queuedAt) {
+            this.document = document;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * vehicle profile response parsed once.<br/>
+ * all the requested attributes are read from the same parsed document,
+ * instead of parsing the raw response json for every attribute.
+ * an unparsed document extracts the requested attributes by streaming the raw json instead,
+ * and is parsed only when a value can not be streamed.
+ * an unparsed document keeps the raw json as the utf-8 bytes of the response, as read from the connection,
+ * until it is parsed. a document parsed from the bytes does not keep them,
+ * its json bytes are serialized from the parsed json.
+ */
+public final class VehicleProfileDocument {
+    private static final String DATA_KEY = "data";
+    private static final String DATA_PATH = "$." + DATA_KEY;
+    private static final char PATH_SEPARATOR = '.';
+    private static final JsonPath UPDATED_ON_PATH = JsonPath.compile("$.data.updatedOn");
+    private static final DateTimeFormatter UPDATED_ON_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final Object NOT_FOUND = new Object();
+    private static final Object NULL_VALUE = new Object();
+    private final byte[] json;
+    // keyed by the path string, the same path may be compiled more than once, e.g. past the registry cap
+    private final Map<String, Object> streamedValues = new ConcurrentHashMap<>();
+    private final String etag;
+    private final String lastModified;
+    private volatile DocumentContext documentContext;
+    private volatile RuntimeException parseError;
+
+    private VehicleProfileDocument(byte[] json, DocumentContext documentContext, RuntimeException parseError) {
+        this(json, documentContext, parseError, null, null);
+    }
+
+    private VehicleProfileDocument(byte[] json, DocumentContext documentContext, RuntimeException parseError,
+                                   String etag, String lastModified) {
+        this.json = json;
+        this.documentContext = documentContext;
+        this.parseError = parseError;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Parse the vehicle profile response json.<br/>
+     * parsing never fails here, an invalid or empty json is reported
+     * by every subsequent read, same as reading the raw json would do.
+     *
+     * @param json vehicle profile response json
+     * @return parsed vehicle profile document
+     */
+    public static VehicleProfileDocument parse(String json) {
+        return parse(json, null, null);
+    }
+
+    /**
+     * Parse the vehicle profile response json, keeping the validators of the response
+     * to revalidate the document once it expires from the cache.<br/>
+     * without Last-Modified, the updatedOn of the profile is used instead.
+     *
+     * @param json         vehicle profile response json
+     * @param etag         ETag of the response, null if none
+     * @param lastModified Last-Modified of the response, null if none
+     * @return parsed vehicle profile document
+     */
+    public static VehicleProfileDocument parse(String json, String etag, String lastModified) {
+        try {
+            DocumentContext documentContext = JsonPath.parse(json);
+            return new VehicleProfileDocument(null, documentContext, null, etag,
+                lastModified != null ? lastModified : readUpdatedOn(documentContext));
+        } catch (RuntimeException e) {
+            return new VehicleProfileDocument(null, null, e, etag, lastModified);
+        }
+    }
+
+    /**
+     * Parse the utf-8 bytes of the vehicle profile response json,
+     * see {@link #parse(String, String, String)}.<br/>
+     * the bytes are parsed without decoding them to a string first, and are not kept.
+     *
+     * @param json         utf-8 bytes of the vehicle profile response json
+     * @param etag         ETag of the response, null if none
+     * @param lastModified Last-Modified of the response, null if none
+     * @return parsed vehicle profile document
+     */
+    public static VehicleProfileDocument parse(byte[] json, String etag, String lastModified) {
+        try {
+            DocumentContext documentContext = parseBytes(json);
+            return new VehicleProfileDocument(null, documentContext, null, etag,
+                lastModified != null ? lastModified : readUpdatedOn(documentContext));
+        } catch (RuntimeException e) {
+            return new VehicleProfileDocument(null, null, e, etag, lastModified);
+        }
+    }
+
+    /**
+     * Create the document of the vehicle profile response json without parsing it.<br/>
+     * the attributes are extracted by streaming the json, see {@link StreamingJsonExtractor},
+     * the json is parsed only if a value can not be streamed.
+     * as the streaming stops once the requested values are found, an invalid json
+     * is reported only if the requested values are not found before the error.
+     *
+     * @param json vehicle profile response json
+     * @return unparsed vehicle profile document
+     */
+    public static VehicleProfileDocument unparsed(String json) {
+        return unparsed(json == null ? null : json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create the document of the utf-8 bytes of the vehicle profile response json without parsing it,
+     * see {@link #unparsed(String)}.<br/>
+     * the attributes are streamed from the bytes without decoding the whole json.
+     *
+     * @param json utf-8 bytes of the vehicle profile response json, not copied
+     * @return unparsed vehicle profile document
+     */
+    public static VehicleProfileDocument unparsed(byte[] json) {
+        return new VehicleProfileDocument(json, null, null);
+    }
+
+    /**
+     * Create the document of the utf-8 bytes of the vehicle profile response json without parsing it,
+     * keeping the validators of the response, see {@link #unparsed(byte[])}.
+     *
+     * @param json         utf-8 bytes of the vehicle profile response json, not copied
+     * @param etag         ETag of the response, null if none
+     * @param lastModified Last-Modified of the response, null if none
+     * @return unparsed vehicle profile document
+     */
+    public static VehicleProfileDocument unparsed(byte[] json, String etag, String lastModified) {
+        return new VehicleProfileDocument(json, null, null, etag, lastModified);
+    }
+
+    /**
+     * Create the document of an already parsed vehicle profile, e.g. an item of a multi vehicle response.<br/>
+     * the profile is wrapped as the data of the document, same as in the single vehicle response.
+     *
+     * @param data parsed vehicle profile data
+     * @return vehicle profile document
+     */
+    public static VehicleProfileDocument ofData(Object data) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put(DATA_KEY, data);
+        return new VehicleProfileDocument(null, JsonPath.parse(root), null);
+    }
+
+    /**
+     * Read the value at the provided json path.
+     *
+     * @param jsonPath json path of the value
+     * @param <T>      expected type of the value
+     * @return value at the json path
+     */
+    public <T> T read(String jsonPath) {
+        return getDocumentContext().read(jsonPath);
+    }
+
+    /**
+     * Read the value at the provided compiled json path.
+     *
+     * @param jsonPath compiled json path of the value
+     * @param <T>      expected type of the value
+     * @return value at the json path
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(JsonPath jsonPath) {
+        if (isStreamable()) {
+            Object value = streamedValues.get(jsonPath.getPath());
+            if (value == null) {
+                prefetch(Collections.singletonList(jsonPath));
+                value = streamedValues.get(jsonPath.getPath());
+            }
+            if (value == NULL_VALUE) {
+                return null;
+            }
+            if (value != null && value != NOT_FOUND) {
+                return (T) value;
+            }
+        }
+        return getDocumentContext().read(jsonPath);
+    }
+
+    /**
+     * Read the value of the vehicle profile attribute.
+     *
+     * @param vpa vehicle profile attribute
+     * @param <T> expected type of the value
+     * @return value of the attribute
+     */
+    public <T> T read(VehicleProfileAttribute vpa) {
+        return read(vpa.getCompiledJsonPath());
+    }
+
+    /**
+     * Copy a value read from a document, so that it can be handed out to callers
+     * without exposing the document, e.g. one shared by the near-cache.<br/>
+     * json objects and arrays are copied deeply keeping their type, the scalar values are immutable
+     * and returned as is.
+     *
+     * @param value value read from a document
+     * @param <T>   type of the value
+     * @return copy of the value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T copyOf(T value) {
+        if (value instanceof JSONObject jsonObject) {
+            JSONObject copy = new JSONObject();
+            jsonObject.forEach((key, item) -> copy.put(key, copyOf(item)));
+            return (T) copy;
+        }
+        if (value instanceof JSONArray jsonArray) {
+            JSONArray copy = new JSONArray(jsonArray.size());
+            jsonArray.forEach(item -> copy.add(copyOf(item)));
+            return (T) copy;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(key, copyOf(item)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(copyOf(item)));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * Bind the vehicle profile data to the provided type, without serializing it back to json.<br/>
+     * an unparsed document binds the data node while reading the raw json once,
+     * a parsed document converts the already parsed data.
+     *
+     * @param objectMapper object mapper used to bind the data
+     * @param type         type to bind the data to
+     * @param <T>          type of the bound data
+     * @return bound data, null if the data is null
+     * @throws IOException           if the raw json can not be read or bound to the type
+     * @throws PathNotFoundException if the json has no data
+     */
+    public <T> T readData(ObjectMapper objectMapper, Class<T> type) throws IOException {
+        if (!isStreamable()) {
+            return objectMapper.convertValue(read(DATA_PATH), type);
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.getCurrentName();
+                    parser.nextToken();
+                    if (DATA_KEY.equals(fieldName)) {
+                        return objectMapper.readValue(parser, type);
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+        throw new PathNotFoundException("No results for path: " + DATA_PATH);
+    }
+
+    /**
+     * Extract the values of the vehicle profile attributes in a single streaming pass,
+     * so the following reads of the attributes do not read the json again.<br/>
+     * nothing is done if the document is already parsed.
+     *
+     * @param vehicleAttributes vehicle profile attributes to be read
+     */
+    public void prefetch(VehicleProfileAttribute... vehicleAttributes) {
+        List<JsonPath> jsonPaths = new ArrayList<>(vehicleAttributes.length);
+        for (VehicleProfileAttribute vpa : vehicleAttributes) {
+            jsonPaths.add(vpa.getCompiledJsonPath());
+        }
+        prefetch(jsonPaths);
+    }
+
+    /**
+     * Extract the values of the json paths in a single streaming pass,
+     * so the following reads of the json paths do not read the json again.<br/>
+     * nothing is done if the document is already parsed, and the document is parsed
+     * instead if any of the json paths can not be streamed.
+     *
+     * @param jsonPaths compiled json paths to be read
+     */
+    public void prefetch(Collection<JsonPath> jsonPaths) {
+        if (!isStreamable()) {
+            return;
+        }
+        List<JsonPath> streamablePaths = new ArrayList<>(jsonPaths.size());
+        for (JsonPath jsonPath : jsonPaths) {
+            if (!StreamingJsonExtractor.isSupported(jsonPath)) {
+                // the json has to be parsed for this path anyway, read all the values from the parsed json
+                parseJson();
+                return;
+            }
+            if (!streamedValues.containsKey(jsonPath.getPath())) {
+                streamablePaths.add(jsonPath);
+            }
+        }
+        if (streamablePaths.isEmpty()) {
+            return;
+        }
+        Map<JsonPath, Object> values = Collections.emptyMap();
+        try {
+            values = StreamingJsonExtractor.extract(json, streamablePaths);
+        } catch (IOException e) {
+            // not streamable up to the value, the error is reported by the parsed document
+        }
+        for (JsonPath jsonPath : streamablePaths) {
+            Object value = values.containsKey(jsonPath) ? values.get(jsonPath) : NOT_FOUND;
+            streamedValues.put(jsonPath.getPath(), value == null ? NULL_VALUE : value);
+        }
+    }
+
+    /**
+     * Create a copy of this document with the provided vehicle profile values replaced.<br/>
+     * this document is not modified, as it may be shared by concurrent readers.
+     *
+     * @param changes new values keyed by their dot separated path under the profile data,
+     *                e.g. soldRegion or vehicleAttributes.name
+     * @return patched copy of the document
+     * @throws com.jayway.jsonpath.PathNotFoundException if the parent of a changed value does not exist
+     */
+    public VehicleProfileDocument patch(Map<String, Object> changes) {
+        DocumentContext copy = JsonPath.parse(getDocumentContext().jsonString());
+        changes.forEach((key, value) -> {
+            int separatorIndex = key.lastIndexOf(PATH_SEPARATOR);
+            String parentPath = separatorIndex < 0 ? DATA_PATH
+                : DATA_PATH + PATH_SEPARATOR + key.substring(0, separatorIndex);
+            copy.put(parentPath, key.substring(separatorIndex + 1), value);
+        });
+        return new VehicleProfileDocument(null, copy, null);
+    }
+
+    /**
+     * serialize the document back to json.
+     *
+     * @return json string
+     */
+    public String jsonString() {
+        return getDocumentContext().jsonString();
+    }
+
+    /**
+     * utf-8 bytes of the document json, the response bytes if they were kept.<br/>
+     * the returned bytes may be shared with the document and must not be modified.
+     *
+     * @return utf-8 bytes of the json
+     */
+    public byte[] jsonBytes() {
+        return json != null ? json : jsonString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * ETag of the vehicle profile response.
+     *
+     * @return ETag, null if none
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Last-Modified of the vehicle profile response.
+     *
+     * @return Last-Modified, null if none
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * check if the document can be revalidated with a conditional request.
+     *
+     * @return true if the document has an ETag or a Last-Modified
+     */
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * check if the response json was parsed successfully.<br/>
+     * an unparsed document is parsed to be checked.
+     *
+     * @return true if the document can be read
+     */
+    public boolean isValid() {
+        try {
+            getDocumentContext();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * updatedOn of the profile as http date, null if missing or not readable.
+     */
+    private static String readUpdatedOn(DocumentContext documentContext) {
+        try {
+            String updatedOn = documentContext.read(UPDATED_ON_PATH);
+            return updatedOn == null ? null
+                : DateTimeFormatter.RFC_1123_DATE_TIME.format(OffsetDateTime.parse(updatedOn, UPDATED_ON_FORMAT)
+                    .atZoneSameInstant(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * parse the utf-8 bytes of the json, an empty or missing json fails as an empty json string does.
+     */
+    private static DocumentContext parseBytes(byte[] json) {
+        if (json == null || json.length == 0) {
+            return JsonPath.parse(json == null ? null : "");
+        }
+        return JsonPath.parse(new ByteArrayInputStream(json));
+    }
+
+    private boolean isStreamable() {
+        return json != null && documentContext == null && parseError == null;
+    }
+
+    private DocumentContext getDocumentContext() {
+        if (documentContext == null && parseError == null) {
+            parseJson();
+        }
+        if (parseError != null) {
+            throw parseError;
+        }
+        return documentContext;
+    }
+
+    private synchronized void parseJson() {
+        if (documentContext != null || parseError != null) {
+            return;
+        }
+        try {
+            documentContext = parseBytes(json);
+        } catch (RuntimeException e) {
+            parseError = e;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * hedging of idempotent vehicle profile reads.<br/>
+ * if a call has not answered within the hedging delay, a second identical call is sent and the first
+ * successful response wins. the hedging delay is the configured percentile of the latency of the endpoint,
+ * bounded by the min and max delay. the hedges are limited by a budget, a percentage of the calls,
+ * so hedging cannot double the load of a slow vehicle profile service.
+ * disabled by default, enable with vehicle.profile.hedging.enabled=true.<br/>
+ * the losing call is interrupted but a blocking http read is not aborted, it runs to completion on its hedging
+ * thread and its response is discarded. each hedge is charged to the budget as a full extra call, and the
+ * calls are executed directly on the caller thread while the budget cannot pay for a hedge
+ * or all the hedging threads are busy.
+ */
+@Component
+public class VehicleProfileHedging implements DisposableBean {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileHedging.class);
+    private static final String HEDGING_METRIC_NAME = "hedging";
+    private static final int NO_WINNER = -1;
+    private static final String BUDGET_EXHAUSTED = "budgetExhausted";
+    private static final String THREAD_NAME_PREFIX = "vehicle-profile-hedging-";
+    private static final long MIN_SAMPLES = 20L;
+    private static final long BUDGET_TOKEN = 100L;
+    private static final long MAX_BUDGET_TOKENS = 10L;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+    private final boolean enabled;
+    private final double delayPercentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final int budgetPercent;
+    private final ExecutorService executor;
+    private final VehicleProfileMetrics metrics;
+    private final AtomicLong budget = new AtomicLong(BUDGET_TOKEN);
+
+    /**
+     * Constructor for {@link VehicleProfileHedging}.
+     *
+     * @param enabled         true to enable hedging
+     * @param delayPercentile percentile of the endpoint latency after which the call is hedged, e.g. 0.95
+     * @param minDelayMs      minimum hedging delay in milliseconds
+     * @param maxDelayMs      maximum hedging delay in milliseconds,
+     *                        also used until the endpoint latency has enough samples
+     * @param budgetPercent   maximum percentage of the calls being hedged
+     * @param threads         maximum number of concurrent hedged calls
+     * @param metrics         vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileHedging(@Value("${vehicle.profile.hedging.enabled:false}") boolean enabled,
+                                 @Value("${vehicle.profile.hedging.delay.percentile:0.95}") double delayPercentile,
+                                 @Value("${vehicle.profile.hedging.min.delay.ms:20}") long minDelayMs,
+                                 @Value("${vehicle.profile.hedging.max.delay.ms:1000}") long maxDelayMs,
+                                 @Value("${vehicle.profile.hedging.budget.percent:5}") int budgetPercent,
+                                 @Value("${vehicle.profile.hedging.threads:16}") int threads,
+                                 VehicleProfileMetrics metrics) {
+        this.enabled = enabled;
+        this.delayPercentile = delayPercentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(minDelayMs, maxDelayMs));
+        this.budgetPercent = budgetPercent;
+        this.metrics = metrics;
+        this.executor = enabled ? newExecutor(threads) : null;
+        if (enabled) {
+            LOGGER.info("vehicle profile hedging enabled, delay percentile {}, budget {}%", delayPercentile,
+                budgetPercent);
+        }
+    }
+
+    /**
+     * Create a disabled hedging, calls are executed directly.
+     *
+     * @return disabled hedging
+     */
+    public static VehicleProfileHedging disabled() {
+        return new VehicleProfileHedging(false, 0, 0, 0, 0, 0, new VehicleProfileMetrics(new MetricRegistry()));
+    }
+
+    /**
+     * Execute the idempotent call, hedging it if it has not answered within the hedging delay.<br/>
+     * the call is executed directly if the budget cannot pay for a hedge or all the hedging threads are busy.
+     *
+     * @param endpoint name of the vehicle profile endpoint
+     * @param latency  latency of the calls to the endpoint
+     * @param call     idempotent call to the endpoint
+     * @param <T>      type of the result of the call
+     * @return result of the first successful call, or the failure of the last failed call
+     */
+    public <T> T execute(String endpoint, Timer latency, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        final long delayNanos = hedgingDelayNanos(latency);
+        if (budget.updateAndGet(tokens -> Math.min(MAX_BUDGET_TOKENS * BUDGET_TOKEN, tokens + budgetPercent))
+            < BUDGET_TOKEN) {
+            return executeWithoutBudget(endpoint, delayNanos, call);
+        }
+        HedgedCall<T> hedgedCall = new HedgedCall<>(call);
+        if (!hedgedCall.start()) {
+            return call.get();
+        }
+        try {
+            return hedgedCall.await(delayNanos);
+        } catch (TimeoutException e) {
+            if (budget.getAndUpdate(tokens -> tokens >= BUDGET_TOKEN ? tokens - BUDGET_TOKEN : tokens)
+                < BUDGET_TOKEN) {
+                metrics.counter(HEDGING_METRIC_NAME, endpoint, BUDGET_EXHAUSTED).inc();
+            } else if (hedgedCall.start()) {
+                metrics.counter(HEDGING_METRIC_NAME, endpoint, "hedged").inc();
+            } else {
+                budget.getAndUpdate(tokens -> Math.min(MAX_BUDGET_TOKENS * BUDGET_TOKEN, tokens + BUDGET_TOKEN));
+                metrics.counter(HEDGING_METRIC_NAME, endpoint, "rejected").inc();
+            }
+            T result = hedgedCall.await();
+            if (hedgedCall.isWonByHedge()) {
+                metrics.counter(HEDGING_METRIC_NAME, endpoint, "wins").inc();
+            }
+            return result;
+        } finally {
+            hedgedCall.cancel();
+        }
+    }
+
+    /**
+     * Execute the call on the caller thread, counting the hedge skipped if it is slower than the hedging delay.
+     */
+    private <T> T executeWithoutBudget(String endpoint, long delayNanos, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            if (System.nanoTime() - start > delayNanos) {
+                metrics.counter(HEDGING_METRIC_NAME, endpoint, BUDGET_EXHAUSTED).inc();
+            }
+        }
+    }
+
+    /**
+     * shut down the executor of the hedged calls.
+     */
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private long hedgingDelayNanos(Timer latency) {
+        if (latency.getCount() < MIN_SAMPLES) {
+            return maxDelayNanos;
+        }
+        long percentileNanos = (long) latency.getSnapshot().getValue(delayPercentile);
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, percentileNanos));
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * attempts of a hedged call, completed by the first successful attempt or the last failed attempt.
+     */
+    private final class HedgedCall<T> {
+        private final Supplier<T> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicInteger winner = new AtomicInteger(NO_WINNER);
+        private final List<Future<?>> attempts = new CopyOnWriteArrayList<>();
+        private final AtomicInteger startedAttempts = new AtomicInteger();
+        private final AtomicInteger pendingAttempts = new AtomicInteger();
+
+        private HedgedCall(Supplier<T> call) {
+            this.call = call;
+        }
+
+        private boolean start() {
+            int attempt = startedAttempts.getAndIncrement();
+            pendingAttempts.incrementAndGet();
+            try {
+                attempts.add(executor.submit(() -> run(attempt)));
+                return true;
+            } catch (RejectedExecutionException e) {
+                pendingAttempts.decrementAndGet();
+                return false;
+            }
+        }
+
+        private void run(int attempt) {
+            try {
+                T value = call.get();
+                if (winner.compareAndSet(NO_WINNER, attempt)) {
+                    result.complete(value);
+                }
+            } catch (RuntimeException | Error e) {
+                if (pendingAttempts.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private T await(long timeoutNanos) throws TimeoutException {
+            try {
+                return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new VehicleProfileException(e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        private T await() {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new VehicleProfileException(e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        private boolean isWonByHedge() {
+            return winner.get() > 0;
+        }
+
+        private RuntimeException unwrap(ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                return cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            return new VehicleProfileException(e.getCause());
+        }
+
+        private void cancel() {
+            for (Future<?> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.Histogram;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * micro-batching of vehicle profile attribute lookups.<br/>
+ * the lookups submitted by all the threads are collected for a short window, or until
+ * the max batch size is reached, and the vehicle profiles of the batch are fetched together:
+ * with a single call to the bulk vehicle profile api if http.vp.bulk.url is configured,
+ * otherwise with parallel calls bounded by vehicle.profile.bulk.max.concurrency.
+ * lookups of the same vehicle in a batch share the same fetch.
+ */
+@ConditionalOnProperty(value = "vehicle.profile.batcher.enabled", havingValue = "true")
+@Component
+public class VehicleProfileLookupBatcher implements DisposableBean {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileLookupBatcher.class);
+    private final VehicleProfileClient vehicleProfileClient;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final Histogram batchSizes;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<VehicleProfileDocument>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Constructor for {@link VehicleProfileLookupBatcher}.
+     *
+     * @param vehicleProfileClient vehicle profile client fetching the batches
+     * @param metrics              vehicle profile client metrics
+     * @param windowMicros         max time a lookup waits for the batch to fill, in microseconds
+     * @param maxBatchSize         max number of vehicles in a batch
+     */
+    @Autowired
+    public VehicleProfileLookupBatcher(@Qualifier("scVehicleProfileClient") VehicleProfileClient vehicleProfileClient,
+                                       VehicleProfileMetrics metrics,
+                                       @Value("${vehicle.profile.batcher.window.micros:2000}") long windowMicros,
+                                       @Value("${vehicle.profile.batcher.max.batch.size:64}") int maxBatchSize) {
+        this.vehicleProfileClient = vehicleProfileClient;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = metrics.histogram("batcher", "batch", "size");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vehicle-profile-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Submit the lookup of vehicle profile attributes to the next batch.
+     *
+     * @param vehicleId         vehicle id for which details to be fetched.
+     * @param ignoreError       if true the exception,errors will be suppressed
+     * @param vehicleAttributes vehicle profile attributes.
+     * @return future Map of attributes with attribute name and its value.
+     */
+    public CompletableFuture<Map<VehicleProfileAttribute, Optional<String>>> getVehicleProfileAttributes(
+        String vehicleId, boolean ignoreError, VehicleProfileAttribute... vehicleAttributes) {
+        VehicleProfileReader reader = vehicleProfileClient.getVehicleProfileReader();
+        return submit(vehicleId)
+            .handle((document, error) -> {
+                if (error == null) {
+                    return document;
+                }
+                LOGGER.debug("Error while querying vehicle profile for vehicleId {}: {}", vehicleId,
+                    error.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(unwrap(error));
+                }
+                return VehicleProfileDocument.parse("");
+            })
+            .thenApply(document -> reader.readAttributes(ignoreError, document, vehicleAttributes));
+    }
+
+    /**
+     * Submit the lookup of single vehicle profile attribute to the next batch.
+     *
+     * @param vehicleId   vehicle id for which details to be fetched.
+     * @param vpa         vehicle profile attribute.
+     * @param ignoreError if true the exception,errors will be suppressed
+     * @return future vehicle profile attribute value
+     */
+    public CompletableFuture<Optional<String>> getVehicleProfileAttribute(String vehicleId,
+                                                                          VehicleProfileAttribute vpa,
+                                                                          boolean ignoreError) {
+        return getVehicleProfileAttributes(vehicleId, ignoreError, vpa)
+            .thenApply(values -> values.get(vpa));
+    }
+
+    /**
+     * fetch the pending lookups and stop batching.
+     */
+    @Override
+    public void destroy() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private CompletableFuture<VehicleProfileDocument> submit(String vehicleId) {
+        CompletableFuture<VehicleProfileDocument> lookup;
+        Map<String, CompletableFuture<VehicleProfileDocument>> batch = null;
+        synchronized (lock) {
+            lookup = pending.computeIfAbsent(vehicleId, id -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                batch = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (batch != null) {
+            fetch(batch);
+        }
+        return lookup;
+    }
+
+    private void flush() {
+        Map<String, CompletableFuture<VehicleProfileDocument>> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        fetch(batch);
+    }
+
+    private Map<String, CompletableFuture<VehicleProfileDocument>> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        Map<String, CompletableFuture<VehicleProfileDocument>> batch = pending;
+        pending = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void fetch(Map<String, CompletableFuture<VehicleProfileDocument>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.update(batch.size());
+        LOGGER.debug("Fetching vehicle profiles batch of {} vehicles", batch.size());
+        if (vehicleProfileClient.isBulkEndpointConfigured()) {
+            vehicleProfileClient.getVehicleProfileDocumentsAsync(batch.keySet())
+                .whenComplete((documents, error) -> batch.forEach((vehicleId, lookup) -> {
+                    if (error != null) {
+                        lookup.completeExceptionally(error);
+                    } else if (documents.containsKey(vehicleId)) {
+                        lookup.complete(documents.get(vehicleId));
+                    } else {
+                        lookup.completeExceptionally(
+                            new VehicleProfileException("Failed to find vehicle profile for vehicleId: " + vehicleId));
+                    }
+                }));
+        } else {
+            batch.forEach((vehicleId, lookup) -> vehicleProfileClient.getVehicleProfileDocumentAsync(vehicleId)
+                .whenComplete((document, error) -> {
+                    if (error != null) {
+                        lookup.completeExceptionally(error);
+                    } else {
+                        lookup.complete(document);
+                    }
+                }));
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,179 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * metrics of the vehicle profile client.<br/>
+ * metrics are registered in the application {@link MetricRegistry} if available,
+ * otherwise in a registry owned by this component.
+ */
+@Component
+public class VehicleProfileMetrics {
+    /**
+     * prefix of all the vehicle profile client metric names.
+     */
+    public static final String METRIC_PREFIX = "vehicleProfileClient";
+
+    private final MetricRegistry metricRegistry;
+
+    /**
+     * Constructor for {@link VehicleProfileMetrics}.
+     *
+     * @param metricRegistryProvider provider of the application metric registry
+     */
+    @Autowired
+    public VehicleProfileMetrics(ObjectProvider<MetricRegistry> metricRegistryProvider) {
+        this(metricRegistryProvider.getIfAvailable(MetricRegistry::new));
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileMetrics}.
+     *
+     * @param metricRegistry registry in which metrics are registered
+     */
+    public VehicleProfileMetrics(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    /**
+     * registry in which the vehicle profile client metrics are registered.
+     *
+     * @return metric registry
+     */
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    /**
+     * Fetch or create the counter with the provided name.
+     *
+     * @param names name of the counter, prefixed with {@link #METRIC_PREFIX}
+     * @return counter
+     */
+    public Counter counter(String... names) {
+        return metricRegistry.counter(name(names));
+    }
+
+    /**
+     * Fetch or create the histogram with the provided name.
+     *
+     * @param names name of the histogram, prefixed with {@link #METRIC_PREFIX}
+     * @return histogram
+     */
+    public Histogram histogram(String... names) {
+        return metricRegistry.histogram(name(names));
+    }
+
+    /**
+     * Fetch or create the timer with the provided name.<br/>
+     * the snapshot of the timer provides the percentiles of the durations, e.g. p50, p99 and p999.
+     *
+     * @param names name of the timer, prefixed with {@link #METRIC_PREFIX}
+     * @return timer
+     */
+    public Timer timer(String... names) {
+        return metricRegistry.timer(name(names));
+    }
+
+    /**
+     * Time the call with the timer of the provided name.<br/>
+     * a failed call is timed as well, and counted by exception type under the errors of the timer,
+     * e.g. http.vehicleProfile.errors.ResourceAccessException.
+     *
+     * @param call  call to be timed
+     * @param names name of the timer, prefixed with {@link #METRIC_PREFIX}
+     * @param <T>   type of the result of the call
+     * @return result of the call
+     */
+    public <T> T time(Supplier<T> call, String... names) {
+        String name = name(names);
+        Timer.Context context = metricRegistry.timer(name).time();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            metricRegistry.counter(MetricRegistry.name(name, "errors", e.getClass().getSimpleName())).inc();
+            throw e;
+        } finally {
+            context.stop();
+        }
+    }
+
+    /**
+     * Time the asynchronous call with the timer of the provided name, until its future completes.<br/>
+     * a failed call is timed and counted as with {@link #time(Supplier, String...)}.
+     *
+     * @param call  asynchronous call to be timed
+     * @param names name of the timer, prefixed with {@link #METRIC_PREFIX}
+     * @param <T>   type of the result of the call
+     * @return future result of the call
+     */
+    public <T> CompletableFuture<T> timeAsync(Supplier<CompletableFuture<T>> call, String... names) {
+        String name = name(names);
+        Timer.Context context = metricRegistry.timer(name).time();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> {
+            context.stop();
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                metricRegistry.counter(MetricRegistry.name(name, "errors", cause.getClass().getSimpleName())).inc();
+            }
+        });
+    }
+
+    /**
+     * Register the gauge with the provided name, replacing any gauge with the same name.
+     *
+     * @param gauge gauge to be registered
+     * @param names name of the gauge, prefixed with {@link #METRIC_PREFIX}
+     * @param <T>   type of the gauge value
+     */
+    public <T> void gauge(Gauge<T> gauge, String... names) {
+        String name = name(names);
+        metricRegistry.remove(name);
+        metricRegistry.register(name, gauge);
+    }
+
+    /**
+     * Create the metric name prefixed with {@link #METRIC_PREFIX}.
+     *
+     * @param names parts of the metric name
+     * @return metric name
+     */
+    public static String name(String... names) {
+        return MetricRegistry.name(METRIC_PREFIX, names);
+    }
+}
@@ -0,0 +1,197 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.jayway.jsonpath.JsonPath;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * short lived cache of the vehicle profile lookups which found no vehicle.<br/>
+ * a lookup by vehicle id, vin or client id answered with 404, an empty response, an empty data array
+ * or no vehicle profile
+ * is remembered for the time to live, so repeated lookups of unknown vehicles do not call the api again.
+ * kept apart from the vehicle profile cache, with its own bounds and metrics.
+ * disabled by default, enable with vehicle.profile.negative.cache.enabled=true.
+ */
+@Component
+public class VehicleProfileNegativeCache {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileNegativeCache.class);
+    private static final String NEGATIVE_CACHE_METRIC_NAME = "negativeCache";
+    private static final long ENTRY_WEIGHT = 1L;
+    private static final char KEY_SEPARATOR = ':';
+    private static final String DATA_PATH = "$.data";
+    private static final int MAX_EMPTY_RESPONSE_BYTES = 1024;
+
+    /**
+     * type of the vehicle profile lookup.
+     */
+    public enum LookupType {
+        /**
+         * lookup by vehicle id.
+         */
+        VEHICLE_ID,
+        /**
+         * lookup by vin.
+         */
+        VIN,
+        /**
+         * lookup by ecu client id.
+         */
+        CLIENT_ID
+    }
+
+    private final boolean enabled;
+    private final BoundedTtlCache<String, Boolean> cache;
+    private final VehicleProfileMetrics metrics;
+
+    /**
+     * Constructor for {@link VehicleProfileNegativeCache}.
+     *
+     * @param enabled    true to enable the negative cache
+     * @param ttlMs      time to live of the not found lookups in milliseconds
+     * @param maxEntries maximum number of not found lookups
+     * @param metrics    vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileNegativeCache(@Value("${vehicle.profile.negative.cache.enabled:false}") boolean enabled,
+                                       @Value("${vehicle.profile.negative.cache.ttl.ms:60000}") long ttlMs,
+                                       @Value("${vehicle.profile.negative.cache.max.entries:10000}") int maxEntries,
+                                       VehicleProfileMetrics metrics) {
+        this(enabled, new BoundedTtlCache<>(ttlMs, maxEntries, 0), metrics);
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileNegativeCache}.
+     *
+     * @param enabled    true to enable the negative cache
+     * @param ttlMs      time to live of the not found lookups in milliseconds
+     * @param maxEntries maximum number of not found lookups
+     * @param metrics    vehicle profile client metrics
+     * @param clock      current time in milliseconds
+     */
+    public VehicleProfileNegativeCache(boolean enabled, long ttlMs, int maxEntries, VehicleProfileMetrics metrics,
+                                       LongSupplier clock) {
+        this(enabled, new BoundedTtlCache<>(ttlMs, maxEntries, 0, clock), metrics);
+    }
+
+    private VehicleProfileNegativeCache(boolean enabled, BoundedTtlCache<String, Boolean> cache,
+                                        VehicleProfileMetrics metrics) {
+        this.enabled = enabled;
+        this.cache = cache;
+        this.metrics = metrics;
+        if (enabled) {
+            metrics.gauge(cache::size, NEGATIVE_CACHE_METRIC_NAME, "size");
+            metrics.gauge(cache::evictionCount, NEGATIVE_CACHE_METRIC_NAME, "evictions");
+            LOGGER.info("vehicle profile negative cache enabled");
+        }
+    }
+
+    /**
+     * Create a disabled negative cache.
+     *
+     * @return disabled negative cache
+     */
+    public static VehicleProfileNegativeCache disabled() {
+        return new VehicleProfileNegativeCache(false, 0, 0, new VehicleProfileMetrics(new MetricRegistry()));
+    }
+
+    /**
+     * check if the lookup recently found no vehicle.
+     *
+     * @param type lookup type
+     * @param id   vehicle id, vin or client id
+     * @return true if the lookup is cached as not found
+     */
+    public boolean isNotFound(LookupType type, String id) {
+        if (!enabled || id == null) {
+            return false;
+        }
+        boolean notFound = cache.get(key(type, id)).isPresent();
+        metrics.counter(NEGATIVE_CACHE_METRIC_NAME, type.name(), notFound ? "hits" : "misses").inc();
+        return notFound;
+    }
+
+    /**
+     * Remember that the lookup found no vehicle.
+     *
+     * @param type lookup type
+     * @param id   vehicle id, vin or client id
+     */
+    public void putNotFound(LookupType type, String id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        LOGGER.debug("No vehicle profile found for {} {}", type, id);
+        cache.put(key(type, id), Boolean.TRUE, ENTRY_WEIGHT);
+        metrics.counter(NEGATIVE_CACHE_METRIC_NAME, type.name(), "puts").inc();
+    }
+
+    /**
+     * Forget the not found lookup, e.g. once the vehicle is created.
+     *
+     * @param type lookup type
+     * @param id   vehicle id, vin or client id
+     * @return true if the lookup was cached as not found
+     */
+    public boolean invalidate(LookupType type, String id) {
+        return enabled && id != null && cache.invalidate(key(type, id));
+    }
+
+    /**
+     * Forget all the not found lookups.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * check if the successful response of a lookup found no vehicle,
+     * i.e. its body is empty, or its data is null or an empty array.<br/>
+     * only the small bodies are parsed, a body holding vehicle profiles being larger.
+     *
+     * @param body response body
+     * @return true if no vehicle was found
+     */
+    public static boolean isEmptyResponse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return true;
+        }
+        if (body.length > MAX_EMPTY_RESPONSE_BYTES) {
+            return false;
+        }
+        try {
+            Object data = JsonPath.parse(new ByteArrayInputStream(body)).read(DATA_PATH);
+            return data == null || data instanceof List<?> profiles && profiles.isEmpty();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String key(LookupType type, String id) {
+        return type.name() + KEY_SEPARATOR + id;
+    }
+}
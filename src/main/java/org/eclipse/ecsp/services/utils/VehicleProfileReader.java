@@ -0,0 +1,251 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.jayway.jsonpath.JsonPath;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.domain.AssociatedVehicle;
+import org.eclipse.ecsp.domain.AssociatedVehicles;
+import org.eclipse.ecsp.domain.VehicleProfile;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.entities.VehicleProfileOnDemandAttribute;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * reads the requested values from the vehicle profile api responses.<br/>
+ * shared by the blocking and the asynchronous vehicle profile clients,
+ * so both return the same values for the same response.
+ */
+final class VehicleProfileReader {
+    static final String DATA_PATH = "$.data";
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileReader.class);
+    private static final String ERROR_WHILE_QUERYING_JSON_PATH = "Error while querying json path {}: {}";
+    private static final String ERROR_WHILE_QUERYING_VEHICLE_JSON_PATH =
+        "Error while querying vehicle: {}, json path {}: {}";
+    private static final JsonPath ASSOCIATED_VEHICLE_IDS_PATH = JsonPath.compile("$.data[*].vehicleId");
+    private final ObjectMapper objectMapper;
+    private final ObjectReader associatedVehiclesReader;
+    private final JsonPathRegistry jsonPathRegistry;
+
+    VehicleProfileReader(ObjectMapper objectMapper, JsonPathRegistry jsonPathRegistry) {
+        this.objectMapper = objectMapper;
+        // unknown properties are ignored, as by the message converter of the rest template
+        this.associatedVehiclesReader = objectMapper.readerFor(AssociatedVehicles.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.jsonPathRegistry = jsonPathRegistry;
+    }
+
+    /**
+     * Read single vehicle profile attribute.
+     */
+    Optional<String> readAttribute(VehicleProfileDocument document, VehicleProfileAttribute vpa,
+                                   boolean ignoreError) {
+        String value = "";
+        try {
+            value = document.read(vpa);
+        } catch (Exception e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, vpa.getJsonPath(), e.getMessage());
+            if (!ignoreError) {
+                throw new VehicleProfileException(e);
+            }
+        }
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Read multiple vehicle profile attributes as string.
+     */
+    Map<VehicleProfileAttribute, Optional<String>> readAttributes(boolean ignoreError,
+                                                                  VehicleProfileDocument document,
+                                                                  VehicleProfileAttribute... vehicleAttributes) {
+        document.prefetch(vehicleAttributes);
+        Map<VehicleProfileAttribute, Optional<String>> vehicleProfileVals =
+            new EnumMap<>(VehicleProfileAttribute.class);
+        for (VehicleProfileAttribute v : vehicleAttributes) {
+            try {
+                String jsonValue = document.read(v);
+                vehicleProfileVals.put(v, Optional.ofNullable(jsonValue));
+            } catch (Exception e) {
+                LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, v.getJsonPath(), e.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(e);
+                } else {
+                    vehicleProfileVals.put(v, Optional.empty());
+                }
+            }
+        }
+        return vehicleProfileVals;
+    }
+
+    /**
+     * Read on-demand vehicle profile attributes as string, regardless of the type of the attribute.
+     */
+    @SuppressWarnings("java:S1452")
+    Map<String, Optional<?>> readOnDemandAttributesAsString(boolean ignoreError, VehicleProfileDocument document,
+                                                            VehicleProfileOnDemandAttribute... vehicleAttributes) {
+        prefetch(document, vehicleAttributes);
+        Map<String, Optional<?>> vehicleProfileVals = new HashMap<>();
+        for (VehicleProfileOnDemandAttribute v : vehicleAttributes) {
+            try {
+                String jsonValue = document.read(jsonPathRegistry.getJsonPath(v.getJsonPath()));
+                vehicleProfileVals.put(v.getName(), Optional.ofNullable(jsonValue));
+            } catch (Exception e) {
+                LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, v.getJsonPath(), e.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(e);
+                } else {
+                    vehicleProfileVals.put(v.getName(), Optional.empty());
+                }
+            }
+        }
+        return vehicleProfileVals;
+    }
+
+    /**
+     * Read on-demand vehicle profile attributes, converted to the type of the attribute.
+     */
+    @SuppressWarnings("java:S1452")
+    Map<String, Optional<?>> readOnDemandAttributes(String vehicleId, boolean ignoreError,
+                                                    VehicleProfileDocument document,
+                                                    VehicleProfileOnDemandAttribute... vehicleAttributes) {
+        prefetch(document, vehicleAttributes);
+        Map<String, Optional<?>> vehicleProfileVals = new HashMap<>();
+        for (VehicleProfileOnDemandAttribute v : vehicleAttributes) {
+            try {
+                Object jsonValue = document.read(jsonPathRegistry.getJsonPath(v.getJsonPath()));
+                switch (v.getType().getSimpleName()) {
+                    case "String":
+                        vehicleProfileVals.put(v.getName(), Optional.ofNullable((String) jsonValue));
+                        break;
+                    case "Boolean":
+                        vehicleProfileVals.put(v.getName(),
+                            Optional.of(
+                                jsonValue == null ? Boolean.FALSE : Boolean.valueOf(jsonValue.toString())));
+                        break;
+                    case "HashSet":
+                        if (jsonValue instanceof net.minidev.json.JSONArray jsonData) {
+                            vehicleProfileVals.put(v.getName(), Optional.ofNullable(
+                                    jsonData.stream().map(Object::toString)
+                                    .collect(Collectors.toSet())));
+                        }
+                        break;
+                    case "Object":
+                    default:
+                        vehicleProfileVals.put(v.getName(),
+                                Optional.ofNullable(VehicleProfileDocument.copyOf(jsonValue)));
+                        break;
+                }
+                
+            } catch (Exception e) {
+                LOGGER.debug(ERROR_WHILE_QUERYING_VEHICLE_JSON_PATH, vehicleId,
+                    v.getJsonPath(), e.getMessage());
+                if (!ignoreError) {
+                    throw new VehicleProfileException(e);
+                } else {
+                    vehicleProfileVals.put(v.getName(), Optional.empty());
+                }
+            }
+        }
+        return vehicleProfileVals;
+    }
+
+    private void prefetch(VehicleProfileDocument document, VehicleProfileOnDemandAttribute... vehicleAttributes) {
+        List<JsonPath> jsonPaths = new ArrayList<>(vehicleAttributes.length);
+        for (VehicleProfileOnDemandAttribute v : vehicleAttributes) {
+            try {
+                jsonPaths.add(jsonPathRegistry.getJsonPath(v.getJsonPath()));
+            } catch (RuntimeException e) {
+                LOGGER.trace("Invalid json path {} is not prefetched: {}", v.getJsonPath(), e.getMessage());
+            }
+        }
+        document.prefetch(jsonPaths);
+    }
+
+    /**
+     * Read the vehicle profile data as raw json.
+     */
+    Optional<String> readVehicleProfileJson(VehicleProfileDocument document) {
+        try {
+            return Optional.ofNullable(objectMapper.writeValueAsString(document.read(DATA_PATH)));
+        } catch (Exception e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, DATA_PATH, e.getMessage());
+            throw new VehicleProfileException(e);
+        }
+    }
+
+    /**
+     * Bind the vehicle profile data straight to {@link VehicleProfile}, without the raw json round trip.
+     */
+    Optional<VehicleProfile> readVehicleProfile(VehicleProfileDocument document) {
+        try {
+            return Optional.ofNullable(document.readData(objectMapper, VehicleProfile.class));
+        } catch (Exception e) {
+            LOGGER.debug(ERROR_WHILE_QUERYING_JSON_PATH, DATA_PATH, e.getMessage());
+            throw new VehicleProfileException(e);
+        }
+    }
+
+    /**
+     * Read the associated vehicle ids from the associated vehicles response.
+     */
+    List<String> readAssociatedVehicleIds(String responseJson) {
+        List<String> vins = new ArrayList<>();
+        if (!StringUtils.isEmpty(responseJson)) {
+            List<String> list = ASSOCIATED_VEHICLE_IDS_PATH.read(responseJson);
+            vins.addAll(list);
+        }
+        return vins;
+    }
+
+    /**
+     * Read the associated vehicle ids from the associated vehicles.
+     */
+    List<String> readAssociatedVehicleIds(AssociatedVehicles associatedVehicles) {
+        List<AssociatedVehicle> vehicles = associatedVehicles == null ? null : associatedVehicles.getData();
+        return vehicles == null ? new ArrayList<>()
+            : vehicles.stream().map(AssociatedVehicle::getVehicleId).collect(Collectors.toList());
+    }
+
+    /**
+     * Read the associated vehicles response, empty associated vehicles if the response has no body.
+     */
+    AssociatedVehicles readAssociatedVehicles(String responseJson) {
+        if (StringUtils.isEmpty(responseJson)) {
+            return new AssociatedVehicles();
+        }
+        try {
+            return associatedVehiclesReader.readValue(responseJson);
+        } catch (JsonProcessingException e) {
+            throw new VehicleProfileException(e);
+        }
+    }
+}
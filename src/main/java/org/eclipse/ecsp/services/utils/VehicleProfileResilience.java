@@ -0,0 +1,306 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileUnavailableException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * circuit breaker and bulkhead of each vehicle profile endpoint.<br/>
+ * a call failing with an exception, other than a 4xx client error, or answered with a 5xx status
+ * is recorded as failed by the circuit breaker of its endpoint. while the circuit is open, or the bulkhead
+ * of the endpoint is full, the calls fail fast with a {@link VehicleProfileUnavailableException}.
+ * both are disabled by default, enable with vehicle.profile.circuit.breaker.enabled=true
+ * and vehicle.profile.bulkhead.enabled=true.
+ */
+@Component
+public class VehicleProfileResilience {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileResilience.class);
+    private static final String CIRCUIT_BREAKER_METRIC_NAME = "circuitBreaker";
+    private static final String BULKHEAD_METRIC_NAME = "bulkhead";
+    private static final String REJECTED = "rejected";
+
+    private final boolean circuitBreakerEnabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallDurationMs;
+    private final int slowCallRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private final boolean bulkheadEnabled;
+    private final int bulkheadMaxConcurrentCalls;
+    private final long bulkheadMaxWaitMs;
+    private final VehicleProfileMetrics metrics;
+    private final LongSupplier nanoClock;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for {@link VehicleProfileResilience}.
+     *
+     * @param circuitBreakerEnabled      true to enable the circuit breakers
+     * @param windowSize                 number of the last calls recorded by each circuit breaker
+     * @param minimumCalls               minimum number of recorded calls before the rates are evaluated
+     * @param failureRateThreshold       failure rate in percent opening the circuit
+     * @param slowCallDurationMs         duration in milliseconds from which a call is slow
+     * @param slowCallRateThreshold      slow call rate in percent opening the circuit
+     * @param openDurationMs             time the circuit stays open in milliseconds
+     * @param halfOpenCalls              number of trial calls permitted once the open duration elapsed
+     * @param bulkheadEnabled            true to enable the bulkheads
+     * @param bulkheadMaxConcurrentCalls maximum number of concurrent calls of each endpoint
+     * @param bulkheadMaxWaitMs          maximum time in milliseconds a call waits for a free slot
+     * @param metrics                    vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileResilience(@Value("${vehicle.profile.circuit.breaker.enabled:false}")
+                                    boolean circuitBreakerEnabled,
+                                    @Value("${vehicle.profile.circuit.breaker.window.size:50}") int windowSize,
+                                    @Value("${vehicle.profile.circuit.breaker.minimum.calls:20}") int minimumCalls,
+                                    @Value("${vehicle.profile.circuit.breaker.failure.rate.threshold:50}")
+                                    int failureRateThreshold,
+                                    @Value("${vehicle.profile.circuit.breaker.slow.call.duration.ms:1000}")
+                                    long slowCallDurationMs,
+                                    @Value("${vehicle.profile.circuit.breaker.slow.call.rate.threshold:80}")
+                                    int slowCallRateThreshold,
+                                    @Value("${vehicle.profile.circuit.breaker.open.duration.ms:10000}")
+                                    long openDurationMs,
+                                    @Value("${vehicle.profile.circuit.breaker.half.open.calls:5}") int halfOpenCalls,
+                                    @Value("${vehicle.profile.bulkhead.enabled:false}") boolean bulkheadEnabled,
+                                    @Value("${vehicle.profile.bulkhead.max.concurrent.calls:20}")
+                                    int bulkheadMaxConcurrentCalls,
+                                    @Value("${vehicle.profile.bulkhead.max.wait.ms:0}") long bulkheadMaxWaitMs,
+                                    VehicleProfileMetrics metrics) {
+        this(circuitBreakerEnabled, windowSize, minimumCalls, failureRateThreshold, slowCallDurationMs,
+            slowCallRateThreshold, openDurationMs, halfOpenCalls, bulkheadEnabled, bulkheadMaxConcurrentCalls,
+            bulkheadMaxWaitMs, metrics, System::nanoTime);
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileResilience}.
+     *
+     * @param circuitBreakerEnabled      true to enable the circuit breakers
+     * @param windowSize                 number of the last calls recorded by each circuit breaker
+     * @param minimumCalls               minimum number of recorded calls before the rates are evaluated
+     * @param failureRateThreshold       failure rate in percent opening the circuit
+     * @param slowCallDurationMs         duration in milliseconds from which a call is slow
+     * @param slowCallRateThreshold      slow call rate in percent opening the circuit
+     * @param openDurationMs             time the circuit stays open in milliseconds
+     * @param halfOpenCalls              number of trial calls permitted once the open duration elapsed
+     * @param bulkheadEnabled            true to enable the bulkheads
+     * @param bulkheadMaxConcurrentCalls maximum number of concurrent calls of each endpoint
+     * @param bulkheadMaxWaitMs          maximum time in milliseconds a call waits for a free slot
+     * @param metrics                    vehicle profile client metrics
+     * @param nanoClock                  current time in nanoseconds
+     * @throws IllegalArgumentException if the circuit breakers are enabled with an invalid configuration
+     */
+    public VehicleProfileResilience(boolean circuitBreakerEnabled, int windowSize, int minimumCalls,
+                                    int failureRateThreshold, long slowCallDurationMs, int slowCallRateThreshold,
+                                    long openDurationMs, int halfOpenCalls, boolean bulkheadEnabled,
+                                    int bulkheadMaxConcurrentCalls, long bulkheadMaxWaitMs,
+                                    VehicleProfileMetrics metrics, LongSupplier nanoClock) {
+        if (circuitBreakerEnabled) {
+            // the circuit breakers are created on the first call of their endpoint, fail on startup instead
+            CircuitBreaker.validate(windowSize, minimumCalls, failureRateThreshold, slowCallDurationMs,
+                slowCallRateThreshold, openDurationMs, halfOpenCalls);
+        }
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDurationMs = slowCallDurationMs;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.bulkheadEnabled = bulkheadEnabled;
+        this.bulkheadMaxConcurrentCalls = bulkheadMaxConcurrentCalls;
+        this.bulkheadMaxWaitMs = bulkheadMaxWaitMs;
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+        if (circuitBreakerEnabled) {
+            LOGGER.info("vehicle profile circuit breakers enabled");
+        }
+        if (bulkheadEnabled) {
+            LOGGER.info("vehicle profile bulkheads enabled, max concurrent calls {}", bulkheadMaxConcurrentCalls);
+        }
+    }
+
+    /**
+     * Create a disabled vehicle profile resilience, calls are executed directly.
+     *
+     * @return disabled resilience
+     */
+    public static VehicleProfileResilience disabled() {
+        return new VehicleProfileResilience(false, 1, 1, 0, 0, 0, 0, 1, false, 1, 0,
+            new VehicleProfileMetrics(new MetricRegistry()), System::nanoTime);
+    }
+
+    /**
+     * Execute the call through the bulkhead and the circuit breaker of the endpoint.
+     *
+     * @param endpoint name of the vehicle profile endpoint
+     * @param call     call to the endpoint
+     * @param <T>      type of the result of the call
+     * @return result of the call
+     * @throws VehicleProfileUnavailableException if the circuit is open or the bulkhead is full
+     */
+    public <T> T execute(String endpoint, Supplier<T> call) {
+        if (!bulkheadEnabled) {
+            return executeWithCircuitBreaker(endpoint, call);
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(endpoint, this::createBulkhead);
+        if (!bulkhead.tryAcquire()) {
+            metrics.counter(BULKHEAD_METRIC_NAME, endpoint, REJECTED).inc();
+            throw new VehicleProfileUnavailableException("Bulkhead full for vehicle profile endpoint " + endpoint);
+        }
+        try {
+            return executeWithCircuitBreaker(endpoint, call);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Execute the asynchronous call through the bulkhead and the circuit breaker of the endpoint.<br/>
+     * the bulkhead slot is held until the future completes, the call never waits for a free slot,
+     * and the result is recorded by the circuit breaker once the future completes.
+     *
+     * @param endpoint name of the vehicle profile endpoint
+     * @param call     asynchronous call to the endpoint
+     * @param <T>      type of the result of the call
+     * @return future result of the call, completed exceptionally with a {@link VehicleProfileUnavailableException}
+     *     if the circuit is open or the bulkhead is full
+     */
+    public <T> CompletableFuture<T> executeAsync(String endpoint, Supplier<CompletableFuture<T>> call) {
+        if (!bulkheadEnabled) {
+            return executeWithCircuitBreakerAsync(endpoint, call);
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(endpoint, this::createBulkhead);
+        if (!bulkhead.tryAcquireWithoutWaiting()) {
+            metrics.counter(BULKHEAD_METRIC_NAME, endpoint, REJECTED).inc();
+            return CompletableFuture.failedFuture(
+                new VehicleProfileUnavailableException("Bulkhead full for vehicle profile endpoint " + endpoint));
+        }
+        return executeWithCircuitBreakerAsync(endpoint, call).whenComplete((result, error) -> bulkhead.release());
+    }
+
+    /**
+     * state of the circuit of the endpoint.
+     *
+     * @param endpoint name of the vehicle profile endpoint
+     * @return circuit state, closed if the circuit breakers are disabled
+     */
+    public CircuitBreaker.State getState(String endpoint) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(endpoint);
+        return circuitBreaker == null ? CircuitBreaker.State.CLOSED : circuitBreaker.getState();
+    }
+
+    private <T> T executeWithCircuitBreaker(String endpoint, Supplier<T> call) {
+        if (!circuitBreakerEnabled) {
+            return call.get();
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, this::createCircuitBreaker);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            metrics.counter(CIRCUIT_BREAKER_METRIC_NAME, endpoint, REJECTED).inc();
+            throw new VehicleProfileUnavailableException("Circuit open for vehicle profile endpoint " + endpoint);
+        }
+        long start = nanoClock.getAsLong();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = isServerError(result);
+            return result;
+        } catch (HttpClientErrorException e) {
+            failed = false;
+            throw e;
+        } finally {
+            circuitBreaker.onResult(nanoClock.getAsLong() - start, failed);
+        }
+    }
+
+    private <T> CompletableFuture<T> executeWithCircuitBreakerAsync(String endpoint,
+                                                                    Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result;
+        if (!circuitBreakerEnabled) {
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return result;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, this::createCircuitBreaker);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            metrics.counter(CIRCUIT_BREAKER_METRIC_NAME, endpoint, REJECTED).inc();
+            return CompletableFuture.failedFuture(
+                new VehicleProfileUnavailableException("Circuit open for vehicle profile endpoint " + endpoint));
+        }
+        long start = nanoClock.getAsLong();
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            boolean failed = cause == null ? isServerError(value) : !(cause instanceof HttpClientErrorException);
+            circuitBreaker.onResult(nanoClock.getAsLong() - start, failed);
+        });
+    }
+
+    /**
+     * check if the result is a response of the endpoint with a 5xx status.
+     */
+    private static boolean isServerError(Object result) {
+        if (result instanceof ResponseEntity<?> response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return result instanceof HttpResponse<?> response
+            && HttpStatusCode.valueOf(response.statusCode()).is5xxServerError();
+    }
+
+    private CircuitBreaker createCircuitBreaker(String endpoint) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(endpoint, windowSize, minimumCalls, failureRateThreshold,
+            slowCallDurationMs, slowCallRateThreshold, openDurationMs, halfOpenCalls, nanoClock);
+        metrics.gauge(() -> circuitBreaker.getState().ordinal(), CIRCUIT_BREAKER_METRIC_NAME, endpoint, "state");
+        return circuitBreaker;
+    }
+
+    private Bulkhead createBulkhead(String endpoint) {
+        Bulkhead bulkhead = new Bulkhead(endpoint, bulkheadMaxConcurrentCalls, bulkheadMaxWaitMs);
+        metrics.gauge(bulkhead::concurrentCalls, BULKHEAD_METRIC_NAME, endpoint, "concurrentCalls");
+        return bulkhead;
+    }
+}
@@ -0,0 +1,208 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileUnavailableException;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import java.net.ConnectException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * retry of the failed vehicle profile calls, with exponential backoff and full jitter.<br/>
+ * a call failing with an i/o error, or answered with one of the retryable statuses, is retried up to the max
+ * attempts, waiting a random delay between 0 and base delay * 2^(attempt - 1), bounded by the max delay.
+ * a non idempotent call, e.g. an association, is retried only if it failed to connect, i.e. was not sent.
+ * calls rejected by an open circuit or a full bulkhead are not retried. the retries are limited by a budget,
+ * a percentage of the calls, so retries cannot multiply the load of a failing vehicle profile service.
+ * disabled by default, enable with vehicle.profile.retry.enabled=true.
+ */
+@Component
+public class VehicleProfileRetry {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileRetry.class);
+    private static final String RETRY_METRIC_NAME = "retry";
+    private static final long BUDGET_TOKEN = 100L;
+    private static final long MAX_BUDGET_TOKENS = 10L;
+    private static final int MAX_BACKOFF_SHIFT = 30;
+
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Set<Integer> retryableStatuses;
+    private final Set<String> operations;
+    private final int budgetPercent;
+    private final VehicleProfileMetrics metrics;
+    private final LongConsumer sleeper;
+    private final AtomicLong budget = new AtomicLong(MAX_BUDGET_TOKENS * BUDGET_TOKEN);
+
+    /**
+     * Constructor for {@link VehicleProfileRetry}.
+     *
+     * @param enabled           true to enable the retries
+     * @param maxAttempts       maximum number of attempts of a call, including the first attempt
+     * @param baseDelayMs       base delay of the exponential backoff in milliseconds
+     * @param maxDelayMs        maximum delay between two attempts in milliseconds
+     * @param retryableStatuses http statuses of the responses to be retried
+     * @param operations        vehicle profile endpoints to be retried, empty for all the endpoints
+     * @param budgetPercent     maximum percentage of the calls being retried
+     * @param metrics           vehicle profile client metrics
+     */
+    @Autowired
+    public VehicleProfileRetry(@Value("${vehicle.profile.retry.enabled:false}") boolean enabled,
+                               @Value("${vehicle.profile.retry.max.attempts:3}") int maxAttempts,
+                               @Value("${vehicle.profile.retry.base.delay.ms:100}") long baseDelayMs,
+                               @Value("${vehicle.profile.retry.max.delay.ms:2000}") long maxDelayMs,
+                               @Value("${vehicle.profile.retry.statuses:429,502,503,504}") int[] retryableStatuses,
+                               @Value("${vehicle.profile.retry.operations:}") String[] operations,
+                               @Value("${vehicle.profile.retry.budget.percent:10}") int budgetPercent,
+                               VehicleProfileMetrics metrics) {
+        this(enabled, maxAttempts, baseDelayMs, maxDelayMs, retryableStatuses, operations, budgetPercent, metrics,
+            VehicleProfileRetry::sleep);
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileRetry}.
+     *
+     * @param enabled           true to enable the retries
+     * @param maxAttempts       maximum number of attempts of a call, including the first attempt
+     * @param baseDelayMs       base delay of the exponential backoff in milliseconds
+     * @param maxDelayMs        maximum delay between two attempts in milliseconds
+     * @param retryableStatuses http statuses of the responses to be retried
+     * @param operations        vehicle profile endpoints to be retried, empty for all the endpoints
+     * @param budgetPercent     maximum percentage of the calls being retried
+     * @param metrics           vehicle profile client metrics
+     * @param sleeper           waits the provided milliseconds between two attempts
+     */
+    public VehicleProfileRetry(boolean enabled, int maxAttempts, long baseDelayMs, long maxDelayMs,
+                               int[] retryableStatuses, String[] operations, int budgetPercent,
+                               VehicleProfileMetrics metrics, LongConsumer sleeper) {
+        this.enabled = enabled;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.retryableStatuses = Arrays.stream(retryableStatuses).boxed().collect(Collectors.toSet());
+        this.operations = Arrays.stream(operations).map(String::trim).filter(operation -> !operation.isEmpty())
+            .collect(Collectors.toSet());
+        this.budgetPercent = budgetPercent;
+        this.metrics = metrics;
+        this.sleeper = sleeper;
+        if (enabled) {
+            LOGGER.info("vehicle profile retries enabled, max attempts {}, statuses {}", this.maxAttempts,
+                this.retryableStatuses);
+        }
+    }
+
+    /**
+     * Create a disabled retry, calls are executed once.
+     *
+     * @return disabled retry
+     */
+    public static VehicleProfileRetry disabled() {
+        return new VehicleProfileRetry(false, 1, 0, 0, new int[0], new String[0], 0,
+            new VehicleProfileMetrics(new MetricRegistry()), VehicleProfileRetry::sleep);
+    }
+
+    /**
+     * Execute the call, retrying it while it fails with a retryable error.
+     *
+     * @param endpoint   name of the vehicle profile endpoint
+     * @param idempotent false if the call must not be retried once sent
+     * @param call       call to the endpoint
+     * @param <T>        type of the result of the call
+     * @return result of the last attempt
+     */
+    public <T> T execute(String endpoint, boolean idempotent, Supplier<T> call) {
+        if (!enabled || (!operations.isEmpty() && !operations.contains(endpoint))) {
+            return call.get();
+        }
+        budget.getAndUpdate(tokens -> Math.min(MAX_BUDGET_TOKENS * BUDGET_TOKEN, tokens + budgetPercent));
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = attempt >= maxAttempts;
+            try {
+                T result = call.get();
+                if (lastAttempt || !idempotent || !isRetryable(result) || !retry(endpoint, attempt)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lastAttempt || !isRetryable(e, idempotent) || !retry(endpoint, attempt)) {
+                    throw e;
+                }
+                LOGGER.debug("Retrying vehicle profile {} call after attempt {} failed: {}", endpoint, attempt,
+                    e.getMessage());
+            }
+        }
+    }
+
+    private boolean isRetryable(Object result) {
+        return result instanceof ResponseEntity<?> response
+            && retryableStatuses.contains(response.getStatusCode().value());
+    }
+
+    private boolean isRetryable(RuntimeException e, boolean idempotent) {
+        if (e instanceof VehicleProfileUnavailableException) {
+            return false;
+        }
+        if (e instanceof HttpStatusCodeException statusCodeException) {
+            return idempotent && retryableStatuses.contains(statusCodeException.getStatusCode().value());
+        }
+        if (e instanceof ResourceAccessException) {
+            return idempotent || e.getCause() instanceof ConnectException;
+        }
+        return false;
+    }
+
+    /**
+     * consume a retry from the budget and wait the backoff delay of the attempt.
+     */
+    private boolean retry(String endpoint, int attempt) {
+        if (budget.getAndUpdate(tokens -> tokens >= BUDGET_TOKEN ? tokens - BUDGET_TOKEN : tokens) < BUDGET_TOKEN) {
+            metrics.counter(RETRY_METRIC_NAME, endpoint, "budgetExhausted").inc();
+            return false;
+        }
+        metrics.counter(RETRY_METRIC_NAME, endpoint, "retries").inc();
+        long backoffMs = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, MAX_BACKOFF_SHIFT));
+        sleeper.accept(backoffMs <= 0 ? 0 : ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        return true;
+    }
+
+    private static void sleep(long delayMs) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VehicleProfileException(e);
+        }
+    }
+}
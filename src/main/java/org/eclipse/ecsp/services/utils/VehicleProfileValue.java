@@ -0,0 +1,106 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import java.util.function.Function;
+
+/**
+ * value read from the vehicle profile, tagged with its freshness.<br/>
+ * a stale value was read from a cached vehicle profile whose time to live has expired,
+ * served while the profile is refreshed in the background or while the vehicle profile api is unavailable.
+ *
+ * @param <T> type of the value
+ */
+public final class VehicleProfileValue<T> {
+    private final T value;
+    private final boolean stale;
+    private final long staleMillis;
+
+    private VehicleProfileValue(T value, boolean stale, long staleMillis) {
+        this.value = value;
+        this.stale = stale;
+        this.staleMillis = staleMillis;
+    }
+
+    /**
+     * Create a fresh value.
+     *
+     * @param value value read from an unexpired vehicle profile
+     * @param <T>   type of the value
+     * @return fresh value
+     */
+    public static <T> VehicleProfileValue<T> fresh(T value) {
+        return new VehicleProfileValue<>(value, false, 0);
+    }
+
+    /**
+     * Create a stale value.
+     *
+     * @param value       value read from an expired vehicle profile
+     * @param staleMillis time since the vehicle profile expired in milliseconds
+     * @param <T>         type of the value
+     * @return stale value
+     */
+    public static <T> VehicleProfileValue<T> stale(T value, long staleMillis) {
+        return new VehicleProfileValue<>(value, true, staleMillis);
+    }
+
+    /**
+     * value read from the vehicle profile.
+     *
+     * @return value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * check if the value was read from an expired vehicle profile.
+     *
+     * @return true if stale
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * time since the vehicle profile expired.
+     *
+     * @return staleness in milliseconds, 0 for a fresh value
+     */
+    public long getStaleMillis() {
+        return staleMillis;
+    }
+
+    /**
+     * Map the value, keeping its freshness.
+     *
+     * @param mapper mapping of the value
+     * @param <R>    type of the mapped value
+     * @return mapped value with the same freshness
+     */
+    public <R> VehicleProfileValue<R> map(Function<? super T, ? extends R> mapper) {
+        return new VehicleProfileValue<>(mapper.apply(value), stale, staleMillis);
+    }
+
+    @Override
+    public String toString() {
+        return stale ? "stale(" + staleMillis + "ms) " + value : "fresh " + value;
+    }
+}
@@ -0,0 +1,207 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * warm-up of the vehicle profile near-cache on startup.<br/>
+ * the vehicle ids of the warm-up file and of every {@link VehicleProfileWarmUpSource} bean are fetched
+ * with bounded parallelism once all the singletons are created, before the application is reported ready,
+ * so the first requests after a deploy do not all miss the cache.
+ * the warm-up stops at the timeout, the vehicles not fetched by then are fetched on their first request.
+ * disabled by default, enable with vehicle.profile.warmup.enabled=true, requires the near-cache.
+ */
+@Component
+public class VehicleProfileWarmUp implements SmartInitializingSingleton {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(VehicleProfileWarmUp.class);
+    private static final String THREAD_NAME_PREFIX = "vehicle-profile-warmup-";
+    private static final int PROGRESS_STEPS = 10;
+
+    private final boolean enabled;
+    private final int parallelism;
+    private final long timeoutMs;
+    private final int maxVehicles;
+    private final VehicleProfileClient vehicleProfileClient;
+    private final VehicleProfileCache vehicleProfileCache;
+    private final List<VehicleProfileWarmUpSource> sources;
+
+    /**
+     * Constructor for {@link VehicleProfileWarmUp}.
+     *
+     * @param enabled              true to warm up the near-cache on startup
+     * @param file                 file of the vehicle ids to be warmed up, one per line, empty for none
+     * @param parallelism          maximum number of profiles fetched in parallel
+     * @param timeoutMs            maximum duration of the warm-up in milliseconds
+     * @param maxVehicles          maximum number of profiles warmed up
+     * @param vehicleProfileClient vehicle profile client
+     * @param vehicleProfileCache  near-cache of vehicle profiles
+     * @param sourceProvider       warm-up sources of the application
+     */
+    @Autowired
+    public VehicleProfileWarmUp(@Value("${vehicle.profile.warmup.enabled:false}") boolean enabled,
+                                @Value("${vehicle.profile.warmup.file:}") String file,
+                                @Value("${vehicle.profile.warmup.parallelism:8}") int parallelism,
+                                @Value("${vehicle.profile.warmup.timeout.ms:60000}") long timeoutMs,
+                                @Value("${vehicle.profile.warmup.max.vehicles:10000}") int maxVehicles,
+                                VehicleProfileClient vehicleProfileClient,
+                                VehicleProfileCache vehicleProfileCache,
+                                ObjectProvider<VehicleProfileWarmUpSource> sourceProvider) {
+        this(enabled, parallelism, timeoutMs, maxVehicles, vehicleProfileClient, vehicleProfileCache,
+            sources(file, sourceProvider));
+    }
+
+    /**
+     * Constructor for {@link VehicleProfileWarmUp}.
+     *
+     * @param enabled              true to warm up the near-cache on startup
+     * @param parallelism          maximum number of profiles fetched in parallel
+     * @param timeoutMs            maximum duration of the warm-up in milliseconds
+     * @param maxVehicles          maximum number of profiles warmed up
+     * @param vehicleProfileClient vehicle profile client
+     * @param vehicleProfileCache  near-cache of vehicle profiles
+     * @param sources              sources of the vehicle ids to be warmed up
+     */
+    public VehicleProfileWarmUp(boolean enabled, int parallelism, long timeoutMs, int maxVehicles,
+                                VehicleProfileClient vehicleProfileClient, VehicleProfileCache vehicleProfileCache,
+                                List<VehicleProfileWarmUpSource> sources) {
+        this.enabled = enabled;
+        this.parallelism = Math.max(1, parallelism);
+        this.timeoutMs = timeoutMs;
+        this.maxVehicles = maxVehicles;
+        this.vehicleProfileClient = vehicleProfileClient;
+        this.vehicleProfileCache = vehicleProfileCache;
+        this.sources = sources;
+    }
+
+    /**
+     * warm up the near-cache once all the singletons are created.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        if (!vehicleProfileCache.isEnabled()) {
+            LOGGER.warn("Vehicle profile warm-up skipped, the vehicle profile cache is disabled");
+            return;
+        }
+        warmUp();
+    }
+
+    /**
+     * Fetch the profiles of the vehicle ids of all the sources, waiting at most the timeout.<br/>
+     * a failed source or fetch is logged and skipped.
+     *
+     * @return number of profiles fetched
+     */
+    public int warmUp() {
+        long startTime = System.currentTimeMillis();
+        Set<String> vehicleIds = collectVehicleIds();
+        int total = vehicleIds.size();
+        LOGGER.info("Vehicle profile warm-up started for {} vehicles", total);
+        int progressStep = Math.max(1, total / PROGRESS_STEPS);
+        AtomicInteger fetched = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String vehicleId : vehicleIds) {
+            executor.execute(() -> {
+                try {
+                    vehicleProfileClient.prefetchVehicleProfile(vehicleId);
+                    fetched.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    LOGGER.debug("Vehicle profile warm-up failed for vehicleId {}: {}", vehicleId, e.getMessage());
+                }
+                int done = completed.incrementAndGet();
+                if (done % progressStep == 0) {
+                    LOGGER.info("Vehicle profile warm-up progress {}/{} in {} ms", done, total,
+                        System.currentTimeMillis() - startTime);
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Vehicle profile warm-up timed out after {} ms", timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            LOGGER.warn("Vehicle profile warm-up interrupted");
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        LOGGER.info("Vehicle profile warm-up fetched {} of {} vehicles in {} ms, {} failed", fetched.get(), total,
+            System.currentTimeMillis() - startTime, failed.get());
+        return fetched.get();
+    }
+
+    private Set<String> collectVehicleIds() {
+        Set<String> vehicleIds = new LinkedHashSet<>();
+        for (VehicleProfileWarmUpSource source : sources) {
+            if (vehicleIds.size() >= maxVehicles) {
+                return vehicleIds;
+            }
+            try {
+                Collection<String> sourceVehicleIds = source.vehicleIds(maxVehicles - vehicleIds.size());
+                for (String vehicleId : sourceVehicleIds) {
+                    if (vehicleIds.size() >= maxVehicles) {
+                        return vehicleIds;
+                    }
+                    vehicleIds.add(vehicleId);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Vehicle profile warm-up source {} failed: {}", source, e.getMessage());
+            }
+        }
+        return vehicleIds;
+    }
+
+    private static List<VehicleProfileWarmUpSource> sources(String file,
+                                                            ObjectProvider<VehicleProfileWarmUpSource> provider) {
+        List<VehicleProfileWarmUpSource> sources = new ArrayList<>();
+        if (file != null && !file.isBlank()) {
+            sources.add(VehicleProfileWarmUpSource.fromFile(Paths.get(file)));
+        }
+        provider.orderedStream().forEach(sources::add);
+        return sources;
+    }
+}
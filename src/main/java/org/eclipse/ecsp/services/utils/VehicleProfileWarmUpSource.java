@@ -0,0 +1,112 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import org.eclipse.ecsp.entities.IgniteEntity;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.eclipse.ecsp.nosqldao.mongodb.IgniteBaseDAOMongoImpl;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * source of the vehicle ids whose profiles are fetched by {@link VehicleProfileWarmUp} on startup.<br/>
+ * every bean implementing this interface is used as a seed list, e.g. the vehicles associated to the
+ * most active users or the vehicles seen recently.
+ */
+@FunctionalInterface
+public interface VehicleProfileWarmUpSource {
+
+    /**
+     * vehicle ids to be warmed up, most important first.
+     *
+     * @return vehicle ids
+     */
+    Collection<String> vehicleIds();
+
+    /**
+     * vehicle ids to be warmed up, most important first, at most the provided number.<br/>
+     * sources able to stop reading early, e.g. a query, override it, the others return all their vehicle ids.
+     *
+     * @param maxVehicles maximum number of vehicle ids needed
+     * @return vehicle ids
+     */
+    default Collection<String> vehicleIds(int maxVehicles) {
+        return vehicleIds();
+    }
+
+    /**
+     * Create a source reading the vehicle ids from a file, one per line.<br/>
+     * blank lines and lines starting with # are skipped.
+     *
+     * @param file file of the vehicle ids
+     * @return warm-up source
+     */
+    static VehicleProfileWarmUpSource fromFile(Path file) {
+        return () -> {
+            try {
+                return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read vehicle ids from " + file, e);
+            }
+        };
+    }
+
+    /**
+     * Create a source reading the vehicle ids from a mongo collection.<br/>
+     * only the first page of the query is read, sized to the maximum number of vehicles needed.
+     * a new query is created for each read, so the paging does not change a query shared with other readers.
+     *
+     * @param dao       dao of the collection
+     * @param query     creates the query of the records to be warmed up, null for all the records
+     * @param vehicleId vehicle id of a record, null if none
+     * @param <E>       type of the records
+     * @return warm-up source
+     */
+    static <E extends IgniteEntity> VehicleProfileWarmUpSource fromCollection(IgniteBaseDAOMongoImpl<?, E> dao,
+                                                                             Supplier<IgniteQuery> query,
+                                                                             Function<E, String> vehicleId) {
+        return new VehicleProfileWarmUpSource() {
+            @Override
+            public Collection<String> vehicleIds() {
+                List<E> records = query == null ? dao.findAll() : dao.find(query.get());
+                return records.stream().map(vehicleId).filter(Objects::nonNull).toList();
+            }
+
+            @Override
+            public Collection<String> vehicleIds(int maxVehicles) {
+                IgniteQuery pageQuery = query == null ? new IgniteQuery() : query.get();
+                pageQuery.setPageNumber(1);
+                pageQuery.setPageSize(maxVehicles);
+                return dao.find(pageQuery).stream().map(vehicleId).filter(Objects::nonNull).limit(maxVehicles)
+                    .toList();
+            }
+        };
+    }
+}
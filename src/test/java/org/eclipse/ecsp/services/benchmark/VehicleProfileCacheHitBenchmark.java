@@ -0,0 +1,139 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.benchmark;
+
+import org.eclipse.ecsp.services.utils.BoundedTtlCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares concurrent near-cache hits of {@link BoundedTtlCache}, whose lookups do not lock,
+ * against an access ordered map behind a single lock, as the cache was before.<br/>
+ * every lookup of the previous approach moved the entry in the access order under the lock,
+ * so the hits of concurrent threads were serialized.<br/>
+ * run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.ecsp.services.benchmark.VehicleProfileCacheHitBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class VehicleProfileCacheHitBenchmark {
+    private static final int VEHICLES = 10000;
+    private static final long TTL_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long WEIGHT = 1024L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final String[] vehicleIds = new String[VEHICLES];
+    private final BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL_MS, VEHICLES, 0);
+    private final Map<String, String> lockedCache = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder lockedHits = new LongAdder();
+    private long lockedExpiresAt;
+
+    /**
+     * Fill both caches with all the vehicles, so every lookup is a hit.
+     */
+    @Setup
+    public void setup() {
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleIds[i] = "vehicle-" + i;
+            cache.put(vehicleIds[i], "profile-" + i, WEIGHT);
+            lockedCache.put(vehicleIds[i], "profile-" + i);
+        }
+        lockedExpiresAt = System.currentTimeMillis() + TTL_MS;
+    }
+
+    /**
+     * previous approach, every lookup takes the lock to update the access order,
+     * and checks the expiry and counts the hit as the cache does.
+     *
+     * @return cached profile
+     */
+    @Benchmark
+    public Optional<String> lockedHit() {
+        String vehicleId = vehicleIds[ThreadLocalRandom.current().nextInt(VEHICLES)];
+        lock.lock();
+        try {
+            String profile = lockedCache.get(vehicleId);
+            if (profile == null || lockedExpiresAt <= System.currentTimeMillis()) {
+                return Optional.empty();
+            }
+            lockedHits.increment();
+            return Optional.of(profile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * lookup without locking, only marking the entry as used.
+     *
+     * @return cached profile
+     */
+    @Benchmark
+    public Optional<String> lockFreeHit() {
+        return cache.get(vehicleIds[ThreadLocalRandom.current().nextInt(VEHICLES)]);
+    }
+
+    /**
+     * lookups of the same vehicle by all the threads, the entry is marked as used once.
+     *
+     * @return cached profile
+     */
+    @Benchmark
+    public Optional<String> lockFreeHotHit() {
+        return cache.get(vehicleIds[0]);
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(VehicleProfileCacheHitBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
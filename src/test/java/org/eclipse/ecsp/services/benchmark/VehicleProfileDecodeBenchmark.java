@@ -0,0 +1,120 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.ecsp.domain.VehicleProfile;
+import org.eclipse.ecsp.services.utils.VehicleProfileDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding the vehicle profile response json into {@link VehicleProfile}
+ * through the raw json of its data against binding the data directly.<br/>
+ * the gc profiler reports the allocation per decoded profile as gc.alloc.rate.norm.<br/>
+ * run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.ecsp.services.benchmark.VehicleProfileDecodeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleProfileDecodeBenchmark {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String responseJson;
+
+    /**
+     * Load the vehicle profile fixture.
+     *
+     * @throws IOException if the fixture can not be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream("/vehicleprofile/vehicleProfileGetDecodable.json")) {
+            responseJson = IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * previous approach, parse the response json, serialize the data back to json and deserialize it.
+     *
+     * @return decoded vehicle profile
+     * @throws IOException if the data can not be decoded
+     */
+    @Benchmark
+    public VehicleProfile jsonRoundTrip() throws IOException {
+        String vpJson = objectMapper.writeValueAsString(JsonPath.read(responseJson, "$.data"));
+        return objectMapper.readValue(vpJson, VehicleProfile.class);
+    }
+
+    /**
+     * parse the response json once, as the near-cache does, and convert the parsed data.
+     *
+     * @return decoded vehicle profile
+     * @throws IOException if the data can not be decoded
+     */
+    @Benchmark
+    public VehicleProfile convertParsed() throws IOException {
+        return VehicleProfileDocument.parse(responseJson).readData(objectMapper, VehicleProfile.class);
+    }
+
+    /**
+     * bind the data while reading the response json once.
+     *
+     * @return decoded vehicle profile
+     * @throws IOException if the data can not be decoded
+     */
+    @Benchmark
+    public VehicleProfile bindDirectly() throws IOException {
+        return VehicleProfileDocument.unparsed(responseJson).readData(objectMapper, VehicleProfile.class);
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(VehicleProfileDecodeBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.benchmark;
+
+import com.jayway.jsonpath.JsonPath;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.utils.VehicleProfileDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares extracting multiple vehicle profile attributes by parsing the response json
+ * for every attribute against parsing it once into {@link VehicleProfileDocument},
+ * and against streaming only the requested attributes.<br/>
+ * run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.eclipse.ecsp.services.benchmark.VehicleProfileParseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleProfileParseBenchmark {
+    private static final VehicleProfileAttribute[] ATTRIBUTES = {
+        VehicleProfileAttribute.USERID,
+        VehicleProfileAttribute.SOLD_REGION,
+        VehicleProfileAttribute.MSISDN,
+        VehicleProfileAttribute.DESTINATION_COUNTRY,
+        VehicleProfileAttribute.MAKE,
+        VehicleProfileAttribute.MODEL,
+        VehicleProfileAttribute.HU_CLIENT_ID,
+        VehicleProfileAttribute.HU_PROVISIONED_SERVICES
+    };
+    private static final VehicleProfileAttribute[] DEFINITE_ATTRIBUTES =
+        Arrays.copyOf(ATTRIBUTES, ATTRIBUTES.length - 1);
+
+    private String responseJson;
+
+    /**
+     * Load the vehicle profile fixture.
+     *
+     * @throws IOException if the fixture can not be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream is = getClass().getResourceAsStream("/vehicleprofile/vehicleProfileGet.json")) {
+            responseJson = IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * previous approach, parse the response json for every attribute.
+     *
+     * @param blackhole consumes the extracted values
+     */
+    @Benchmark
+    public void parsePerAttribute(Blackhole blackhole) {
+        for (VehicleProfileAttribute vpa : ATTRIBUTES) {
+            blackhole.consume((Object) JsonPath.read(responseJson, vpa.getJsonPath()));
+        }
+    }
+
+    /**
+     * parse the response json once and read every attribute from the parsed document.
+     *
+     * @param blackhole consumes the extracted values
+     */
+    @Benchmark
+    public void parseOnce(Blackhole blackhole) {
+        VehicleProfileDocument document = VehicleProfileDocument.parse(responseJson);
+        for (VehicleProfileAttribute vpa : ATTRIBUTES) {
+            blackhole.consume((Object) document.read(vpa));
+        }
+    }
+
+    /**
+     * stream the response json once, extracting only the requested attributes.<br/>
+     * the wildcard path of the provisioned services can not be streamed, so the json is parsed instead.
+     *
+     * @param blackhole consumes the extracted values
+     */
+    @Benchmark
+    public void streamOnce(Blackhole blackhole) {
+        stream(blackhole, ATTRIBUTES);
+    }
+
+    /**
+     * parse the response json once, reading only attributes with definite paths.
+     *
+     * @param blackhole consumes the extracted values
+     */
+    @Benchmark
+    public void parseOnceDefinitePaths(Blackhole blackhole) {
+        VehicleProfileDocument document = VehicleProfileDocument.parse(responseJson);
+        for (VehicleProfileAttribute vpa : DEFINITE_ATTRIBUTES) {
+            blackhole.consume((Object) document.read(vpa));
+        }
+    }
+
+    /**
+     * stream the response json once, reading only attributes with definite paths,
+     * so the response json is never parsed.
+     *
+     * @param blackhole consumes the extracted values
+     */
+    @Benchmark
+    public void streamOnceDefinitePaths(Blackhole blackhole) {
+        stream(blackhole, DEFINITE_ATTRIBUTES);
+    }
+
+    private void stream(Blackhole blackhole, VehicleProfileAttribute... attributes) {
+        VehicleProfileDocument document = VehicleProfileDocument.unparsed(responseJson);
+        document.prefetch(attributes);
+        for (VehicleProfileAttribute vpa : attributes) {
+            blackhole.consume((Object) document.read(vpa));
+        }
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(VehicleProfileParseBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,166 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.configurations;
+
+import com.codahale.metrics.MetricRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServicesConfigCompressionTest {
+    private static final int RESPONSE_CODE_200 = 200;
+    private static final int TIMEOUT = 3000;
+    private static final int MIN_SIZE = 1024;
+    private static final String PROFILE = "{\"data\": {\"ecus\": {" + "\"ecu\": {\"swVersion\": \"1.0\"},".repeat(200)
+        + "\"hu\": {\"clientId\": \"client-id\"}}}}";
+
+    private final MockWebServer server = new MockWebServer();
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private ServicesConfig servicesConfig;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server.start();
+        servicesConfig = new ServicesConfig();
+        ReflectionTestUtils.setField(servicesConfig, "readTimeout", TIMEOUT);
+        ReflectionTestUtils.setField(servicesConfig, "connectionTimeout", TIMEOUT);
+        ReflectionTestUtils.setField(servicesConfig, "connectionRequestTimeout", TIMEOUT);
+        ReflectionTestUtils.setField(servicesConfig, "maxConnTotal", 1);
+        ReflectionTestUtils.setField(servicesConfig, "maxConnPerRoute", 1);
+        ReflectionTestUtils.setField(servicesConfig, "compressionEnabled", true);
+        ReflectionTestUtils.setField(servicesConfig, "compressionEncodings", new String[] {"gzip", "deflate"});
+        ReflectionTestUtils.setField(servicesConfig, "requestCompressionMinSize", MIN_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private RestTemplate restTemplate() {
+        ContentCompressionMetrics compressionMetrics = new ContentCompressionMetrics(metricRegistry);
+        RestTemplate restTemplate = servicesConfig.restTemplate(
+            servicesConfig.httpComponentsClientHttpRequestFactory(compressionMetrics), compressionMetrics);
+        restTemplate.setMessageConverters(
+            List.of(new ByteArrayHttpMessageConverter(), new StringHttpMessageConverter()));
+        return restTemplate;
+    }
+
+    private long count(String... names) {
+        return metricRegistry.counter(ContentCompressionMetrics.name(names)).getCount();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    @Test
+    void compressedResponseIsDecompressed() throws Exception {
+        byte[] compressed = gzip(PROFILE.getBytes(StandardCharsets.UTF_8));
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setHeader("Content-Encoding", "gzip")
+            .setBody(new Buffer().write(compressed)));
+
+        byte[] body = restTemplate().getForObject(server.url("/vehicleProfiles/vehicle-1").uri(), byte[].class);
+
+        assertArrayEquals(PROFILE.getBytes(StandardCharsets.UTF_8), body);
+        assertEquals("gzip, deflate", server.takeRequest().getHeader("Accept-Encoding"));
+        assertEquals(compressed.length, count("response", "compressedBytes"));
+        assertEquals(PROFILE.length(), count("response", "uncompressedBytes"));
+        assertEquals(0, count("response", "identityBytes"));
+    }
+
+    @Test
+    void uncompressedResponseIsCountedAsIdentity() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody(PROFILE));
+
+        String body = restTemplate().getForObject(server.url("/vehicleProfiles/vehicle-1").uri(), String.class);
+
+        assertEquals(PROFILE, body);
+        assertEquals(PROFILE.length(), count("response", "identityBytes"));
+        assertEquals(0, count("response", "compressedBytes"));
+    }
+
+    @Test
+    void compressionCanBeDisabled() throws Exception {
+        ReflectionTestUtils.setField(servicesConfig, "compressionEnabled", false);
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody(PROFILE));
+
+        restTemplate().getForObject(server.url("/vehicleProfiles/vehicle-1").uri(), String.class);
+
+        assertNull(server.takeRequest().getHeader("Accept-Encoding"));
+    }
+
+    @Test
+    void unsupportedEncodingIsRejected() {
+        ReflectionTestUtils.setField(servicesConfig, "compressionEncodings", new String[] {"gzip", "zstd"});
+
+        assertThrows(IllegalArgumentException.class, this::restTemplate);
+    }
+
+    @Test
+    void requestBodiesLargerThanMinSizeAreCompressed() throws Exception {
+        ReflectionTestUtils.setField(servicesConfig, "requestCompressionEnabled", true);
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{}"));
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{}"));
+        RestTemplate restTemplate = restTemplate();
+
+        restTemplate.postForObject(server.url("/vehicleProfiles/bulk").uri(), PROFILE, String.class);
+        restTemplate.postForObject(server.url("/vehicleProfiles/bulk").uri(), "[\"vehicle-1\"]", String.class);
+
+        RecordedRequest compressed = server.takeRequest();
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        assertArrayEquals(PROFILE.getBytes(StandardCharsets.UTF_8), gunzip(compressed.getBody().readByteArray()));
+        RecordedRequest small = server.takeRequest();
+        assertNull(small.getHeader("Content-Encoding"));
+        assertEquals("[\"vehicle-1\"]", small.getBody().readUtf8());
+        assertEquals(PROFILE.length(), count("request", "uncompressedBytes"));
+        assertTrue(count("request", "compressedBytes") < PROFILE.length());
+    }
+}
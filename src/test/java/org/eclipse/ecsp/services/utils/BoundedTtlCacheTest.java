@@ -0,0 +1,178 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import org.junit.jupiter.api.Test;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTest {
+    private static final long TTL = 1000L;
+    private static final int MAX_ENTRIES = 2;
+    private static final long WEIGHT = 10L;
+    private static final long MAX_WEIGHT = 20L;
+    private static final int THREADS = 4;
+    private static final int KEYS = 8;
+    private static final int LOOKUPS = 100000;
+    private static final long WAIT_SECONDS = 10L;
+    
+    private final AtomicLong now = new AtomicLong();
+    
+    @Test
+    void getAfterPut() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        
+        assertFalse(cache.get("k1").isPresent());
+        cache.put("k1", "v1", WEIGHT);
+        
+        assertEquals(Optional.of("v1"), cache.get("k1"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(WEIGHT, cache.weight());
+    }
+    
+    @Test
+    void expiredEntryIsNotReturned() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        
+        now.addAndGet(TTL);
+        
+        assertFalse(cache.get("k1").isPresent());
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        cache.put("k2", "v2", WEIGHT);
+        cache.get("k1");
+        
+        cache.put("k3", "v3", WEIGHT);
+        
+        assertTrue(cache.get("k1").isPresent());
+        assertFalse(cache.get("k2").isPresent());
+        assertTrue(cache.get("k3").isPresent());
+        assertEquals(1, cache.evictionCount());
+    }
+    
+    @Test
+    void evictedWhenWeightExceeded() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, Integer.MAX_VALUE, MAX_WEIGHT, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        cache.put("k2", "v2", WEIGHT);
+        cache.put("k3", "v3", WEIGHT);
+        
+        assertFalse(cache.get("k1").isPresent());
+        assertEquals(MAX_WEIGHT, cache.weight());
+    }
+    
+    @Test
+    void invalidate() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        
+        assertTrue(cache.invalidate("k1"));
+        assertFalse(cache.invalidate("k1"));
+        assertEquals(0, cache.weight());
+    }
+    
+    @Test
+    void invalidateIf() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        cache.put("k2", "v2", WEIGHT);
+        
+        assertEquals(1, cache.invalidateIf((key, value) -> "v1".equals(value)));
+        assertFalse(cache.get("k1").isPresent());
+        assertEquals(Optional.of("v2"), cache.get("k2"));
+        assertEquals(WEIGHT, cache.weight());
+    }
+    
+    @Test
+    void expiredEntryIsKeptForGracePeriod() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, TTL, MAX_ENTRIES, 0, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        
+        now.addAndGet(TTL);
+        
+        assertFalse(cache.get("k1").isPresent());
+        assertEquals(Optional.of("v1"), cache.getIncludingExpired("k1"));
+        assertTrue(cache.refresh("k1", "v1"));
+        assertEquals(Optional.of("v1"), cache.get("k1"));
+        
+        now.addAndGet(TTL + TTL);
+        
+        assertFalse(cache.getIncludingExpired("k1").isPresent());
+        assertFalse(cache.get("k1").isPresent());
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void oldestIsEvictedWhenAllEntriesWereUsed() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        cache.put("k1", "v1", WEIGHT);
+        cache.put("k2", "v2", WEIGHT);
+        cache.get("k2");
+        cache.get("k1");
+        
+        cache.put("k3", "v3", WEIGHT);
+        
+        assertFalse(cache.get("k1").isPresent());
+        assertTrue(cache.get("k2").isPresent());
+        assertTrue(cache.get("k3").isPresent());
+    }
+    
+    @Test
+    void concurrentLookupsAndWritesKeepTheBounds() throws Exception {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(TTL, MAX_ENTRIES, 0, now::get);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < LOOKUPS; i++) {
+                    cache.put("k" + i % KEYS, "v", WEIGHT);
+                }
+            });
+            for (int thread = 1; thread < THREADS; thread++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < LOOKUPS; i++) {
+                        cache.get("k" + i % KEYS);
+                    }
+                });
+            }
+            writer.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(WAIT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(MAX_ENTRIES, cache.size());
+        assertEquals(MAX_ENTRIES * WEIGHT, cache.weight());
+        assertEquals((long) (THREADS - 1) * LOOKUPS, cache.hitCount() + cache.missCount());
+    }
+}
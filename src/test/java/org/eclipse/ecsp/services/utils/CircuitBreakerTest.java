@@ -0,0 +1,135 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private static final int WINDOW_SIZE = 10;
+    private static final int MINIMUM_CALLS = 4;
+    private static final int FAILURE_RATE_THRESHOLD = 50;
+    private static final long SLOW_CALL_DURATION_MS = 100L;
+    private static final int SLOW_CALL_RATE_THRESHOLD = 75;
+    private static final long OPEN_DURATION_MS = 1000L;
+    private static final int HALF_OPEN_CALLS = 2;
+    private static final int ABOVE_MAX_RATE_THRESHOLD = 101;
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_CALL = TimeUnit.MILLISECONDS.toNanos(SLOW_CALL_DURATION_MS);
+    
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("vehicleProfile", WINDOW_SIZE, MINIMUM_CALLS,
+        FAILURE_RATE_THRESHOLD, SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD, OPEN_DURATION_MS, HALF_OPEN_CALLS,
+        now::get);
+    
+    private void record(int calls, long duration, boolean failed) {
+        for (int i = 0; i < calls; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onResult(duration, failed);
+        }
+    }
+    
+    private void open() {
+        record(MINIMUM_CALLS, FAST_CALL, true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void opensOnceFailureRateReached() {
+        record(MINIMUM_CALLS - 1, FAST_CALL, true);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        record(1, FAST_CALL, false);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+    
+    @Test
+    void staysClosedBelowThresholds() {
+        record(WINDOW_SIZE, FAST_CALL, false);
+        record(MINIMUM_CALLS, FAST_CALL, true);
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    void opensOnceSlowCallRateReached() {
+        record(MINIMUM_CALLS, SLOW_CALL, false);
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void closesAfterSuccessfulTrialCalls() {
+        open();
+        
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MS));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        record(HALF_OPEN_CALLS, FAST_CALL, false);
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    void permitsOnlyTheTrialCallsWhileHalfOpen() {
+        open();
+        
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MS));
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+        }
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+    
+    @Test
+    void opensAgainAfterFailedTrialCalls() {
+        open();
+        
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_DURATION_MS));
+        record(HALF_OPEN_CALLS, FAST_CALL, true);
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+    
+    @Test
+    void invalidConfigurationFailsFast() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("vehicleProfile", WINDOW_SIZE,
+            MINIMUM_CALLS, 0, SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD, OPEN_DURATION_MS, HALF_OPEN_CALLS));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("vehicleProfile", WINDOW_SIZE,
+            MINIMUM_CALLS, FAILURE_RATE_THRESHOLD, SLOW_CALL_DURATION_MS, 0, OPEN_DURATION_MS, HALF_OPEN_CALLS));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("vehicleProfile", WINDOW_SIZE,
+            MINIMUM_CALLS, FAILURE_RATE_THRESHOLD, SLOW_CALL_DURATION_MS, ABOVE_MAX_RATE_THRESHOLD, OPEN_DURATION_MS,
+            HALF_OPEN_CALLS));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("vehicleProfile", WINDOW_SIZE,
+            WINDOW_SIZE + 1, FAILURE_RATE_THRESHOLD, SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD,
+            OPEN_DURATION_MS, HALF_OPEN_CALLS));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("vehicleProfile", WINDOW_SIZE,
+            MINIMUM_CALLS, FAILURE_RATE_THRESHOLD, SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD,
+            OPEN_DURATION_MS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreaker("vehicleProfile", 0,
+            MINIMUM_CALLS, FAILURE_RATE_THRESHOLD, SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD,
+            OPEN_DURATION_MS, HALF_OPEN_CALLS));
+    }
+}
@@ -0,0 +1,62 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonPathRegistryTest {
+    
+    @Test
+    void compiledPathIsReused() {
+        JsonPathRegistry registry = new JsonPathRegistry(JsonPathRegistry.DEFAULT_MAX_SIZE);
+        
+        JsonPath first = registry.getJsonPath("$.data.vehicleAttributes.make");
+        JsonPath second = registry.getJsonPath("$.data.vehicleAttributes.make");
+        
+        assertSame(first, second);
+        assertEquals(1, registry.size());
+    }
+    
+    @Test
+    void pathIsNotRegisteredWhenFull() {
+        JsonPathRegistry registry = new JsonPathRegistry(1);
+        registry.getJsonPath("$.data.vin");
+        
+        JsonPath first = registry.getJsonPath("$.data.soldRegion");
+        JsonPath second = registry.getJsonPath("$.data.soldRegion");
+        
+        assertNotSame(first, second);
+        assertEquals("$['data']['soldRegion']", first.getPath());
+        assertEquals(1, registry.size());
+    }
+    
+    @Test
+    void invalidPath() {
+        JsonPathRegistry registry = new JsonPathRegistry(JsonPathRegistry.DEFAULT_MAX_SIZE);
+        
+        assertThrows(InvalidPathException.class, () -> registry.getJsonPath("$.data.["));
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,41 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * vehicle profile api responses, with the json body as utf-8 bytes as read by {@link VehicleProfileClient}.
+ */
+final class JsonResponses {
+
+    private JsonResponses() {
+    }
+
+    static ResponseEntity<byte[]> jsonResponse(String json, HttpStatusCode status) {
+        return jsonResponse(json, new HttpHeaders(), status);
+    }
+
+    static ResponseEntity<byte[]> jsonResponse(String json, HttpHeaders headers, HttpStatusCode status) {
+        return new ResponseEntity<>(json == null ? null : json.getBytes(StandardCharsets.UTF_8), headers, status);
+    }
+}
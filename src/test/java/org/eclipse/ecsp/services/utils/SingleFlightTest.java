@@ -0,0 +1,165 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.Counter;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private static final int CALLERS = 4;
+    private static final long TIMEOUT_SECONDS = 5L;
+    private static final int TWICE = 2;
+
+    private final Counter coalescedCalls = new Counter();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>(coalescedCalls);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsForSameKeyAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        final List<Future<String>> results = new ArrayList<>();
+        final Future<String> leader = executor.submit(() -> singleFlight.execute("vehicle-1", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return "profile";
+        }));
+        waitUntilInFlight();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("vehicle-1", () -> {
+                executions.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        waitUntilCoalesced(CALLERS - 1);
+        release.countDown();
+
+        assertEquals("profile", leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (Future<String> result : results) {
+            assertEquals("profile", result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void failureIsSharedWithWaitingCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        VehicleProfileException failure = new VehicleProfileException("failed");
+        final Future<String> leader = executor.submit(() -> singleFlight.execute("vehicle-1", () -> {
+            await(release);
+            throw failure;
+        }));
+        waitUntilInFlight();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("vehicle-1", () -> "duplicate"));
+        waitUntilCoalesced(1);
+        release.countDown();
+
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Exception followerError =
+            assertThrows(Exception.class, () -> follower.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(failure, leaderError.getCause());
+        assertEquals(failure, followerError.getCause());
+    }
+
+    @Test
+    void concurrentAsyncCallsForSameKeyAreCoalesced() throws Exception {
+        CompletableFuture<String> call = new CompletableFuture<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<String> leader = singleFlight.executeAsync("vehicle-1", () -> {
+            executions.incrementAndGet();
+            return call;
+        });
+        CompletableFuture<String> follower = singleFlight.executeAsync("vehicle-1", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("duplicate");
+        });
+        call.complete("profile");
+
+        assertEquals("profile", leader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("profile", follower.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(1, coalescedCalls.getCount());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void sequentialCallsAreNotCoalesced() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("vehicle-1", () -> "profile-" + executions.incrementAndGet());
+        String result = singleFlight.execute("vehicle-1", () -> "profile-" + executions.incrementAndGet());
+
+        assertEquals("profile-2", result);
+        assertEquals(TWICE, executions.get());
+        assertEquals(0, coalescedCalls.getCount());
+    }
+
+    @Test
+    void callsForDifferentKeysAreNotCoalesced() {
+        assertEquals("profile-1", singleFlight.execute("vehicle-1", () -> "profile-1"));
+        assertEquals("profile-2", singleFlight.execute("vehicle-2", () -> "profile-2"));
+        assertEquals(0, coalescedCalls.getCount());
+    }
+
+    private void waitUntilInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (singleFlight.inFlight() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, singleFlight.inFlight());
+    }
+
+    private void waitUntilCoalesced(long calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (coalescedCalls.getCount() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(calls, coalescedCalls.getCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
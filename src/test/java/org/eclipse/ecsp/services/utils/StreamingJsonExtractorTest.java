@@ -0,0 +1,115 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingJsonExtractorTest {
+    private static final String JSON = "{\"data\": {\"events\": {\"e1\": {\"x\": [1, 2, 3]}},"
+        + " \"soldRegion\": \"region\", \"saleDate\": null, \"blockEnrollment\": true, \"count\": 12,"
+        + " \"authorizedUsers\": [{\"userId\": \"user-1\"}, {\"userId\": \"user-2\"}],"
+        + " \"authorizedPartners\": {\"partner-1\": {\"status\": \"ACTIVE\"}}}}";
+    private static final int COUNT = 12;
+
+    @Test
+    void extractScalarValues() throws IOException {
+        JsonPath soldRegion = JsonPath.compile("$.data.soldRegion");
+        JsonPath saleDate = JsonPath.compile("$.data.saleDate");
+        JsonPath blockEnrollment = JsonPath.compile("$.data.blockEnrollment");
+        JsonPath count = JsonPath.compile("$.data.count");
+        JsonPath secondUserId = JsonPath.compile("$.data.authorizedUsers[1].userId");
+
+        Map<JsonPath, Object> values = StreamingJsonExtractor.extract(JSON,
+            List.of(soldRegion, saleDate, blockEnrollment, count, secondUserId));
+
+        assertEquals("region", values.get(soldRegion));
+        assertTrue(values.containsKey(saleDate));
+        assertNull(values.get(saleDate));
+        assertEquals(Boolean.TRUE, values.get(blockEnrollment));
+        assertEquals(COUNT, values.get(count));
+        assertEquals("user-2", values.get(secondUserId));
+    }
+
+    @Test
+    void extractContainerValuesWithJsonPathTypes() throws IOException {
+        JsonPath authorizedUsers = JsonPath.compile("$.data.authorizedUsers");
+        JsonPath authorizedPartners = JsonPath.compile("$.data.authorizedPartners");
+        JsonPath firstUserId = JsonPath.compile("$.data.authorizedUsers[0].userId");
+
+        Map<JsonPath, Object> values =
+            StreamingJsonExtractor.extract(JSON, List.of(authorizedUsers, authorizedPartners, firstUserId));
+
+        assertInstanceOf(JSONArray.class, values.get(authorizedUsers));
+        assertInstanceOf(LinkedHashMap.class, values.get(authorizedPartners));
+        assertEquals(JsonPath.read(JSON, "$.data.authorizedUsers"), values.get(authorizedUsers));
+        assertEquals("user-1", values.get(firstUserId));
+    }
+
+    @Test
+    void missingAndUnsupportedPathsAreNotExtracted() throws IOException {
+        JsonPath missing = JsonPath.compile("$.data.vin");
+        JsonPath wildcard = JsonPath.compile("$.data.authorizedUsers[*].userId");
+
+        Map<JsonPath, Object> values = StreamingJsonExtractor.extract(JSON, List.of(missing, wildcard));
+
+        assertTrue(values.isEmpty());
+        assertFalse(StreamingJsonExtractor.isSupported(wildcard));
+        assertTrue(StreamingJsonExtractor.isSupported(missing));
+    }
+
+    @Test
+    void extractFromUtf8Bytes() throws IOException {
+        JsonPath soldRegion = JsonPath.compile("$.data.soldRegion");
+        JsonPath authorizedPartners = JsonPath.compile("$.data.authorizedPartners");
+
+        Map<JsonPath, Object> values = StreamingJsonExtractor.extract(JSON.getBytes(StandardCharsets.UTF_8),
+            List.of(soldRegion, authorizedPartners));
+
+        assertEquals("region", values.get(soldRegion));
+        assertEquals(JsonPath.read(JSON, "$.data.authorizedPartners"), values.get(authorizedPartners));
+    }
+
+    @Test
+    void readingStopsOnceAllValuesAreFound() throws IOException {
+        String truncated = "{\"data\": {\"soldRegion\": \"region\", \"vehicleAttributes\": {\"make\": \"brandName\"},"
+            + " \"events\": [";
+        InputStream json = new ByteArrayInputStream(truncated.getBytes(StandardCharsets.UTF_8));
+        JsonPath soldRegion = JsonPath.compile("$.data.soldRegion");
+        JsonPath make = JsonPath.compile("$.data.vehicleAttributes.make");
+
+        Map<JsonPath, Object> values = StreamingJsonExtractor.extract(json, List.of(soldRegion, make));
+
+        assertEquals("region", values.get(soldRegion));
+        assertEquals("brandName", values.get(make));
+    }
+}
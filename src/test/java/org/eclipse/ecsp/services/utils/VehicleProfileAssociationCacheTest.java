@@ -0,0 +1,135 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.ecsp.domain.AssociatedVehicles;
+import org.eclipse.ecsp.domain.Constants;
+import org.eclipse.ecsp.domain.VehicleProfileNotificationEventDataV1_1;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.eclipse.ecsp.services.exceptions.AssociationFailedException;
+import org.eclipse.ecsp.services.exceptions.DisassociationFailedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileAssociationCacheTest {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long TTL = 60000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final String USER_ID = "user-1";
+    private static final String ASSOCIATED_VEHICLES = "{\"message\": \"SUCCESS\", \"data\": ["
+        + "{\"vehicleId\": \"vehicle-1\", \"role\": \"VEHICLE_OWNER\"},"
+        + "{\"vehicleId\": \"vehicle-2\", \"role\": \"DRIVER\"}]}";
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileAssociationCache associationCache;
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() throws JsonProcessingException {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        associationCache = new VehicleProfileAssociationCache(true, TTL, MAX_ENTRIES, metrics, fixture.clock());
+        vehicleProfileClient = fixture.client(fixture.collaborators().associationCache(associationCache));
+        when(restTemplate.getForEntity(any(URI.class), eq(AssociatedVehicles.class))).thenReturn(
+            new ResponseEntity<>(OBJECT_MAPPER.readValue(ASSOCIATED_VEHICLES, AssociatedVehicles.class),
+                HttpStatus.OK));
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(new ResponseEntity<>("{\"message\": \"SUCCESS\", \"data\": true}", HttpStatus.OK));
+    }
+    
+    @Test
+    void associatedVehiclesAreFetchedOnce() {
+        for (int i = 0; i < TWICE; i++) {
+            assertEquals(List.of("vehicle-1", "vehicle-2"), vehicleProfileClient.getAssociatedVehicles(USER_ID));
+            assertEquals("SUCCESS", vehicleProfileClient.getAssociatedVehiclesForUser(USER_ID).getMessage());
+        }
+        
+        verify(restTemplate, times(1)).getForEntity(any(URI.class), eq(AssociatedVehicles.class));
+        assertEquals(1L, metricRegistry.getGauges().get(
+            VehicleProfileMetrics.name("associationCache", "misses")).getValue());
+        fixture.advance(TTL);
+        vehicleProfileClient.getAssociatedVehicles(USER_ID);
+        verify(restTemplate, times(TWICE)).getForEntity(any(URI.class), eq(AssociatedVehicles.class));
+    }
+    
+    @Test
+    void disassociatedVehicleIsRemovedFromCache() throws DisassociationFailedException {
+        AssociatedVehicles cached = vehicleProfileClient.getAssociatedVehiclesForUser(USER_ID);
+        
+        assertTrue(vehicleProfileClient.disassociateVehicle(USER_ID, "vehicle-1"));
+        
+        assertEquals(List.of("vehicle-2"), vehicleProfileClient.getAssociatedVehicles(USER_ID));
+        assertEquals(TWICE, cached.getData().size());
+        verify(restTemplate, times(1)).getForEntity(any(URI.class), eq(AssociatedVehicles.class));
+    }
+    
+    @Test
+    void associatedUserIsEvicted() throws AssociationFailedException {
+        vehicleProfileClient.getAssociatedVehicles(USER_ID);
+        
+        assertTrue(vehicleProfileClient.associateVehicle(USER_ID, "vehicle-3", "COMPLETED_STAGE_3"));
+        
+        assertFalse(associationCache.get(USER_ID).isPresent());
+    }
+    
+    @Test
+    void authorizedUsersChangesAreApplied() {
+        vehicleProfileClient.getAssociatedVehicles(USER_ID);
+        vehicleProfileClient.getAssociatedVehicles("user-2");
+        final VehicleProfileCacheInvalidator invalidator = new VehicleProfileCacheInvalidator(
+            fixture.collaborators().associationCache(associationCache).build());
+        VehicleProfileNotificationEventDataV1_1.ChangeDescription change =
+            new VehicleProfileNotificationEventDataV1_1.ChangeDescription();
+        change.setKey("authorizedUsers");
+        change.setOld(List.of(Map.of("userId", USER_ID)));
+        change.setChanged(List.of(Map.of("userId", "user-2")));
+        VehicleProfileNotificationEventDataV1_1 data = new VehicleProfileNotificationEventDataV1_1();
+        data.setChangeDescriptions(List.of(change));
+        IgniteEventImpl igniteEvent = new IgniteEventImpl();
+        igniteEvent.setEventId(Constants.EVENT_VEHICLE_CHANGE_NOTIFICATION);
+        igniteEvent.setVehicleId("vehicle-1");
+        igniteEvent.setEventData(data);
+        
+        invalidator.onVehicleProfileChanged(igniteEvent);
+        
+        assertEquals(List.of("vehicle-2"), vehicleProfileClient.getAssociatedVehicles(USER_ID));
+        assertFalse(associationCache.get("user-2").isPresent());
+    }
+}
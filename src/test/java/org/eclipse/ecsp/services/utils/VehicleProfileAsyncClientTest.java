@@ -0,0 +1,320 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.eclipse.ecsp.domain.AssociatedVehicle;
+import org.eclipse.ecsp.domain.AssociatedVehicles;
+import org.eclipse.ecsp.domain.VehicleProfile;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.exceptions.DisassociationFailedException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileNotFoundException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleProfileAsyncClientTest {
+    private static final int RESPONSE_CODE_200 = 200;
+    private static final int RESPONSE_CODE_404 = 404;
+    private static final int RESPONSE_CODE_500 = 500;
+    private static final long NEGATIVE_CACHE_TTL = 60000L;
+    private static final long OPEN_DURATION_MS = 60000L;
+    private static final int SLOW_CALL_RATE_THRESHOLD = 100;
+    private static final int THREADS = 2;
+    private static final long TIMEOUT_SECONDS = 5L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(TIMEOUT_SECONDS);
+    private static final int ASSOCIATED_VEHICLES = 13;
+    private static final long ASSOCIATION_CACHE_TTL = 60000L;
+    private static final int ASSOCIATION_CACHE_ENTRIES = 10;
+
+    private final VehicleProfileMetrics metrics = new VehicleProfileMetrics(new MetricRegistry());
+    private MockWebServer server;
+    private VehicleProfileAsyncClient vehicleProfileAsyncClient;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        vehicleProfileAsyncClient = asyncClient(VehicleProfileClientCollaborators.builder(metrics));
+    }
+
+    private VehicleProfileAsyncClient asyncClient(VehicleProfileClientCollaborators.Builder collaborators) {
+        return asyncClient(Executors.newFixedThreadPool(THREADS), collaborators);
+    }
+
+    private VehicleProfileAsyncClient asyncClient(ExecutorService executor,
+                                                  VehicleProfileClientCollaborators.Builder collaborators) {
+        VehicleProfileAsyncClient asyncClient = new VehicleProfileAsyncClient(executor, TIMEOUT, TIMEOUT,
+            collaborators.build());
+        ReflectionTestUtils.setField(asyncClient, "vehicleProfileEndPoint",
+            server.url("/v1.0/vehicleProfiles/").toString());
+        ReflectionTestUtils.setField(asyncClient, "associatedVehiclesEndpoint",
+            server.url("/v1.0/users/").toString() + "{userId}/associatedVehicles");
+        ReflectionTestUtils.setField(asyncClient, "disassociateVehicleUrl",
+            server.url("/v1.0/vehicles/").toString() + "{vehicleId}/disassociate");
+        ReflectionTestUtils.setField(asyncClient, "associateVehicleUrl",
+            server.url("/v1.0/vehicles/").toString() + "{vehicleId}/associate");
+        return asyncClient;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        vehicleProfileAsyncClient.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    void getVehicleProfileAttributes() throws Exception {
+        enqueue(RESPONSE_CODE_200, "/vehicleprofile/vehicleProfileGet.json");
+
+        Map<VehicleProfileAttribute, Optional<String>> values = vehicleProfileAsyncClient
+            .getVehicleProfileAttributes("vehicle-1", false, VehicleProfileAttribute.USERID,
+                VehicleProfileAttribute.MAKE)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(Optional.of("string"), values.get(VehicleProfileAttribute.USERID));
+        assertEquals(Optional.of("brandName"), values.get(VehicleProfileAttribute.MAKE));
+        RecordedRequest request = server.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals("GET", request.getMethod());
+        assertEquals("/v1.0/vehicleProfiles/vehicle-1", request.getPath());
+    }
+
+    @Test
+    void getVehicleProfile() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200)
+            .setBody("{\"data\":{\"vin\":\"test-vin\"}}"));
+
+        Optional<VehicleProfile> vehicleProfile =
+            vehicleProfileAsyncClient.getVehicleProfile("vehicle-1").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(vehicleProfile.isPresent());
+        assertEquals("test-vin", vehicleProfile.get().getVin());
+    }
+
+    @Test
+    void getVehicleProfileAttributeIgnoreError() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_500));
+
+        Map<VehicleProfileAttribute, Optional<String>> values = vehicleProfileAsyncClient
+            .getVehicleProfileAttributes("vehicle-1", true, VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(Optional.empty(), values.get(VehicleProfileAttribute.USERID));
+    }
+
+    @Test
+    void responseRejectedBySaturatedExecutorFailsTheCall() {
+        ExecutorService saturatedExecutor = Executors.newSingleThreadExecutor();
+        saturatedExecutor.shutdown();
+        VehicleProfileAsyncClient saturatedClient =
+            asyncClient(saturatedExecutor, VehicleProfileClientCollaborators.builder(metrics));
+        enqueue(RESPONSE_CODE_200, "/vehicleprofile/vehicleProfileGet.json");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> saturatedClient
+            .getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertInstanceOf(VehicleProfileException.class, error.getCause());
+        assertInstanceOf(RejectedExecutionException.class, error.getCause().getCause());
+    }
+
+    @Test
+    void notFoundVehicleIsRememberedByNegativeCache() {
+        VehicleProfileAsyncClient negativeCacheClient = asyncClient(VehicleProfileClientCollaborators.builder(metrics)
+            .negativeCache(new VehicleProfileNegativeCache(true, NEGATIVE_CACHE_TTL, ASSOCIATION_CACHE_ENTRIES,
+                metrics)));
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_404));
+
+        assertThrows(ExecutionException.class, () -> negativeCacheClient
+            .getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> negativeCacheClient
+            .getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertInstanceOf(VehicleProfileNotFoundException.class, error.getCause().getCause());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1L, metrics.getMetricRegistry().timer(VehicleProfileMetrics.name("http", "vehicleProfile"))
+            .getCount());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingTheApi() {
+        VehicleProfileAsyncClient circuitBreakerClient = asyncClient(VehicleProfileClientCollaborators.builder(metrics)
+            .resilience(new VehicleProfileResilience(true, 1, 1, 1, TIMEOUT.toMillis(), SLOW_CALL_RATE_THRESHOLD,
+                OPEN_DURATION_MS, 1, false, 1, 0, metrics, System::nanoTime)));
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_500));
+        assertThrows(ExecutionException.class, () -> circuitBreakerClient
+            .getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> circuitBreakerClient
+            .getVehicleProfileAttribute("vehicle-2", VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertInstanceOf(VehicleProfileUnavailableException.class, error.getCause().getCause());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void getVehicleProfileAttributeFailure() {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_500));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> vehicleProfileAsyncClient
+            .getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertInstanceOf(VehicleProfileException.class, error.getCause());
+    }
+
+    @Test
+    void getAssociatedVehicles() throws Exception {
+        enqueue(RESPONSE_CODE_200, "/vehicleprofile/associatedVehiclesForUser.json");
+
+        List<String> vehicleIds =
+            vehicleProfileAsyncClient.getAssociatedVehicles("user-1").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(ASSOCIATED_VEHICLES, vehicleIds.size());
+        assertEquals("/v1.0/users/user-1/associatedVehicles",
+            server.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPath());
+    }
+
+    @Test
+    void associatedVehiclesAreReadThroughTheAssociationCache() throws Exception {
+        VehicleProfileAssociationCache associationCache =
+            new VehicleProfileAssociationCache(true, ASSOCIATION_CACHE_TTL, ASSOCIATION_CACHE_ENTRIES, metrics,
+                System::currentTimeMillis);
+        VehicleProfileAsyncClient cachingAsyncClient =
+            asyncClient(VehicleProfileClientCollaborators.builder(metrics).associationCache(associationCache));
+        enqueue(RESPONSE_CODE_200, "/vehicleprofile/associatedVehiclesForUser.json");
+        try {
+            List<String> fetched =
+                cachingAsyncClient.getAssociatedVehicles("user-1").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            List<String> cached =
+                cachingAsyncClient.getAssociatedVehicles("user-1").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+            assertEquals(ASSOCIATED_VEHICLES, fetched.size());
+            assertEquals(fetched, cached);
+            assertEquals(1, server.getRequestCount());
+            assertTrue(associationCache.get("user-1").isPresent());
+        } finally {
+            cachingAsyncClient.destroy();
+        }
+    }
+
+    @Test
+    void associateVehicle() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{\"data\": true}"));
+
+        Boolean associated = vehicleProfileAsyncClient.associateVehicle("user-1", "vehicle-1", "ACTIVE")
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertTrue(associated);
+        RecordedRequest request = server.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals("POST", request.getMethod());
+        assertEquals("/v1.0/vehicles/vehicle-1/associate", request.getPath());
+        String body = request.getBody().readUtf8();
+        assertTrue(body.contains("\"userId\":\"user-1\""));
+        assertTrue(body.contains("\"status\":\"ACTIVE\""));
+    }
+
+    @Test
+    void disassociateVehicleFailure() {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{\"data\": false}"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> vehicleProfileAsyncClient
+            .disassociateVehicle("user-1", "vehicle-1").get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        assertInstanceOf(DisassociationFailedException.class, error.getCause());
+    }
+
+    @Test
+    void associationsUpdateTheAssociationCache() throws Exception {
+        VehicleProfileAssociationCache associationCache =
+            new VehicleProfileAssociationCache(true, ASSOCIATION_CACHE_TTL, ASSOCIATION_CACHE_ENTRIES, metrics,
+                System::currentTimeMillis);
+        VehicleProfileAsyncClient cachingAsyncClient =
+            asyncClient(VehicleProfileClientCollaborators.builder(metrics).associationCache(associationCache));
+        AssociatedVehicles associatedVehicles = new ObjectMapper().readValue(
+            "{\"data\": [{\"vehicleId\": \"vehicle-1\"}, {\"vehicleId\": \"vehicle-2\"}]}",
+            AssociatedVehicles.class);
+        try {
+            associationCache.put("user-1", associatedVehicles, associationCache.version());
+            server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{\"data\": true}"));
+            cachingAsyncClient.disassociateVehicle("user-1", "vehicle-1").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertEquals(List.of("vehicle-2"), associationCache.get("user-1").orElseThrow().getData().stream()
+                .map(AssociatedVehicle::getVehicleId).toList());
+
+            server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_500));
+            assertThrows(ExecutionException.class, () -> cachingAsyncClient.disassociateVehicle("user-1", "vehicle-2")
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertFalse(associationCache.get("user-1").isPresent());
+
+            associationCache.put("user-1", associatedVehicles, associationCache.version());
+            server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{\"data\": true}"));
+            cachingAsyncClient.associateVehicle("user-1", "vehicle-3", "ACTIVE").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertFalse(associationCache.get("user-1").isPresent());
+        } finally {
+            cachingAsyncClient.destroy();
+        }
+    }
+
+    @Test
+    void updateVehicleProfile() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("{\"data\": true}"));
+
+        Optional<String> response = vehicleProfileAsyncClient
+            .updateVehicleProfile("vehicle-1", new VehicleProfile(), false)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(Optional.of("{\"data\": true}"), response);
+        RecordedRequest request = server.takeRequest(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals("PATCH", request.getMethod());
+        assertEquals("/v1.0/vehicleProfiles/vehicle-1", request.getPath());
+    }
+
+    private void enqueue(int responseCode, String resource) {
+        server.enqueue(new MockResponse().setResponseCode(responseCode)
+            .setBody(JsonUtils.toJsonString(JsonUtils.classpathToObject(resource))));
+    }
+}
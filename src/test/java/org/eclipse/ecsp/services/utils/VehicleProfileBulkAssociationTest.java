@@ -0,0 +1,151 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apache.commons.lang3.tuple.Pair;
+import org.eclipse.ecsp.services.entities.VehicleAssociationBulkResult;
+import org.eclipse.ecsp.services.entities.VehicleAssociationResult;
+import org.eclipse.ecsp.services.exceptions.AssociationFailedException;
+import org.eclipse.ecsp.services.exceptions.DisassociationFailedException;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileBulkAssociationTest {
+    private static final int PAIRS = 3;
+    private static final int FAILED_PAIRS = 2;
+    private static final int MAX_CONCURRENCY = 2;
+    private static final int MANY_PAIRS = 6;
+    private static final long RESPONSE_DELAY_MILLIS = 20L;
+    private static final String SUCCESS = "{\"message\": \"SUCCESS\", \"data\": true}";
+    private static final String FAILURE = "{\"message\": \"FAILURE\", \"data\": false}";
+    private static final List<Pair<String, String>> USER_VEHICLES = List.of(Pair.of("user-1", "vehicle-1"),
+        Pair.of("user-2", "vehicle-2"), Pair.of("user-3", "vehicle-3"));
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        vehicleProfileClient = fixture.client();
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(new ResponseEntity<>(SUCCESS, HttpStatus.OK));
+        when(restTemplate.exchange(argThat((URI uri) -> uri != null && uri.getPath().contains("vehicle-2")),
+            eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(new ResponseEntity<>(FAILURE, HttpStatus.OK));
+        when(restTemplate.exchange(argThat((URI uri) -> uri != null && uri.getPath().contains("vehicle-3")),
+            eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+    }
+    
+    @Test
+    void associationOutcomesAreReportedPerPair() {
+        VehicleAssociationBulkResult bulkResult = vehicleProfileClient.associateVehicles(USER_VEHICLES,
+            "COMPLETED_STAGE_3");
+        
+        List<VehicleAssociationResult> results = bulkResult.getResults();
+        assertEquals(List.of("vehicle-1", "vehicle-2", "vehicle-3"),
+            results.stream().map(VehicleAssociationResult::getVehicleId).toList());
+        assertTrue(results.get(0).isSuccessful());
+        assertInstanceOf(AssociationFailedException.class, results.get(1).getError());
+        assertInstanceOf(ResourceAccessException.class, results.get(PAIRS - 1).getError());
+        assertEquals(1, bulkResult.getSucceeded());
+        assertEquals(FAILED_PAIRS, bulkResult.getFailed());
+        assertEquals(PAIRS, metricRegistry.timer(
+            VehicleProfileMetrics.name("bulkAssociation", "associate")).getCount());
+        assertEquals(FAILED_PAIRS, metricRegistry.counter(
+            VehicleProfileMetrics.name("bulkAssociation", "associate", "failures")).getCount());
+    }
+    
+    @Test
+    void disassociationOutcomesAreReportedPerPair() {
+        VehicleAssociationBulkResult bulkResult = vehicleProfileClient.disassociateVehicles(USER_VEHICLES);
+        
+        List<VehicleAssociationResult> results = bulkResult.getResults();
+        assertEquals("user-1", results.get(0).getUserId());
+        assertTrue(results.get(0).isSuccessful());
+        assertInstanceOf(DisassociationFailedException.class, results.get(1).getError());
+        assertFalse(results.get(PAIRS - 1).isSuccessful());
+        assertTrue(bulkResult.getThroughputPerSecond() > 0);
+        assertTrue(bulkResult.getMaxLatencyMillis() >= bulkResult.getP50LatencyMillis());
+    }
+    
+    @Test
+    void associationsAreBoundedOnTheirOwnExecutor() {
+        ReflectionTestUtils.setField(vehicleProfileClient, "bulkMaxConcurrency", MAX_CONCURRENCY);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenAnswer(invocation -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                threadNames.add(Thread.currentThread().getName());
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+                inFlight.decrementAndGet();
+                return new ResponseEntity<>(SUCCESS, HttpStatus.OK);
+            });
+        List<Pair<String, String>> userVehicles = new ArrayList<>();
+        for (int i = 0; i < MANY_PAIRS; i++) {
+            userVehicles.add(Pair.of("user-" + i, "vehicle-" + i));
+        }
+        
+        VehicleAssociationBulkResult bulkResult = vehicleProfileClient.associateVehicles(userVehicles,
+            "COMPLETED_STAGE_3");
+        
+        assertEquals(MANY_PAIRS, bulkResult.getSucceeded());
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY);
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("vehicle-profile-association-")));
+        vehicleProfileClient.destroy();
+        assertThrows(VehicleProfileException.class,
+            () -> vehicleProfileClient.disassociateVehicles(userVehicles));
+    }
+    
+    @Test
+    void emptyBulkHasNoStatistics() {
+        VehicleAssociationBulkResult bulkResult = vehicleProfileClient.disassociateVehicles(List.of());
+        
+        assertTrue(bulkResult.getResults().isEmpty());
+        assertEquals(0, bulkResult.getP99LatencyMillis());
+    }
+}
@@ -0,0 +1,120 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.entities.VehicleProfileAttributesResult;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.VEHICLE_PROFILE_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileBulkLookupTest {
+    private static final int MAX_CONCURRENCY = 2;
+    private static final int VEHICLES = 10;
+    private static final long RESPONSE_DELAY_MILLIS = 20L;
+
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final String vehicleProfileJson =
+        JsonUtils.toJsonString(JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGet.json"));
+    private VehicleProfileClient vehicleProfileClient;
+
+    @BeforeEach
+    void setup() {
+        vehicleProfileClient = fixture.client();
+        ReflectionTestUtils.setField(vehicleProfileClient, "bulkMaxConcurrency", MAX_CONCURRENCY);
+    }
+
+    @Test
+    void attributesAreFetchedForEveryVehicle() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(vehicleProfileJson, HttpStatus.OK));
+
+        Map<String, VehicleProfileAttributesResult> results =
+            vehicleProfileClient.getVehicleProfileAttributesForVehicles(List.of("vehicle-1", "vehicle-2"),
+                EnumSet.of(VehicleProfileAttribute.USERID, VehicleProfileAttribute.MAKE));
+
+        assertEquals(List.of("vehicle-1", "vehicle-2"), new ArrayList<>(results.keySet()));
+        results.values().forEach(result -> {
+            assertTrue(result.isSuccessful());
+            assertEquals(Optional.of("string"), result.getValues().get(VehicleProfileAttribute.USERID));
+            assertEquals(Optional.of("brandName"), result.getValues().get(VehicleProfileAttribute.MAKE));
+        });
+    }
+
+    @Test
+    void failedVehicleDoesNotFailTheBatch() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(vehicleProfileJson, HttpStatus.OK));
+        when(restTemplate.getForEntity(eq(VEHICLE_PROFILE_URL + "vehicle-2"), eq(byte[].class)))
+            .thenThrow(new ResourceAccessException("connection refused"));
+
+        Map<String, VehicleProfileAttributesResult> results =
+            vehicleProfileClient.getVehicleProfileAttributesForVehicles(List.of("vehicle-1", "vehicle-2"),
+                EnumSet.of(VehicleProfileAttribute.USERID));
+
+        assertTrue(results.get("vehicle-1").isSuccessful());
+        VehicleProfileAttributesResult failed = results.get("vehicle-2");
+        assertFalse(failed.isSuccessful());
+        assertInstanceOf(VehicleProfileException.class, failed.getError());
+        assertTrue(failed.getValues().isEmpty());
+    }
+
+    @Test
+    void fetchesAreBoundedByMaxConcurrency() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class))).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(RESPONSE_DELAY_MILLIS);
+            inFlight.decrementAndGet();
+            return jsonResponse(vehicleProfileJson, HttpStatus.OK);
+        });
+        List<String> vehicleIds = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleIds.add("vehicle-" + i);
+        }
+
+        Map<String, VehicleProfileAttributesResult> results = vehicleProfileClient
+            .getVehicleProfileAttributesForVehicles(vehicleIds, EnumSet.of(VehicleProfileAttribute.USERID));
+
+        assertEquals(VEHICLES, results.size());
+        assertTrue(maxInFlight.get() <= MAX_CONCURRENCY);
+    }
+}
@@ -0,0 +1,183 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.domain.Constants;
+import org.eclipse.ecsp.domain.VehicleProfileNotificationEventDataV1_1;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleProfileCacheInvalidatorTest {
+    private static final String VEHICLE_ID = "vehicle-1";
+    private static final long TTL = 60000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final String PROFILE =
+        "{\"data\": {\"soldRegion\": \"EU\", \"vehicleAttributes\": {\"name\": \"old\"},"
+            + " \"authorizedUsers\": [{\"userId\": \"user-1\"}]}}";
+    
+    private VehicleProfileCache cache;
+    private VehicleProfileCacheInvalidator invalidator;
+    
+    @BeforeEach
+    void setup() {
+        cache = VehicleProfileCache.builder(new VehicleProfileMetrics(new MetricRegistry())).ttlMs(TTL)
+            .maxEntries(MAX_ENTRIES).build();
+        cache.put(VEHICLE_ID, VehicleProfileDocument.parse(PROFILE), PROFILE.length());
+        invalidator = new VehicleProfileCacheInvalidator(collaborators().build());
+    }
+    
+    private VehicleProfileClientCollaborators.Builder collaborators() {
+        return VehicleProfileClientCollaborators.builder(new VehicleProfileMetrics(new MetricRegistry()))
+            .vehicleProfileCache(cache);
+    }
+    
+    private static IgniteEventImpl changeEvent(VehicleProfileNotificationEventDataV1_1.ChangeDescription... cds) {
+        VehicleProfileNotificationEventDataV1_1 data = new VehicleProfileNotificationEventDataV1_1();
+        data.setChangeDescriptions(List.of(cds));
+        IgniteEventImpl igniteEvent = new IgniteEventImpl();
+        igniteEvent.setEventId(Constants.EVENT_VEHICLE_CHANGE_NOTIFICATION);
+        igniteEvent.setVehicleId(VEHICLE_ID);
+        igniteEvent.setEventData(data);
+        return igniteEvent;
+    }
+    
+    private static VehicleProfileNotificationEventDataV1_1.ChangeDescription change(String key, Object changed,
+                                                                                    Object old) {
+        VehicleProfileNotificationEventDataV1_1.ChangeDescription cd =
+            new VehicleProfileNotificationEventDataV1_1.ChangeDescription();
+        cd.setKey(key);
+        cd.setChanged(changed);
+        cd.setOld(old);
+        return cd;
+    }
+    
+    @Test
+    void changedValuesArePatched() {
+        final VehicleProfileDocument original = cache.get(VEHICLE_ID).orElseThrow();
+        
+        invalidator.onVehicleProfileChanged(changeEvent(
+            change("soldRegion", "US", "EU"),
+            change("vehicleAttributes.name", "new", "old"),
+            change("authorizedUsers", List.of(Map.of("userId", "user-2")), null)));
+        
+        VehicleProfileDocument patched = cache.get(VEHICLE_ID).orElseThrow();
+        assertEquals("US", patched.read(VehicleProfileAttribute.SOLD_REGION));
+        assertEquals("new", patched.read(VehicleProfileAttribute.NAME));
+        assertEquals("user-2", patched.read(VehicleProfileAttribute.USERID));
+        assertEquals("EU", original.read(VehicleProfileAttribute.SOLD_REGION));
+    }
+    
+    @Test
+    void removedValueEvictsProfile() {
+        invalidator.onVehicleProfileChanged(changeEvent(
+            change(VehicleProfileChangedNotificationEventUtil.CHANGE_DESCRIPTION_KEY, null,
+                new ArrayList<>(List.of(Map.of("userId", "user-1"))))));
+        
+        assertFalse(cache.get(VEHICLE_ID).isPresent());
+    }
+    
+    @Test
+    void unknownParentPathEvictsProfile() {
+        invalidator.onVehicleProfileChanged(changeEvent(change("ecus.hu.clientId", "client-2", "client-1")));
+        
+        assertFalse(cache.get(VEHICLE_ID).isPresent());
+    }
+    
+    @Test
+    void otherEventsAreIgnored() {
+        IgniteEventImpl igniteEvent = changeEvent(change("soldRegion", "US", "EU"));
+        igniteEvent.setEventId(Constants.EVENT_VEHICLE_CREATION_NOTIFICATION);
+        
+        invalidator.onVehicleProfileChanged(igniteEvent);
+        invalidator.onVehicleProfileChanged(null);
+        
+        assertTrue(cache.get(VEHICLE_ID).isPresent());
+        assertEquals("EU", cache.get(VEHICLE_ID).orElseThrow().read(VehicleProfileAttribute.SOLD_REGION));
+    }
+    
+    @Test
+    void profileFetchedBeforeChangeIsNotCached() {
+        long fetchVersion = cache.version();
+        invalidator.onVehicleProfileChanged(changeEvent(change("soldRegion", null, "EU")));
+        
+        cache.put(VEHICLE_ID, VehicleProfileDocument.parse(PROFILE), PROFILE.length(), fetchVersion);
+        
+        assertFalse(cache.get(VEHICLE_ID).isPresent());
+    }
+    
+    @Test
+    void patchedProfileIsWeighedByItsUtf8Bytes() {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        VehicleProfileCache weighedCache = VehicleProfileCache.builder(new VehicleProfileMetrics(metricRegistry))
+            .ttlMs(TTL).maxEntries(MAX_ENTRIES).build();
+        weighedCache.put(VEHICLE_ID, VehicleProfileDocument.parse(PROFILE), PROFILE.length());
+        
+        weighedCache.patch(VEHICLE_ID, Map.of("vehicleAttributes.name", "Октавия"));
+        
+        VehicleProfileDocument patched = weighedCache.get(VEHICLE_ID).orElseThrow();
+        assertEquals((long) patched.jsonBytes().length, metricRegistry.getGauges()
+            .get(VehicleProfileMetrics.name("cache", "weight")).getValue());
+        assertTrue(patched.jsonBytes().length > patched.jsonString().length());
+    }
+    
+    @Test
+    void changeOfOtherVehicleDoesNotDiscardFetchedProfile() {
+        long fetchVersion = cache.version();
+        cache.invalidate("vehicle-2");
+        cache.patch("vehicle-3", Map.of("soldRegion", "US"));
+        
+        cache.put(VEHICLE_ID, VehicleProfileDocument.parse(PROFILE), PROFILE.length(), fetchVersion);
+        
+        assertTrue(cache.get(VEHICLE_ID).isPresent());
+    }
+    
+    @Test
+    void profileFetchedBeforeInvalidateAllIsNotCached() {
+        long fetchVersion = cache.version();
+        cache.invalidateAll();
+        
+        cache.put(VEHICLE_ID, VehicleProfileDocument.parse(PROFILE), PROFILE.length(), fetchVersion);
+        
+        assertFalse(cache.get(VEHICLE_ID).isPresent());
+    }
+    
+    @Test
+    void ecuChangeRemovesIndexedClientIds() {
+        VehicleProfileClientIdIndex clientIdIndex =
+            new VehicleProfileClientIdIndex(true, TTL, MAX_ENTRIES, new VehicleProfileMetrics(new MetricRegistry()));
+        clientIdIndex.index(VehicleProfileDocument.parse(
+            "{\"data\": {\"vehicleId\": \"" + VEHICLE_ID + "\", \"ecus\": {\"hu\": {\"clientId\": \"client-1\"}}}}"));
+        invalidator = new VehicleProfileCacheInvalidator(collaborators().clientIdIndex(clientIdIndex).build());
+        
+        invalidator.onVehicleProfileChanged(changeEvent(change("soldRegion", "US", "EU")));
+        assertTrue(clientIdIndex.getVehicleId("client-1").isPresent());
+        
+        invalidator.onVehicleProfileChanged(changeEvent(change("ecus.hu.clientId", "client-2", "client-1")));
+        assertFalse(clientIdIndex.getVehicleId("client-1").isPresent());
+    }
+}
@@ -0,0 +1,112 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestTemplate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileCacheTest {
+    private static final long TTL = 60000L;
+    private static final int MAX_ENTRIES = 10;
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        VehicleProfileCache cache = VehicleProfileCache.builder(metrics).ttlMs(TTL).maxEntries(MAX_ENTRIES).build();
+        vehicleProfileClient = fixture.client(fixture.collaborators().vehicleProfileCache(cache));
+        
+        Object vpJson = JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGet.json");
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(JsonUtils.toJsonString(vpJson), HttpStatus.OK));
+    }
+    
+    @Test
+    void profileIsFetchedOnceForSameVehicle() {
+        Optional<String> userId =
+            vehicleProfileClient.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID);
+        Map<VehicleProfileAttribute, Optional<Object>> values =
+            vehicleProfileClient.getVehicleProfileAttributesAsObject("vehicle-1", true,
+                VehicleProfileAttribute.SOLD_REGION, VehicleProfileAttribute.MAKE);
+        
+        assertEquals(Optional.of("string"), userId);
+        assertEquals(Optional.of("brandName"), values.get(VehicleProfileAttribute.MAKE));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+        assertEquals(1L, metricRegistry.getGauges()
+            .get(VehicleProfileMetrics.name("cache", "hits")).getValue());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void cachedValuesAreNotExposedToCallers() {
+        List<Object> users = (List<Object>) vehicleProfileClient.getVehicleProfileAttributesAsObject("vehicle-1",
+            true, VehicleProfileAttribute.AUTHORIZED_USERS).get(VehicleProfileAttribute.AUTHORIZED_USERS).get();
+        ((Map<String, Object>) users.get(0)).put("userId", "modified");
+        users.clear();
+        
+        List<Map<String, Object>> cachedUsers = (List<Map<String, Object>>) vehicleProfileClient
+            .getVehicleProfileAttributesAsObject("vehicle-1", true, VehicleProfileAttribute.AUTHORIZED_USERS)
+            .get(VehicleProfileAttribute.AUTHORIZED_USERS).get();
+        
+        assertEquals("string", cachedUsers.get(0).get("userId"));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
+    @Test
+    void profileIsFetchedForEveryVehicle() {
+        vehicleProfileClient.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID);
+        vehicleProfileClient.getVehicleProfileAttribute("vehicle-2", VehicleProfileAttribute.USERID);
+        
+        verify(restTemplate, times(TWICE)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
+    @Test
+    void invalidResponseIsNotCached() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse("", HttpStatus.OK));
+        
+        vehicleProfileClient.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID, true);
+        Optional<String> userId =
+            vehicleProfileClient.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID, true);
+        
+        assertTrue(userId.isPresent());
+        verify(restTemplate, times(TWICE)).getForEntity(anyString(), eq(byte[].class));
+    }
+}
@@ -0,0 +1,92 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import static org.mockito.Mockito.mock;
+
+/**
+ * mock rest template, metrics and clock of the vehicle profile client tests,
+ * with the endpoints of the clients set to the urls below.
+ */
+final class VehicleProfileClientFixture {
+    static final int TWICE = 2;
+    static final String VEHICLE_PROFILE_URL = "http://localhost:8080/v1.0/vehicleProfiles/";
+    static final String CLIENT_ID_SEARCH_URL = "http://localhost:8080/v1.0/vehicles";
+    static final String ASSOCIATED_VEHICLES_URL = "http://localhost:8080/v1.0/users/{userId}/vehicles";
+    static final String ASSOCIATE_VEHICLE_URL = "http://localhost:8080/v1.0/vehicles/{vehicleId}/associate";
+    static final String DISASSOCIATE_VEHICLE_URL = "http://localhost:8080/v1.0/vehicles/{vehicleId}/disassociate";
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final VehicleProfileMetrics metrics = new VehicleProfileMetrics(metricRegistry);
+    private final AtomicLong now = new AtomicLong();
+
+    RestTemplate restTemplate() {
+        return restTemplate;
+    }
+
+    MetricRegistry metricRegistry() {
+        return metricRegistry;
+    }
+
+    VehicleProfileMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * clock of the caches, starting at 0 and moved by {@link #advance(long)}.
+     */
+    LongSupplier clock() {
+        return now::get;
+    }
+
+    void advance(long millis) {
+        now.addAndGet(millis);
+    }
+
+    long count(String... names) {
+        return metricRegistry.counter(VehicleProfileMetrics.name(names)).getCount();
+    }
+
+    /**
+     * collaborators with every optional feature disabled.
+     */
+    VehicleProfileClientCollaborators.Builder collaborators() {
+        return VehicleProfileClientCollaborators.builder(metrics);
+    }
+
+    VehicleProfileClient client() {
+        return client(collaborators());
+    }
+
+    VehicleProfileClient client(VehicleProfileClientCollaborators.Builder collaborators) {
+        VehicleProfileClient client = new VehicleProfileClient(restTemplate, collaborators.build());
+        ReflectionTestUtils.setField(client, "vehicleProfileEndPoint", VEHICLE_PROFILE_URL);
+        ReflectionTestUtils.setField(client, "vehicleProfileClientIdEndPoint", CLIENT_ID_SEARCH_URL);
+        ReflectionTestUtils.setField(client, "associatedVehiclesEndpoint", ASSOCIATED_VEHICLES_URL);
+        ReflectionTestUtils.setField(client, "associateVehicleUrl", ASSOCIATE_VEHICLE_URL);
+        ReflectionTestUtils.setField(client, "disassociateVehicleUrl", DISASSOCIATE_VEHICLE_URL);
+        return client;
+    }
+}
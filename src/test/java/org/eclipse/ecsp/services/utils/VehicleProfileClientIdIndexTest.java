@@ -0,0 +1,129 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.codahale.metrics.MetricRegistry;
+import com.jayway.jsonpath.JsonPath;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestTemplate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.CLIENT_ID_SEARCH_URL;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.VEHICLE_PROFILE_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileClientIdIndexTest {
+    private static final long TTL = 60000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final String VEHICLE_ID = "12UYA34567L000008";
+    private static final String CLIENT_ID = "ZH33B29TBC412";
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileClientIdIndex clientIdIndex;
+    private VehicleProfileClient vehicleProfileClient;
+    private String vehicleProfileJson;
+    
+    @BeforeEach
+    void setup() {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        clientIdIndex = new VehicleProfileClientIdIndex(true, TTL, MAX_ENTRIES, metrics);
+        vehicleProfileClient = fixture.client(fixture.collaborators().clientIdIndex(clientIdIndex));
+        
+        vehicleProfileJson = JsonUtils.toJsonString(
+            JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGet.json"));
+        String searchResponse = JsonUtils.toJsonString(
+            Map.of("data", List.of((Object) JsonPath.read(vehicleProfileJson, "$.data"))));
+        when(restTemplate.getForEntity(contains(CLIENT_ID_SEARCH_URL), eq(byte[].class)))
+            .thenReturn(jsonResponse(searchResponse, HttpStatus.OK));
+        when(restTemplate.getForEntity(contains(VEHICLE_PROFILE_URL), eq(byte[].class)))
+            .thenReturn(jsonResponse(vehicleProfileJson, HttpStatus.OK));
+    }
+    
+    @Test
+    void indexClientIdsOfProfile() {
+        clientIdIndex.index(VehicleProfileDocument.parse(vehicleProfileJson));
+        
+        assertEquals(Optional.of(VEHICLE_ID), clientIdIndex.getVehicleId(CLIENT_ID));
+        assertEquals(1, clientIdIndex.invalidateVehicle(VEHICLE_ID));
+        assertFalse(clientIdIndex.getVehicleId(CLIENT_ID).isPresent());
+    }
+    
+    @Test
+    void disabledIndexIsEmpty() {
+        VehicleProfileClientIdIndex disabled = VehicleProfileClientIdIndex.disabled();
+        
+        disabled.index(VehicleProfileDocument.parse(vehicleProfileJson));
+        
+        assertFalse(disabled.getVehicleId(CLIENT_ID).isPresent());
+    }
+    
+    @Test
+    void indexedClientIdIsFetchedByVehicleId() {
+        Optional<String> make = vehicleProfileClient.getVehicleProfileAttributesWithClientId(CLIENT_ID, false,
+            VehicleProfileAttribute.MAKE).get(VehicleProfileAttribute.MAKE);
+        Optional<String> model = vehicleProfileClient.getVehicleProfileAttributesWithClientId(CLIENT_ID, false,
+            VehicleProfileAttribute.MODEL).get(VehicleProfileAttribute.MODEL);
+        
+        assertEquals(Optional.of("brandName"), make);
+        assertEquals(Optional.of("modelName"), model);
+        verify(restTemplate, times(1)).getForEntity(contains(CLIENT_ID_SEARCH_URL), eq(byte[].class));
+        verify(restTemplate, times(1)).getForEntity(contains(VEHICLE_PROFILE_URL), eq(byte[].class));
+    }
+    
+    @Test
+    void profileFetchedByVehicleIdIsIndexed() {
+        vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.MAKE);
+        
+        vehicleProfileClient.getVehicleProfileJsonWithClientId(CLIENT_ID);
+        
+        verify(restTemplate, never()).getForEntity(contains(CLIENT_ID_SEARCH_URL), eq(byte[].class));
+    }
+    
+    @Test
+    void replacedEcuFallsBackToClientIdSearch() {
+        clientIdIndex.index(VehicleProfileDocument.parse(
+            "{\"data\": {\"vehicleId\": \"vehicle-2\", \"ecus\": {\"hu\": {\"clientId\": \"" + CLIENT_ID + "\"}}}}"));
+        when(restTemplate.getForEntity(contains("vehicle-2"), eq(byte[].class))).thenReturn(jsonResponse(
+            "{\"data\": {\"vehicleId\": \"vehicle-2\", \"ecus\": {\"hu\": {\"clientId\": \"client-2\"}}}}",
+            HttpStatus.OK));
+        
+        vehicleProfileClient.getVehicleProfileJsonWithClientId(CLIENT_ID);
+        vehicleProfileClient.getVehicleProfileJsonWithClientId(CLIENT_ID);
+        
+        verify(restTemplate, times(1)).getForEntity(contains(CLIENT_ID_SEARCH_URL), eq(byte[].class));
+        verify(restTemplate, times(TWICE)).getForEntity(contains(VEHICLE_PROFILE_URL), eq(byte[].class));
+        assertEquals(Optional.of(VEHICLE_ID), clientIdIndex.getVehicleId(CLIENT_ID));
+    }
+}
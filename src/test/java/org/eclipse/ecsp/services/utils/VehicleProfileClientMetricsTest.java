@@ -0,0 +1,95 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileClientMetricsTest {
+    private static final String VEHICLE_ID = "vehicle-1";
+    private static final String PROFILE = "{\"data\": {\"soldRegion\": \"EU\"}}";
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        vehicleProfileClient = fixture.client();
+    }
+    
+    @Test
+    void vehicleProfileCallIsTimedPerEndpoint() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, HttpStatus.OK));
+        
+        assertEquals(Optional.of("EU"),
+            vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+        
+        assertEquals(1L, metricRegistry.timer(VehicleProfileMetrics.name("http", "vehicleProfile")).getCount());
+        assertEquals(PROFILE.getBytes(StandardCharsets.UTF_8).length, metricRegistry.histogram(
+            VehicleProfileMetrics.name("http", "vehicleProfile", "responseBytes")).getSnapshot().getMax());
+        assertEquals(1L, metricRegistry.timer(
+            VehicleProfileMetrics.name("extraction", "getVehicleProfileAttribute")).getCount());
+    }
+    
+    @Test
+    void failedCallIsCountedByExceptionType() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenThrow(new ResourceAccessException("connection refused"));
+        
+        assertThrows(RuntimeException.class, () -> vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID,
+            VehicleProfileAttribute.SOLD_REGION, false));
+        
+        assertEquals(1L, metricRegistry.timer(VehicleProfileMetrics.name("http", "vehicleProfile")).getCount());
+        assertEquals(1L, metricRegistry.counter(VehicleProfileMetrics.name("http", "vehicleProfile", "errors",
+            "ResourceAccessException")).getCount());
+        assertEquals(0L, metricRegistry.histogram(
+            VehicleProfileMetrics.name("http", "vehicleProfile", "responseBytes")).getCount());
+    }
+    
+    @Test
+    void clientCreatedWithRegistryRecordsInIt() {
+        MetricRegistry applicationRegistry = new MetricRegistry();
+        VehicleProfileClient client = new VehicleProfileClient(restTemplate, applicationRegistry);
+        ReflectionTestUtils.setField(client, "vehicleProfileEndPoint", VehicleProfileClientFixture.VEHICLE_PROFILE_URL);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, HttpStatus.OK));
+        
+        assertEquals(Optional.of("EU"),
+            client.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+        
+        assertEquals(1L, applicationRegistry.timer(VehicleProfileMetrics.name("http", "vehicleProfile")).getCount());
+    }
+}
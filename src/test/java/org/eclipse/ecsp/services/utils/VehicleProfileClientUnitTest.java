@@ -52,6 +52,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -61,6 +62,8 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -84,9 +87,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
 
     private void mockVehicleProfile() {
         Object vpJson = JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGet.json");
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>(JsonUtils.toJsonString(vpJson), HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), org.mockito.ArgumentMatchers.eq(String.class)))
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse(JsonUtils.toJsonString(vpJson), HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), org.mockito.ArgumentMatchers.eq(byte[].class)))
             .thenReturn(responseEntity);
     }
     
@@ -146,8 +149,8 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttribute_ExceptionIgnore() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), org.mockito.ArgumentMatchers.eq(String.class)))
+        ResponseEntity<byte[]> responseEntity = jsonResponse("", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), org.mockito.ArgumentMatchers.eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Optional<String> val =
@@ -160,8 +163,8 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttribute_Exception() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), org.mockito.ArgumentMatchers.eq(String.class)))
+        ResponseEntity<byte[]> responseEntity = jsonResponse("", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), org.mockito.ArgumentMatchers.eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -171,9 +174,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttrWithClientId_ExceptionIgnore() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity = jsonResponse("", HttpStatus.ACCEPTED);
         when(restTemplate.getForEntity(contains("clientId"),
-            eq(String.class)
+            eq(byte[].class)
         )).thenReturn(responseEntity);
         
         Optional<String> val = vehicleProfileClient.getVehicleProfileAttrWithClientId(CLIENT_ID,
@@ -185,8 +188,8 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttrWithClientId_ResposneException() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.NOT_FOUND);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity = jsonResponse("", HttpStatus.NOT_FOUND);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -197,8 +200,8 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttrWithClientId_JsonException() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity = jsonResponse("", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -209,9 +212,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfile_Success() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\":{\"vin\":\"test-vin\"}}", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\":{\"vin\":\"test-vin\"}}", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Optional<VehicleProfile> val = vehicleProfileClient.getVehicleProfile(CLIENT_ID);
@@ -222,9 +225,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfile_Exception() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\":\"\"}}", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\":\"\"}}", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -235,8 +238,8 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     @Test
     @Disabled("unable prepare data to mock")
     void getVehicleProfile_Empty() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("{}", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity = jsonResponse("{}", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Optional<VehicleProfile> val = vehicleProfileClient.getVehicleProfile(CLIENT_ID);
@@ -246,8 +249,8 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileJson_Exception() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("{}", HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity = jsonResponse("{}", HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -282,10 +285,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributes_Exception() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {}}", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {}}", HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -296,11 +299,11 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesAsObject_Success() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {\"ecus\":{\"hu\":{\"clientId\":\"client-id\"}}}}",
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {\"ecus\":{\"hu\":{\"clientId\":\"client-id\"}}}}",
                 HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Map<VehicleProfileAttribute, Optional<Object>> val =
@@ -313,10 +316,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesAsObject_Exception() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {}}", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {}}", HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -327,10 +330,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesForDifferentType_boolean_Success() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {\"blockEnrollment\": false}}", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {\"blockEnrollment\": false}}", HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Map<VehicleProfileAttribute, Optional<?>> map =
@@ -343,10 +346,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesForDifferentType_boolean_Exception() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {}}", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {}}", HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -357,11 +360,11 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesWithClientIdSuccess() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\": {\"make\": \"ABCD\"}}]}",
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\": {\"make\": \"ABCD\"}}]}",
                 HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Map<VehicleProfileAttribute, Optional<String>> map =
@@ -372,12 +375,30 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
         assertEquals("ABCD", map.get(VehicleProfileAttribute.MAKE).get());
     }
     
+    @Test
+    void getVehicleProfileAttributesWithClientIdReadsResponseOnce() {
+        ResponseEntity<byte[]> responseEntity = jsonResponse(
+            "{\"data\": [{\"vehicleAttributes\": {\"make\": \"ABCD\", \"model\": \"EFGH\"}},"
+                + " {\"vehicleAttributes\": {\"make\": \"IJKL\"}}]}", HttpStatus.OK);
+        
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(responseEntity);
+        
+        Map<VehicleProfileAttribute, Optional<String>> map =
+            vehicleProfileClient.getVehicleProfileAttributesWithClientId(CLIENT_ID, false,
+                VehicleProfileAttribute.MAKE, VehicleProfileAttribute.MODEL);
+        
+        assertEquals(Optional.of("ABCD"), map.get(VehicleProfileAttribute.MAKE));
+        assertEquals(Optional.of("EFGH"), map.get(VehicleProfileAttribute.MODEL));
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
     @Test
     void getVehicleProfileAttributesWithClientIdIgnoreException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\": {}}]}", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\": {}}]}", HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Map<VehicleProfileAttribute, Optional<String>> map =
@@ -389,10 +410,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesWithClientIdException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\": {}}]}", HttpStatus.ACCEPTED);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\": {}}]}", HttpStatus.ACCEPTED);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -403,10 +424,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesWithClientIdApiException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\": {}}]}", HttpStatus.NOT_FOUND);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\": {}}]}", HttpStatus.NOT_FOUND);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -417,9 +438,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileJsonWithClientId_Exception() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("{\"data\": []}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity = jsonResponse("{\"data\": []}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -458,10 +479,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     @Test
     @Disabled("unable prepare mock data")
     void isServiceProvisionedIoException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {\"ecus\":{}}}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {\"ecus\":{}}}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertFalse(vehicleProfileClient.isServiceProvisioned("user-id", "service-id", "$.ecus"));
@@ -469,11 +490,11 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesForVinSuccess() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {\"vehicleAttributes\":{\"modelYear\": \"2022\"}}}",
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {\"vehicleAttributes\":{\"modelYear\": \"2022\"}}}",
                 HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Map<VehicleProfileAttribute, Optional<String>> map =
@@ -487,10 +508,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesForVinIgnoreException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {\"vehicleAttributes\":{}}}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {\"vehicleAttributes\":{}}}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         Map<VehicleProfileAttribute, Optional<String>> map =
@@ -501,10 +522,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesForVinException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": {\"vehicleAttributes\":{}}}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": {\"vehicleAttributes\":{}}}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         assertThrows(RuntimeException.class, () -> {
@@ -515,11 +536,11 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesWithClientIdOnDemandAttrSuccess() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\":{\"ABCD\":\"ABCD_VALUE\"}}]}",
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\":{\"ABCD\":\"ABCD_VALUE\"}}]}",
                 HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         VehicleProfileOnDemandAttribute vehicleProfileOnDemandAttribute =
@@ -535,10 +556,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesWithClientIdOnDemandAttrException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\":{}}]}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\":{}}]}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         VehicleProfileOnDemandAttribute vehicleProfileOnDemandAttribute =
                 new VehicleProfileOnDemandAttribute("ABCD", "$.data.vehicleAttributes.ABCD",
@@ -554,10 +575,10 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributesWithClientIdOnDemandAttrApiException() {
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>("{\"data\": [{\"vehicleAttributes\":{}}]}", HttpStatus.NOT_FOUND);
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse("{\"data\": [{\"vehicleAttributes\":{}}]}", HttpStatus.NOT_FOUND);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
 
         VehicleProfileOnDemandAttribute vehicleProfileOnDemandAttribute =
@@ -575,11 +596,11 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributes_OnDemandAttr_Success() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>(
+        ResponseEntity<byte[]> responseEntity = jsonResponse(
             "{\"data\": {\"vehicleAttributes\":{\"ABCD\": true,\"EFG\": [\"EFG_VALUE\"]}}}",
             HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         VehicleProfileOnDemandAttribute attributeAbcd =
@@ -595,9 +616,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributes_OnDemandAttr_Exception() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("{\"data\": {}}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity = jsonResponse("{\"data\": {}}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
 
         VehicleProfileOnDemandAttribute attributeAbcd =
@@ -613,9 +634,9 @@ class VehicleProfileClientUnitTest extends ServicesTestBase {
     
     @Test
     void getVehicleProfileAttributes_OnDemandAttr_IgnoreException() {
-        ResponseEntity<String> responseEntity = new ResponseEntity<>("{\"data\": {}}", HttpStatus.OK);
+        ResponseEntity<byte[]> responseEntity = jsonResponse("{\"data\": {}}", HttpStatus.OK);
         
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         VehicleProfileOnDemandAttribute attributeAbcd =
@@ -0,0 +1,232 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleProfileDiskCacheTest {
+    private static final long TTL = 3600000L;
+    private static final long MEMORY_TTL = 60000L;
+    private static final long SECOND = 1000L;
+    private static final int MAX_BYTES = 1 << 20;
+    private static final int SMALL_MAX_BYTES = 4096;
+    private static final int MAX_ENTRIES = 10;
+    private static final int WRITES = 200;
+    private static final int STORED_VEHICLES = 2;
+    private static final int KEY_OFFSET_IN_RECORD = 21;
+    private static final String ETAG = "\"v1\"";
+    private static final String PROFILE = "{\"data\": {\"soldRegion\": \"EU\", \"vin\": \"VIN-1\"}}";
+    
+    @TempDir
+    Path directory;
+    
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private Path file;
+    private VehicleProfileDiskCache diskCache;
+    
+    @BeforeEach
+    void setup() {
+        file = directory.resolve("vehicle-profiles.log");
+        diskCache = open(MAX_BYTES);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        diskCache.destroy();
+    }
+    
+    private VehicleProfileDiskCache open(int maxBytes) {
+        return new VehicleProfileDiskCache(true, file, maxBytes, TTL, new VehicleProfileMetrics(metricRegistry),
+            now::get);
+    }
+    
+    private VehicleProfileDiskCache reopen() {
+        diskCache.destroy();
+        diskCache = open(MAX_BYTES);
+        return diskCache;
+    }
+    
+    private VehicleProfileCache nearCache(VehicleProfileDiskCache secondLevelCache, VehicleProfileMetrics metrics) {
+        return VehicleProfileCache.builder(metrics).ttlMs(MEMORY_TTL).maxEntries(MAX_ENTRIES).clock(now::get)
+            .diskCache(secondLevelCache).build();
+    }
+    
+    private static VehicleProfileDocument profile(String soldRegion) {
+        return VehicleProfileDocument.parse(PROFILE.replace("EU", soldRegion), ETAG, null);
+    }
+    
+    @Test
+    void profilesAreLoadedAfterRestart() {
+        diskCache.put("vehicle-1", profile("EU"));
+        diskCache.put("vehicle-2", profile("US"));
+        diskCache.put("vehicle-1", profile("JP"));
+        
+        Optional<VehicleProfileDocument> document = reopen().get("vehicle-1");
+        
+        assertEquals(STORED_VEHICLES, diskCache.size());
+        assertTrue(document.isPresent());
+        assertEquals("JP", document.get().read(VehicleProfileAttribute.SOLD_REGION));
+        assertEquals(ETAG, document.get().getEtag());
+        assertEquals("US", diskCache.get("vehicle-2").get().read(VehicleProfileAttribute.SOLD_REGION));
+    }
+    
+    @Test
+    void removedProfilesAreNotLoaded() {
+        diskCache.put("vehicle-1", profile("EU"));
+        diskCache.put("vehicle-2", profile("US"));
+        diskCache.remove("vehicle-1");
+        
+        reopen();
+        
+        assertFalse(diskCache.get("vehicle-1").isPresent());
+        assertTrue(diskCache.get("vehicle-2").isPresent());
+    }
+    
+    @Test
+    void expiredProfilesAreNotServed() {
+        diskCache.put("vehicle-1", profile("EU"));
+        now.addAndGet(TTL);
+        
+        assertFalse(reopen().get("vehicle-1").isPresent());
+    }
+    
+    @Test
+    void logEndsAtCorruptedRecord() throws IOException {
+        diskCache.put("vehicle-1", profile("EU"));
+        diskCache.flush();
+        final long corruptedOffset = diskCache.bytes();
+        diskCache.put("vehicle-2", profile("US"));
+        diskCache.put("vehicle-3", profile("JP"));
+        diskCache.destroy();
+        try (RandomAccessFile log = new RandomAccessFile(file.toFile(), "rw")) {
+            long position = corruptedOffset + KEY_OFFSET_IN_RECORD;
+            log.seek(position);
+            int value = log.read();
+            log.seek(position);
+            log.write(value ^ 1);
+        }
+        
+        diskCache = open(MAX_BYTES);
+        
+        assertTrue(diskCache.get("vehicle-1").isPresent());
+        assertFalse(diskCache.get("vehicle-2").isPresent());
+        assertFalse(diskCache.get("vehicle-3").isPresent());
+        assertEquals(1L, metricRegistry.counter(
+            VehicleProfileMetrics.name("diskCache", "corruptedRecords")).getCount());
+        diskCache.put("vehicle-2", profile("US"));
+        assertEquals("US", reopen().get("vehicle-2").get().read(VehicleProfileAttribute.SOLD_REGION));
+    }
+    
+    @Test
+    void compactionBoundsDiskUse() throws IOException {
+        diskCache.destroy();
+        diskCache = open(SMALL_MAX_BYTES);
+        
+        for (int i = 0; i < WRITES; i++) {
+            diskCache.put("vehicle-" + (i % MAX_ENTRIES), profile("EU-" + i));
+            diskCache.flush();
+        }
+        
+        assertTrue(Files.size(file) <= SMALL_MAX_BYTES);
+        assertTrue(metricRegistry.counter(VehicleProfileMetrics.name("diskCache", "compactions")).getCount() > 0);
+        assertEquals("EU-" + (WRITES - 1), diskCache.get("vehicle-" + ((WRITES - 1) % MAX_ENTRIES)).get()
+            .read(VehicleProfileAttribute.SOLD_REGION));
+        diskCache.destroy();
+        diskCache = open(SMALL_MAX_BYTES);
+        assertEquals("EU-" + (WRITES - 1), diskCache.get("vehicle-" + ((WRITES - 1) % MAX_ENTRIES)).get()
+            .read(VehicleProfileAttribute.SOLD_REGION));
+    }
+    
+    @Test
+    void fileLockedByAnotherInstanceIsNotShared() {
+        diskCache.put("vehicle-1", profile("EU"));
+        
+        VehicleProfileDiskCache otherInstance = open(MAX_BYTES);
+        otherInstance.put("vehicle-1", profile("US"));
+        
+        assertFalse(otherInstance.isEnabled());
+        assertFalse(otherInstance.get("vehicle-1").isPresent());
+        assertEquals("EU", reopen().get("vehicle-1").get().read(VehicleProfileAttribute.SOLD_REGION));
+    }
+    
+    @Test
+    void queuedWritesAreServedUntilWritten() {
+        diskCache.put("vehicle-1", profile("EU"));
+        diskCache.flush();
+        
+        diskCache.put("vehicle-1", profile("US"));
+        diskCache.remove("vehicle-2");
+        assertEquals("US", diskCache.get("vehicle-1").get().read(VehicleProfileAttribute.SOLD_REGION));
+        diskCache.remove("vehicle-1");
+        assertFalse(diskCache.get("vehicle-1").isPresent());
+        diskCache.put("vehicle-2", profile("JP"));
+        diskCache.clear();
+        diskCache.put("vehicle-3", profile("EU"));
+        
+        assertFalse(diskCache.get("vehicle-2").isPresent());
+        assertTrue(diskCache.get("vehicle-3").isPresent());
+        assertFalse(reopen().get("vehicle-1").isPresent());
+        assertFalse(diskCache.get("vehicle-2").isPresent());
+        assertTrue(diskCache.get("vehicle-3").isPresent());
+    }
+    
+    @Test
+    void nearCacheIsWarmAfterRestart() {
+        VehicleProfileMetrics metrics = new VehicleProfileMetrics(metricRegistry);
+        VehicleProfileCache cache = nearCache(diskCache, metrics);
+        cache.put("vehicle-1", profile("EU"), PROFILE.length());
+        
+        VehicleProfileCache restartedCache = nearCache(reopen(), metrics);
+        
+        assertEquals("EU", restartedCache.get("vehicle-1").get().read(VehicleProfileAttribute.SOLD_REGION));
+        restartedCache.invalidate("vehicle-1");
+        assertFalse(reopen().get("vehicle-1").isPresent());
+    }
+    
+    @Test
+    void restoredProfileKeepsItsRemainingTtl() {
+        VehicleProfileMetrics metrics = new VehicleProfileMetrics(metricRegistry);
+        nearCache(diskCache, metrics).put("vehicle-1", profile("EU"), PROFILE.length());
+        now.addAndGet(MEMORY_TTL - SECOND);
+        
+        VehicleProfileCache restartedCache = nearCache(reopen(), metrics);
+        
+        assertTrue(restartedCache.get("vehicle-1").isPresent());
+        now.addAndGet(SECOND);
+        assertFalse(restartedCache.get("vehicle-1").isPresent());
+        
+        VehicleProfileCache lateRestartedCache = nearCache(reopen(), metrics);
+        assertFalse(lateRestartedCache.get("vehicle-1").isPresent());
+    }
+}
@@ -0,0 +1,153 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.eclipse.ecsp.domain.VehicleProfile;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleProfileDocumentTest {
+    
+    private static String vehicleProfileJson() {
+        return JsonUtils.toJsonString(JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGet.json"));
+    }
+    
+    @Test
+    void readMultipleAttributes() {
+        VehicleProfileDocument document = VehicleProfileDocument.parse(vehicleProfileJson());
+        
+        assertTrue(document.isValid());
+        assertEquals("brandName", document.read(VehicleProfileAttribute.MAKE));
+        assertEquals("modelName", document.read(VehicleProfileAttribute.MODEL));
+        assertEquals("string", document.read(VehicleProfileAttribute.USERID));
+        List<String> services = document.read(VehicleProfileAttribute.HU_PROVISIONED_SERVICES);
+        assertFalse(services.isEmpty());
+    }
+    
+    @Test
+    void readMissingAttribute() {
+        VehicleProfileDocument document = VehicleProfileDocument.parse("{\"data\": {}}");
+        
+        assertThrows(PathNotFoundException.class, () -> document.read(VehicleProfileAttribute.VIN));
+    }
+    
+    @Test
+    void readInvalidJson() {
+        VehicleProfileDocument document = VehicleProfileDocument.parse("");
+        
+        assertFalse(document.isValid());
+        assertThrows(IllegalArgumentException.class, () -> document.read(VehicleProfileAttribute.VIN));
+        assertThrows(IllegalArgumentException.class, () -> document.read(VehicleProfileAttribute.MAKE));
+    }
+    
+    @Test
+    void readUnparsedDocument() {
+        String json = vehicleProfileJson();
+        VehicleProfileDocument parsed = VehicleProfileDocument.parse(json);
+        VehicleProfileDocument unparsed = VehicleProfileDocument.unparsed(json);
+        
+        unparsed.prefetch(VehicleProfileAttribute.MAKE, VehicleProfileAttribute.USERID,
+            VehicleProfileAttribute.AUTHORIZED_USERS, VehicleProfileAttribute.HU_PROVISIONED_SERVICES);
+        for (VehicleProfileAttribute vpa : List.of(VehicleProfileAttribute.MAKE, VehicleProfileAttribute.USERID,
+            VehicleProfileAttribute.AUTHORIZED_USERS, VehicleProfileAttribute.HU_PROVISIONED_SERVICES)) {
+            Object expected = parsed.read(vpa);
+            Object actual = unparsed.read(vpa);
+            assertEquals(expected, actual);
+            assertEquals(expected.getClass(), actual.getClass());
+        }
+    }
+    
+    @Test
+    void readPrefetchedValueWithAnotherCompiledPath() {
+        VehicleProfileDocument document = VehicleProfileDocument.unparsed(vehicleProfileJson());
+        String path = VehicleProfileAttribute.MAKE.getJsonPath();
+        
+        document.prefetch(List.of(JsonPath.compile(path)));
+        
+        assertEquals("brandName", document.read(JsonPath.compile(path)));
+        Map<?, ?> streamedValues = (Map<?, ?>) ReflectionTestUtils.getField(document, "streamedValues");
+        assertEquals(1, streamedValues.size());
+        assertNull(ReflectionTestUtils.getField(document, "documentContext"));
+    }
+    
+    @Test
+    void readUtf8Bytes() {
+        String make = "Škoda";
+        String model = "Октавия";
+        byte[] json = ("{\"data\": {\"vehicleAttributes\": {\"make\": \"" + make + "\", \"model\": \"" + model
+            + "\"}}}").getBytes(StandardCharsets.UTF_8);
+        
+        assertEquals(make, VehicleProfileDocument.parse(json, null, null).read(VehicleProfileAttribute.MAKE));
+        assertEquals(model, VehicleProfileDocument.unparsed(json).read(VehicleProfileAttribute.MODEL));
+        assertFalse(VehicleProfileDocument.parse(new byte[0], null, null).isValid());
+    }
+    
+    @Test
+    void readMissingAttributeFromUnparsedDocument() {
+        VehicleProfileDocument document = VehicleProfileDocument.unparsed("{\"data\": {}}");
+        
+        assertThrows(PathNotFoundException.class, () -> document.read(VehicleProfileAttribute.VIN));
+    }
+    
+    @Test
+    void readInvalidUnparsedDocument() {
+        VehicleProfileDocument document = VehicleProfileDocument.unparsed("");
+        
+        assertThrows(IllegalArgumentException.class, () -> document.read(VehicleProfileAttribute.VIN));
+        assertFalse(document.isValid());
+    }
+    
+    @Test
+    void readDataOfUnparsedAndParsedDocument() throws IOException {
+        String json = JsonUtils.toJsonString(
+            JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGetDecodable.json"));
+        ObjectMapper objectMapper = new ObjectMapper();
+        
+        VehicleProfile streamed = VehicleProfileDocument.unparsed(json).readData(objectMapper, VehicleProfile.class);
+        VehicleProfile converted = VehicleProfileDocument.parse(json).readData(objectMapper, VehicleProfile.class);
+        
+        assertEquals("12UYA34567L000008", streamed.getVin());
+        assertEquals("region", streamed.getSoldRegion());
+        assertEquals(objectMapper.writeValueAsString(converted), objectMapper.writeValueAsString(streamed));
+    }
+    
+    @Test
+    void readMissingData() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        
+        assertThrows(PathNotFoundException.class, () -> VehicleProfileDocument.unparsed("{\"message\": \"SUCCESS\"}")
+            .readData(objectMapper, VehicleProfile.class));
+        assertThrows(PathNotFoundException.class, () -> VehicleProfileDocument.parse("{\"message\": \"SUCCESS\"}")
+            .readData(objectMapper, VehicleProfile.class));
+    }
+}
@@ -0,0 +1,162 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VehicleProfileHedgingTest {
+    private static final String ENDPOINT = "vehicleProfile";
+    private static final double DELAY_PERCENTILE = 0.95;
+    private static final long DELAY_MS = 10L;
+    private static final long SLOW_CALL_MS = 100L;
+    private static final long WAIT_SECONDS = 5L;
+    private static final int THREADS = 4;
+    private static final long ONE_HEDGE_BUDGET = 100L;
+    
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final VehicleProfileMetrics metrics = new VehicleProfileMetrics(metricRegistry);
+    private final Timer latency = metrics.timer("http", ENDPOINT);
+    private VehicleProfileHedging hedging;
+    
+    @AfterEach
+    void tearDown() {
+        if (hedging != null) {
+            hedging.destroy();
+        }
+    }
+    
+    private VehicleProfileHedging hedging(int budgetPercent) {
+        hedging = new VehicleProfileHedging(true, DELAY_PERCENTILE, DELAY_MS, DELAY_MS, budgetPercent, THREADS,
+            metrics);
+        return hedging;
+    }
+    
+    private long count(String name) {
+        return metricRegistry.counter(VehicleProfileMetrics.name("hedging", ENDPOINT, name)).getCount();
+    }
+    
+    @Test
+    void fastCallIsNotHedged() {
+        AtomicInteger calls = new AtomicInteger();
+        
+        assertEquals("profile", hedging(0).execute(ENDPOINT, latency, () -> {
+            calls.incrementAndGet();
+            return "profile";
+        }));
+        
+        assertEquals(1, calls.get());
+        assertEquals(0L, count("hedged"));
+    }
+    
+    @Test
+    void slowCallIsHedgedAndFirstResponseWins() {
+        CountDownLatch slowCallReleased = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        
+        String result = hedging(0).execute(ENDPOINT, latency, () -> {
+            if (calls.incrementAndGet() == 1) {
+                await(slowCallReleased);
+                return "slow";
+            }
+            return "hedged";
+        });
+        slowCallReleased.countDown();
+        
+        assertEquals("hedged", result);
+        assertEquals(1L, count("hedged"));
+        assertEquals(1L, count("wins"));
+    }
+    
+    @Test
+    void hedgesAreLimitedByTheBudget() {
+        VehicleProfileHedging budgetedHedging = hedging(0);
+        
+        budgetedHedging.execute(ENDPOINT, latency, VehicleProfileHedgingTest::slowCall);
+        budgetedHedging.execute(ENDPOINT, latency, VehicleProfileHedgingTest::slowCall);
+        
+        assertEquals(1L, count("hedged"));
+        assertEquals(1L, count("budgetExhausted"));
+    }
+    
+    @Test
+    void callRunsOnCallerThreadWhileBudgetIsExhausted() {
+        VehicleProfileHedging budgetedHedging = hedging(0);
+        budgetedHedging.execute(ENDPOINT, latency, VehicleProfileHedgingTest::slowCall);
+        
+        assertEquals(Thread.currentThread().getName(),
+            budgetedHedging.execute(ENDPOINT, latency, () -> Thread.currentThread().getName()));
+        assertEquals(0L, count("budgetExhausted"));
+    }
+    
+    @Test
+    void hedgeRejectedByBusyThreadsIsCountedAndRefunded() {
+        hedging = new VehicleProfileHedging(true, DELAY_PERCENTILE, DELAY_MS, DELAY_MS, 0, 1, metrics);
+        
+        assertEquals("slow", hedging.execute(ENDPOINT, latency, VehicleProfileHedgingTest::slowCall));
+        
+        assertEquals(1L, count("rejected"));
+        assertEquals(0L, count("hedged"));
+        assertEquals(0L, count("budgetExhausted"));
+        assertEquals(ONE_HEDGE_BUDGET, ((AtomicLong) ReflectionTestUtils.getField(hedging, "budget")).get());
+    }
+    
+    @Test
+    void failureIsRethrownOnceAllAttemptsFailed() {
+        ResourceAccessException failure = new ResourceAccessException("connection refused");
+        
+        assertEquals(failure, assertThrows(ResourceAccessException.class,
+            () -> hedging(0).execute(ENDPOINT, latency, () -> {
+                throw failure;
+            })));
+    }
+    
+    @Test
+    void disabledHedgingCallsDirectly() {
+        assertEquals(Thread.currentThread().getName(), VehicleProfileHedging.disabled()
+            .execute(ENDPOINT, latency, () -> Thread.currentThread().getName()));
+    }
+    
+    private static String slowCall() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(SLOW_CALL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "slow";
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileLookupBatcherTest {
+    private static final String VEHICLE_PROFILE_BULK_ENDPOINT = "http://localhost:8080/v1.0/vehicleProfiles/bulk";
+    private static final long TIMEOUT_SECONDS = 5L;
+    private static final long LONG_WINDOW_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final long SHORT_WINDOW_MICROS = 1000L;
+    private static final int MAX_BATCH_SIZE = 2;
+    private static final int LARGE_BATCH_SIZE = 64;
+    private static final int BULK_BATCH_SIZE = 3;
+    private static final long CACHE_TTL_MS = 60000L;
+    private static final int CACHE_MAX_ENTRIES = 10;
+
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileClient vehicleProfileClient;
+    private VehicleProfileLookupBatcher batcher;
+
+    @BeforeEach
+    void setup() {
+        vehicleProfileClient = fixture.client();
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class))).thenReturn(jsonResponse(
+            JsonUtils.toJsonString(JsonUtils.classpathToObject("/vehicleprofile/vehicleProfileGet.json")),
+            HttpStatus.OK));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void batchIsFetchedWhenFull() throws Exception {
+        batcher = newBatcher(LONG_WINDOW_MICROS, MAX_BATCH_SIZE);
+
+        CompletableFuture<Optional<String>> first =
+            batcher.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID, false);
+        CompletableFuture<Optional<String>> sameVehicle =
+            batcher.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.MAKE, false);
+        CompletableFuture<Optional<String>> second =
+            batcher.getVehicleProfileAttribute("vehicle-2", VehicleProfileAttribute.USERID, false);
+
+        assertEquals(Optional.of("string"), first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Optional.of("brandName"), sameVehicle.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Optional.of("string"), second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        verify(restTemplate, times(TWICE)).getForEntity(anyString(), eq(byte[].class));
+        assertEquals(1L, metricRegistry.histogram(VehicleProfileMetrics.name("batcher", "batch", "size"))
+            .getCount());
+    }
+
+    @Test
+    void batchIsFetchedWhenWindowExpires() throws Exception {
+        batcher = newBatcher(SHORT_WINDOW_MICROS, LARGE_BATCH_SIZE);
+
+        Map<VehicleProfileAttribute, Optional<String>> values = batcher
+            .getVehicleProfileAttributes("vehicle-1", false, VehicleProfileAttribute.USERID)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(Optional.of("string"), values.get(VehicleProfileAttribute.USERID));
+    }
+
+    @Test
+    void batchIsFetchedFromBulkEndpoint() throws Exception {
+        ReflectionTestUtils.setField(vehicleProfileClient, "vehicleProfileBulkEndPoint",
+            VEHICLE_PROFILE_BULK_ENDPOINT);
+        when(restTemplate.postForEntity(eq(VEHICLE_PROFILE_BULK_ENDPOINT), any(Collection.class), eq(byte[].class)))
+            .thenReturn(jsonResponse(bulkResponse("vehicle-1", "vehicle-2"), HttpStatus.OK));
+        batcher = newBatcher(LONG_WINDOW_MICROS, BULK_BATCH_SIZE);
+
+        CompletableFuture<Optional<String>> first =
+            batcher.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.VEHICLE_ID, false);
+        CompletableFuture<Optional<String>> missing =
+            batcher.getVehicleProfileAttribute("vehicle-3", VehicleProfileAttribute.VEHICLE_ID, false);
+        final CompletableFuture<Optional<String>> missingIgnoreError =
+            batcher.getVehicleProfileAttribute("vehicle-3", VehicleProfileAttribute.VEHICLE_ID, true);
+        final CompletableFuture<Optional<String>> second =
+            batcher.getVehicleProfileAttribute("vehicle-2", VehicleProfileAttribute.VEHICLE_ID, false);
+
+        assertEquals(Optional.of("vehicle-1"), first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(Optional.of("vehicle-2"), second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        ExecutionException error =
+            assertThrows(ExecutionException.class, () -> missing.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(VehicleProfileException.class, error.getCause());
+        assertEquals(Optional.empty(), missingIgnoreError.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        verify(restTemplate, times(1))
+            .postForEntity(eq(VEHICLE_PROFILE_BULK_ENDPOINT), any(Collection.class), eq(byte[].class));
+        verify(restTemplate, times(0)).getForEntity(anyString(), eq(byte[].class));
+    }
+
+    @Test
+    void bulkEndpointIsOnlyAskedForVehiclesMissingFromCache() throws Exception {
+        VehicleProfileCache cache =
+            VehicleProfileCache.builder(fixture.metrics()).ttlMs(CACHE_TTL_MS)
+            .maxEntries(CACHE_MAX_ENTRIES).build();
+        vehicleProfileClient = fixture.client(fixture.collaborators().vehicleProfileCache(cache));
+        ReflectionTestUtils.setField(vehicleProfileClient, "vehicleProfileBulkEndPoint",
+            VEHICLE_PROFILE_BULK_ENDPOINT);
+        when(restTemplate.postForEntity(eq(VEHICLE_PROFILE_BULK_ENDPOINT), any(Collection.class), eq(byte[].class)))
+            .thenReturn(jsonResponse(bulkResponse("vehicle-2", null), HttpStatus.OK));
+        vehicleProfileClient.getVehicleProfileAttribute("vehicle-1", VehicleProfileAttribute.USERID);
+
+        Map<String, VehicleProfileDocument> documents = vehicleProfileClient
+            .getVehicleProfileDocumentsAsync(List.of("vehicle-1", "vehicle-2"))
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        assertEquals(Set.of("vehicle-1", "vehicle-2"), documents.keySet());
+        assertTrue(cache.get("vehicle-2").isPresent());
+        verify(restTemplate, times(1))
+            .postForEntity(eq(VEHICLE_PROFILE_BULK_ENDPOINT), eq(List.of("vehicle-2")), eq(byte[].class));
+    }
+
+    private VehicleProfileLookupBatcher newBatcher(long windowMicros, int maxBatchSize) {
+        return new VehicleProfileLookupBatcher(vehicleProfileClient, fixture.metrics(),
+            windowMicros, maxBatchSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String bulkResponse(String... vehicleIds) {
+        Map<String, Object> vehicleProfile = (Map<String, Object>) ((Map<String, Object>) JsonUtils
+            .classpathToObject("/vehicleprofile/vehicleProfileGet.json")).get("data");
+        List<Map<String, Object>> profiles = new ArrayList<>();
+        for (String vehicleId : vehicleIds) {
+            Map<String, Object> profile = new LinkedHashMap<>(vehicleProfile);
+            if (vehicleId == null) {
+                profile.remove("vehicleId");
+            } else {
+                profile.put("vehicleId", vehicleId);
+            }
+            profiles.add(profile);
+        }
+        return JsonUtils.toJsonString(Map.of("data", profiles));
+    }
+}
@@ -0,0 +1,179 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.domain.Constants;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileException;
+import org.eclipse.ecsp.services.utils.VehicleProfileNegativeCache.LookupType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileNegativeCacheTest {
+    private static final long TTL = 60000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final String VEHICLE_ID = "vehicle-1";
+    private static final String EMPTY_DATA_RESPONSE = "{\"message\": \"SUCCESS\", \"data\": []}";
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileNegativeCache negativeCache;
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        negativeCache = new VehicleProfileNegativeCache(true, TTL, MAX_ENTRIES, metrics, fixture.clock());
+        vehicleProfileClient = fixture.client(fixture.collaborators().negativeCache(negativeCache));
+    }
+    
+    @Test
+    void notFoundEntriesExpire() {
+        negativeCache.putNotFound(LookupType.VIN, "vin-1");
+        
+        assertTrue(negativeCache.isNotFound(LookupType.VIN, "vin-1"));
+        assertFalse(negativeCache.isNotFound(LookupType.VEHICLE_ID, "vin-1"));
+        fixture.advance(TTL);
+        assertFalse(negativeCache.isNotFound(LookupType.VIN, "vin-1"));
+        assertEquals(1L, metricRegistry.counter(
+            VehicleProfileMetrics.name("negativeCache", LookupType.VIN.name(), "hits")).getCount());
+    }
+    
+    @Test
+    void disabledNegativeCacheKeepsNothing() {
+        VehicleProfileNegativeCache disabled = VehicleProfileNegativeCache.disabled();
+        disabled.putNotFound(LookupType.VEHICLE_ID, VEHICLE_ID);
+        
+        assertFalse(disabled.isNotFound(LookupType.VEHICLE_ID, VEHICLE_ID));
+    }
+    
+    @Test
+    void unknownVehicleIdIsNotFetchedAgain() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        
+        for (int i = 0; i < TWICE; i++) {
+            assertEquals(Optional.of(""), vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID,
+                VehicleProfileAttribute.USERID, true));
+        }
+        assertThrows(VehicleProfileException.class, () -> vehicleProfileClient.getVehicleProfileAttribute(
+            VEHICLE_ID, VehicleProfileAttribute.USERID, false));
+        
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
+    @Test
+    void unknownVinIsNotFetchedAgain() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse("", HttpStatus.OK));
+        
+        for (int i = 0; i < TWICE; i++) {
+            vehicleProfileClient.getVehicleProfileAttributesForVin("vin-1", true, VehicleProfileAttribute.USERID);
+        }
+        
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
+    @Test
+    void vehicleIdAnsweredWithEmptyDataIsNotFetchedAgain() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(EMPTY_DATA_RESPONSE, HttpStatus.OK));
+        
+        for (int i = 0; i < TWICE; i++) {
+            vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.USERID, true);
+        }
+        
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+        assertTrue(negativeCache.isNotFound(LookupType.VEHICLE_ID, VEHICLE_ID));
+    }
+    
+    @Test
+    void vinAnsweredWithEmptyDataIsNotFetchedAgain() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(EMPTY_DATA_RESPONSE, HttpStatus.OK));
+        
+        for (int i = 0; i < TWICE; i++) {
+            vehicleProfileClient.getVehicleProfileAttributesForVin("vin-1", true, VehicleProfileAttribute.USERID);
+        }
+        
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+        assertTrue(negativeCache.isNotFound(LookupType.VIN, "vin-1"));
+    }
+    
+    @Test
+    void emptyResponses() {
+        assertTrue(VehicleProfileNegativeCache.isEmptyResponse(null));
+        assertTrue(VehicleProfileNegativeCache.isEmptyResponse(new byte[0]));
+        assertTrue(VehicleProfileNegativeCache.isEmptyResponse(EMPTY_DATA_RESPONSE.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(VehicleProfileNegativeCache.isEmptyResponse("{\"data\": null}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(VehicleProfileNegativeCache.isEmptyResponse(
+            "{\"data\": [{\"vehicleId\": \"vehicle-1\"}]}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(VehicleProfileNegativeCache.isEmptyResponse(
+            "{\"data\": {\"vehicleId\": \"vehicle-1\"}}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(VehicleProfileNegativeCache.isEmptyResponse("{\"message\": \"SUCCESS\"}"
+            .getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    @Test
+    void unknownClientIdIsNotFetchedAgain() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse("{\"message\": \"SUCCESS\", \"data\": []}", HttpStatus.OK));
+        
+        for (int i = 0; i < TWICE; i++) {
+            assertThrows(VehicleProfileException.class, () -> vehicleProfileClient.getVehicleProfileAttrWithClientId(
+                "client-1", VehicleProfileAttribute.NAME, false));
+        }
+        
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+        assertTrue(negativeCache.isNotFound(LookupType.CLIENT_ID, "client-1"));
+    }
+    
+    @Test
+    void changedVehicleIsRemoved() {
+        negativeCache.putNotFound(LookupType.VEHICLE_ID, VEHICLE_ID);
+        VehicleProfileCacheInvalidator invalidator = new VehicleProfileCacheInvalidator(
+            fixture.collaborators().negativeCache(negativeCache).build());
+        IgniteEventImpl igniteEvent = new IgniteEventImpl();
+        igniteEvent.setEventId(Constants.EVENT_VEHICLE_CHANGE_NOTIFICATION);
+        igniteEvent.setVehicleId(VEHICLE_ID);
+        
+        invalidator.onVehicleProfileChanged(igniteEvent);
+        
+        assertFalse(negativeCache.isNotFound(LookupType.VEHICLE_ID, VEHICLE_ID));
+    }
+}
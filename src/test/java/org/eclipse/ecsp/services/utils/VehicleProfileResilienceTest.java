@@ -0,0 +1,275 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileResilienceTest {
+    private static final String ENDPOINT = "vehicleProfile";
+    private static final int MINIMUM_CALLS = 2;
+    private static final int FAILURE_RATE_THRESHOLD = 50;
+    private static final int SLOW_CALL_RATE_THRESHOLD = 100;
+    private static final long SLOW_CALL_DURATION_MS = 1000L;
+    private static final long OPEN_DURATION_MS = 10000L;
+    private static final long TTL = 60000L;
+    private static final long STALE_WINDOW = 600000L;
+    private static final long MAX_STALE = 1000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final long WAIT_SECONDS = 5L;
+    private static final double HEDGING_PERCENTILE = 0.95;
+    private static final long HEDGING_DELAY_MS = 10L;
+    private static final int HEDGING_THREADS = 4;
+    private static final String VEHICLE_ID = "vehicle-1";
+    private static final String PROFILE = "{\"data\": {\"soldRegion\": \"EU\"}}";
+    
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final VehicleProfileMetrics metrics = new VehicleProfileMetrics(metricRegistry);
+    
+    private VehicleProfileResilience circuitBreakers() {
+        return new VehicleProfileResilience(true, MINIMUM_CALLS, MINIMUM_CALLS, FAILURE_RATE_THRESHOLD,
+            SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD, OPEN_DURATION_MS, 1, false, 1, 0, metrics,
+            System::nanoTime);
+    }
+    
+    private void fail(VehicleProfileResilience resilience, RuntimeException failure) {
+        assertThrows(failure.getClass(), () -> resilience.execute(ENDPOINT, () -> {
+            throw failure;
+        }));
+    }
+    
+    @Test
+    void invalidCircuitBreakerConfigurationFailsOnCreation() {
+        assertThrows(IllegalArgumentException.class, () -> new VehicleProfileResilience(true, MINIMUM_CALLS,
+            MINIMUM_CALLS, 0, SLOW_CALL_DURATION_MS, SLOW_CALL_RATE_THRESHOLD, OPEN_DURATION_MS, 1, false, 1, 0,
+            metrics, System::nanoTime));
+    }
+    
+    @Test
+    void openCircuitFailsFast() {
+        VehicleProfileResilience resilience = circuitBreakers();
+        fail(resilience, new ResourceAccessException("connection refused"));
+        fail(resilience, new ResourceAccessException("connection refused"));
+        
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getState(ENDPOINT));
+        assertThrows(VehicleProfileUnavailableException.class, () -> resilience.execute(ENDPOINT, () -> "called"));
+        assertEquals(1L, metricRegistry.counter(
+            VehicleProfileMetrics.name("circuitBreaker", ENDPOINT, "rejected")).getCount());
+        assertEquals("called", resilience.execute("association", () -> "called"));
+    }
+    
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        VehicleProfileResilience resilience = circuitBreakers();
+        fail(resilience, new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        fail(resilience, new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getState(ENDPOINT));
+    }
+    
+    @Test
+    void serverErrorResponsesOpenTheCircuit() {
+        VehicleProfileResilience resilience = circuitBreakers();
+        resilience.execute(ENDPOINT, () -> jsonResponse("{}", HttpStatus.SERVICE_UNAVAILABLE));
+        resilience.execute(ENDPOINT, () -> jsonResponse("{}", HttpStatus.BAD_GATEWAY));
+        
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getState(ENDPOINT));
+    }
+    
+    @Test
+    void fullBulkheadRejectsCalls() throws Exception {
+        VehicleProfileResilience resilience = new VehicleProfileResilience(false, 1, 1, 0, 0, 0, 0, 1, true, 1, 0,
+            metrics, System::nanoTime);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            final Future<String> call = executor.submit(() -> resilience.execute(ENDPOINT, () -> {
+                started.countDown();
+                await(release);
+                return "first";
+            }));
+            assertEquals(true, started.await(WAIT_SECONDS, TimeUnit.SECONDS));
+            
+            assertThrows(VehicleProfileUnavailableException.class,
+                () -> resilience.execute(ENDPOINT, () -> "second"));
+            release.countDown();
+            assertEquals("first", call.get(WAIT_SECONDS, TimeUnit.SECONDS));
+            assertEquals("third", resilience.execute(ENDPOINT, () -> "third"));
+            assertEquals(1L, metricRegistry.counter(
+                VehicleProfileMetrics.name("bulkhead", ENDPOINT, "rejected")).getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void asyncCallHoldsBulkheadSlotUntilCompleted() throws Exception {
+        VehicleProfileResilience resilience = new VehicleProfileResilience(false, 1, 1, 0, 0, 0, 0, 1, true, 1, 0,
+            metrics, System::nanoTime);
+        CompletableFuture<String> response = new CompletableFuture<>();
+        
+        CompletableFuture<String> call = resilience.executeAsync(ENDPOINT, () -> response);
+        CompletableFuture<String> rejectedCall = resilience.executeAsync(ENDPOINT,
+            () -> CompletableFuture.completedFuture("second"));
+        response.complete("first");
+        
+        ExecutionException error = assertThrows(ExecutionException.class, rejectedCall::get);
+        assertInstanceOf(VehicleProfileUnavailableException.class, error.getCause());
+        assertEquals("first", call.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals("third", resilience.executeAsync(ENDPOINT, () -> CompletableFuture.completedFuture("third"))
+            .get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void failedAsyncCallsOpenTheCircuit() {
+        VehicleProfileResilience resilience = circuitBreakers();
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            resilience.executeAsync(ENDPOINT, () -> CompletableFuture.failedFuture(new IllegalStateException()));
+        }
+        
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getState(ENDPOINT));
+        assertTrue(resilience.executeAsync(ENDPOINT, () -> CompletableFuture.completedFuture("call"))
+            .isCompletedExceptionally());
+    }
+    
+    @Test
+    void expiredProfileIsUsedWhileCircuitIsOpen() {
+        AtomicLong now = new AtomicLong();
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        VehicleProfileCache cache = VehicleProfileCache.builder(metrics).ttlMs(TTL).maxEntries(MAX_ENTRIES)
+            .staleIfError(STALE_WINDOW).clock(now::get).build();
+        VehicleProfileClient vehicleProfileClient = new VehicleProfileClient(restTemplate,
+            VehicleProfileClientCollaborators.builder(metrics).vehicleProfileCache(cache)
+                .resilience(circuitBreakers()).build());
+        ReflectionTestUtils.setField(vehicleProfileClient, "vehicleProfileEndPoint",
+            "http://localhost:8080/v1.0/vehicleProfiles/");
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, HttpStatus.OK))
+            .thenThrow(new ResourceAccessException("connection refused"));
+        assertEquals(Optional.of("EU"),
+            vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+        
+        now.addAndGet(TTL);
+        vehicleProfileClient.getVehicleProfileAttribute("vehicle-2", VehicleProfileAttribute.SOLD_REGION, true);
+        assertEquals(Optional.of("EU"),
+            vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+        
+        verify(restTemplate, times(MINIMUM_CALLS)).getForEntity(anyString(), eq(byte[].class));
+        assertEquals(1L, metricRegistry.counter(
+            VehicleProfileMetrics.name("cache", "unavailableFallbacks")).getCount());
+    }
+    
+    @Test
+    void expiredProfilePastMaxStaleIsUsedWhileCircuitIsOpen() {
+        AtomicLong now = new AtomicLong();
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        VehicleProfileCache cache = VehicleProfileCache.builder(metrics).ttlMs(TTL).maxEntries(MAX_ENTRIES)
+            .staleWhileRevalidate(MAX_STALE, 1).staleIfError(STALE_WINDOW).clock(now::get).build();
+        VehicleProfileClient vehicleProfileClient = new VehicleProfileClient(restTemplate,
+            VehicleProfileClientCollaborators.builder(metrics).vehicleProfileCache(cache)
+                .resilience(circuitBreakers()).build());
+        ReflectionTestUtils.setField(vehicleProfileClient, "vehicleProfileEndPoint",
+            "http://localhost:8080/v1.0/vehicleProfiles/");
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, HttpStatus.OK))
+            .thenThrow(new ResourceAccessException("connection refused"));
+        try {
+            assertEquals(Optional.of("EU"),
+                vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+            
+            now.addAndGet(TTL + MAX_STALE);
+            vehicleProfileClient.getVehicleProfileAttribute("vehicle-2", VehicleProfileAttribute.SOLD_REGION, true);
+            assertEquals(Optional.of("EU"),
+                vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+            
+            assertEquals(0L, metricRegistry.counter(VehicleProfileMetrics.name("cache", "staleServes")).getCount());
+            assertEquals(1L, metricRegistry.counter(
+                VehicleProfileMetrics.name("cache", "unavailableFallbacks")).getCount());
+        } finally {
+            cache.destroy();
+        }
+    }
+    
+    @Test
+    void hedgedCallHoldsSingleBulkheadSlot() {
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        VehicleProfileHedging hedging = new VehicleProfileHedging(true, HEDGING_PERCENTILE, HEDGING_DELAY_MS,
+            HEDGING_DELAY_MS, 0, HEDGING_THREADS, metrics);
+        VehicleProfileClient vehicleProfileClient = new VehicleProfileClient(restTemplate,
+            VehicleProfileClientCollaborators.builder(metrics).hedging(hedging)
+                .resilience(new VehicleProfileResilience(false, 1, 1, 0, 0, 0, 0, 1, true, 1, 0, metrics,
+                    System::nanoTime)).build());
+        ReflectionTestUtils.setField(vehicleProfileClient, "vehicleProfileEndPoint",
+            "http://localhost:8080/v1.0/vehicleProfiles/");
+        CountDownLatch hedged = new CountDownLatch(1);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class))).thenAnswer(invocation -> {
+            await(hedged);
+            return jsonResponse(PROFILE, HttpStatus.OK);
+        }).thenAnswer(invocation -> {
+            hedged.countDown();
+            return jsonResponse(PROFILE, HttpStatus.OK);
+        });
+        try {
+            assertEquals(Optional.of("EU"),
+                vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION));
+            
+            verify(restTemplate, times(MINIMUM_CALLS)).getForEntity(anyString(), eq(byte[].class));
+            assertEquals(0L, metricRegistry.counter(
+                VehicleProfileMetrics.name("bulkhead", "vehicleProfile", "rejected")).getCount());
+        } finally {
+            hedging.destroy();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.exceptions.VehicleProfileUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleProfileRetryTest {
+    private static final String ENDPOINT = "vehicleProfile";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY_MS = 100L;
+    private static final long MAX_DELAY_MS = 150L;
+    private static final int[] RETRYABLE_STATUSES = {429, 502, 503, 504};
+    private static final int BUDGET_PERCENT = 10;
+    private static final int BURST_RETRIES = 10;
+    private static final int TWICE = 2;
+    
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final List<Long> delays = new ArrayList<>();
+    
+    private VehicleProfileRetry retry(int maxAttempts, String... operations) {
+        return new VehicleProfileRetry(true, maxAttempts, BASE_DELAY_MS, MAX_DELAY_MS, RETRYABLE_STATUSES,
+            operations, BUDGET_PERCENT, new VehicleProfileMetrics(metricRegistry), delays::add);
+    }
+    
+    private static <T> Supplier<T> failing(AtomicInteger attempts, int failures, RuntimeException failure,
+                                           T result) {
+        return () -> {
+            if (attempts.incrementAndGet() <= failures) {
+                throw failure;
+            }
+            return result;
+        };
+    }
+    
+    private long count(String name) {
+        return metricRegistry.counter(VehicleProfileMetrics.name("retry", ENDPOINT, name)).getCount();
+    }
+    
+    @Test
+    void ioErrorsAreRetriedWithJitteredBackoff() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        assertEquals("profile", retry(MAX_ATTEMPTS).execute(ENDPOINT, true,
+            failing(attempts, MAX_ATTEMPTS - 1, new ResourceAccessException("read timed out"), "profile")));
+        
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+        assertEquals(MAX_ATTEMPTS - 1, count("retries"));
+        assertTrue(delays.get(0) >= 0 && delays.get(0) <= BASE_DELAY_MS);
+        assertTrue(delays.get(1) >= 0 && delays.get(1) <= MAX_DELAY_MS);
+    }
+    
+    @Test
+    void lastFailureIsRethrownOnceAttemptsExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+        HttpServerErrorException failure = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        
+        assertEquals(failure, assertThrows(HttpServerErrorException.class, () -> retry(MAX_ATTEMPTS)
+            .execute(ENDPOINT, true, failing(attempts, MAX_ATTEMPTS, failure, "profile"))));
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+    
+    @Test
+    void retryableStatusResponsesAreRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        ResponseEntity<String> response = retry(MAX_ATTEMPTS).execute(ENDPOINT, true, () -> attempts.incrementAndGet()
+            == 1 ? new ResponseEntity<>(HttpStatus.BAD_GATEWAY) : new ResponseEntity<>("profile", HttpStatus.OK));
+        
+        assertEquals("profile", response.getBody());
+        assertEquals(1L, count("retries"));
+    }
+    
+    @Test
+    void clientErrorsAndRejectedCallsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        VehicleProfileRetry retry = retry(MAX_ATTEMPTS);
+        
+        assertThrows(HttpClientErrorException.class, () -> retry.execute(ENDPOINT, true,
+            failing(attempts, MAX_ATTEMPTS, new HttpClientErrorException(HttpStatus.NOT_FOUND), "profile")));
+        assertThrows(VehicleProfileUnavailableException.class, () -> retry.execute(ENDPOINT, true,
+            failing(attempts, MAX_ATTEMPTS, new VehicleProfileUnavailableException("circuit open"), "profile")));
+        
+        assertEquals(TWICE, attempts.get());
+    }
+    
+    @Test
+    void nonIdempotentCallsAreRetriedOnlyIfNotSent() {
+        AtomicInteger attempts = new AtomicInteger();
+        VehicleProfileRetry retry = retry(MAX_ATTEMPTS);
+        
+        assertThrows(ResourceAccessException.class, () -> retry.execute(ENDPOINT, false, failing(attempts, 1,
+            new ResourceAccessException("read timed out", new SocketTimeoutException()), true)));
+        assertEquals(1, attempts.get());
+        
+        attempts.set(0);
+        assertEquals(true, retry.execute(ENDPOINT, false, failing(attempts, 1,
+            new ResourceAccessException("connection refused", new ConnectException()), true)));
+        assertEquals(TWICE, attempts.get());
+    }
+    
+    @Test
+    void retriesAreLimitedByTheBudget() {
+        AtomicInteger attempts = new AtomicInteger();
+        int maxAttempts = BURST_RETRIES * TWICE;
+        
+        assertThrows(ResourceAccessException.class, () -> retry(maxAttempts).execute(ENDPOINT, true,
+            failing(attempts, maxAttempts, new ResourceAccessException("connection refused"), "profile")));
+        
+        assertEquals(BURST_RETRIES + 1, attempts.get());
+        assertEquals(1L, count("budgetExhausted"));
+    }
+    
+    @Test
+    void onlyConfiguredOperationsAreRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        
+        assertThrows(ResourceAccessException.class, () -> retry(MAX_ATTEMPTS, "associatedVehicles").execute(
+            ENDPOINT, true, failing(attempts, 1, new ResourceAccessException("connection refused"), "profile")));
+        
+        assertEquals(1, attempts.get());
+    }
+}
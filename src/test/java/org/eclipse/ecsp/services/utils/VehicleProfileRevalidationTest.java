@@ -0,0 +1,128 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import java.util.List;
+import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileRevalidationTest {
+    private static final long TTL = 60000L;
+    private static final long REVALIDATION_WINDOW = 600000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final String VEHICLE_ID = "vehicle-1";
+    private static final String ETAG = "\"v1\"";
+    private static final String LAST_MODIFIED = "Thu, 6 Sep 2018 21:29:30 GMT";
+    private static final String PROFILE = "{\"data\": {\"soldRegion\": \"EU\"}}";
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        VehicleProfileCache cache = VehicleProfileCache.builder(metrics).ttlMs(TTL).maxEntries(MAX_ENTRIES)
+            .revalidation(REVALIDATION_WINDOW).clock(fixture.clock()).build();
+        vehicleProfileClient = fixture.client(fixture.collaborators().vehicleProfileCache(cache));
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, headers, HttpStatus.OK));
+    }
+    
+    private Optional<String> readSoldRegion() {
+        return vehicleProfileClient.getVehicleProfileAttribute(VEHICLE_ID, VehicleProfileAttribute.SOLD_REGION);
+    }
+    
+    @Test
+    void notModifiedProfileIsKept() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+            .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+        readSoldRegion();
+        
+        fixture.advance(TTL);
+        assertEquals(Optional.of("EU"), readSoldRegion());
+        assertEquals(Optional.of("EU"), readSoldRegion());
+        
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET),
+            argThat((HttpEntity<?> entity) -> entity.getHeaders().getIfNoneMatch().equals(List.of(ETAG))),
+            eq(byte[].class));
+        assertEquals(1L, metricRegistry.counter(VehicleProfileMetrics.name("cache", "revalidations")).getCount());
+    }
+    
+    @Test
+    void modifiedProfileIsReplaced() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(byte[].class)))
+            .thenReturn(jsonResponse("{\"data\": {\"soldRegion\": \"US\"}}", HttpStatus.OK));
+        readSoldRegion();
+        
+        fixture.advance(TTL);
+        assertEquals(Optional.of("US"), readSoldRegion());
+        assertEquals(Optional.of("US"), readSoldRegion());
+        
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+            eq(byte[].class));
+    }
+    
+    @Test
+    void profileWithoutValidatorsIsFetchedAgain() {
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, HttpStatus.OK));
+        readSoldRegion();
+        
+        fixture.advance(TTL);
+        readSoldRegion();
+        
+        verify(restTemplate, times(TWICE)).getForEntity(anyString(), eq(byte[].class));
+        verify(restTemplate, never()).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class),
+            eq(byte[].class));
+    }
+    
+    @Test
+    void updatedOnIsUsedWithoutLastModified() {
+        VehicleProfileDocument document = VehicleProfileDocument.parse(
+            "{\"data\": {\"updatedOn\": \"2018-09-06T21:29:30.387+0000\"}}", null, null);
+        
+        assertEquals(LAST_MODIFIED, document.getLastModified());
+    }
+}
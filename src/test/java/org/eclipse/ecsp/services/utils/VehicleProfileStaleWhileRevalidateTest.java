@@ -0,0 +1,135 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import com.codahale.metrics.MetricRegistry;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import java.util.Map;
+import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.eclipse.ecsp.services.utils.VehicleProfileClientFixture.TWICE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileStaleWhileRevalidateTest {
+    private static final long TTL = 60000L;
+    private static final long MAX_STALE = 600000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final long AWAIT_MILLIS = 5000L;
+    private static final long POLL_MILLIS = 10L;
+    private static final String VEHICLE_ID = "vehicle-1";
+    private static final String EU_PROFILE = "{\"data\": {\"soldRegion\": \"EU\"}}";
+    private static final String US_PROFILE = "{\"data\": {\"soldRegion\": \"US\"}}";
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private final MetricRegistry metricRegistry = fixture.metricRegistry();
+    private VehicleProfileCache cache;
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        cache = VehicleProfileCache.builder(metrics).ttlMs(TTL).maxEntries(MAX_ENTRIES)
+            .staleWhileRevalidate(MAX_STALE, 1).clock(fixture.clock()).build();
+        vehicleProfileClient = fixture.client(fixture.collaborators().vehicleProfileCache(cache));
+        
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(EU_PROFILE, HttpStatus.OK))
+            .thenReturn(jsonResponse(US_PROFILE, HttpStatus.OK));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+    
+    private VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>> readSoldRegion() {
+        return vehicleProfileClient.getVehicleProfileAttributesWithFreshness(VEHICLE_ID, false,
+            VehicleProfileAttribute.SOLD_REGION);
+    }
+    
+    private void awaitCount(String name, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (metricRegistry.counter(VehicleProfileMetrics.name("cache", name)).getCount() < expected
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        assertEquals(expected, metricRegistry.counter(VehicleProfileMetrics.name("cache", name)).getCount());
+    }
+    
+    @Test
+    void expiredProfileIsServedWhileRefreshed() throws InterruptedException {
+        assertFalse(readSoldRegion().isStale());
+        fixture.advance(TTL + 1);
+        
+        VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>> stale = readSoldRegion();
+        
+        assertTrue(stale.isStale());
+        assertEquals(1L, stale.getStaleMillis());
+        assertEquals(Optional.of("EU"), stale.getValue().get(VehicleProfileAttribute.SOLD_REGION));
+        awaitCount("refreshes", 1);
+        VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>> refreshed = readSoldRegion();
+        assertFalse(refreshed.isStale());
+        assertEquals(Optional.of("US"), refreshed.getValue().get(VehicleProfileAttribute.SOLD_REGION));
+        assertEquals(1L, metricRegistry.counter(VehicleProfileMetrics.name("cache", "staleServes")).getCount());
+        verify(restTemplate, times(TWICE)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
+    @Test
+    void staleProfileIsServedWhileRefreshFails() throws InterruptedException {
+        readSoldRegion();
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenThrow(new ResourceAccessException("connection refused"));
+        fixture.advance(TTL);
+        
+        readSoldRegion();
+        awaitCount("refreshFailures", 1);
+        VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>> stale = readSoldRegion();
+        awaitCount("refreshFailures", TWICE);
+        
+        assertTrue(stale.isStale());
+        assertEquals(Optional.of("EU"), stale.getValue().get(VehicleProfileAttribute.SOLD_REGION));
+        assertEquals(TWICE, metricRegistry.counter(VehicleProfileMetrics.name("cache", "staleServes")).getCount());
+    }
+    
+    @Test
+    void profileStaleForTooLongIsFetched() {
+        readSoldRegion();
+        fixture.advance(TTL + MAX_STALE);
+        
+        VehicleProfileValue<Map<VehicleProfileAttribute, Optional<String>>> fetched = readSoldRegion();
+        
+        assertFalse(fetched.isStale());
+        assertEquals(Optional.of("US"), fetched.getValue().get(VehicleProfileAttribute.SOLD_REGION));
+        assertEquals(0L, metricRegistry.counter(VehicleProfileMetrics.name("cache", "staleServes")).getCount());
+    }
+}
@@ -43,6 +43,7 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.web.client.RestTemplate;
 import java.net.URI;
 import java.util.Optional;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -68,9 +69,9 @@ class VehicleProfileUnitTest extends ServicesTestBase {
     @BeforeEach
     void setup() throws JsonProcessingException {
         Object vpJson = JsonUtils.classpathToObject("/vehicleprofile/vehicleProfile.json");
-        ResponseEntity<String> responseEntity =
-            new ResponseEntity<>(JsonUtils.toJsonString(vpJson), HttpStatus.ACCEPTED);
-        when(restTemplate.getForEntity(anyString(), eq(String.class)))
+        ResponseEntity<byte[]> responseEntity =
+            jsonResponse(JsonUtils.toJsonString(vpJson), HttpStatus.ACCEPTED);
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
             .thenReturn(responseEntity);
         
         String str =
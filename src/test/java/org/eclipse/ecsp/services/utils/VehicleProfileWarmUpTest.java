@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ * 
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ * 
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.services.utils;
+
+import org.eclipse.ecsp.entities.IgniteEntity;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.eclipse.ecsp.nosqldao.mongodb.IgniteBaseDAOMongoImpl;
+import org.eclipse.ecsp.services.constants.VehicleProfileAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import static org.eclipse.ecsp.services.utils.JsonResponses.jsonResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VehicleProfileWarmUpTest {
+    private static final long TTL = 60000L;
+    private static final int MAX_ENTRIES = 10;
+    private static final int PARALLELISM = 2;
+    private static final long TIMEOUT = 10000L;
+    private static final int WARMED_UP_VEHICLES = 3;
+    private static final String PROFILE = "{\"data\": {\"soldRegion\": \"EU\"}}";
+    
+    @TempDir
+    Path directory;
+    
+    private final VehicleProfileClientFixture fixture = new VehicleProfileClientFixture();
+    private final RestTemplate restTemplate = fixture.restTemplate();
+    private VehicleProfileCache cache;
+    private VehicleProfileClient vehicleProfileClient;
+    
+    @BeforeEach
+    void setup() {
+        VehicleProfileMetrics metrics = fixture.metrics();
+        cache = VehicleProfileCache.builder(metrics).ttlMs(TTL).maxEntries(MAX_ENTRIES).build();
+        vehicleProfileClient = fixture.client(fixture.collaborators().vehicleProfileCache(cache));
+        when(restTemplate.getForEntity(anyString(), eq(byte[].class)))
+            .thenReturn(jsonResponse(PROFILE, HttpStatus.OK));
+    }
+    
+    private VehicleProfileWarmUp warmUp(int maxVehicles, VehicleProfileWarmUpSource... sources) {
+        return new VehicleProfileWarmUp(true, PARALLELISM, TIMEOUT, maxVehicles, vehicleProfileClient, cache,
+            List.of(sources));
+    }
+    
+    @Test
+    void profilesOfAllSourcesAreCached() throws IOException {
+        Path file = directory.resolve("vehicles.txt");
+        Files.writeString(file, "# recent vehicles\nvehicle-1\n\nvehicle-2\n");
+        
+        warmUp(MAX_ENTRIES, VehicleProfileWarmUpSource.fromFile(file), () -> List.of("vehicle-2", "vehicle-3"))
+            .afterSingletonsInstantiated();
+        vehicleProfileClient.getVehicleProfileAttribute("vehicle-3", VehicleProfileAttribute.SOLD_REGION);
+        
+        verify(restTemplate, times(WARMED_UP_VEHICLES)).getForEntity(anyString(), eq(byte[].class));
+        assertTrue(cache.get("vehicle-1").isPresent());
+        assertTrue(cache.get("vehicle-2").isPresent());
+    }
+    
+    @Test
+    void failedSourcesAndVehiclesAreSkipped() {
+        when(restTemplate.getForEntity(contains("vehicle-2"), eq(byte[].class)))
+            .thenThrow(new ResourceAccessException("connection refused"));
+        VehicleProfileWarmUpSource missingFile = VehicleProfileWarmUpSource.fromFile(directory.resolve("missing"));
+        
+        int fetched = warmUp(MAX_ENTRIES, missingFile, () -> List.of("vehicle-1", "vehicle-2")).warmUp();
+        
+        assertEquals(1, fetched);
+    }
+    
+    @Test
+    void warmUpIsBoundedByMaxVehicles() {
+        int fetched = warmUp(1, () -> List.of("vehicle-1", "vehicle-2")).warmUp();
+        
+        assertEquals(1, fetched);
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(byte[].class));
+    }
+    
+    @Test
+    void sourcesAreAskedForTheRemainingVehiclesOnly() {
+        List<Integer> requestedVehicles = new ArrayList<>();
+        VehicleProfileWarmUpSource cappedSource = new VehicleProfileWarmUpSource() {
+            @Override
+            public Collection<String> vehicleIds() {
+                return List.of("vehicle-2", "vehicle-3", "vehicle-4");
+            }
+            
+            @Override
+            public Collection<String> vehicleIds(int maxVehicles) {
+                requestedVehicles.add(maxVehicles);
+                return List.copyOf(vehicleIds()).subList(0, maxVehicles);
+            }
+        };
+        
+        int fetched = warmUp(WARMED_UP_VEHICLES, () -> List.of("vehicle-1"), cappedSource, cappedSource).warmUp();
+        
+        assertEquals(WARMED_UP_VEHICLES, fetched);
+        assertEquals(List.of(WARMED_UP_VEHICLES - 1), requestedVehicles);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void collectionIsReadWithNewQueryLimitedToMaxVehicles() {
+        IgniteBaseDAOMongoImpl<String, IgniteEntity> dao = mock(IgniteBaseDAOMongoImpl.class);
+        List<IgniteQuery> queries = new ArrayList<>();
+        when(dao.find(any())).thenReturn(List.of(mock(IgniteEntity.class), mock(IgniteEntity.class)));
+        VehicleProfileWarmUpSource source = VehicleProfileWarmUpSource.fromCollection(dao, () -> {
+            IgniteQuery query = mock(IgniteQuery.class);
+            queries.add(query);
+            return query;
+        }, entity -> "vehicle-" + queries.size());
+        
+        assertEquals(List.of("vehicle-1"), source.vehicleIds(1));
+        assertEquals(List.of("vehicle-2"), source.vehicleIds(1));
+        
+        assertNotSame(queries.get(0), queries.get(1));
+        verify(queries.get(0)).setPageNumber(1);
+        verify(queries.get(0)).setPageSize(1);
+    }
+}